@@ -0,0 +1,72 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BaseKinesisAppender.append 벤치마크 (애플리케이션 쓰레드가 부담하는 비용)
+ * - layout, 인코딩, partition key, ring buffer hand-off 까지 포함
+ * - 전송 쓰레드 / aggregation / 압축은 뒤에서 돌고, 따라가지 못하면 ring buffer 가 차서 생산자가 기다림
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppenderBenchmark {
+
+    @Param({"false", "true"})
+    public boolean aggregation;
+
+    @Param({"none", "gzip"})
+    public String compression;
+
+    private BenchmarkAppender appender;
+    private ILoggingEvent[] events;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = BenchmarkFixtures.context();
+        events = BenchmarkFixtures.events(context);
+        appender = BenchmarkFixtures.appender(context, aggregation, compression, "random");
+    }
+
+    @TearDown
+    public void tearDown() {
+        appender.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void append_1thread(EventCursor cursor) {
+        appender.doAppend(cursor.next(events));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void append_4threads(EventCursor cursor) {
+        appender.doAppend(cursor.next(events));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void append_16threads(EventCursor cursor) {
+        appender.doAppend(cursor.next(events));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.client.builder.ExecutorFactory;
+import com.amazonaws.services.kinesis.AmazonKinesis;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.example.kinesislogger.logback.BaseKinesisAppender;
+import com.example.kinesislogger.logback.partition.PartitionKey;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 벤치마크용 appender
+ * - Kinesis 를 호출하지 않고 PutRecords 배치를 바로 성공 처리함 (entry / 버퍼는 풀로 반납)
+ * - 그 외 경로 (layout, 인코딩, partition key, ring buffer, 전송 쓰레드, aggregation, 압축) 는 실제 appender 와 같음
+ * - 시작 벤치마크용으로 연결 (TLS handshake) 비용과 DescribeStream 응답 지연을 흉내낼 수 있음 (기본값 0)
+ */
+public class BenchmarkAppender extends BaseKinesisAppender<ILoggingEvent, AmazonKinesis> {
+
+    private final LongAdder acknowledged = new LongAdder();
+    private final AtomicBoolean connected = new AtomicBoolean();
+    private volatile long connectMillis;
+    private volatile long describeMillis;
+
+    /**
+     * 아무것도 하지 않는 client (shutdown 등 호출만 받음)
+     */
+    @Override
+    protected AmazonKinesis createClient(AWSCredentialsProvider credentials, ClientConfiguration configuration,
+                                         ExecutorFactory threadFactory) {
+        return (AmazonKinesis) Proxy.newProxyInstance(AmazonKinesis.class.getClassLoader(),
+                new Class<?>[]{AmazonKinesis.class}, (proxy, method, args) -> null);
+    }
+
+    @Override
+    protected void validateStreamName(AmazonKinesis client, String streamName) {
+        connect();
+        sleep(describeMillis);
+    }
+
+    @Override
+    protected void shutdownClient(AmazonKinesis client) {
+    }
+
+    @Override
+    protected void putRecord(ILoggingEvent event, ByteBuffer data) throws Exception {
+        PartitionKey key = partitionKey(event);
+        addRecord(key.getPartitionKey(), key.getExplicitHashKey(), data);
+    }
+
+    @Override
+    protected void putRecords(List<PutRecordsRequestEntry> entries) {
+        long sentNanos = System.nanoTime();
+        connect();
+        int count = entries.size();
+        for (int i = 0; i < count; i++) {
+            releaseRecord(entries.get(i));
+        }
+        acknowledged.add(count);
+        onRequestCompleted(sentNanos, false);
+    }
+
+    /**
+     * PutRecords 로 전송 완료 처리된 레코드 수
+     *
+     * @return
+     */
+    public long getAcknowledged() {
+        return acknowledged.sum();
+    }
+
+    /**
+     * @param connectMillis 연결이 없을 때 요청이 연결을 맺는 시간 (연결을 맺은 뒤의 요청은 재사용)
+     */
+    public void setConnectMillis(long connectMillis) {
+        this.connectMillis = connectMillis;
+    }
+
+    /**
+     * @param describeMillis DescribeStream 응답 지연
+     */
+    public void setDescribeMillis(long describeMillis) {
+        this.describeMillis = describeMillis;
+    }
+
+    /**
+     * 연결을 맺는 중에 들어온 요청은 각자 새 연결을 맺음 (connection pool 과 같음)
+     */
+    private void connect() {
+        if (!connected.get()) {
+            sleep(connectMillis);
+            connected.set(true);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
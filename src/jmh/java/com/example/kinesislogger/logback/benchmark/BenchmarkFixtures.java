@@ -0,0 +1,102 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.LayoutBase;
+import com.example.kinesislogger.logback.binary.CborLayout;
+import net.logstash.logback.layout.LogstashLayout;
+
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * 벤치마크 공통 준비물 (logback context, layout, 로그 이벤트, appender)
+ */
+final class BenchmarkFixtures {
+
+    static final int EVENT_COUNT = 1024;
+    static final String STREAM_NAME = "benchmark-stream";
+    static final String CUSTOM_FIELDS = "{\"port\":\"8080\"}";
+
+    private BenchmarkFixtures() {
+    }
+
+    static LoggerContext context() {
+        LoggerContext context = new LoggerContext();
+        context.setName("benchmark");
+        return context;
+    }
+
+    /**
+     * logback-spring.xml 과 같은 LogstashLayout
+     */
+    static LayoutBase<ILoggingEvent> layout(LoggerContext context) {
+        LogstashLayout layout = new LogstashLayout();
+        layout.setContext(context);
+        layout.setTimestampPattern("yyyy-MM-dd' 'HH:mm:ss.SSS");
+        layout.setCustomFields(CUSTOM_FIELDS);
+        layout.start();
+        return layout;
+    }
+
+    /**
+     * 같은 customFields 를 쓰는 CborLayout
+     */
+    static LayoutBase<ILoggingEvent> cborLayout(LoggerContext context) {
+        CborLayout layout = new CborLayout();
+        layout.setContext(context);
+        layout.setCustomFields(CUSTOM_FIELDS);
+        layout.start();
+        return layout;
+    }
+
+    /**
+     * 메시지 길이가 조금씩 다르고 MDC traceId 가 있는 INFO 이벤트
+     */
+    static ILoggingEvent[] events(LoggerContext context) {
+        Logger logger = context.getLogger("com.example.kinesislogger.benchmark");
+        ILoggingEvent[] events = new ILoggingEvent[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO,
+                    "request handled path=/api/orders/{} status={} elapsed={}ms", null,
+                    new Object[]{i, 200, i % 97});
+            event.setMDCPropertyMap(Collections.singletonMap("traceId", UUID.randomUUID().toString()));
+            event.prepareForDeferredProcessing();
+            events[i] = event;
+        }
+        return events;
+    }
+
+    /**
+     * Kinesis 를 호출하지 않는 appender. overflowPolicy=block 이므로 전송이 밀리면 생산자가 기다림
+     */
+    static BenchmarkAppender appender(LoggerContext context, boolean aggregation, String compression,
+                                      String partitionKeyStrategy) {
+        BenchmarkAppender appender = configure(context, aggregation, compression, partitionKeyStrategy);
+        appender.start();
+        return appender;
+    }
+
+    /**
+     * 시작하지 않은 appender
+     */
+    static BenchmarkAppender configure(LoggerContext context, boolean aggregation, String compression,
+                                       String partitionKeyStrategy) {
+        BenchmarkAppender appender = new BenchmarkAppender();
+        appender.setContext(context);
+        appender.setName("benchmark");
+        appender.setAccessKey("benchmark");
+        appender.setSecretKey("benchmark");
+        appender.setRegion("ap-northeast-2");
+        appender.setStreamName(STREAM_NAME);
+        appender.setLayout(layout(context));
+        appender.setAggregationEnabled(aggregation);
+        appender.setCompression(compression);
+        appender.setPartitionKeyStrategy(partitionKeyStrategy);
+        appender.setJmxEnabled(false);
+        return appender;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * append 부터 PutRecords 전송 완료까지의 처리량 벤치마크 (stub client)
+ * - 한번 호출에 BATCH 개를 append 하고, 그때까지 append 된 레코드가 모두 전송 완료될 때까지 기다림
+ * - 결과는 이벤트 단위 (OperationsPerInvocation). aggregation 은 레코드 수가 달라지므로 사용하지 않음
+ * - BATCH 는 maxBatchRecords (500) 의 배수. 여러 쓰레드가 섞이면 마지막 배치는 linger 만큼 기다릴 수 있음
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"none", "gzip"})
+    public String compression;
+
+    private BenchmarkAppender appender;
+    private ILoggingEvent[] events;
+    private final AtomicLong appended = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = BenchmarkFixtures.context();
+        events = BenchmarkFixtures.events(context);
+        appender = BenchmarkFixtures.appender(context, false, compression, "random");
+    }
+
+    @TearDown
+    public void tearDown() {
+        appender.stop();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH)
+    public void publish_1thread(EventCursor cursor) {
+        publish(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OperationsPerInvocation(BATCH)
+    public void publish_4threads(EventCursor cursor) {
+        publish(cursor);
+    }
+
+    @Benchmark
+    @Threads(16)
+    @OperationsPerInvocation(BATCH)
+    public void publish_16threads(EventCursor cursor) {
+        publish(cursor);
+    }
+
+    private void publish(EventCursor cursor) {
+        for (int i = 0; i < BATCH; i++) {
+            appender.doAppend(cursor.next(events));
+        }
+        long target = appended.addAndGet(BATCH);
+        // 버퍼가 가득 차 버린 레코드도 처리된 것으로 봄 (무한 대기 방지)
+        while (appender.getAcknowledged() + appender.getDroppedCount() < target) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 쓰레드별로 미리 만든 이벤트를 돌아가며 사용
+ */
+@State(Scope.Thread)
+public class EventCursor {
+
+    private int index;
+
+    ILoggingEvent next(ILoggingEvent[] events) {
+        index = (index + 1) & (BenchmarkFixtures.EVENT_COUNT - 1);
+        return events[index];
+    }
+}
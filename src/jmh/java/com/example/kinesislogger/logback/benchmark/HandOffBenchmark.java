@@ -0,0 +1,131 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import com.example.kinesislogger.logback.helpers.BlockFastProducerPolicy;
+import com.example.kinesislogger.logback.helpers.NamedThreadFactory;
+import com.example.kinesislogger.logback.helpers.RecordSlot;
+import com.example.kinesislogger.logback.helpers.RingBuffer;
+import com.example.kinesislogger.logback.helpers.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 애플리케이션 쓰레드 -> 전송 쓰레드 hand-off 벤치마크
+ * - ringBuffer : 현재 방식. RingBuffer claim / publish, 단일 소비자가 drain
+ * - executor   : 예전 createConfigAndClient 방식. LinkedBlockingDeque 기반 ThreadPoolExecutor 에 이벤트마다 Runnable 제출
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandOffBenchmark {
+
+    private static final int BUFFER_SIZE = 2048;
+    private static final ByteBuffer DATA = ByteBuffer.allocate(256);
+
+    @Param({"ringBuffer", "executor"})
+    public String queue;
+
+    private RingBuffer<RecordSlot> ring;
+    private Thread consumer;
+    private volatile boolean running;
+    private ThreadPoolExecutor executor;
+    private final Runnable task = () -> {
+    };
+
+    @Setup
+    public void setUp() {
+        if ("ringBuffer".equals(queue)) {
+            ring = new RingBuffer<>(BUFFER_SIZE, RecordSlot::new);
+            running = true;
+            consumer = new NamedThreadFactory("bench-ring-").newThread(this::drain);
+            consumer.start();
+        } else {
+            executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingDeque<>(BUFFER_SIZE), new NamedThreadFactory("bench-executor-"),
+                    new BlockFastProducerPolicy());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        if (consumer != null) {
+            running = false;
+            consumer.join();
+        }
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void handOff_1thread() {
+        handOff();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void handOff_4threads() {
+        handOff();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void handOff_16threads() {
+        handOff();
+    }
+
+    private void handOff() {
+        if (ring == null) {
+            executor.execute(task);
+            return;
+        }
+        long sequence;
+        int idle = 0;
+        while ((sequence = ring.tryNext()) < 0) {
+            idle = WaitStrategy.PARK.idle(idle);
+        }
+        ring.get(sequence).set("pk", DATA);
+        ring.publish(sequence);
+    }
+
+    /**
+     * RecordSender 와 같은 방식으로 publish 된 구간을 한번에 소비
+     */
+    private void drain() {
+        long next = ring.getConsumed() + 1;
+        int idle = 0;
+        while (running) {
+            long available = ring.highestPublished(next);
+            if (available >= next) {
+                for (long sequence = next; sequence <= available; sequence++) {
+                    ring.get(sequence).clear();
+                }
+                ring.release(available);
+                next = available + 1;
+                idle = 0;
+            } else {
+                idle = WaitStrategy.PARK.idle(idle);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.LayoutBase;
+import com.example.kinesislogger.logback.binary.BinaryLayout;
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+import com.example.kinesislogger.logback.helpers.RecordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * layout 과 풀 버퍼 인코딩 벤치마크 (format=json : LogstashLayout, cbor : CborLayout)
+ * - layout : doLayout 만 (cbor 는 JSON 으로 되돌리므로 비교용이 아님)
+ * - encode : append 에서 ring buffer 전까지의 비용 + 버퍼 반납
+ *   (json : doLayout + RecordEncoder.encode, cbor : BinaryLayout.encode)
+ * - 레코드 평균 크기는 setup 에서 출력. 할당량은 -prof gc 로 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LayoutEncodingBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    private LayoutBase<ILoggingEvent> layout;
+    private BinaryLayout<ILoggingEvent> binaryLayout;
+    private RecordEncoder encoder;
+    private ByteBufferPool pool;
+    private ILoggingEvent[] events;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws CharacterCodingException {
+        LoggerContext context = BenchmarkFixtures.context();
+        layout = "cbor".equals(format) ? BenchmarkFixtures.cborLayout(context) : BenchmarkFixtures.layout(context);
+        binaryLayout = layout instanceof BinaryLayout ? (BinaryLayout<ILoggingEvent>) layout : null;
+        events = BenchmarkFixtures.events(context);
+        pool = new ByteBufferPool(32L * 1024 * 1024);
+        encoder = new RecordEncoder("UTF-8", pool);
+
+        long bytes = 0;
+        for (ILoggingEvent event : events) {
+            ByteBuffer buffer = encode(event);
+            bytes += buffer.remaining();
+            pool.release(buffer);
+        }
+        System.out.println("format=" + format + " average record bytes=" + bytes / events.length);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String layout_1thread(EventCursor cursor) {
+        return layout.doLayout(cursor.next(events));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String layout_4threads(EventCursor cursor) {
+        return layout.doLayout(cursor.next(events));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String layout_16threads(EventCursor cursor) {
+        return layout.doLayout(cursor.next(events));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int encode_1thread(EventCursor cursor) throws CharacterCodingException {
+        return encode(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int encode_4threads(EventCursor cursor) throws CharacterCodingException {
+        return encode(cursor);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public int encode_16threads(EventCursor cursor) throws CharacterCodingException {
+        return encode(cursor);
+    }
+
+    private int encode(EventCursor cursor) throws CharacterCodingException {
+        ByteBuffer buffer = encode(cursor.next(events));
+        int length = buffer.remaining();
+        pool.release(buffer);
+        return length;
+    }
+
+    private ByteBuffer encode(ILoggingEvent event) throws CharacterCodingException {
+        return binaryLayout != null ? binaryLayout.encode(event, pool) : encoder.encode(layout.doLayout(event));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.example.kinesislogger.logback.partition.PartitionKey;
+import com.example.kinesislogger.logback.partition.PartitionKeyStrategies;
+import com.example.kinesislogger.logback.partition.PartitionKeyStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * partition key 생성 벤치마크 (random : 쓰레드별 난수, mdc : 이벤트의 MDC traceId)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionKeyBenchmark {
+
+    @Param({"random", "mdc"})
+    public String strategy;
+
+    private PartitionKeyStrategy keyStrategy;
+    private ILoggingEvent[] events;
+
+    @Setup
+    public void setUp() {
+        keyStrategy = PartitionKeyStrategies.of(strategy, "traceId");
+        events = BenchmarkFixtures.events(BenchmarkFixtures.context());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PartitionKey select_1thread(EventCursor cursor) {
+        return keyStrategy.select(cursor.next(events));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PartitionKey select_4threads(EventCursor cursor) {
+        return keyStrategy.select(cursor.next(events));
+    }
+
+    @Benchmark
+    @Threads(16)
+    public PartitionKey select_16threads(EventCursor cursor) {
+        return keyStrategy.select(cursor.next(events));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import com.example.kinesislogger.logback.helpers.BlockFastProducerPolicy;
+import com.example.kinesislogger.logback.helpers.GradientConcurrencyLimiter;
+import com.example.kinesislogger.logback.helpers.NamedThreadFactory;
+import com.example.kinesislogger.logback.helpers.VirtualThreads;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SDK 전송 쓰레드 벤치마크 (virtualThreads 비교)
+ * - platform : 현재 createConfigAndClient 방식. NamedThreadFactory 쓰레드 inFlight 개의 ThreadPoolExecutor
+ * - virtual  : virtualThreads 방식. 요청마다 새 virtual thread, 동시 요청 수는 concurrency limiter (고정 한도) 로 제한
+ * - 요청은 응답을 latencyMillis 동안 기다리는 blocking HTTP 호출로 흉내냄 (전송 쓰레드 1개가 배치마다 제출)
+ * - 처리량 : 초당 끝난 요청 수. 보조 지표 : iteration 중 최대 플랫폼 쓰레드 수, iteration 끝의 heap 사용량
+ * - virtual 은 Java 21 이상에서만 실행됨. 할당량은 -prof gc, 쓰레드 stack (native) 메모리는 -XX:NativeMemoryTracking=summary 로 확인
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SenderExecutorBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"20", "256", "2048"})
+    public int inFlight;
+
+    @Param({"20"})
+    public long latencyMillis;
+
+    private ThreadPoolExecutor pool;
+    private GradientConcurrencyLimiter limiter;
+    private Runnable request;
+
+    @Setup
+    public void setUp() {
+        if ("virtual".equals(executor)) {
+            ThreadFactory threadFactory = VirtualThreads.factory("bench-virtual-");
+            if (threadFactory == null) {
+                throw new IllegalStateException("Virtual threads require Java 21 or later");
+            }
+            pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), threadFactory, new BlockFastProducerPolicy());
+        } else {
+            pool = new ThreadPoolExecutor(inFlight, inFlight, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingDeque<>(inFlight), new NamedThreadFactory("bench-platform-"),
+                    new BlockFastProducerPolicy());
+        }
+        limiter = new GradientConcurrencyLimiter(inFlight, inFlight, inFlight);
+        long latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+        request = () -> {
+            long sentNanos = System.nanoTime();
+            LockSupport.parkNanos(latencyNanos);
+            limiter.release(System.nanoTime() - sentNanos, false);
+        };
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void send(Footprint footprint) {
+        limiter.acquire();
+        pool.execute(request);
+    }
+
+    /**
+     * 쓰레드 수 / heap 보조 지표
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        public long platformThreads;
+        public long heapUsedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            threads.resetPeakThreadCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void sample() {
+            platformThreads = threads.getPeakThreadCount();
+            heapUsedBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.kinesislogger.logback.benchmark;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * appender 시작 벤치마크 (asyncStartup 비교, stub client)
+ * - start : start() 가 logback 초기화를 막는 시간
+ * - firstRecord : start() + 첫 로그 append 부터 PutRecords 전송 완료까지의 시간
+ * - 연결 (TLS handshake) 비용과 DescribeStream 응답 지연은 BenchmarkAppender 로 흉내냄 (connectMillis / describeMillis)
+ * - 매번 새 client 로 시작 (handoff 사용 안함), lingerMillis=1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"true", "false"})
+    public boolean asyncStartup;
+
+    @Param({"50"})
+    public long connectMillis;
+
+    @Param({"0", "200"})
+    public long describeMillis;
+
+    private LoggerContext context;
+    private ILoggingEvent[] events;
+    private BenchmarkAppender appender;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        context = BenchmarkFixtures.context();
+        events = BenchmarkFixtures.events(context);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        appender = BenchmarkFixtures.configure(context, false, "none", "random");
+        appender.setAsyncStartup(asyncStartup);
+        appender.setHandoffTimeoutMillis(0);
+        appender.setLingerMillis(1);
+        appender.setConnectMillis(connectMillis);
+        appender.setDescribeMillis(describeMillis);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        appender.stop();
+    }
+
+    @Benchmark
+    public void start() {
+        appender.start();
+    }
+
+    @Benchmark
+    public void firstRecord() {
+        appender.start();
+        appender.doAppend(events[0]);
+        while (appender.getAcknowledged() == 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -1,18 +1,36 @@
 package com.example.kinesislogger.config;
 
+import com.example.kinesislogger.logback.helpers.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 
+/**
+ * @Async 실행기
+ * - async.virtual-threads=true 이고 Java 21 이상이면 작업마다 virtual thread 를 만듦 (풀 / 대기열 없음)
+ * - 그 외에는 8 개 쓰레드 풀
+ */
+@Slf4j
 @Configuration
 @EnableAsync
 public class AsyncThreadConfiguration {
 
     @Bean
-    public Executor asyncThreadTaskExecutor() {
+    public Executor asyncThreadTaskExecutor(@Value("${async.virtual-threads:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            ThreadFactory threadFactory = VirtualThreads.factory("thread-virtual-");
+            if (threadFactory != null) {
+                return new SimpleAsyncTaskExecutor(threadFactory);
+            }
+            log.warn("Virtual threads require Java 21 or later. Falling back to the async thread pool.");
+        }
         ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
         threadPoolTaskExecutor.setCorePoolSize(8); threadPoolTaskExecutor.setMaxPoolSize(8);
         threadPoolTaskExecutor.setThreadNamePrefix("thread-pool");
@@ -0,0 +1,31 @@
+package com.example.kinesislogger.config;
+
+import ch.qos.logback.classic.LoggerContext;
+import com.example.kinesislogger.logback.metrics.LoggerContextMetricsBinder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * logback 에 설정된 Kinesis appender 의 지표를 Micrometer (actuator) 에 등록
+ * - appender 는 Spring context 보다 먼저 logback 이 만들기 때문에 LoggerContext 에서 찾아서 등록함
+ * - 설정 재로딩으로 다시 만든 appender / 나중에 시작한 route 도 값을 읽을 때 다시 찾음 ({@link LoggerContextMetricsBinder})
+ */
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+public class KinesisAppenderMetricsConfiguration {
+
+    @Bean
+    public MeterBinder kinesisAppenderMetrics() {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext)) {
+            return registry -> {
+            };
+        }
+        return new LoggerContextMetricsBinder((LoggerContext) loggerFactory);
+    }
+}
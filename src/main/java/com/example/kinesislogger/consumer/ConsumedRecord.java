@@ -0,0 +1,70 @@
+package com.example.kinesislogger.consumer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * consumer 가 sink 로 넘기는 로그 레코드 하나
+ * - aggregation 된 Kinesis 레코드는 로그 레코드별로 나뉘고 subSequenceNumber 로 구분 (아니면 0)
+ * - 압축된 레코드는 해제된 data 를 가짐
+ */
+public class ConsumedRecord {
+
+    private final String shardId;
+    private final String sequenceNumber;
+    private final long subSequenceNumber;
+    private final String partitionKey;
+    private final long arrivalTimestamp;
+    private final byte[] data;
+
+    public ConsumedRecord(String shardId, String sequenceNumber, long subSequenceNumber, String partitionKey,
+                          long arrivalTimestamp, byte[] data) {
+        this.shardId = shardId;
+        this.sequenceNumber = sequenceNumber;
+        this.subSequenceNumber = subSequenceNumber;
+        this.partitionKey = partitionKey;
+        this.arrivalTimestamp = arrivalTimestamp;
+        this.data = data;
+    }
+
+    public String getShardId() {
+        return shardId;
+    }
+
+    public String getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public long getSubSequenceNumber() {
+        return subSequenceNumber;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    /**
+     * Kinesis 에 도착한 시각 (epoch millis)
+     *
+     * @return
+     */
+    public long getArrivalTimestamp() {
+        return arrivalTimestamp;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * data 를 UTF-8 문자열로 (끝의 줄바꿈 제외)
+     *
+     * @return
+     */
+    public String getDataAsString() {
+        int length = data.length;
+        while (length > 0 && (data[length - 1] == '\n' || data[length - 1] == '\r')) {
+            length--;
+        }
+        return new String(data, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.kinesislogger.consumer;
+
+import com.amazonaws.services.kinesis.AmazonKinesisAsync;
+import com.amazonaws.services.kinesis.model.GetShardIteratorRequest;
+import com.amazonaws.services.kinesis.model.ListShardsRequest;
+import com.amazonaws.services.kinesis.model.ListShardsResult;
+import com.amazonaws.services.kinesis.model.Shard;
+import com.amazonaws.services.kinesis.model.ShardIteratorType;
+import com.example.kinesislogger.consumer.checkpoint.CheckpointStore;
+import com.example.kinesislogger.consumer.sink.RecordSink;
+import com.example.kinesislogger.logback.helpers.NamedThreadFactory;
+import com.example.kinesislogger.logback.helpers.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * appender 가 보낸 로그를 stream 의 모든 shard 에서 병렬로 읽어 sink 로 전달하는 consumer
+ * - ListShards 로 shard 를 찾고 shardSyncIntervalMillis 마다 다시 확인 (reshard 로 생긴 자식 shard 는 부모를 다 읽은 뒤 시작)
+ * - shard 마다 {@link ShardReader} 하나. reader 들은 threadCount 개의 쓰레드를 나눠 씀
+ * - shard 별 checkpoint 는 {@link CheckpointStore} 에 저장하고 재시작하면 그 다음부터 읽음 (at-least-once)
+ * - 설정은 start 전에 해야 함
+ */
+public class KinesisLogConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(KinesisLogConsumer.class);
+
+    public static final String DEFAULT_INITIAL_POSITION = ShardIteratorType.TRIM_HORIZON.name();
+    public static final int DEFAULT_MAX_RECORDS_PER_POLL = 10000;
+    public static final long DEFAULT_MIN_POLL_INTERVAL_MILLIS = 200;
+    public static final long DEFAULT_MAX_POLL_INTERVAL_MILLIS = 2000;
+    public static final long DEFAULT_SHARD_SYNC_INTERVAL_MILLIS = 60000;
+    public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 1000;
+    public static final int DEFAULT_THREAD_COUNT = 4;
+
+    private final AmazonKinesisAsync client;
+    private final String streamName;
+    private final CheckpointStore checkpointStore;
+    private final RecordSink sink;
+    private final Map<String, ShardReader> readers = new ConcurrentHashMap<>();
+
+    private String initialPosition = DEFAULT_INITIAL_POSITION;
+    private int maxRecordsPerPoll = DEFAULT_MAX_RECORDS_PER_POLL;
+    private long minPollIntervalMillis = DEFAULT_MIN_POLL_INTERVAL_MILLIS;
+    private long maxPollIntervalMillis = DEFAULT_MAX_POLL_INTERVAL_MILLIS;
+    private long shardSyncIntervalMillis = DEFAULT_SHARD_SYNC_INTERVAL_MILLIS;
+    private long retryBackoffMillis = DEFAULT_RETRY_BACKOFF_MILLIS;
+    private int threadCount = DEFAULT_THREAD_COUNT;
+
+    private ScheduledThreadPoolExecutor executor;
+    private volatile boolean running;
+
+    /**
+     * @param client          Kinesis client (stop 해도 shutdown 하지 않음)
+     * @param streamName
+     * @param checkpointStore
+     * @param sink
+     */
+    public KinesisLogConsumer(AmazonKinesisAsync client, String streamName, CheckpointStore checkpointStore,
+                              RecordSink sink) {
+        Validator.validate(client != null, "client must not be null");
+        Validator.validate(streamName != null && !streamName.trim().isEmpty(), "streamName is required");
+        Validator.validate(checkpointStore != null, "checkpointStore must not be null");
+        Validator.validate(sink != null, "sink must not be null");
+        this.client = client;
+        this.streamName = streamName.trim();
+        this.checkpointStore = checkpointStore;
+        this.sink = sink;
+    }
+
+    public synchronized void start() {
+        Validator.validate(executor == null, "consumer already started");
+        executor = new ScheduledThreadPoolExecutor(threadCount,
+                new NamedThreadFactory("kinesis-consumer-" + streamName + "-"));
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.setRemoveOnCancelPolicy(true);
+        running = true;
+        executor.scheduleWithFixedDelay(this::syncShards, 0, shardSyncIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Started consuming {} with {} threads", streamName, threadCount);
+    }
+
+    /**
+     * reader 를 멈추고 진행 중인 sink 쓰기가 끝나기를 기다린 뒤 sink 와 checkpoint 저장소를 닫음
+     *
+     * @param timeoutMillis
+     * @throws InterruptedException
+     */
+    public void stop(long timeoutMillis) throws InterruptedException {
+        ScheduledThreadPoolExecutor stopping;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            stopping = executor;
+        }
+        readers.values().forEach(ShardReader::stop);
+        stopping.shutdown();
+        if (!stopping.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("Shard readers of {} did not stop in {} ms", streamName, timeoutMillis);
+            stopping.shutdownNow();
+        }
+        readers.clear();
+        try {
+            sink.close();
+        } catch (IOException e) {
+            log.warn("Failed to close sink", e);
+        }
+        try {
+            checkpointStore.close();
+        } catch (IOException e) {
+            log.warn("Failed to close checkpoint store", e);
+        }
+        log.info("Stopped consuming {}", streamName);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 지금 읽고 있는 shard
+     *
+     * @return
+     */
+    public Set<String> getReadingShardIds() {
+        return new TreeSet<>(readers.keySet());
+    }
+
+    /**
+     * shard 목록을 다시 읽고 읽을 수 있게 된 shard 의 reader 를 시작
+     */
+    synchronized void syncShards() {
+        if (!running) {
+            return;
+        }
+        try {
+            List<Shard> shards = listShards();
+            for (Shard shard : ShardLineage.readyShards(shards, this::isFinished)) {
+                String shardId = shard.getShardId();
+                if (!readers.containsKey(shardId)) {
+                    ShardReader reader = new ShardReader(this, shardId, ShardLineage.hasListedParent(shard, shards),
+                            executor);
+                    readers.put(shardId, reader);
+                    reader.start();
+                    log.info("Started reading {} of {}", shardId, streamName);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to sync shards of {}", streamName, e);
+        }
+    }
+
+    /**
+     * 닫힌 shard 를 다 읽었으면 자식 shard 를 바로 시작
+     *
+     * @param shardId
+     */
+    void onShardEnd(String shardId) {
+        readers.remove(shardId);
+        if (running) {
+            try {
+                executor.execute(this::syncShards);
+            } catch (RejectedExecutionException e) {
+                // stop 중
+            }
+        }
+    }
+
+    /**
+     * checkpoint 다음 위치 (없으면 자식 shard 는 처음, 아니면 initialPosition) 의 shard iterator
+     *
+     * @param shardId
+     * @param sequenceNumber 이번 실행에서 마지막으로 전달한 sequence number (없으면 null)
+     * @param child          부모 shard 가 있는지 여부
+     * @return
+     * @throws IOException
+     */
+    String shardIterator(String shardId, String sequenceNumber, boolean child) throws IOException {
+        String position = sequenceNumber != null ? sequenceNumber : checkpointStore.get(shardId);
+        GetShardIteratorRequest request = new GetShardIteratorRequest()
+                .withStreamName(streamName)
+                .withShardId(shardId);
+        if (position != null) {
+            request.withShardIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER.name())
+                    .withStartingSequenceNumber(position);
+        } else {
+            request.withShardIteratorType(child ? ShardIteratorType.TRIM_HORIZON.name() : initialPosition);
+        }
+        return client.getShardIterator(request).getShardIterator();
+    }
+
+    private List<Shard> listShards() {
+        List<Shard> shards = new ArrayList<>();
+        ListShardsRequest request = new ListShardsRequest().withStreamName(streamName);
+        while (true) {
+            ListShardsResult result = client.listShards(request);
+            shards.addAll(result.getShards());
+            if (result.getNextToken() == null) {
+                return shards;
+            }
+            // NextToken 과 StreamName 은 같이 보낼 수 없음
+            request = new ListShardsRequest().withNextToken(result.getNextToken());
+        }
+    }
+
+    private boolean isFinished(String shardId) {
+        try {
+            return CheckpointStore.SHARD_END.equals(checkpointStore.get(shardId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    AmazonKinesisAsync getClient() {
+        return client;
+    }
+
+    CheckpointStore getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    RecordSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Returns configured initial position of shards without checkpoint
+     *
+     * @return
+     */
+    public String getInitialPosition() {
+        return initialPosition;
+    }
+
+    /**
+     * Configures initial position of shards without checkpoint (TRIM_HORIZON or LATEST)
+     *
+     * @param initialPosition
+     */
+    public void setInitialPosition(String initialPosition) {
+        Validator.validate(ShardIteratorType.TRIM_HORIZON.name().equals(initialPosition)
+                || ShardIteratorType.LATEST.name().equals(initialPosition),
+                "initialPosition must be TRIM_HORIZON or LATEST");
+        this.initialPosition = initialPosition;
+    }
+
+    /**
+     * Returns configured max records of one GetRecords request
+     *
+     * @return
+     */
+    public int getMaxRecordsPerPoll() {
+        return maxRecordsPerPoll;
+    }
+
+    /**
+     * Configures max records of one GetRecords request
+     *
+     * @param maxRecordsPerPoll
+     */
+    public void setMaxRecordsPerPoll(int maxRecordsPerPoll) {
+        Validator.validate(maxRecordsPerPoll > 0 && maxRecordsPerPoll <= 10000, "maxRecordsPerPoll must be 1~10000");
+        this.maxRecordsPerPoll = maxRecordsPerPoll;
+    }
+
+    /**
+     * Returns configured min interval between GetRecords requests of a shard
+     *
+     * @return
+     */
+    public long getMinPollIntervalMillis() {
+        return minPollIntervalMillis;
+    }
+
+    /**
+     * Configures min interval between GetRecords requests of a shard (Kinesis allows 5 per second)
+     *
+     * @param minPollIntervalMillis
+     */
+    public void setMinPollIntervalMillis(long minPollIntervalMillis) {
+        Validator.validate(minPollIntervalMillis >= 0, "minPollIntervalMillis must be >=0");
+        this.minPollIntervalMillis = minPollIntervalMillis;
+    }
+
+    /**
+     * Returns configured max interval between GetRecords requests of an idle shard
+     *
+     * @return
+     */
+    public long getMaxPollIntervalMillis() {
+        return maxPollIntervalMillis;
+    }
+
+    /**
+     * Configures max interval between GetRecords requests of an idle shard
+     *
+     * @param maxPollIntervalMillis
+     */
+    public void setMaxPollIntervalMillis(long maxPollIntervalMillis) {
+        Validator.validate(maxPollIntervalMillis > 0, "maxPollIntervalMillis must be >0");
+        this.maxPollIntervalMillis = maxPollIntervalMillis;
+    }
+
+    /**
+     * Returns configured interval of listing shards
+     *
+     * @return
+     */
+    public long getShardSyncIntervalMillis() {
+        return shardSyncIntervalMillis;
+    }
+
+    /**
+     * Configures interval of listing shards
+     *
+     * @param shardSyncIntervalMillis
+     */
+    public void setShardSyncIntervalMillis(long shardSyncIntervalMillis) {
+        Validator.validate(shardSyncIntervalMillis > 0, "shardSyncIntervalMillis must be >0");
+        this.shardSyncIntervalMillis = shardSyncIntervalMillis;
+    }
+
+    /**
+     * Returns configured delay before retrying a failed request or sink write
+     *
+     * @return
+     */
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    /**
+     * Configures delay before retrying a failed request or sink write
+     *
+     * @param retryBackoffMillis
+     */
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        Validator.validate(retryBackoffMillis > 0, "retryBackoffMillis must be >0");
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    /**
+     * Returns configured number of threads shared by shard readers
+     *
+     * @return
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Configures number of threads shared by shard readers
+     *
+     * @param threadCount
+     */
+    public void setThreadCount(int threadCount) {
+        Validator.validate(threadCount > 0, "threadCount must be >0");
+        this.threadCount = threadCount;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.kinesislogger.consumer;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.kinesis.AmazonKinesisAsync;
+import com.amazonaws.services.kinesis.AmazonKinesisAsyncClientBuilder;
+import com.example.kinesislogger.consumer.checkpoint.FileCheckpointStore;
+import com.example.kinesislogger.consumer.sink.ElasticsearchBulkSink;
+import com.example.kinesislogger.consumer.sink.RecordSink;
+import com.example.kinesislogger.consumer.sink.RotatingFileSink;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * consumer 단독 실행 (logstash 대신 사용)
+ * <pre>
+ * java -cp kinesis-logger.jar -Dloader.main=com.example.kinesislogger.consumer.KinesisLogConsumerMain \
+ *     org.springframework.boot.loader.PropertiesLauncher consumer.properties
+ * </pre>
+ * - stream / 인증 설정은 appender 와 같은 aws.kinesis.* 를 사용하고, consumer 설정은 aws.kinesis.consumer.*
+ * - 종료 (SIGTERM) 하면 진행 중인 배치를 마치고 checkpoint 한 뒤 끝남
+ */
+public class KinesisLogConsumerMain {
+
+    private static final String PREFIX = "aws.kinesis.consumer.";
+    private static final long STOP_TIMEOUT_MILLIS = 30000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: KinesisLogConsumerMain <properties file>");
+            System.exit(1);
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+            properties.load(in);
+        }
+
+        AmazonKinesisAsync client = AmazonKinesisAsyncClientBuilder.standard()
+                .withRegion(required(properties, "aws.kinesis.region"))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(
+                        required(properties, "aws.kinesis.accessKey"), required(properties, "aws.kinesis.secretKey"))))
+                .build();
+        KinesisLogConsumer consumer = new KinesisLogConsumer(client, required(properties, "aws.kinesis.streamName"),
+                new FileCheckpointStore(Paths.get(properties.getProperty(PREFIX + "checkpointFile",
+                        "kinesis-consumer.checkpoint"))),
+                createSink(properties));
+        consumer.setInitialPosition(properties.getProperty(PREFIX + "initialPosition",
+                KinesisLogConsumer.DEFAULT_INITIAL_POSITION));
+        consumer.setMaxRecordsPerPoll(Integer.parseInt(properties.getProperty(PREFIX + "maxRecordsPerPoll",
+                String.valueOf(KinesisLogConsumer.DEFAULT_MAX_RECORDS_PER_POLL))));
+        consumer.setMaxPollIntervalMillis(Long.parseLong(properties.getProperty(PREFIX + "maxPollIntervalMillis",
+                String.valueOf(KinesisLogConsumer.DEFAULT_MAX_POLL_INTERVAL_MILLIS))));
+        consumer.setThreadCount(Integer.parseInt(properties.getProperty(PREFIX + "threadCount",
+                String.valueOf(KinesisLogConsumer.DEFAULT_THREAD_COUNT))));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                consumer.stop(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                client.shutdown();
+            }
+        }, "kinesis-consumer-shutdown"));
+        consumer.start();
+    }
+
+    /**
+     * aws.kinesis.consumer.sink 가 elasticsearch 이면 bulk 색인, 아니면 (file) 로컬 파일
+     */
+    private static RecordSink createSink(Properties properties) throws IOException {
+        String sink = properties.getProperty(PREFIX + "sink", "file");
+        if ("elasticsearch".equalsIgnoreCase(sink)) {
+            return new ElasticsearchBulkSink(
+                    properties.getProperty(PREFIX + "elasticsearch.url", "http://localhost:9200"),
+                    properties.getProperty(PREFIX + "elasticsearch.indexPrefix", "kinesis-logs"));
+        }
+        return new RotatingFileSink(Paths.get(properties.getProperty(PREFIX + "file.directory", "logs")),
+                properties.getProperty(PREFIX + "file.prefix", "kinesis"),
+                Long.parseLong(properties.getProperty(PREFIX + "file.maxBytes", String.valueOf(100L * 1024 * 1024))));
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(key + " is required");
+        }
+        return value.trim();
+    }
+}
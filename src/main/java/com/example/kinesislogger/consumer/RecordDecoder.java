@@ -0,0 +1,191 @@
+package com.example.kinesislogger.consumer;
+
+import com.amazonaws.services.kinesis.model.Record;
+import com.example.kinesislogger.logback.binary.CborLayout;
+import com.example.kinesislogger.logback.binary.CborLogDecoder;
+import com.example.kinesislogger.logback.compression.RecordCompressor;
+import com.example.kinesislogger.logback.helpers.RecordAggregator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * appender 가 보낸 Kinesis 레코드를 로그 레코드로 되돌림
+ * - compression 헤더가 있으면 압축 해제 ({@link RecordCompressor#decompress})
+ * - KPL aggregation 포맷 (magic + protobuf + MD5) 이면 로그 레코드별로 나눔. MD5 가 맞지 않으면 그대로 하나의 레코드로 취급
+ * - CBOR 레코드 ({@link CborLayout}) 는 JSON 으로 바꿈 (sink 는 항상 JSON / 문자열 레코드를 받음)
+ * - shard 쓰레드마다 하나씩 사용 (thread-safe 하지 않음)
+ */
+public class RecordDecoder {
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    private final MessageDigest md5 = md5();
+
+    /**
+     * @param shardId
+     * @param record
+     * @return 로그 레코드 (aggregation 되지 않았으면 하나)
+     */
+    public List<ConsumedRecord> decode(String shardId, Record record) {
+        ByteBuffer data = record.getData().duplicate();
+        if (RecordCompressor.isCompressed(data)) {
+            data = RecordCompressor.decompress(data);
+        }
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        long arrival = record.getApproximateArrivalTimestamp() == null
+                ? 0L : record.getApproximateArrivalTimestamp().getTime();
+
+        if (isAggregated(bytes)) {
+            List<ConsumedRecord> records = deaggregate(shardId, record, arrival, bytes);
+            if (records != null) {
+                return records;
+            }
+        }
+        return Collections.singletonList(new ConsumedRecord(shardId, record.getSequenceNumber(), 0,
+                record.getPartitionKey(), arrival, toJson(bytes)));
+    }
+
+    /**
+     * CBOR 레코드면 JSON (UTF-8) 으로 바꿈. 형식이 맞지 않으면 그대로 반환
+     *
+     * @param bytes
+     * @return
+     */
+    private static byte[] toJson(byte[] bytes) {
+        if (!CborLogDecoder.isCbor(bytes)) {
+            return bytes;
+        }
+        try {
+            return CborLogDecoder.toJson(bytes).getBytes(StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return bytes;
+        }
+    }
+
+    private boolean isAggregated(byte[] bytes) {
+        byte[] magic = RecordAggregator.KPL_MAGIC;
+        if (bytes.length < magic.length + RecordAggregator.DIGEST_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (bytes[i] != magic[i]) {
+                return false;
+            }
+        }
+        int protobufEnd = bytes.length - RecordAggregator.DIGEST_LENGTH;
+        md5.reset();
+        md5.update(bytes, magic.length, protobufEnd - magic.length);
+        return Arrays.equals(md5.digest(), Arrays.copyOfRange(bytes, protobufEnd, bytes.length));
+    }
+
+    /**
+     * AggregatedRecord protobuf 를 레코드별로 나눔
+     *
+     * @return 포맷이 맞지 않으면 null
+     */
+    private List<ConsumedRecord> deaggregate(String shardId, Record record, long arrival, byte[] bytes) {
+        ByteBuffer protobuf = ByteBuffer.wrap(bytes, RecordAggregator.KPL_MAGIC.length,
+                bytes.length - RecordAggregator.KPL_MAGIC.length - RecordAggregator.DIGEST_LENGTH);
+        try {
+            List<String> partitionKeys = new ArrayList<>();
+            List<Integer> keyIndexes = new ArrayList<>();
+            List<byte[]> entryData = new ArrayList<>();
+            while (protobuf.hasRemaining()) {
+                long tag = readVarint(protobuf);
+                int field = (int) (tag >>> 3);
+                int wireType = (int) (tag & 7);
+                if (field == 1 && wireType == WIRE_LENGTH_DELIMITED) {
+                    partitionKeys.add(new String(readBytes(protobuf), StandardCharsets.UTF_8));
+                } else if (field == 3 && wireType == WIRE_LENGTH_DELIMITED) {
+                    ByteBuffer entry = ByteBuffer.wrap(readBytes(protobuf));
+                    int keyIndex = 0;
+                    byte[] value = new byte[0];
+                    while (entry.hasRemaining()) {
+                        long entryTag = readVarint(entry);
+                        int entryField = (int) (entryTag >>> 3);
+                        int entryWireType = (int) (entryTag & 7);
+                        if (entryField == 1 && entryWireType == WIRE_VARINT) {
+                            keyIndex = (int) readVarint(entry);
+                        } else if (entryField == 3 && entryWireType == WIRE_LENGTH_DELIMITED) {
+                            value = readBytes(entry);
+                        } else {
+                            skip(entry, entryWireType);
+                        }
+                    }
+                    keyIndexes.add(keyIndex);
+                    entryData.add(value);
+                } else {
+                    skip(protobuf, wireType);
+                }
+            }
+            List<ConsumedRecord> records = new ArrayList<>(keyIndexes.size());
+            for (int i = 0; i < keyIndexes.size(); i++) {
+                int keyIndex = keyIndexes.get(i);
+                String partitionKey = keyIndex < partitionKeys.size()
+                        ? partitionKeys.get(keyIndex) : record.getPartitionKey();
+                records.add(new ConsumedRecord(shardId, record.getSequenceNumber(), i, partitionKey, arrival,
+                        toJson(entryData.get(i))));
+            }
+            return records;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] value = new byte[(int) readVarint(buffer)];
+        buffer.get(value);
+        return value;
+    }
+
+    private static void skip(ByteBuffer buffer, int wireType) {
+        switch (wireType) {
+            case WIRE_VARINT:
+                readVarint(buffer);
+                break;
+            case WIRE_FIXED64:
+                buffer.position(buffer.position() + 8);
+                break;
+            case WIRE_LENGTH_DELIMITED:
+                int length = (int) readVarint(buffer);
+                buffer.position(buffer.position() + length);
+                break;
+            case WIRE_FIXED32:
+                buffer.position(buffer.position() + 4);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported wire type " + wireType);
+        }
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.kinesislogger.consumer;
+
+import com.amazonaws.services.kinesis.model.Shard;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * reshard (split / merge) 로 생긴 shard 의 부모 / 자식 관계
+ * - 자식 shard 는 부모 shard 를 끝까지 읽은 뒤에 읽어야 같은 partition key 의 순서가 유지됨
+ * - 보존 기간이 지나 ListShards 에 나오지 않는 부모는 이미 끝난 것으로 봄
+ */
+final class ShardLineage {
+
+    private ShardLineage() {
+    }
+
+    /**
+     * 지금 읽기 시작해도 되는 shard
+     *
+     * @param shards   ListShards 결과
+     * @param finished 끝까지 읽은 (SHARD_END checkpoint) shard 인지 여부
+     * @return 끝나지 않았고 부모가 모두 끝난 shard
+     */
+    static List<Shard> readyShards(List<Shard> shards, Predicate<String> finished) {
+        Set<String> listed = new HashSet<>();
+        for (Shard shard : shards) {
+            listed.add(shard.getShardId());
+        }
+        List<Shard> ready = new ArrayList<>();
+        for (Shard shard : shards) {
+            if (!finished.test(shard.getShardId())
+                    && parentDone(shard.getParentShardId(), listed, finished)
+                    && parentDone(shard.getAdjacentParentShardId(), listed, finished)) {
+                ready.add(shard);
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * 부모가 ListShards 에 나오는 shard 인지 여부 (자식 shard 는 initialPosition 과 상관없이 처음부터 읽어야 함)
+     *
+     * @param shard
+     * @param shards ListShards 결과
+     * @return
+     */
+    static boolean hasListedParent(Shard shard, List<Shard> shards) {
+        for (Shard each : shards) {
+            String id = each.getShardId();
+            if (id.equals(shard.getParentShardId()) || id.equals(shard.getAdjacentParentShardId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean parentDone(String parentShardId, Set<String> listed, Predicate<String> finished) {
+        return parentShardId == null || !listed.contains(parentShardId) || finished.test(parentShardId);
+    }
+}
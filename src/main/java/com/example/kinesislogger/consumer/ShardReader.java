@@ -0,0 +1,234 @@
+package com.example.kinesislogger.consumer;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.kinesis.model.ExpiredIteratorException;
+import com.amazonaws.services.kinesis.model.GetRecordsRequest;
+import com.amazonaws.services.kinesis.model.GetRecordsResult;
+import com.amazonaws.services.kinesis.model.Record;
+import com.example.kinesislogger.consumer.checkpoint.CheckpointStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * shard 하나를 읽는 reader
+ * - 쓰레드를 점유하지 않음. GetRecords 응답이 오면 consumer 의 쓰레드 풀에서 다음 단계를 실행 (단계는 항상 하나씩 순서대로 실행)
+ * - 밀려 있으면 (maxRecordsPerPoll 만큼 받았거나 millisBehindLatest > 0) sink 에 쓰는 동안 다음 GetRecords 를 미리 요청 (prefetch)
+ * - 따라잡았으면 빈 응답마다 polling 간격을 두배로 (minPollIntervalMillis ~ maxPollIntervalMillis)
+ * - sink 에 쓴 뒤에 checkpoint. 다음 iterator 가 없으면 (reshard 로 닫힌 shard) SHARD_END 를 checkpoint 하고 consumer 에 알림
+ */
+final class ShardReader {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardReader.class);
+
+    private final KinesisLogConsumer consumer;
+    private final String shardId;
+    private final boolean child;
+    private final ScheduledExecutorService executor;
+    private final RecordDecoder decoder = new RecordDecoder();
+
+    private volatile boolean running = true;
+    private String iterator;
+    private String lastSequenceNumber;
+    private long lastFetchNanos;
+    private long idleDelayMillis;
+
+    /**
+     * @param consumer
+     * @param shardId
+     * @param child    부모 shard 가 있는지 여부 (checkpoint 가 없으면 처음부터 읽음)
+     * @param executor
+     */
+    ShardReader(KinesisLogConsumer consumer, String shardId, boolean child, ScheduledExecutorService executor) {
+        this.consumer = consumer;
+        this.shardId = shardId;
+        this.child = child;
+        this.executor = executor;
+        this.lastFetchNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(consumer.getMinPollIntervalMillis());
+    }
+
+    void start() {
+        submit(this::resolve, 0);
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    /**
+     * checkpoint (없으면 시작 위치) 로 shard iterator 를 받고 읽기 시작
+     */
+    private void resolve() {
+        if (!running) {
+            return;
+        }
+        try {
+            receive(fetch(consumer.shardIterator(shardId, lastSequenceNumber, child), 0));
+        } catch (Exception e) {
+            log.warn("Failed to get shard iterator of {}, retrying", shardId, e);
+            submit(this::resolve, consumer.getRetryBackoffMillis());
+        }
+    }
+
+    /**
+     * 초당 GetRecords 한도를 넘지 않도록 이전 요청에서 minPollIntervalMillis 이상 지난 뒤에 요청
+     */
+    private CompletableFuture<GetRecordsResult> fetch(String shardIterator, long delayMillis) {
+        iterator = shardIterator;
+        long sinceLastFetch = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastFetchNanos);
+        long delay = Math.max(delayMillis, consumer.getMinPollIntervalMillis() - sinceLastFetch);
+        CompletableFuture<GetRecordsResult> future = new CompletableFuture<>();
+        GetRecordsRequest request = new GetRecordsRequest()
+                .withShardIterator(shardIterator)
+                .withLimit(consumer.getMaxRecordsPerPoll());
+        try {
+            executor.schedule(() -> getRecords(request, future), Math.max(0, delay), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void getRecords(GetRecordsRequest request, CompletableFuture<GetRecordsResult> future) {
+        lastFetchNanos = System.nanoTime();
+        try {
+            consumer.getClient().getRecordsAsync(request, new AsyncHandler<GetRecordsRequest, GetRecordsResult>() {
+                @Override
+                public void onError(Exception exception) {
+                    future.completeExceptionally(exception);
+                }
+
+                @Override
+                public void onSuccess(GetRecordsRequest request, GetRecordsResult result) {
+                    future.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void receive(CompletableFuture<GetRecordsResult> pending) {
+        pending.whenCompleteAsync(this::onResult, executor);
+    }
+
+    private void onResult(GetRecordsResult result, Throwable error) {
+        if (!running) {
+            return;
+        }
+        if (error != null) {
+            onError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            return;
+        }
+        List<Record> records = result.getRecords() == null ? Collections.emptyList() : result.getRecords();
+        String nextIterator = result.getNextShardIterator();
+        long millisBehindLatest = result.getMillisBehindLatest() == null ? 0 : result.getMillisBehindLatest();
+        boolean behind = records.size() >= consumer.getMaxRecordsPerPoll() || millisBehindLatest > 0;
+
+        CompletableFuture<GetRecordsResult> prefetched = behind && nextIterator != null ? fetch(nextIterator, 0) : null;
+        if (!records.isEmpty() && !deliver(records)) {
+            return;
+        }
+        if (nextIterator == null) {
+            finish();
+        } else if (prefetched != null) {
+            idleDelayMillis = 0;
+            receive(prefetched);
+        } else {
+            idleDelayMillis = records.isEmpty()
+                    ? Math.min(Math.max(idleDelayMillis * 2, consumer.getMinPollIntervalMillis()),
+                    consumer.getMaxPollIntervalMillis())
+                    : 0;
+            receive(fetch(nextIterator, idleDelayMillis));
+        }
+    }
+
+    /**
+     * sink 에 쓰고 checkpoint. sink 가 실패하면 멈출 때까지 retryBackoffMillis 간격으로 다시 씀
+     *
+     * @return 멈춰서 쓰지 못했으면 false
+     */
+    private boolean deliver(List<Record> records) {
+        List<ConsumedRecord> consumed = new ArrayList<>(records.size());
+        for (Record record : records) {
+            try {
+                consumed.addAll(decoder.decode(shardId, record));
+            } catch (RuntimeException e) {
+                log.warn("Skipping undecodable record {} of {}", record.getSequenceNumber(), shardId, e);
+            }
+        }
+        while (!consumed.isEmpty()) {
+            try {
+                consumer.getSink().write(consumed);
+                break;
+            } catch (Exception e) {
+                log.warn("Failed to write {} records of {}, retrying", consumed.size(), shardId, e);
+                if (!sleep(consumer.getRetryBackoffMillis())) {
+                    return false;
+                }
+            }
+        }
+        lastSequenceNumber = records.get(records.size() - 1).getSequenceNumber();
+        checkpoint(lastSequenceNumber);
+        return true;
+    }
+
+    private void finish() {
+        running = false;
+        checkpoint(CheckpointStore.SHARD_END);
+        log.info("Finished reading closed shard {}", shardId);
+        consumer.onShardEnd(shardId);
+    }
+
+    private void onError(Throwable error) {
+        if (error instanceof ExpiredIteratorException) {
+            log.info("Shard iterator of {} expired, resuming from checkpoint", shardId);
+            submit(this::resolve, 0);
+        } else {
+            log.warn("Failed to get records of {}, retrying", shardId, error);
+            String retryIterator = iterator;
+            submit(() -> {
+                if (running) {
+                    receive(fetch(retryIterator, 0));
+                }
+            }, consumer.getRetryBackoffMillis());
+        }
+    }
+
+    /**
+     * checkpoint 실패는 로그만 남김 (재시작하면 이전 checkpoint 부터 다시 읽음)
+     */
+    private void checkpoint(String sequenceNumber) {
+        try {
+            consumer.getCheckpointStore().checkpoint(shardId, sequenceNumber);
+        } catch (Exception e) {
+            log.warn("Failed to checkpoint {} of {}", sequenceNumber, shardId, e);
+        }
+    }
+
+    private void submit(Runnable task, long delayMillis) {
+        try {
+            executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            running = false;
+        }
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
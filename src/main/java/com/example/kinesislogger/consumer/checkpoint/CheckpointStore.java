@@ -0,0 +1,30 @@
+package com.example.kinesislogger.consumer.checkpoint;
+
+import java.io.IOException;
+
+/**
+ * shard 별로 sink 에 전달을 마친 마지막 sequence number 저장소
+ * - shard 를 끝까지 읽으면 (reshard 로 닫힌 shard) {@link #SHARD_END} 를 저장하고, 자식 shard 는 그 뒤에 읽기 시작함
+ * - 여러 shard 쓰레드에서 동시에 호출됨
+ */
+public interface CheckpointStore {
+
+    String SHARD_END = "SHARD_END";
+
+    /**
+     * @param shardId
+     * @return 저장된 값이 없으면 null
+     * @throws IOException
+     */
+    String get(String shardId) throws IOException;
+
+    /**
+     * @param shardId
+     * @param sequenceNumber sink 에 전달을 마친 마지막 sequence number 또는 SHARD_END
+     * @throws IOException
+     */
+    void checkpoint(String shardId, String sequenceNumber) throws IOException;
+
+    default void close() throws IOException {
+    }
+}
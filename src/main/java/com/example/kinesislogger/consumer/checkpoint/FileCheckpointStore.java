@@ -0,0 +1,51 @@
+package com.example.kinesislogger.consumer.checkpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * 로컬 파일 checkpoint (shardId=sequenceNumber 형식의 properties)
+ * - checkpoint 마다 임시 파일에 쓴 뒤 rename 으로 교체 (쓰다가 죽어도 이전 checkpoint 가 남음)
+ * - 한 파일은 consumer 프로세스 하나만 사용해야 함
+ */
+public class FileCheckpointStore implements CheckpointStore {
+
+    private final Path file;
+    private final Path temp;
+    private final Properties checkpoints = new Properties();
+
+    /**
+     * @param file checkpoint 파일 (없으면 새로 만듦)
+     * @throws IOException
+     */
+    public FileCheckpointStore(Path file) throws IOException {
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                checkpoints.load(in);
+            }
+        } else if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+    }
+
+    @Override
+    public synchronized String get(String shardId) {
+        return checkpoints.getProperty(shardId);
+    }
+
+    @Override
+    public synchronized void checkpoint(String shardId, String sequenceNumber) throws IOException {
+        checkpoints.setProperty(shardId, sequenceNumber);
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            checkpoints.store(out, null);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.kinesislogger.consumer.checkpoint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메모리 checkpoint (재시작하면 initialPosition 부터 다시 읽음. 테스트 / 일회성 조회용)
+ */
+public class InMemoryCheckpointStore implements CheckpointStore {
+
+    private final Map<String, String> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public String get(String shardId) {
+        return checkpoints.get(shardId);
+    }
+
+    @Override
+    public void checkpoint(String shardId, String sequenceNumber) {
+        checkpoints.put(shardId, sequenceNumber);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.kinesislogger.consumer.sink;
+
+import com.example.kinesislogger.consumer.ConsumedRecord;
+import com.example.kinesislogger.logback.helpers.JsonStrings;
+import com.example.kinesislogger.logback.helpers.Validator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 배치를 Elasticsearch bulk API (/_bulk) 요청 하나로 색인하는 sink (logstash kinesis input + elasticsearch output 대체)
+ * - index 는 {indexPrefix}-yyyy.MM.dd (Kinesis 도착 시각, UTC)
+ * - 문서 id 는 sequenceNumber-subSequenceNumber. 재전송 (at-least-once) 해도 문서가 중복되지 않음
+ * - JSON 이 아닌 레코드는 {"message": ...} 로 감쌈
+ * - HTTP 오류나 응답의 errors 가 true 이면 IOException (consumer 가 배치 전체를 다시 보냄)
+ */
+public class ElasticsearchBulkSink implements RecordSink {
+
+    public static final int DEFAULT_TIMEOUT_MILLIS = 30000;
+
+    private static final DateTimeFormatter INDEX_DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd")
+            .withZone(ZoneOffset.UTC);
+
+    private final URL bulkUrl;
+    private final String indexPrefix;
+    private final int timeoutMillis;
+
+    /**
+     * @param url         Elasticsearch 주소 (예: http://elasticsearch:9200)
+     * @param indexPrefix index 이름 앞부분
+     * @throws IOException
+     */
+    public ElasticsearchBulkSink(String url, String indexPrefix) throws IOException {
+        this(url, indexPrefix, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public ElasticsearchBulkSink(String url, String indexPrefix, int timeoutMillis) throws IOException {
+        Validator.validate(!Validator.isBlank(url), "url is required");
+        Validator.validate(!Validator.isBlank(indexPrefix), "indexPrefix is required");
+        Validator.validate(timeoutMillis > 0, "timeoutMillis must be >0");
+        this.bulkUrl = new URL(url.endsWith("/") ? url + "_bulk" : url + "/_bulk");
+        this.indexPrefix = indexPrefix;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void write(List<ConsumedRecord> records) throws IOException {
+        byte[] body = bulkBody(records).getBytes(StandardCharsets.UTF_8);
+        HttpURLConnection connection = (HttpURLConnection) bulkUrl.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setRequestProperty("Content-Type", "application/x-ndjson");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            int status = connection.getResponseCode();
+            String response = read(status >= 300 ? connection.getErrorStream() : connection.getInputStream());
+            if (status >= 300) {
+                throw new IOException("Bulk request failed with HTTP " + status + ": " + response);
+            }
+            if (response.contains("\"errors\":true")) {
+                throw new IOException("Bulk request has failed items: " + abbreviate(response));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * bulk 요청 본문 (NDJSON. action 줄 + 문서 줄, 마지막 줄바꿈 필수)
+     *
+     * @param records
+     * @return
+     */
+    String bulkBody(List<ConsumedRecord> records) {
+        StringBuilder body = new StringBuilder(records.size() * 512);
+        for (ConsumedRecord record : records) {
+            body.append("{\"index\":{\"_index\":");
+            JsonStrings.appendQuoted(body,
+                    indexPrefix + "-" + INDEX_DATE.format(Instant.ofEpochMilli(record.getArrivalTimestamp())));
+            body.append(",\"_type\":\"_doc\",\"_id\":");
+            JsonStrings.appendQuoted(body, record.getSequenceNumber() + "-" + record.getSubSequenceNumber());
+            body.append("}}\n");
+
+            String document = record.getDataAsString().trim();
+            if (document.startsWith("{") && document.endsWith("}") && document.indexOf('\n') < 0) {
+                body.append(document);
+            } else {
+                body.append("{\"message\":");
+                JsonStrings.appendQuoted(body, document);
+                body.append('}');
+            }
+            body.append('\n');
+        }
+        return body.toString();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String abbreviate(String response) {
+        return response.length() > 1000 ? response.substring(0, 1000) + "..." : response;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.kinesislogger.consumer.sink;
+
+import com.example.kinesislogger.consumer.ConsumedRecord;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * consumer 가 읽은 레코드를 받는 곳
+ * - shard 하나의 레코드는 순서대로, 배치 (GetRecords 한번) 단위로 전달됨
+ * - 여러 shard 쓰레드에서 동시에 호출됨
+ * - 예외를 던지면 같은 배치를 다시 전달함 (성공한 뒤에 checkpoint. at-least-once)
+ */
+public interface RecordSink {
+
+    void write(List<ConsumedRecord> records) throws IOException;
+
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.kinesislogger.consumer.sink;
+
+import com.example.kinesislogger.consumer.ConsumedRecord;
+import com.example.kinesislogger.logback.helpers.Validator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 레코드를 한 줄씩 로컬 파일에 쓰는 sink
+ * - 파일이 maxFileBytes 를 넘으면 새 파일 ({prefix}-yyyyMMdd-HHmmss-SSS.log) 로 바꿈
+ * - 배치마다 flush (checkpoint 는 flush 한 뒤에 저장됨)
+ */
+public class RotatingFileSink implements RecordSink {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+    private final String prefix;
+    private final long maxFileBytes;
+
+    private OutputStream out;
+    private long fileBytes;
+
+    /**
+     * @param directory    파일을 만들 디렉토리 (없으면 만듦)
+     * @param prefix       파일 이름 앞부분
+     * @param maxFileBytes 파일 하나의 최대 크기 (넘는 배치를 쓴 뒤에 바꿈)
+     * @throws IOException
+     */
+    public RotatingFileSink(Path directory, String prefix, long maxFileBytes) throws IOException {
+        Validator.validate(!Validator.isBlank(prefix), "prefix is required");
+        Validator.validate(maxFileBytes > 0, "maxFileBytes must be >0");
+        this.directory = Files.createDirectories(directory);
+        this.prefix = prefix;
+        this.maxFileBytes = maxFileBytes;
+    }
+
+    @Override
+    public synchronized void write(List<ConsumedRecord> records) throws IOException {
+        if (out == null || fileBytes >= maxFileBytes) {
+            rotate();
+        }
+        for (ConsumedRecord record : records) {
+            byte[] data = record.getData();
+            int length = data.length;
+            while (length > 0 && (data[length - 1] == '\n' || data[length - 1] == '\r')) {
+                length--;
+            }
+            out.write(data, 0, length);
+            out.write('\n');
+            fileBytes += length + 1;
+        }
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void rotate() throws IOException {
+        close();
+        Path file = directory.resolve(prefix + "-" + LocalDateTime.now().format(FILE_TIME) + ".log");
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                BUFFER_SIZE);
+        fileBytes = Files.size(file);
+    }
+}
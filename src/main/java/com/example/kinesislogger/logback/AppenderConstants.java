@@ -8,9 +8,42 @@ public class AppenderConstants {
     // Default values
     public static final String DEFAULT_ENCODING = "UTF-8";
     public static final int DEFAULT_MAX_RETRY_COUNT = 3;
+    public static final int DEFAULT_MAX_RECORD_RETRIES = 10;
     public static final int DEFAULT_BUFFER_SIZE = 2000;
     public static final int DEFAULT_THREAD_COUNT = 20;
+    public static final int DEFAULT_MIN_CONCURRENCY = 2;
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+    public static final int DEFAULT_LAYOUT_THREAD_COUNT = 2;
+    public static final int DEFAULT_EVENT_LOOP_THREADS = 2;
+    public static final int DEFAULT_HANDOFF_TIMEOUT_MILLIS = 0;
+    public static final int DEFAULT_SUPPRESSION_WINDOW_MILLIS = 10000;
+    public static final int DEFAULT_SUPPRESSION_MAX_KEYS = 1024;
+    public static final int DEFAULT_STACK_TRACE_WINDOW_MILLIS = 300000;
+    public static final int DEFAULT_STACK_TRACE_CACHE_SIZE = 1024;
     public static final int DEFAULT_SHUTDOWN_TIMEOUT_SEC = 30;
     public static final int DEFAULT_THREAD_KEEP_ALIVE_SEC = 30;
+    public static final int DEFAULT_MAX_BATCH_RECORDS = 500;
+    public static final int DEFAULT_MAX_BATCH_BYTES = 5 * 1024 * 1024;
+    public static final int DEFAULT_LINGER_MILLIS = 100;
+    public static final int DEFAULT_MAX_AGGREGATED_BYTES = 50 * 1024;
+    public static final String DEFAULT_COMPRESSION = "none";
+    public static final int DEFAULT_COMPRESSION_LEVEL = -1;
+    public static final int DEFAULT_COMPRESSION_MIN_BYTES = 1024;
+    public static final int DEFAULT_SPILL_SEGMENT_BYTES = 64 * 1024 * 1024;
+    public static final long DEFAULT_MAX_SPILL_BYTES = 1024L * 1024 * 1024;
+    public static final String DEFAULT_PARTITION_KEY_STRATEGY = "random";
+    public static final int DEFAULT_SHARD_MAP_REFRESH_SEC = 60;
+    public static final int DEFAULT_OVERFLOW_TIMEOUT_MILLIS = 1000;
+    public static final int DEFAULT_OVERFLOW_SAMPLE_PERCENT = 50;
+    public static final long DEFAULT_BUFFER_POOL_BYTES = 32L * 1024 * 1024;
     public static final String DEFAULT_REGION = Regions.AP_NORTHEAST_2.getName();
+
+    // Kinesis PutRecords limits
+    public static final int MAX_BATCH_RECORDS = 500;
+    public static final int MAX_BATCH_BYTES = 5 * 1024 * 1024;
+    public static final int MAX_RECORD_BYTES = 1024 * 1024;
+
+    // Firehose PutRecordBatch limits
+    public static final int FIREHOSE_MAX_BATCH_BYTES = 4 * 1024 * 1024;
+    public static final int FIREHOSE_MAX_RECORD_BYTES = 1000 * 1024;
 }
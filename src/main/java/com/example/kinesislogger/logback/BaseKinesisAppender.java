@@ -1,33 +1,126 @@
 package com.example.kinesislogger.logback;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.AppenderBase;
 import ch.qos.logback.core.LayoutBase;
 import ch.qos.logback.core.spi.DeferredProcessingAware;
+import com.amazonaws.AmazonWebServiceRequest;
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.ExecutorFactory;
+import com.amazonaws.handlers.HandlerContextKey;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.RegionUtils;
 import com.amazonaws.retry.PredefinedRetryPolicies;
 import com.amazonaws.retry.RetryPolicy;
-import com.amazonaws.services.kinesis.AmazonKinesis;
+import com.amazonaws.services.kinesis.model.LimitExceededException;
+import com.amazonaws.services.kinesis.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.example.kinesislogger.logback.binary.BinaryLayout;
+import com.example.kinesislogger.logback.compression.CompressionCodec;
+import com.example.kinesislogger.logback.compression.CompressionCodecs;
+import com.example.kinesislogger.logback.compression.RecordCompressor;
+import com.example.kinesislogger.logback.helpers.AimdRateLimiter;
 import com.example.kinesislogger.logback.helpers.BlockFastProducerPolicy;
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+import com.example.kinesislogger.logback.helpers.ClientHandoff;
+import com.example.kinesislogger.logback.helpers.GradientConcurrencyLimiter;
+import com.example.kinesislogger.logback.helpers.LayoutWorkerPool;
 import com.example.kinesislogger.logback.helpers.NamedThreadFactory;
+import com.example.kinesislogger.logback.helpers.OverflowController;
+import com.example.kinesislogger.logback.helpers.OverflowPolicy;
+import com.example.kinesislogger.logback.helpers.RecordAggregator;
+import com.example.kinesislogger.logback.helpers.RecordBatcher;
+import com.example.kinesislogger.logback.helpers.RecordEncoder;
+import com.example.kinesislogger.logback.helpers.RecordEntry;
+import com.example.kinesislogger.logback.helpers.RecordEntryPool;
+import com.example.kinesislogger.logback.helpers.RecordPacker;
+import com.example.kinesislogger.logback.helpers.RecordSender;
+import com.example.kinesislogger.logback.helpers.RecordSlot;
+import com.example.kinesislogger.logback.helpers.RingBuffer;
+import com.example.kinesislogger.logback.helpers.SharedClientRegistry;
 import com.example.kinesislogger.logback.helpers.Validator;
+import com.example.kinesislogger.logback.helpers.VirtualThreads;
+import com.example.kinesislogger.logback.helpers.WaitStrategy;
+import com.example.kinesislogger.logback.metrics.KinesisAppenderMetrics;
+import com.example.kinesislogger.logback.partition.PartitionKey;
+import com.example.kinesislogger.logback.partition.PartitionKeyStrategies;
+import com.example.kinesislogger.logback.partition.PartitionKeyStrategy;
+import com.example.kinesislogger.logback.partition.RandomPartitionKeyStrategy;
+import com.example.kinesislogger.logback.partition.ShardMapCache;
+import com.example.kinesislogger.logback.spill.DiskSpillBuffer;
+import com.example.kinesislogger.logback.stacktrace.FingerprintedEvent;
+import com.example.kinesislogger.logback.stacktrace.StackTraceFingerprinter;
+import com.example.kinesislogger.logback.suppression.RepeatSuppressor;
 import org.slf4j.MDC;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 
-public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware, Client extends AmazonKinesis>
+public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware, Client>
         extends AppenderBase<Event> {
 
+    // 전송량 제한을 사용하는 요청 표시 (markRateLimited)
+    private static final HandlerContextKey<Boolean> RATE_LIMITED = new HandlerContextKey<>("RateLimited");
+
     private String encoding = AppenderConstants.DEFAULT_ENCODING;
     private int maxRetries = AppenderConstants.DEFAULT_MAX_RETRY_COUNT;
+    private int maxRecordRetries = AppenderConstants.DEFAULT_MAX_RECORD_RETRIES;
     private int bufferSize = AppenderConstants.DEFAULT_BUFFER_SIZE;
     private int threadCount = AppenderConstants.DEFAULT_THREAD_COUNT;
+    private boolean adaptiveConcurrency = true;
+    private int minConcurrency = AppenderConstants.DEFAULT_MIN_CONCURRENCY;
+    private int maxConcurrency = AppenderConstants.DEFAULT_MAX_CONCURRENCY;
+    private boolean virtualThreads = false;
     private int shutdownTimeout = AppenderConstants.DEFAULT_SHUTDOWN_TIMEOUT_SEC;
+    private int maxBatchRecords = AppenderConstants.DEFAULT_MAX_BATCH_RECORDS;
+    private int maxBatchBytes = AppenderConstants.DEFAULT_MAX_BATCH_BYTES;
+    private int lingerMillis = AppenderConstants.DEFAULT_LINGER_MILLIS;
+    private boolean aggregationEnabled = false;
+    private int maxAggregatedBytes = AppenderConstants.DEFAULT_MAX_AGGREGATED_BYTES;
+    private WaitStrategy waitStrategy = WaitStrategy.PARK;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private int overflowTimeoutMillis = AppenderConstants.DEFAULT_OVERFLOW_TIMEOUT_MILLIS;
+    private Level overflowLevel = Level.WARN;
+    private int overflowSamplePercent = AppenderConstants.DEFAULT_OVERFLOW_SAMPLE_PERCENT;
+    private String compression = AppenderConstants.DEFAULT_COMPRESSION;
+    private int compressionLevel = AppenderConstants.DEFAULT_COMPRESSION_LEVEL;
+    private int compressionMinBytes = AppenderConstants.DEFAULT_COMPRESSION_MIN_BYTES;
+    private String spillDirectory;
+    private int spillSegmentBytes = AppenderConstants.DEFAULT_SPILL_SEGMENT_BYTES;
+    private long maxSpillBytes = AppenderConstants.DEFAULT_MAX_SPILL_BYTES;
+    private String partitionKeyStrategy = AppenderConstants.DEFAULT_PARTITION_KEY_STRATEGY;
+    private String partitionKeyField;
+    private int shardMapRefreshSeconds = AppenderConstants.DEFAULT_SHARD_MAP_REFRESH_SEC;
+    private boolean rateLimitEnabled = false;
+    private boolean jmxEnabled = true;
+    private boolean deferredLayout = false;
+    private int layoutThreadCount = AppenderConstants.DEFAULT_LAYOUT_THREAD_COUNT;
+    private int handoffTimeoutMillis = AppenderConstants.DEFAULT_HANDOFF_TIMEOUT_MILLIS;
+    private boolean asyncStartup = true;
+    private boolean shareClient = false;
+    private int suppressionThreshold = 0;
+    private int suppressionWindowMillis = AppenderConstants.DEFAULT_SUPPRESSION_WINDOW_MILLIS;
+    private int suppressionMaxKeys = AppenderConstants.DEFAULT_SUPPRESSION_MAX_KEYS;
+    private boolean stackTraceFingerprinting = false;
+    private int stackTraceWindowMillis = AppenderConstants.DEFAULT_STACK_TRACE_WINDOW_MILLIS;
+    private int stackTraceCacheSize = AppenderConstants.DEFAULT_STACK_TRACE_CACHE_SIZE;
+    private boolean stackTraceDictionary = false;
 
     private String accessKey;
     private String secretKey;
@@ -37,15 +130,45 @@ public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware,
 
     private boolean initializationFailed = false;
     private LayoutBase<Event> layout;
+    private BinaryLayout<Event> binaryLayout;
     private Client client;
+    private Client sharedClient;
+    private SharedClientRegistry.Shared<Client> clientLease;
+    // client 의 실제 HTTP 연결 수 (이어받거나 같이 사용하는 client 는 만든 appender 의 설정)
+    private int clientMaxConnections;
+    private String clientLeaseKey;
     private AWSCredentialsProvider credentials;
+    private ThreadPoolExecutor senderExecutor;
+    private ByteBufferPool bufferPool;
+    private RecordEncoder recordEncoder;
+    private RecordEntryPool entryPool;
+    private RingBuffer<RecordSlot> ringBuffer;
+    private OverflowController overflow;
+    private DiskSpillBuffer spill;
+    private PartitionKeyStrategy keyStrategy;
+    private ShardMapCache shardMap;
+    private AimdRateLimiter rateLimiter;
+    private GradientConcurrencyLimiter concurrencyLimiter;
+    private RecordSender sender;
+    private Thread senderThread;
+    private Thread startupThread;
+    private LayoutWorkerPool<Event> layoutWorkers;
+    private RepeatSuppressor suppressor;
+    private StackTraceFingerprinter fingerprinter;
+    private final KinesisAppenderMetrics metrics = new KinesisAppenderMetrics();
+    private ObjectName metricsObjectName;
 
 
     /**
      * 로깅 start
+     * <p>
+     * - asyncStartup 이면 stream 체크, credentials 확인, SDK 쓰레드 / 연결 warm-up 은 startup 쓰레드에서 하고 바로 반환
+     *   (그 동안 로그는 ring buffer 에 쌓이고 전송 쓰레드가 보냄)
      */
     @Override
     public void start() {
+        long startNanos = System.nanoTime();
+        metrics.onStarting(startNanos);
 
 //        if (isLayoutIsnull() || isStreamName()) {
 //            return;
@@ -56,21 +179,149 @@ public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware,
         //credentials
         credentials = new AWSStaticCredentialsProvider(new BasicAWSCredentials(getAccessKey(), getSecretKey()));
 
-        //create kinesis client
-        createConfigAndClient();
+        //create kinesis client (재설정이면 이전 설정의 client 를 이어받음, shareClient 이면 설정이 같은 appender 와 같이 사용)
+        String checkedStreamName = claimParkedClient();
+        if (checkedStreamName == null) {
+            if (shareClient && sharedClient == null) {
+                acquireSharedClient();
+            } else {
+                createConfigAndClient();
+            }
+        }
+
+        //kinesis stream 체크 + warm-up (이어받은 client 로 이미 체크한 stream 이면 체크 생략)
+        boolean validate = checkedStreamName == null || !checkedStreamName.equals(streamName);
+        if (asyncStartup) {
+            startupThread = new NamedThreadFactory(getClass().getSimpleName() + "[" + streamName + "]-startup-")
+                    .newThread(() -> warmUp(validate));
+            startupThread.setDaemon(true);
+            startupThread.start();
+        } else {
+            warmUp(validate);
+        }
+
+        //partition key 전략, shard map, 전송량 제한
+        createPartitionKeyStrategy();
+
+        //ring buffer + 배치 전송 쓰레드
+        createSender();
 
-        //kinesis stream 체크
-        validateStreamName(client, streamName);
+        //반복 로그 억제
+        createSuppressor();
+
+        //stack trace fingerprint
+        fingerprinter = stackTraceFingerprinting
+                ? new StackTraceFingerprinter(stackTraceWindowMillis, stackTraceCacheSize, stackTraceDictionary) : null;
+
+        //지표 (JMX)
+        registerMetrics();
 
         super.start();
+        metrics.onStarted(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 첫 전송 전에 할 일 (asyncStartup 이면 startup 쓰레드에서 실행)
+     * <p>
+     * - credentials 확인, SDK 쓰레드 미리 생성
+     * - stream 체크 (DescribeStream). 첫 요청이 TLS 연결을 맺어 connection pool 에 남기므로 첫 PutRecords 는 연결을 재사용
+     *
+     * @param validate stream 체크 여부
+     */
+    private void warmUp(boolean validate) {
+        long startNanos = System.nanoTime();
+        try {
+            credentials.getCredentials();
+        } catch (Exception e) {
+            addError("Failed to resolve AWS credentials for appender: " + name, e);
+        }
+        if (senderExecutor != null) {
+            senderExecutor.prestartAllCoreThreads();
+        }
+        if (validate) {
+            validateStreamName(client, streamName);
+        }
+        metrics.onWarmedUp(System.nanoTime() - startNanos);
     }
 
     /**
      * 로깅 종료
+     * <p>
+     * - 남아있는 배치를 전송하고 shutdownTimeout 동안 전송 완료를 기다림
+     * - handoffTimeoutMillis 가 0 이 아니면 client 를 종료하지 않고 맡겨둠 (재설정으로 start 하는 appender 가 이어받음)
+     * - shareClient 이면 이 appender 가 보낸 요청만 기다리고 client 를 반납. 마지막으로 반납한 appender 가 client 를 종료 (또는 맡겨둠)
      */
     @Override
     public void stop() {
-        client.shutdown();
+        super.stop();
+
+        if (startupThread != null && startupThread.isAlive()) {
+            startupThread.interrupt();
+        }
+
+        if (suppressor != null) {
+            suppressor.stop();
+        }
+        if (layoutWorkers != null && !layoutWorkers.shutdown(TimeUnit.SECONDS.toMillis(shutdownTimeout))) {
+            addWarn("Timed out while laying out buffered log entries for Kinesis stream: " + streamName);
+        }
+        if (sender != null) {
+            sender.shutdown();
+            try {
+                senderThread.join(TimeUnit.SECONDS.toMillis(shutdownTimeout));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (spill != null) {
+            if (spill.hasPending()) {
+                addInfo(spill.getPendingRecords() + " log entries left in " + spill.getDirectory()
+                        + ". They will be published on next start.");
+            }
+            spill.close();
+        }
+        boolean ownsClient = sharedClient == null && client != null;
+        if (clientLease != null) {
+            if (!awaitRequests()) {
+                addWarn("Timed out while publishing buffered records to Kinesis stream: " + streamName);
+            }
+            ownsClient = SharedClientRegistry.release(getContext(), clientLeaseKey, clientLease, clientConcurrency());
+            clientLease = null;
+        }
+        boolean parking = handoffTimeoutMillis > 0 && ownsClient && senderExecutor != null;
+        if (parking) {
+            ThreadPoolExecutor executor = senderExecutor;
+            if (!awaitIdle(() -> executor.getActiveCount() == 0 && executor.getQueue().isEmpty(),
+                    TimeUnit.SECONDS.toMillis(shutdownTimeout))) {
+                addWarn("Timed out while publishing buffered records to Kinesis stream: " + streamName);
+            }
+        } else if (ownsClient && senderExecutor != null) {
+            senderExecutor.shutdown();
+            try {
+                if (!senderExecutor.awaitTermination(shutdownTimeout, TimeUnit.SECONDS)) {
+                    addWarn("Timed out while publishing buffered records to Kinesis stream: " + streamName);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (!usesSenderThreads() && !awaitRequests()) {
+            addWarn("Timed out while publishing buffered records to Kinesis stream: " + streamName);
+        }
+        unregisterMetrics();
+        if (shardMap != null) {
+            shardMap.stop();
+        }
+        if (parking) {
+            Client parkedClient = client;
+            ThreadPoolExecutor parkedExecutor = senderExecutor;
+            ClientHandoff.park(handoffKey(), parkedClient, parkedExecutor, clientMaxConnections,
+                    initializationFailed ? null : streamName, handoffTimeoutMillis, () -> {
+                        shutdownClient(parkedClient);
+                        parkedExecutor.shutdown();
+                    });
+        } else if (ownsClient) {
+            shutdownClient(client);
+        }
     }
 
     /**
@@ -85,15 +336,126 @@ public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware,
                     + " exists and is active. Failed to initialize kinesis logback appender: " + name);
             return;
         }
+        // 같은 로그가 반복되면 버리고 window 가 끝날 때 요약 이벤트 하나로 보냄
+        if (suppressor != null && !suppressor.admit(logEvent)) {
+            metrics.onRecordSuppressed();
+            return;
+        }
+        // 버퍼가 밀린 경우 layout 전에 버림 (disk spill 을 사용하면 디스크에 기록하므로 버리지 않음)
+        if (spill == null && !overflow.admit(logEvent, queueDepth(), queueCapacity())) {
+            reportDropped();
+            return;
+        }
+        if (layoutWorkers != null) {
+            deferLayout(logEvent);
+            return;
+        }
+        layoutAndPut(logEvent);
+    }
+
+    /**
+     * layout 후 레코드로 추가 (deferredLayout 이면 layout worker 쓰레드에서 호출)
+     *
+     * @param logEvent
+     */
+    private void layoutAndPut(Event logEvent) {
         try {
-            String message = this.layout.doLayout(logEvent);
-            putMessage(message);
+            if (binaryLayout != null) {
+                putRecord(logEvent, binaryLayout.encode(fingerprint(logEvent), bufferPool));
+                return;
+            }
+            String message = this.layout.doLayout(fingerprint(logEvent));
+            putMessage(logEvent, message);
 
         } catch (Exception e) {
             addError("Failed to schedule log entry for publishing into Kinesis stream: " + streamName, e);
         }
     }
 
+    /**
+     * 예외가 있으면 stack trace fingerprint 를 붙인 이벤트로 바꿈. dictionary 레코드가 필요하면 먼저 보냄
+     *
+     * @param logEvent
+     * @return layout 할 이벤트
+     * @throws Exception
+     */
+    @SuppressWarnings("unchecked")
+    private Event fingerprint(Event logEvent) throws Exception {
+        if (fingerprinter == null || !(logEvent instanceof ILoggingEvent)) {
+            return logEvent;
+        }
+        FingerprintedEvent fingerprinted = fingerprinter.fingerprint((ILoggingEvent) logEvent);
+        if (fingerprinted == null) {
+            return logEvent;
+        }
+        String dictionaryRecord = fingerprinter.dictionaryRecord(fingerprinted);
+        if (dictionaryRecord != null) {
+            putMessage(logEvent, dictionaryRecord);
+        }
+        return (Event) fingerprinted;
+    }
+
+    /**
+     * 반복 로그 억제의 요약 이벤트를 보냄 (억제 / overflow 확인 없이 layout)
+     *
+     * @param summary
+     */
+    @SuppressWarnings("unchecked")
+    private void appendSummary(ILoggingEvent summary) {
+        Event event = (Event) summary;
+        if (layoutWorkers != null) {
+            deferLayout(event);
+        } else {
+            layoutAndPut(event);
+        }
+    }
+
+    /**
+     * 이벤트를 layout worker 에 넘김. queue 가 가득 찬 경우 overflowPolicy 를 따름
+     * <p>
+     * - disk spill 을 사용하면 기다리지 않고 호출한 쓰레드에서 layout 후 기록
+     *
+     * @param logEvent
+     */
+    private void deferLayout(Event logEvent) {
+        // MDC, 호출 쓰레드 이름, 메시지 포맷을 지금 값으로 고정
+        logEvent.prepareForDeferredProcessing();
+        if (layoutWorkers.offer(logEvent)) {
+            return;
+        }
+        if (spill != null) {
+            layoutAndPut(logEvent);
+            return;
+        }
+        if (overflow.getPolicy() == OverflowPolicy.DROP_OLDEST && layoutWorkers.evictOldest()) {
+            overflow.drop();
+        }
+        long deadline = System.nanoTime() + overflow.getTimeoutNanos();
+        int idle = 0;
+        while (!layoutWorkers.offer(logEvent)) {
+            if (!isStarted() || System.nanoTime() - deadline >= 0) {
+                overflow.drop();
+                reportDropped();
+                return;
+            }
+            idle = waitStrategy.idle(idle);
+        }
+    }
+
+    /**
+     * 전송을 기다리는 레코드 수 (재시도를 기다리는 레코드, deferredLayout 이면 layout 전인 이벤트 포함)
+     * - 재시도 레코드가 쌓이면 새 이벤트를 overflow 정책으로 처리해서 전체 backlog 를 버퍼 크기 안으로 제한함
+     */
+    private int queueDepth() {
+        int depth = ringBuffer.size() + sender.getPendingRetries();
+        return layoutWorkers == null ? depth : depth + layoutWorkers.size();
+    }
+
+    private int queueCapacity() {
+        return layoutWorkers == null
+                ? ringBuffer.getBufferSize() : ringBuffer.getBufferSize() + layoutWorkers.getCapacity();
+    }
+
     public String getAccessKey() {
         return accessKey;
     }
@@ -181,6 +543,29 @@ public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware,
         this.maxRetries = maxRetries;
     }
 
+    /**
+     * Returns configured maximum number of times a record is put back into
+     * the batch after PutRecords failed for it.
+     *
+     * @return configured maximum number of retries per record
+     */
+    public int getMaxRecordRetries() {
+        return maxRecordRetries;
+    }
+
+    /**
+     * Configures maximum number of times a record is put back into the batch
+     * after PutRecords failed for it (failed records in the response, or the
+     * whole request throttled while rate limiting). Records that fail more
+     * often are dropped and counted as dropped records.
+     *
+     * @param maxRecordRetries the number of retries per record, 0 to never retry
+     */
+    public void setMaxRecordRetries(int maxRecordRetries) {
+        Validator.validate(maxRecordRetries >= 0, "maxRecordRetries must be >=0");
+        this.maxRecordRetries = maxRecordRetries;
+    }
+
     /**
      * Returns configured buffer size for this appender. This implementation would
      * buffer these many log events in memory while parallel threads are trying to
@@ -195,7 +580,8 @@ public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware,
     /**
      * Configures buffer size for this appender. This implementation would buffer
      * these many log events in memory while parallel threads are trying to
-     * publish them to Kinesis.
+     * publish them to Kinesis. The buffer is preallocated and its size is rounded
+     * up to the next power of two.
      *
      * @param bufferSize buffer size for this appender
      */
@@ -206,7 +592,8 @@ public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware,
 
     /**
      * Returns configured number of parallel thread count that would work on
-     * publishing buffered events to Kinesis
+     * publishing buffered events to Kinesis (the initial concurrency limit when
+     * adaptiveConcurrency is enabled)
      *
      * @return configured number of parallel thread count that would work on
      * publishing buffered events to Kinesis
@@ -226,6 +613,93 @@ public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware,
         this.threadCount = parallelCount;
     }
 
+    /**
+     * Returns whether the number of concurrent PutRecords requests adapts to
+     * the observed request latency.
+     *
+     * @return true if the concurrency limit is adaptive
+     */
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
+    /**
+     * Configures whether the number of concurrent PutRecords requests adapts
+     * to the observed request latency, between minConcurrency and
+     * maxConcurrency and starting at threadCount. The limit grows while
+     * requests are not slowing down and shrinks when latency rises above its
+     * long term average or requests are throttled. SDK threads are created on
+     * demand up to maxConcurrency and idle threads above minConcurrency are
+     * released. If disabled, threadCount requests are sent concurrently.
+     *
+     * @param adaptiveConcurrency true to adapt the concurrency limit
+     */
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+    }
+
+    /**
+     * Returns configured lower bound of the adaptive concurrency limit.
+     *
+     * @return configured minimum number of concurrent requests
+     */
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    /**
+     * Configures lower bound of the adaptive concurrency limit. This many SDK
+     * threads are kept while idle.
+     *
+     * @param minConcurrency minimum number of concurrent requests
+     */
+    public void setMinConcurrency(int minConcurrency) {
+        Validator.validate(minConcurrency > 0, "minConcurrency must be >0");
+        this.minConcurrency = minConcurrency;
+    }
+
+    /**
+     * Returns configured upper bound of the adaptive concurrency limit.
+     *
+     * @return configured maximum number of concurrent requests
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Configures upper bound of the adaptive concurrency limit, which is also
+     * the maximum number of SDK threads and HTTP connections.
+     *
+     * @param maxConcurrency maximum number of concurrent requests
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        Validator.validate(maxConcurrency > 0, "maxConcurrency must be >0");
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Returns whether PutRecords calls run on virtual threads.
+     *
+     * @return true if virtual threads are requested
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Configures whether PutRecords calls run on virtual threads (Java 21+).
+     * Every request gets a new virtual thread instead of a pooled platform
+     * thread, and the number of concurrent requests is bounded by the
+     * concurrency limit only (adaptive, or threadCount). Falls back to the
+     * platform thread pool with a warning on older JVMs.
+     *
+     * @param virtualThreads true to send on virtual threads
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     /**
      * Returns configured timeout between shutdown and clean up. When this
      * appender is asked to close/stop, it would wait for at most these many
@@ -254,120 +728,1574 @@ public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware,
     }
 
     /**
-     * stream이 존재 하는지, active되어 있는지 체크 (추상 메소드)
+     * Returns configured maximum number of records sent in a single PutRecords
+     * request.
+     *
+     * @return configured maximum number of records per batch
      */
-    protected abstract void validateStreamName(AmazonKinesis client, String streamName);
+    public int getMaxBatchRecords() {
+        return maxBatchRecords;
+    }
 
     /**
-     * client생성 (추상 메소드)
+     * Configures maximum number of records sent in a single PutRecords request.
+     * Kinesis accepts at most 500 records per request.
      *
-     * @param credentials
-     * @param configuration
-     * @param threadFactory
-     * @return
+     * @param maxBatchRecords maximum number of records per batch
      */
-    protected abstract Client createClient(AWSCredentialsProvider credentials, ClientConfiguration configuration,
-                                           ExecutorFactory threadFactory);
+    public void setMaxBatchRecords(int maxBatchRecords) {
+        Validator.validate(maxBatchRecords > 0 && maxBatchRecords <= AppenderConstants.MAX_BATCH_RECORDS,
+                "maxBatchRecords must be >0 and <=" + AppenderConstants.MAX_BATCH_RECORDS);
+        this.maxBatchRecords = maxBatchRecords;
+    }
 
-    protected void setInitializationFailed(boolean initializationFailed) {
-        this.initializationFailed = initializationFailed;
+    /**
+     * Returns configured maximum size in bytes (data and partition keys) of a
+     * single PutRecords request.
+     *
+     * @return configured maximum bytes per batch
+     */
+    public int getMaxBatchBytes() {
+        return maxBatchBytes;
     }
 
-    protected AmazonKinesis getClient() {
-        return client;
+    /**
+     * Configures maximum size in bytes (data and partition keys) of a single
+     * PutRecords request. Kinesis accepts at most 5 MB per request.
+     *
+     * @param maxBatchBytes maximum bytes per batch
+     */
+    public void setMaxBatchBytes(int maxBatchBytes) {
+        Validator.validate(maxBatchBytes > 0 && maxBatchBytes <= AppenderConstants.MAX_BATCH_BYTES,
+                "maxBatchBytes must be >0 and <=" + AppenderConstants.MAX_BATCH_BYTES);
+        this.maxBatchBytes = maxBatchBytes;
     }
 
+    /**
+     * Returns configured time in milliseconds a partially filled batch waits for
+     * more records before it is sent.
+     *
+     * @return configured linger time in milliseconds
+     */
+    public int getLingerMillis() {
+        return lingerMillis;
+    }
 
     /**
-     * 메시지
+     * Configures time in milliseconds a partially filled batch waits for more
+     * records before it is sent.
      *
-     * @param message
-     * @throws Exception
+     * @param lingerMillis linger time in milliseconds
      */
-    protected abstract void putMessage(String message) throws Exception;
+    public void setLingerMillis(int lingerMillis) {
+        Validator.validate(lingerMillis > 0, "lingerMillis must be >0");
+        this.lingerMillis = lingerMillis;
+    }
 
     /**
-     * logback layout null 체크
+     * Returns whether log records are packed into KPL aggregated records before
+     * they are batched.
      *
-     * @return
+     * @return true if KPL aggregation is enabled
      */
-    private boolean isLayoutIsnull() {
-        return checkNullTarget(layout, "Invalid configuration - No layout for appender: ");
+    public boolean isAggregationEnabled() {
+        return aggregationEnabled;
     }
 
     /**
-     * streamName null 체크
+     * Enables packing of many log records into a single Kinesis record using the
+     * KPL aggregated record format. Consumers must de-aggregate records (e.g.
+     * with KCL).
      *
-     * @return
+     * @param aggregationEnabled true to enable KPL aggregation
      */
-    private boolean isStreamName() {
-        return checkNullTarget(streamName, "Invalid configuration - streamName cannot be null for appender: ");
+    public void setAggregationEnabled(boolean aggregationEnabled) {
+        this.aggregationEnabled = aggregationEnabled;
     }
 
     /**
-     * Sets streamName for the kinesis stream to which data is to be published.
+     * Returns configured target size in bytes of a single aggregated record.
      *
-     * @param streamName name of the kinesis stream to which data is to be
-     *                   published.
+     * @return configured target size of an aggregated record
      */
-    public void setStreamName(String streamName) {
-        Validator.validate(!Validator.isBlank(streamName), "streamName cannot be blank");
-        this.streamName = streamName.trim();
+    public int getMaxAggregatedBytes() {
+        return maxAggregatedBytes;
     }
 
     /**
-     * 체크할 대상이 null인지 여부
+     * Configures target size in bytes of a single aggregated record, including
+     * its partition key. Kinesis accepts records up to 1 MB.
      *
-     * @param target
-     * @param errorMesg
-     * @return
+     * @param maxAggregatedBytes target size of an aggregated record
      */
-    private boolean checkNullTarget(Object target, String errorMesg) {
+    public void setMaxAggregatedBytes(int maxAggregatedBytes) {
+        Validator.validate(maxAggregatedBytes > 0 && maxAggregatedBytes <= AppenderConstants.MAX_RECORD_BYTES,
+                "maxAggregatedBytes must be >0 and <=" + AppenderConstants.MAX_RECORD_BYTES);
+        this.maxAggregatedBytes = maxAggregatedBytes;
+    }
 
-        if (target == null) {
-            this.initializationFailed = true;
-            addError(errorMesg + this.name);
+    /**
+     * Returns configured strategy the sender thread uses while waiting for log
+     * events.
+     *
+     * @return configured wait strategy
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
 
-            return true;
+    /**
+     * Configures strategy the sender thread uses while waiting for log events:
+     * busySpin (lowest latency, burns a core), yield or park (default).
+     *
+     * @param waitStrategy busySpin, yield or park
+     */
+    public void setWaitStrategy(String waitStrategy) {
+        Validator.validate(!Validator.isBlank(waitStrategy), "waitStrategy cannot be blank");
+        this.waitStrategy = WaitStrategy.of(waitStrategy);
+    }
 
-        } else {
-            return false;
-        }
+    /**
+     * Returns configured policy applied when the buffer is full.
+     *
+     * @return configured overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
     }
 
     /**
-     * 리전 체크
+     * Configures what a logging thread does when the buffer is full: block
+     * (default, waits up to overflowTimeoutMillis then drops), dropNewest,
+     * dropOldest, dropBelowLevel (drops events below overflowLevel, waits for
+     * the others) or sample (drops a growing share of events once the buffer
+     * is overflowSamplePercent full). Every dropped event is counted.
      *
-     * @param regionName
+     * @param overflowPolicy block, dropNewest, dropOldest, dropBelowLevel or sample
      */
-    private void validationRegion(String regionName) {
+    public void setOverflowPolicy(String overflowPolicy) {
+        Validator.validate(!Validator.isBlank(overflowPolicy), "overflowPolicy cannot be blank");
+        this.overflowPolicy = OverflowPolicy.of(overflowPolicy);
+    }
 
-        if (Validator.isBlank(region)) {
-            addError("Region is Empty. required Amazon Kinesis Region.");
-        }
+    /**
+     * Returns configured maximum time a logging thread waits for buffer space.
+     *
+     * @return configured overflow timeout in milliseconds
+     */
+    public int getOverflowTimeoutMillis() {
+        return overflowTimeoutMillis;
+    }
 
-        Region region = RegionUtils.getRegion(regionName);
-        if (region == null) {
-            addError(regionName + " is not a valid AWS region.");
-        }
+    /**
+     * Configures maximum time a logging thread waits for buffer space before
+     * the event is dropped (block, dropOldest and dropBelowLevel policies).
+     *
+     * @param overflowTimeoutMillis overflow timeout in milliseconds
+     */
+    public void setOverflowTimeoutMillis(int overflowTimeoutMillis) {
+        Validator.validate(overflowTimeoutMillis >= 0, "overflowTimeoutMillis must be >=0");
+        this.overflowTimeoutMillis = overflowTimeoutMillis;
     }
 
     /**
-     * kinesisClient 생성
-     * <p>
-     * - clientConfiguration / threadFactory 을 설정하여 client에 set함
+     * Returns configured lowest level kept by the dropBelowLevel policy.
+     *
+     * @return configured overflow level
      */
-    private void createConfigAndClient() {
+    public Level getOverflowLevel() {
+        return overflowLevel;
+    }
 
-        ClientConfiguration clientConfiguration = getClientConfigurationWithUserAgent();            //clientCofnig
+    /**
+     * Configures lowest level kept by the dropBelowLevel policy when the buffer
+     * is full (default WARN, so WARN and ERROR are kept).
+     *
+     * @param overflowLevel level name
+     */
+    public void setOverflowLevel(String overflowLevel) {
+        Level level = overflowLevel == null ? null : Level.toLevel(overflowLevel.trim(), null);
+        Validator.validate(level != null, "Unknown overflowLevel: " + overflowLevel);
+        this.overflowLevel = level;
+    }
+
+    /**
+     * Returns configured buffer usage at which the sample policy starts
+     * dropping events.
+     *
+     * @return configured buffer usage in percent
+     */
+    public int getOverflowSamplePercent() {
+        return overflowSamplePercent;
+    }
 
-        BlockingQueue<Runnable> taskBuffer = new LinkedBlockingDeque<>(bufferSize);                 //bufferSize
+    /**
+     * Configures buffer usage (percent) at which the sample policy starts
+     * dropping events. Above it events are dropped with a probability growing
+     * linearly to 1 when the buffer is full.
+     *
+     * @param overflowSamplePercent buffer usage in percent
+     */
+    public void setOverflowSamplePercent(int overflowSamplePercent) {
+        Validator.validate(overflowSamplePercent >= 0 && overflowSamplePercent < 100,
+                "overflowSamplePercent must be between 0 and 99");
+        this.overflowSamplePercent = overflowSamplePercent;
+    }
 
-        ExecutorFactory threadFactory = () -> new ThreadPoolExecutor(threadCount, threadCount,      //threadFactory
-                AppenderConstants.DEFAULT_THREAD_KEEP_ALIVE_SEC, TimeUnit.SECONDS,
-                taskBuffer, setupThreadFactory(), new BlockFastProducerPolicy());
+    /**
+     * Returns number of log events dropped because the buffer was full.
+     *
+     * @return dropped log event count
+     */
+    public long getDroppedCount() {
+        return overflow == null ? 0 : overflow.getDroppedCount();
+    }
 
-        this.client = createClient(credentials, clientConfiguration, threadFactory);          //awsKinesisClient
+    /**
+     * Returns whether appender metrics are registered as a JMX MBean.
+     *
+     * @return true if the metrics MBean is registered
+     */
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    /**
+     * Configures whether appender metrics are registered as a JMX MBean named
+     * com.example.kinesislogger:type=KinesisAppender,name={appender name}.
+     *
+     * @param jmxEnabled true to register the metrics MBean
+     */
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    /**
+     * Returns metrics of this appender (records, bytes, latency, throttles,
+     * retries, drops and queue depth).
+     *
+     * @return appender metrics
+     */
+    public KinesisAppenderMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns configured compression codec name for outgoing records.
+     *
+     * @return configured compression codec name
+     */
+    public String getCompression() {
+        return compression;
+    }
+
+    /**
+     * Configures compression codec for outgoing records: none (default), gzip,
+     * deflate, lz4 (requires org.lz4:lz4-java), zstd (requires
+     * com.github.luben:zstd-jni) or the name of a codec registered through
+     * ServiceLoader. Compressed records start with a small header that marks the
+     * codec, so consumers must decompress them (see RecordCompressor).
+     *
+     * @param compression compression codec name
+     */
+    public void setCompression(String compression) {
+        Validator.validate(!Validator.isBlank(compression), "compression cannot be blank");
+        CompressionCodec codec = CompressionCodecs.of(compression);
+        this.compression = codec == null ? CompressionCodecs.NONE : codec.getName();
+    }
+
+    /**
+     * Returns configured compression level. -1 means the codec default.
+     *
+     * @return configured compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Configures compression level of the codec (gzip/deflate 0-9, lz4 1-17,
+     * zstd 1-22). -1 uses the codec default.
+     *
+     * @param compressionLevel compression level
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        Validator.validate(compressionLevel >= CompressionCodec.DEFAULT_LEVEL, "compressionLevel must be >=-1");
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Returns configured minimum size in bytes of a record to be compressed.
+     *
+     * @return configured minimum size of a compressed record
+     */
+    public int getCompressionMinBytes() {
+        return compressionMinBytes;
+    }
+
+    /**
+     * Configures minimum size in bytes of a record to be compressed. Smaller
+     * records, and records that do not get smaller, are sent as is.
+     *
+     * @param compressionMinBytes minimum size of a compressed record
+     */
+    public void setCompressionMinBytes(int compressionMinBytes) {
+        Validator.validate(compressionMinBytes >= 0, "compressionMinBytes must be >=0");
+        this.compressionMinBytes = compressionMinBytes;
+    }
+
+    /**
+     * Returns configured directory for the disk spill buffer, or null if disk
+     * spill is disabled.
+     *
+     * @return configured spill directory
+     */
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Configures directory where log records are spilled to memory-mapped
+     * segment files when the in-memory buffer is full (e.g. Kinesis throttles or
+     * is unreachable). Spilled records are published in order once the sender
+     * catches up, and are recovered on restart. Each appender uses a sub
+     * directory named after its stream. Disabled if not set.
+     *
+     * @param spillDirectory spill directory
+     */
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = Validator.isBlank(spillDirectory) ? null : spillDirectory.trim();
+    }
+
+    /**
+     * Returns configured size in bytes of a single spill segment file.
+     *
+     * @return configured spill segment size
+     */
+    public int getSpillSegmentBytes() {
+        return spillSegmentBytes;
+    }
+
+    /**
+     * Configures size in bytes of a single spill segment file. A segment must
+     * hold at least two maximum sized Kinesis records (2 MB).
+     *
+     * @param spillSegmentBytes spill segment size
+     */
+    public void setSpillSegmentBytes(int spillSegmentBytes) {
+        Validator.validate(spillSegmentBytes >= 2 * AppenderConstants.MAX_RECORD_BYTES,
+                "spillSegmentBytes must be >=" + 2 * AppenderConstants.MAX_RECORD_BYTES);
+        this.spillSegmentBytes = spillSegmentBytes;
+    }
+
+    /**
+     * Returns configured maximum disk usage in bytes of the spill directory.
+     *
+     * @return configured maximum disk usage
+     */
+    public long getMaxSpillBytes() {
+        return maxSpillBytes;
+    }
+
+    /**
+     * Configures maximum disk usage in bytes of the spill directory. When it is
+     * reached, logging threads wait for the in-memory buffer as without disk
+     * spill.
+     *
+     * @param maxSpillBytes maximum disk usage
+     */
+    public void setMaxSpillBytes(long maxSpillBytes) {
+        Validator.validate(maxSpillBytes > 0, "maxSpillBytes must be >0");
+        this.maxSpillBytes = maxSpillBytes;
+    }
+
+    /**
+     * Returns configured partition key strategy.
+     *
+     * @return configured partition key strategy
+     */
+    public String getPartitionKeyStrategy() {
+        return partitionKeyStrategy;
+    }
+
+    /**
+     * Configures how partition keys are chosen: random (default, a cheap
+     * thread-local random key), roundRobin (explicit hash keys of the open
+     * shards, refreshed with ListShards), mdc (the MDC value named by
+     * partitionKeyField, e.g. traceId) or the class name of a
+     * PartitionKeyStrategy implementation.
+     *
+     * @param partitionKeyStrategy partition key strategy
+     */
+    public void setPartitionKeyStrategy(String partitionKeyStrategy) {
+        Validator.validate(!Validator.isBlank(partitionKeyStrategy), "partitionKeyStrategy cannot be blank");
+        this.partitionKeyStrategy = partitionKeyStrategy.trim();
+    }
+
+    /**
+     * Returns configured MDC key used as partition key by the mdc strategy.
+     *
+     * @return configured MDC key
+     */
+    public String getPartitionKeyField() {
+        return partitionKeyField;
+    }
+
+    /**
+     * Configures MDC key used as partition key by the mdc strategy. Events
+     * without the key get a random partition key.
+     *
+     * @param partitionKeyField MDC key
+     */
+    public void setPartitionKeyField(String partitionKeyField) {
+        this.partitionKeyField = Validator.isBlank(partitionKeyField) ? null : partitionKeyField.trim();
+    }
+
+    /**
+     * Returns configured interval in seconds between shard map refreshes.
+     *
+     * @return configured shard map refresh interval
+     */
+    public int getShardMapRefreshSeconds() {
+        return shardMapRefreshSeconds;
+    }
+
+    /**
+     * Configures interval in seconds between shard map refreshes (ListShards)
+     * used by the roundRobin strategy. The shard map is also refreshed as soon
+     * as records land on an unknown shard after resharding.
+     *
+     * @param shardMapRefreshSeconds shard map refresh interval
+     */
+    public void setShardMapRefreshSeconds(int shardMapRefreshSeconds) {
+        Validator.validate(shardMapRefreshSeconds > 0, "shardMapRefreshSeconds must be >0");
+        this.shardMapRefreshSeconds = shardMapRefreshSeconds;
+    }
+
+    /**
+     * Returns whether PutRecords calls are rate limited on the client side.
+     *
+     * @return true if client side rate limiting is enabled
+     */
+    public boolean isRateLimitEnabled() {
+        return rateLimitEnabled;
+    }
+
+    /**
+     * Enables client side rate limiting of PutRecords calls. The limit starts at
+     * the shard limits of the stream (1000 records and 1 MB per second per open
+     * shard), is halved on throttling errors and grows back while there is no
+     * throttling (AIMD). Throttled requests are then not retried by the SDK but
+     * put back into the batch. Without a shard map (e.g. ListShards is not
+     * allowed) this setting is ignored.
+     *
+     * @param rateLimitEnabled true to enable client side rate limiting
+     */
+    public void setRateLimitEnabled(boolean rateLimitEnabled) {
+        this.rateLimitEnabled = rateLimitEnabled;
+    }
+
+    /**
+     * Returns whether layout runs on dedicated layout threads instead of the
+     * logging thread.
+     *
+     * @return true if layout is deferred to layout threads
+     */
+    public boolean isDeferredLayout() {
+        return deferredLayout;
+    }
+
+    /**
+     * Configures whether layout (serialization of the event) runs on dedicated
+     * layout threads. The logging thread then only prepares the event for
+     * deferred processing and hands it off. Events logged by the same thread are
+     * laid out in order by the same layout thread.
+     *
+     * @param deferredLayout true to lay out events on layout threads
+     */
+    public void setDeferredLayout(boolean deferredLayout) {
+        this.deferredLayout = deferredLayout;
+    }
+
+    /**
+     * Returns configured number of layout threads used when deferredLayout is
+     * enabled.
+     *
+     * @return configured number of layout threads
+     */
+    public int getLayoutThreadCount() {
+        return layoutThreadCount;
+    }
+
+    /**
+     * Configures number of layout threads used when deferredLayout is enabled.
+     * The buffer size is split evenly between their queues.
+     *
+     * @param layoutThreadCount number of layout threads
+     */
+    public void setLayoutThreadCount(int layoutThreadCount) {
+        Validator.validate(layoutThreadCount > 0, "layoutThreadCount must be >0");
+        this.layoutThreadCount = layoutThreadCount;
+    }
+
+    /**
+     * Returns configured time in milliseconds a stopped appender keeps its
+     * client for the appender started by reconfiguration.
+     *
+     * @return configured handoff timeout, 0 if disabled
+     */
+    public int getHandoffTimeoutMillis() {
+        return handoffTimeoutMillis;
+    }
+
+    /**
+     * Configures time in milliseconds a stopped appender keeps its client and
+     * SDK thread pool for the appender with the same name started by logback
+     * reconfiguration. Buffered log events are not handed off: stop() still
+     * drains the queue and waits up to shutdownTimeout for the requests to
+     * complete before parking the client. The new appender reuses the client
+     * (and its HTTP connection pool) instead of creating one, as long as
+     * region, credentials, maxRetries, adaptiveConcurrency and virtualThreads
+     * are unchanged. Unclaimed clients are shut down after this time. 0 (the
+     * default) disables the handoff.
+     *
+     * @param handoffTimeoutMillis handoff timeout in milliseconds
+     */
+    public void setHandoffTimeoutMillis(int handoffTimeoutMillis) {
+        Validator.validate(handoffTimeoutMillis >= 0, "handoffTimeoutMillis must be >=0");
+        this.handoffTimeoutMillis = handoffTimeoutMillis;
+    }
+
+    /**
+     * Returns whether stream validation and connection warm-up run in the
+     * background instead of blocking start().
+     *
+     * @return true if startup does not wait for Kinesis
+     */
+    public boolean isAsyncStartup() {
+        return asyncStartup;
+    }
+
+    /**
+     * Configures whether start() returns without waiting for Kinesis. When
+     * enabled, stream validation (DescribeStream), credential resolution and
+     * SDK thread / connection warm-up run on a startup thread, and log events
+     * are buffered and sent as usual in the meantime. Disable to fail fast
+     * with validation errors reported before logback initialization ends.
+     *
+     * @param asyncStartup true to validate and warm up in the background
+     */
+    public void setAsyncStartup(boolean asyncStartup) {
+        this.asyncStartup = asyncStartup;
+    }
+
+    /**
+     * Returns whether appenders with the same client settings share one
+     * client.
+     *
+     * @return true if the client is shared
+     */
+    public boolean isShareClient() {
+        return shareClient;
+    }
+
+    /**
+     * Configures whether this appender shares its client, SDK thread pool and
+     * HTTP connection pool with the other appenders of the same logback
+     * context that have the same appender class, region, credentials,
+     * maxRetries, adaptiveConcurrency and virtualThreads. Clients are never
+     * shared across logback contexts, even if the contexts have the same
+     * name. The shared client is reference-counted and shut down (or handed
+     * off) when the last appender using it stops. The thread pool grows to
+     * the sum of the concurrency limits of the appenders using it. The HTTP
+     * connection pool cannot be resized and keeps the size set by the
+     * appender that created it (at least 50); the thread pool is capped to
+     * it, so requests beyond it wait for a free thread.
+     *
+     * @param shareClient true to share the client
+     */
+    public void setShareClient(boolean shareClient) {
+        this.shareClient = shareClient;
+    }
+
+    /**
+     * Returns configured number of identical log events passed through per
+     * suppression window.
+     *
+     * @return configured suppression threshold, 0 if disabled
+     */
+    public int getSuppressionThreshold() {
+        return suppressionThreshold;
+    }
+
+    /**
+     * Configures repeated message suppression. Log events with the same
+     * logger, message pattern and exception class beyond this many in a
+     * window are dropped and reported as one summary event with the count,
+     * the first and last timestamps and the first dropped event as a sample.
+     * 0 disables suppression.
+     *
+     * @param suppressionThreshold events passed through per window
+     */
+    public void setSuppressionThreshold(int suppressionThreshold) {
+        Validator.validate(suppressionThreshold >= 0, "suppressionThreshold must be >=0");
+        this.suppressionThreshold = suppressionThreshold;
+    }
+
+    /**
+     * Returns configured suppression window in milliseconds.
+     *
+     * @return configured suppression window
+     */
+    public int getSuppressionWindowMillis() {
+        return suppressionWindowMillis;
+    }
+
+    /**
+     * Configures suppression window in milliseconds. Summary events are sent
+     * when a window ends.
+     *
+     * @param suppressionWindowMillis suppression window in milliseconds
+     */
+    public void setSuppressionWindowMillis(int suppressionWindowMillis) {
+        Validator.validate(suppressionWindowMillis > 0, "suppressionWindowMillis must be >0");
+        this.suppressionWindowMillis = suppressionWindowMillis;
+    }
+
+    /**
+     * Returns configured maximum number of message keys tracked for
+     * suppression.
+     *
+     * @return configured maximum number of tracked keys
+     */
+    public int getSuppressionMaxKeys() {
+        return suppressionMaxKeys;
+    }
+
+    /**
+     * Configures maximum number of message keys tracked for suppression. The
+     * table has a fixed size; events whose key collides with another active
+     * key are not suppressed.
+     *
+     * @param suppressionMaxKeys maximum number of tracked keys
+     */
+    public void setSuppressionMaxKeys(int suppressionMaxKeys) {
+        Validator.validate(suppressionMaxKeys > 0, "suppressionMaxKeys must be >0");
+        this.suppressionMaxKeys = suppressionMaxKeys;
+    }
+
+    /**
+     * Returns whether stack traces are replaced by fingerprints after they
+     * have been published once per window.
+     *
+     * @return true if stack trace fingerprinting is enabled
+     */
+    public boolean isStackTraceFingerprinting() {
+        return stackTraceFingerprinting;
+    }
+
+    /**
+     * Configures stack trace fingerprinting. Every log event with an exception
+     * gets a traceFingerprint MDC field computed from the exception classes
+     * and frames. The full stack trace is published only the first time a
+     * fingerprint is seen in stackTraceWindowMillis; later events carry the
+     * fingerprint and the exception message (traceException) only.
+     *
+     * @param stackTraceFingerprinting true to enable fingerprinting
+     */
+    public void setStackTraceFingerprinting(boolean stackTraceFingerprinting) {
+        this.stackTraceFingerprinting = stackTraceFingerprinting;
+    }
+
+    /**
+     * Returns configured time in milliseconds after which a full stack trace
+     * is published again.
+     *
+     * @return configured stack trace window
+     */
+    public int getStackTraceWindowMillis() {
+        return stackTraceWindowMillis;
+    }
+
+    /**
+     * Configures time in milliseconds after which a full stack trace is
+     * published again for the same fingerprint.
+     *
+     * @param stackTraceWindowMillis stack trace window in milliseconds
+     */
+    public void setStackTraceWindowMillis(int stackTraceWindowMillis) {
+        Validator.validate(stackTraceWindowMillis > 0, "stackTraceWindowMillis must be >0");
+        this.stackTraceWindowMillis = stackTraceWindowMillis;
+    }
+
+    /**
+     * Returns configured number of published fingerprints remembered.
+     *
+     * @return configured fingerprint cache size
+     */
+    public int getStackTraceCacheSize() {
+        return stackTraceCacheSize;
+    }
+
+    /**
+     * Configures number of published fingerprints remembered. The least
+     * recently seen fingerprint is forgotten first.
+     *
+     * @param stackTraceCacheSize fingerprint cache size
+     */
+    public void setStackTraceCacheSize(int stackTraceCacheSize) {
+        Validator.validate(stackTraceCacheSize > 0, "stackTraceCacheSize must be >0");
+        this.stackTraceCacheSize = stackTraceCacheSize;
+    }
+
+    /**
+     * Returns whether full stack traces are published as separate dictionary
+     * records.
+     *
+     * @return true if the stack trace dictionary is enabled
+     */
+    public boolean isStackTraceDictionary() {
+        return stackTraceDictionary;
+    }
+
+    /**
+     * Configures publishing full stack traces as separate dictionary records
+     * ({"type":"stackTraceDictionary","traceFingerprint":...,"stack_trace":...})
+     * to the same stream. If enabled, log events never carry the full stack
+     * trace and consumers rehydrate it from the dictionary records.
+     *
+     * @param stackTraceDictionary true to publish dictionary records
+     */
+    public void setStackTraceDictionary(boolean stackTraceDictionary) {
+        this.stackTraceDictionary = stackTraceDictionary;
+    }
+
+    /**
+     * stream이 존재 하는지, active되어 있는지 체크 (추상 메소드)
+     */
+    protected abstract void validateStreamName(Client client, String streamName);
+
+    /**
+     * client생성 (추상 메소드)
+     *
+     * @param credentials
+     * @param configuration
+     * @param threadFactory SDK 쓰레드 풀 ({@link #usesSenderThreads()} 가 false 이면 null)
+     * @return
+     */
+    protected abstract Client createClient(AWSCredentialsProvider credentials, ClientConfiguration configuration,
+                                           ExecutorFactory threadFactory);
+
+    protected void setInitializationFailed(boolean initializationFailed) {
+        this.initializationFailed = initializationFailed;
+    }
+
+    /**
+     * SDK 요청마다 전송 쓰레드를 잡는 (blocking I/O) client 인지 여부
+     * - false 이면 SDK 쓰레드 풀을 만들지 않고 createClient 에 null ExecutorFactory 를 넘김.
+     *   client 는 요청을 non-blocking 으로 보내고 putRecords 는 바로 반환해야 함
+     * - stop 할 때는 보내는 중인 요청 (concurrencyLimiter) 이 끝날 때까지 기다리고, client 는 이어받지 않음 (handoff)
+     *
+     * @return
+     */
+    protected boolean usesSenderThreads() {
+        return true;
+    }
+
+    /**
+     * client 종료 (추상 메소드)
+     *
+     * @param client
+     */
+    protected abstract void shutdownClient(Client client);
+
+    /**
+     * shard map 생성 (shard 단위 partition key 전략, 전송량 제한에 사용)
+     * - shard 가 없는 전송 대상은 null
+     *
+     * @param refreshMillis ListShards 갱신 주기
+     * @return
+     */
+    protected ShardMapCache createShardMap(long refreshMillis) {
+        return null;
+    }
+
+    /**
+     * 전송 쓰레드에서 레코드를 묶는 방식 (aggregationEnabled 이면 KPL aggregation, 아니면 null)
+     *
+     * @param bufferPool
+     * @param entryPool
+     * @return
+     */
+    protected RecordPacker createPacker(ByteBufferPool bufferPool, RecordEntryPool entryPool) {
+        return aggregationEnabled ? new RecordAggregator(maxAggregatedBytes, bufferPool, entryPool::acquire) : null;
+    }
+
+    protected Client getClient() {
+        return client;
+    }
+
+    /**
+     * 이 appender 의 설정을 target 에 복사 (start 전에 호출). context, name 과 client 는 복사하지 않음
+     * - 하위 클래스에 설정이 있으면 override 해서 같은 클래스의 target 에 추가로 복사
+     *
+     * @param target
+     */
+    protected void copySettingsTo(BaseKinesisAppender<Event, ?> target) {
+        target.encoding = encoding;
+        target.maxRetries = maxRetries;
+        target.maxRecordRetries = maxRecordRetries;
+        target.bufferSize = bufferSize;
+        target.threadCount = threadCount;
+        target.adaptiveConcurrency = adaptiveConcurrency;
+        target.minConcurrency = minConcurrency;
+        target.maxConcurrency = maxConcurrency;
+        target.virtualThreads = virtualThreads;
+        target.shutdownTimeout = shutdownTimeout;
+        target.maxBatchRecords = maxBatchRecords;
+        target.maxBatchBytes = maxBatchBytes;
+        target.lingerMillis = lingerMillis;
+        target.aggregationEnabled = aggregationEnabled;
+        target.maxAggregatedBytes = maxAggregatedBytes;
+        target.waitStrategy = waitStrategy;
+        target.overflowPolicy = overflowPolicy;
+        target.overflowTimeoutMillis = overflowTimeoutMillis;
+        target.overflowLevel = overflowLevel;
+        target.overflowSamplePercent = overflowSamplePercent;
+        target.compression = compression;
+        target.compressionLevel = compressionLevel;
+        target.compressionMinBytes = compressionMinBytes;
+        target.spillDirectory = spillDirectory;
+        target.spillSegmentBytes = spillSegmentBytes;
+        target.maxSpillBytes = maxSpillBytes;
+        target.partitionKeyStrategy = partitionKeyStrategy;
+        target.partitionKeyField = partitionKeyField;
+        target.shardMapRefreshSeconds = shardMapRefreshSeconds;
+        target.rateLimitEnabled = rateLimitEnabled;
+        target.jmxEnabled = jmxEnabled;
+        target.deferredLayout = deferredLayout;
+        target.layoutThreadCount = layoutThreadCount;
+        target.handoffTimeoutMillis = handoffTimeoutMillis;
+        target.asyncStartup = asyncStartup;
+        target.shareClient = shareClient;
+        target.suppressionThreshold = suppressionThreshold;
+        target.suppressionWindowMillis = suppressionWindowMillis;
+        target.suppressionMaxKeys = suppressionMaxKeys;
+        target.stackTraceFingerprinting = stackTraceFingerprinting;
+        target.stackTraceWindowMillis = stackTraceWindowMillis;
+        target.stackTraceCacheSize = stackTraceCacheSize;
+        target.stackTraceDictionary = stackTraceDictionary;
+        target.accessKey = accessKey;
+        target.secretKey = secretKey;
+        target.region = region;
+        target.streamName = streamName;
+        target.layout = layout;
+    }
+
+    /**
+     * 다른 appender 가 만든 client 를 같이 사용 (start 전에 호출)
+     * - client 와 SDK 쓰레드 풀을 만들지 않고, stop 할 때 client 를 종료하지 않음 (client 를 만든 appender 가 종료)
+     *
+     * @param sharedClient
+     */
+    protected void setSharedClient(Client sharedClient) {
+        this.sharedClient = sharedClient;
+    }
+
+    /**
+     * message 를 풀에서 빌린 버퍼로 인코딩 (encoding 설정 사용)
+     *
+     * @param message
+     * @return
+     * @throws CharacterCodingException
+     */
+    protected ByteBuffer encode(String message) throws CharacterCodingException {
+        return recordEncoder.encode(message);
+    }
+
+    /**
+     * 이벤트의 partition key (partitionKeyStrategy 설정 사용)
+     *
+     * @param event
+     * @return
+     */
+    protected PartitionKey partitionKey(Event event) {
+        return keyStrategy.select(event);
+    }
+
+    /**
+     * 레코드를 ring buffer 에 넣음 (전송 쓰레드가 aggregation / 배치 처리)
+     * <p>
+     * - 버퍼가 가득 찬 경우 disk spill 에 기록하고, 사용하지 않거나 디스크 한도를 넘으면 overflowPolicy 를 따름
+     *   (기다리는 정책도 overflowTimeoutMillis 가 지나면 버림)
+     * - data 는 {@link #encode(String)} 또는 {@link BinaryLayout} 로 만든 풀 버퍼. 전송 완료 후 풀로 반납됨
+     *
+     * @param partitionKey
+     * @param explicitHashKey 없으면 null
+     * @param data
+     */
+    protected void addRecord(String partitionKey, String explicitHashKey, ByteBuffer data) {
+        // 디스크에 밀린 레코드가 있으면 순서를 지키기 위해 디스크에 이어서 씀
+        if (spill != null && spill.hasPending() && spillRecord(partitionKey, explicitHashKey, data)) {
+            return;
+        }
+        long sequence = ringBuffer.tryNext();
+        if (sequence < 0 && (sequence = awaitSlot(partitionKey, explicitHashKey, data)) < 0) {
+            return;
+        }
+        ringBuffer.get(sequence).set(partitionKey, explicitHashKey, data);
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * 버퍼가 가득 찬 경우 overflowPolicy 에 따라 자리를 기다림
+     *
+     * @return claim 한 sequence, 디스크에 기록했거나 버린 경우 -1
+     */
+    private long awaitSlot(String partitionKey, String explicitHashKey, ByteBuffer data) {
+        if (overflow.getPolicy() == OverflowPolicy.DROP_OLDEST) {
+            sender.evictOldest();
+        }
+        long deadline = System.nanoTime() + overflow.getTimeoutNanos();
+        long sequence;
+        int idle = 0;
+        while ((sequence = ringBuffer.tryNext()) < 0) {
+            if (spill != null && spillRecord(partitionKey, explicitHashKey, data)) {
+                return -1L;
+            }
+            if (!isStarted()) {
+                entryPool.getBufferPool().release(data);
+                overflow.drop();
+                addWarn("Appender stopped. Dropped log entry for Kinesis stream: " + streamName);
+                return -1L;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                entryPool.getBufferPool().release(data);
+                overflow.drop();
+                reportDropped();
+                return -1L;
+            }
+            idle = waitStrategy.idle(idle);
+        }
+        return sequence;
+    }
+
+    /**
+     * 버린 레코드 수를 보고 (REPORT_INTERVAL 당 한번)
+     */
+    private void reportDropped() {
+        if (overflow.shouldReport()) {
+            addWarn("Buffer is full (overflowPolicy=" + overflowPolicy + "). Dropped "
+                    + overflow.getDroppedCount() + " log entries so far for Kinesis stream: " + streamName);
+        }
+    }
+
+    /**
+     * 레코드를 disk spill 에 기록
+     *
+     * @param partitionKey
+     * @param explicitHashKey
+     * @param data
+     * @return 디스크 한도를 넘었거나 기록에 실패한 경우 false
+     */
+    private boolean spillRecord(String partitionKey, String explicitHashKey, ByteBuffer data) {
+        try {
+            if (spill.append(partitionKey, explicitHashKey, data, false)) {
+                entryPool.getBufferPool().release(data);
+                return true;
+            }
+        } catch (IOException e) {
+            addError("Failed to spill log entry to " + spill.getDirectory(), e);
+        }
+        return false;
+    }
+
+    /**
+     * PutRecords 결과에서 실패한 레코드를 다시 배치에 넣음
+     * - maxRecordRetries 번 넘게 실패한 레코드는 버리고 버린 레코드로 집계
+     *
+     * @param entry
+     */
+    public void retryRecord(PutRecordsRequestEntry entry) {
+        if (RecordEntry.retried(entry) > maxRecordRetries) {
+            dropRecord(entry, "failed more than maxRecordRetries=" + maxRecordRetries + " times");
+            return;
+        }
+        metrics.onRecordRetried();
+        sender.retry(entry);
+    }
+
+    /**
+     * 보내지 못한 레코드를 반납하고 버린 레코드로 집계 (REPORT_INTERVAL 당 한번 경고)
+     *
+     * @param entry
+     * @param reason 경고에 붙일 이유
+     */
+    public void dropRecord(PutRecordsRequestEntry entry, String reason) {
+        entryPool.release(entry);
+        overflow.drop();
+        if (overflow.shouldReport()) {
+            addWarn("Dropped a log entry that " + reason + ". Dropped " + overflow.getDroppedCount()
+                    + " log entries so far for Kinesis stream: " + streamName);
+        }
+    }
+
+    /**
+     * 전송량 제한 (rate limiter) 을 사용하는 요청이면 표시. throttling 을 받으면 SDK 가 재시도하지 않고
+     * limiter 가 속도를 줄인 뒤 레코드를 다시 보냄 ({@link #getClientConfigurationWithUserAgent()})
+     * - client 설정이 아니라 요청에 표시하므로 client 를 공유 / 이어받아도 limiter 가 있는 appender 의 요청에만 적용됨
+     *
+     * @param request
+     */
+    protected void markRateLimited(AmazonWebServiceRequest request) {
+        if (rateLimiter != null) {
+            request.addHandlerContext(RATE_LIMITED, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 요청 (putRecords 한번) 이 끝났을 때 호출 (SDK callback 쓰레드). 응답 시간으로 동시 요청 한도를 조정
+     * - putRecords 를 구현하는 쪽은 성공 / 실패와 상관없이 요청마다 한번 호출해야 함
+     *
+     * @param sentNanos 요청을 보낸 시각
+     * @param throttled throttling 을 받았는지 여부 (요청 또는 레코드 일부)
+     */
+    public void onRequestCompleted(long sentNanos, boolean throttled) {
+        GradientConcurrencyLimiter limiter = concurrencyLimiter;
+        if (limiter != null) {
+            limiter.release(System.nanoTime() - sentNanos, throttled);
+        }
+    }
+
+    /**
+     * throttling 응답(ProvisionedThroughputExceeded) 을 받았을 때 호출. 전송량 제한을 줄임
+     */
+    public void onThrottled() {
+        if (rateLimiter != null) {
+            rateLimiter.onThrottled();
+        }
+    }
+
+    /**
+     * throttling 오류인지 여부
+     *
+     * @param exception
+     * @return
+     */
+    public static boolean isThrottling(Exception exception) {
+        return exception instanceof ProvisionedThroughputExceededException
+                || exception instanceof LimitExceededException;
+    }
+
+    /**
+     * PutRecords 결과의 shard id 로 resharding 감지 (shard map 을 사용하는 경우만)
+     *
+     * @param shardId
+     */
+    public void observeShard(String shardId) {
+        if (shardMap != null) {
+            shardMap.observe(shardId);
+        }
+    }
+
+    /**
+     * 전송이 끝난(또는 포기한) 레코드의 entry 와 버퍼를 풀로 반납
+     *
+     * @param entry
+     */
+    public void releaseRecord(PutRecordsRequestEntry entry) {
+        entryPool.release(entry);
+    }
+
+    /**
+     * 배치 전송 (추상 메소드)
+     *
+     * @param entries
+     */
+    protected abstract void putRecords(List<PutRecordsRequestEntry> entries);
+
+    /**
+     * 메시지를 인코딩해서 레코드로 추가
+     *
+     * @param event
+     * @param message
+     * @throws Exception
+     */
+    protected void putMessage(Event event, String message) throws Exception {
+        putRecord(event, encode(message));
+    }
+
+    /**
+     * 인코딩된 레코드를 배치에 추가 ({@link #encode(String)} 또는 {@link BinaryLayout} 이 만든 풀 버퍼)
+     *
+     * @param event
+     * @param data
+     * @throws Exception
+     */
+    protected abstract void putRecord(Event event, ByteBuffer data) throws Exception;
+
+    /**
+     * logback layout null 체크
+     *
+     * @return
+     */
+    private boolean isLayoutIsnull() {
+        return checkNullTarget(layout, "Invalid configuration - No layout for appender: ");
+    }
+
+    /**
+     * streamName null 체크
+     *
+     * @return
+     */
+    private boolean isStreamName() {
+        return checkNullTarget(streamName, "Invalid configuration - streamName cannot be null for appender: ");
+    }
+
+    /**
+     * Sets streamName for the kinesis stream to which data is to be published.
+     *
+     * @param streamName name of the kinesis stream to which data is to be
+     *                   published.
+     */
+    public void setStreamName(String streamName) {
+        Validator.validate(!Validator.isBlank(streamName), "streamName cannot be blank");
+        this.streamName = streamName.trim();
+    }
+
+    /**
+     * 체크할 대상이 null인지 여부
+     *
+     * @param target
+     * @param errorMesg
+     * @return
+     */
+    private boolean checkNullTarget(Object target, String errorMesg) {
+
+        if (target == null) {
+            this.initializationFailed = true;
+            addError(errorMesg + this.name);
+
+            return true;
+
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * 리전 체크
+     *
+     * @param regionName
+     */
+    private void validationRegion(String regionName) {
+
+        if (Validator.isBlank(region)) {
+            addError("Region is Empty. required Amazon Kinesis Region.");
+        }
+
+        Region region = RegionUtils.getRegion(regionName);
+        if (region == null) {
+            addError(regionName + " is not a valid AWS region.");
+        }
+    }
+
+    /**
+     * 이전 설정의 appender 가 맡겨둔 client 와 SDK 쓰레드 풀을 이어받음. 쓰레드 수는 현재 설정으로 맞춤
+     * - 맡겨둔 client 의 HTTP 연결 수가 현재 설정보다 적으면 (threadCount 를 늘린 경우) 이어받지 않고 새로 만듦
+     *
+     * @return 이어받은 client 로 체크한 stream 이름. 이어받지 못했으면 null
+     */
+    private String claimParkedClient() {
+        if (handoffTimeoutMillis == 0 || sharedClient != null || shareClient || !usesSenderThreads()) {
+            return null;
+        }
+        ClientHandoff.Parked<Client> parked = ClientHandoff.claim(handoffKey(), maxConnections());
+        if (parked == null) {
+            return null;
+        }
+        client = parked.getClient();
+        senderExecutor = parked.getExecutor();
+        clientMaxConnections = parked.getMaxConnections();
+        if (!useVirtualThreads()) {
+            int corePoolSize = adaptiveConcurrency ? minPoolSize() : clientConcurrency();
+            int maxPoolSize = clientConcurrency();
+            // 늘릴 때는 max 먼저, 줄일 때는 core 먼저 바꿔야 core <= max 가 유지됨
+            if (maxPoolSize > senderExecutor.getMaximumPoolSize()) {
+                senderExecutor.setMaximumPoolSize(maxPoolSize);
+                senderExecutor.setCorePoolSize(corePoolSize);
+            } else {
+                senderExecutor.setCorePoolSize(corePoolSize);
+                senderExecutor.setMaximumPoolSize(maxPoolSize);
+            }
+        }
+        addInfo("Reusing the client of the previous configuration for appender: " + name);
+        return parked.getStreamName() == null ? "" : parked.getStreamName();
+    }
+
+    /**
+     * 설정이 같은 appender 와 client / SDK 쓰레드 풀을 같이 사용 (shareClient)
+     * <p>
+     * - 처음 빌리는 appender 는 이전 설정이 맡겨둔 client 를 이어받거나 새로 만듦
+     * - logback context 단위로 같이 사용 (context 객체로 구분하므로 이름이 같은 다른 context 와는 같이 사용하지 않음)
+     * - 쓰레드 풀의 최대 크기는 같이 사용하는 appender 들의 동시 요청 한도의 합. HTTP 연결 수는 처음 만든 appender 의 설정을
+     *   따르고, 쓰레드 풀은 연결 수를 넘지 않음 (넘으면 경고)
+     */
+    private void acquireSharedClient() {
+        String key = handoffKey();
+        clientLease = SharedClientRegistry.acquire(getContext(), key, clientConcurrency(), () -> {
+            ClientHandoff.Parked<Client> parked =
+                    handoffTimeoutMillis > 0 ? ClientHandoff.claim(key, maxConnections()) : null;
+            if (parked != null) {
+                addInfo("Reusing the client of the previous configuration for appender: " + name);
+                return new SharedClientRegistry.Shared<>(parked.getClient(), parked.getExecutor(),
+                        parked.getMaxConnections());
+            }
+            createConfigAndClient();
+            return new SharedClientRegistry.Shared<>(client, senderExecutor, maxConnections());
+        });
+        clientLeaseKey = key;
+        client = clientLease.getClient();
+        senderExecutor = clientLease.getExecutor();
+        clientMaxConnections = clientLease.getMaxConnections();
+        if (clientLease.getMaxPoolSize() > clientLease.getMaxConnections()) {
+            addWarn("The sum of the concurrency limits of the appenders sharing a client ("
+                    + clientLease.getMaxPoolSize() + ") exceeds its HTTP connection pool ("
+                    + clientLease.getMaxConnections() + "). Requests beyond the pool wait for a free connection."
+                    + " Appender: " + name);
+        }
+    }
+
+    /**
+     * client 를 맡기고 찾는 key. client 생성에 사용하는 설정이 다르면 이어받지 않음
+     * - shareClient 이면 appender 이름을 넣지 않음 (설정이 같은 appender 가 같은 client 를 사용)
+     */
+    private String handoffKey() {
+        String contextName = getContext() == null ? "" : getContext().getName();
+        return getClass().getName() + "|" + contextName + "|" + (shareClient ? "*" : name) + "|" + region
+                + "|" + accessKey + "|" + Objects.hashCode(secretKey) + "|" + maxRetries + "|" + adaptiveConcurrency
+                + "|" + useVirtualThreads();
+    }
+
+    /**
+     * 이 appender 가 보낸 요청 (concurrencyLimiter) 이 모두 끝날 때까지 shutdownTimeout 동안 기다림
+     *
+     * @return 시간 안에 끝났으면 true
+     */
+    private boolean awaitRequests() {
+        GradientConcurrencyLimiter limiter = concurrencyLimiter;
+        return limiter == null
+                || awaitIdle(() -> limiter.getInFlight() == 0, TimeUnit.SECONDS.toMillis(shutdownTimeout));
+    }
+
+    /**
+     * 보내는 중인 요청이 모두 끝날 때까지 기다림 (SDK 쓰레드 풀 / client 는 종료하지 않음)
+     *
+     * @param idle 요청이 모두 끝났는지 여부
+     * @return 시간 안에 끝났으면 true
+     */
+    private static boolean awaitIdle(BooleanSupplier idle, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!idle.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return true;
+    }
+
+    /**
+     * kinesisClient 생성
+     * <p>
+     * - clientConfiguration / threadFactory 을 설정하여 client에 set함
+     * - adaptiveConcurrency 이면 쓰레드는 필요할 때 maxConcurrency 까지 만들고, minConcurrency 를 넘는 쓰레드는 쉬면 정리
+     *   (동시 요청 수는 concurrencyLimiter 가 제한하므로 대기열 없이 바로 쓰레드에 넘김)
+     * - virtualThreads 이면 요청마다 새 virtual thread 에서 실행 (풀링하지 않음, 동시 요청 수는 concurrencyLimiter 만 제한)
+     * - SDK 전송 쓰레드를 쓰지 않는 client ({@link #usesSenderThreads()}) 는 쓰레드 풀을 만들지 않음
+     */
+    private void createConfigAndClient() {
+
+        if (sharedClient != null) {
+            this.client = sharedClient;
+            return;
+        }
+
+        ClientConfiguration clientConfiguration = getClientConfigurationWithUserAgent();            //clientCofnig
+        clientMaxConnections = clientConfiguration.getMaxConnections();
+
+        if (!usesSenderThreads()) {
+            if (virtualThreads) {
+                addWarn(getClass().getSimpleName()
+                        + " does not use sender threads. virtualThreads is ignored for appender: " + name);
+            }
+            senderExecutor = null;
+            this.client = createClient(credentials, clientConfiguration, null);
+            return;
+        }
+
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            addWarn("Virtual threads require Java 21 or later. Falling back to platform threads for appender: "
+                    + name);
+        }
+        ThreadFactory virtualThreadFactory = useVirtualThreads()
+                ? VirtualThreads.factory(getClass().getSimpleName() + "[" + streamName + "]-virtual-") : null;
+
+        if (virtualThreadFactory != null) {
+            senderExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), virtualThreadFactory, new BlockFastProducerPolicy());
+        } else {
+            BlockingQueue<Runnable> taskBuffer = adaptiveConcurrency                                //배치 단위 대기열
+                    ? new SynchronousQueue<>() : new LinkedBlockingDeque<>(threadCount);
+            int corePoolSize = adaptiveConcurrency ? minPoolSize() : clientConcurrency();
+
+            senderExecutor = new ThreadPoolExecutor(corePoolSize, clientConcurrency(),              //threadFactory
+                    AppenderConstants.DEFAULT_THREAD_KEEP_ALIVE_SEC, TimeUnit.SECONDS,
+                    taskBuffer, setupThreadFactory(), new BlockFastProducerPolicy());
+        }
+        ExecutorFactory threadFactory = () -> senderExecutor;
+
+        this.client = createClient(credentials, clientConfiguration, threadFactory);          //awsKinesisClient
+    }
+
+    /**
+     * partition key 전략 / 전송량 제한 생성. shard map 이 필요하면 ListShards 갱신 쓰레드 시작
+     * <p>
+     * - 설정이 잘못된 경우 random 전략 사용
+     */
+    private void createPartitionKeyStrategy() {
+        try {
+            keyStrategy = PartitionKeyStrategies.of(partitionKeyStrategy, partitionKeyField);
+        } catch (IllegalArgumentException e) {
+            addError(e.getMessage() + ". Falling back to random partition keys.", e);
+            keyStrategy = new RandomPartitionKeyStrategy();
+        }
+        if (keyStrategy.isShardAware() || rateLimitEnabled) {
+            shardMap = createShardMap(TimeUnit.SECONDS.toMillis(shardMapRefreshSeconds));
+            if (shardMap == null) {
+                addWarn("Shard map is not available for " + streamName + ". partitionKeyStrategy="
+                        + partitionKeyStrategy
+                        + " falls back to random partition keys and rateLimitEnabled is ignored.");
+                if (keyStrategy.isShardAware()) {
+                    keyStrategy = new RandomPartitionKeyStrategy();
+                }
+                return;
+            }
+            shardMap.start(new NamedThreadFactory(getClass().getSimpleName() + "[" + streamName + "]-shard-map-"));
+        }
+        if (keyStrategy.isShardAware()) {
+            keyStrategy.setShardMap(shardMap);
+        }
+        if (rateLimitEnabled) {
+            rateLimiter = new AimdRateLimiter(() -> shardMap.current().size());
+        }
+    }
+
+    /**
+     * ring buffer 와 전송 쓰레드 생성
+     * <p>
+     * - 애플리케이션 쓰레드 → 인코딩(풀 버퍼) → ring buffer(bufferSize) → 전송 쓰레드 → aggregation → 압축
+     *   → PutRecords 배치
+     * - 배치는 maxBatchRecords / maxBatchBytes 에 도달하거나 lingerMillis 가 지나면 전송
+     */
+    @SuppressWarnings("unchecked")
+    private void createSender() {
+
+        bufferPool = new ByteBufferPool(AppenderConstants.DEFAULT_BUFFER_POOL_BYTES);
+        binaryLayout = layout instanceof BinaryLayout ? (BinaryLayout<Event>) layout : null;
+        recordEncoder = new RecordEncoder(encoding, bufferPool);
+        entryPool = new RecordEntryPool(bufferPool, bufferSize + maxInFlight() * maxBatchRecords);
+        ringBuffer = new RingBuffer<>(bufferSize, RecordSlot::new);
+        overflow = new OverflowController(overflowPolicy, overflowTimeoutMillis, overflowLevel, overflowSamplePercent);
+
+        RecordBatcher<PutRecordsRequestEntry> batcher = new RecordBatcher<>(maxBatchRecords, maxBatchBytes,
+                BaseKinesisAppender::entrySize, this::sendBatch);
+        RecordPacker packer = createPacker(bufferPool, entryPool);
+        RecordCompressor compressor = createCompressor(bufferPool);
+        spill = createSpill(bufferPool);
+
+        metrics.bind(this::queueDepth, overflow::getDroppedCount,
+                () -> spill == null ? 0L : spill.getPendingRecords());
+        concurrencyLimiter = adaptiveConcurrency
+                ? new GradientConcurrencyLimiter(threadCount, minPoolSize(), maxInFlight())
+                : new GradientConcurrencyLimiter(threadCount, threadCount, threadCount);
+        metrics.bindConcurrency(concurrencyLimiter::getLimit, concurrencyLimiter::getInFlight);
+
+        sender = new RecordSender(ringBuffer, waitStrategy, packer, compressor, spill, batcher, entryPool,
+                lingerMillis, this::addError, overflow::drop);
+        senderThread = new NamedThreadFactory(getClass().getSimpleName() + "[" + streamName + "]-sender-")
+                .newThread(sender);
+        senderThread.setDaemon(true);
+        senderThread.start();
+
+        if (deferredLayout) {
+            layoutWorkers = new LayoutWorkerPool<>(layoutThreadCount, Math.max(1, bufferSize / layoutThreadCount),
+                    waitStrategy, this::layoutAndPut, this::addError,
+                    new NamedThreadFactory(getClass().getSimpleName() + "[" + streamName + "]-layout-"));
+            layoutWorkers.start();
+        }
+    }
+
+    /**
+     * suppressionThreshold 가 0 이면 사용하지 않음
+     */
+    private void createSuppressor() {
+        suppressor = null;
+        if (suppressionThreshold == 0) {
+            return;
+        }
+        suppressor = new RepeatSuppressor(suppressionThreshold, suppressionWindowMillis, suppressionMaxKeys,
+                this::appendSummary);
+        suppressor.start(new NamedThreadFactory(getClass().getSimpleName() + "[" + streamName + "]-suppression-"));
+    }
+
+    /**
+     * 압축 설정이 none 이면 null
+     * - compressionLevel 이 codec 의 범위를 벗어나면 (codec 마다 범위가 다름) 오류를 남기고 압축하지 않음
+     *
+     * @param bufferPool
+     * @return
+     */
+    private RecordCompressor createCompressor(ByteBufferPool bufferPool) {
+        CompressionCodec codec = CompressionCodecs.of(compression);
+        if (codec == null) {
+            return null;
+        }
+        try {
+            codec.setLevel(compressionLevel);
+        } catch (IllegalArgumentException e) {
+            codec.close();
+            addError("Invalid compressionLevel=" + compressionLevel + " for compression=" + compression
+                    + ". Records are sent uncompressed for Kinesis stream: " + streamName, e);
+            return null;
+        }
+        return new RecordCompressor(codec, compressionMinBytes, bufferPool);
+    }
+
+    /**
+     * disk spill 생성 및 남아있는 segment 복구 (spillDirectory 가 없거나 실패하면 null)
+     *
+     * @param bufferPool
+     * @return
+     */
+    private DiskSpillBuffer createSpill(ByteBufferPool bufferPool) {
+        if (spillDirectory == null) {
+            return null;
+        }
+        Path directory = Paths.get(spillDirectory, streamName);
+        DiskSpillBuffer buffer = new DiskSpillBuffer(directory, spillSegmentBytes, maxSpillBytes, bufferPool);
+        try {
+            long recovered = buffer.open();
+            if (recovered > 0) {
+                addInfo("Recovered " + recovered + " spilled log entries from " + directory);
+            }
+            return buffer;
+        } catch (IOException e) {
+            addError("Failed to open spill directory " + directory + ". Disk spill is disabled.", e);
+            return null;
+        }
+    }
+
+    /**
+     * 지표 MBean 등록. 같은 이름이 이미 등록되어 있으면 (재시작) 교체함
+     */
+    private void registerMetrics() {
+        if (!jmxEnabled) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(
+                    KinesisAppenderMetrics.OBJECT_NAME_PREFIX + ObjectName.quote(String.valueOf(name)));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(metrics, objectName);
+            metricsObjectName = objectName;
+        } catch (JMException e) {
+            addWarn("Failed to register metrics MBean for appender: " + name, e);
+        }
+    }
+
+    private void unregisterMetrics() {
+        if (metricsObjectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsObjectName);
+        } catch (JMException e) {
+            addWarn("Failed to unregister metrics MBean for appender: " + name, e);
+        }
+        metricsObjectName = null;
+    }
+
+    /**
+     * 배치 전송. 전송량 제한을 사용하면 한도를 넘지 않도록 전송 쓰레드에서 기다린 뒤 보냄
+     * - 보내는 중인 요청이 동시 요청 한도만큼 있으면 응답이 올 때까지 기다림 ({@link #onRequestCompleted})
+     *
+     * @param entries
+     */
+    private void sendBatch(List<PutRecordsRequestEntry> entries) {
+        if (rateLimiter != null) {
+            long bytes = 0;
+            for (PutRecordsRequestEntry entry : entries) {
+                bytes += entrySize(entry);
+            }
+            long waitNanos = rateLimiter.acquire(entries.size(), bytes);
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+        metrics.onBatch(entries.size());
+        concurrencyLimiter.acquire();
+        try {
+            putRecords(entries);
+        } catch (RuntimeException e) {
+            concurrencyLimiter.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * 동시 요청 한도의 최대값 (플랫폼 쓰레드 풀 크기, HTTP 연결 수)
+     */
+    private int maxInFlight() {
+        return adaptiveConcurrency ? Math.max(maxConcurrency, minPoolSize()) : threadCount;
+    }
+
+    /**
+     * 만드는 client 의 HTTP 연결 수. 동시 요청이 connection pool 에서 기다리지 않도록 (기본 50 이상)
+     */
+    private int maxConnections() {
+        return Math.max(clientConcurrency(), ClientConfiguration.DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * 이 appender 가 만드는 client (SDK 쓰레드 풀, HTTP 연결 수) 를 같이 사용하는 요청의 동시 요청 한도 합
+     * - 기본은 이 appender 의 동시 요청 한도. client 를 다른 appender 에 넘겨주는 하위 클래스는 그만큼 늘림
+     *
+     * @return
+     */
+    protected int clientConcurrency() {
+        return maxInFlight();
+    }
+
+    private int minPoolSize() {
+        return Math.min(minConcurrency, maxConcurrency);
+    }
+
+    private boolean useVirtualThreads() {
+        return virtualThreads && VirtualThreads.isSupported();
+    }
+
+    /**
+     * PutRecords 요청 크기 계산에 사용되는 레코드 크기 (data + partition key)
+     *
+     * @param entry
+     * @return
+     */
+    private static int entrySize(PutRecordsRequestEntry entry) {
+        return entry.getData().remaining() + entry.getPartitionKey().length();
     }
 
     /**
@@ -378,10 +2306,15 @@ public abstract class BaseKinesisAppender<Event extends DeferredProcessingAware,
     private ClientConfiguration getClientConfigurationWithUserAgent() {
         ClientConfiguration clientConfiguration = new ClientConfiguration();
         clientConfiguration.setMaxErrorRetry(maxRetries);
+        // 전송량 제한을 사용하는 요청 (markRateLimited) 의 throttling 은 SDK 가 재시도하지 않고 limiter 가 속도를 줄인 뒤 다시 보냄
+        RetryPolicy.RetryCondition retryCondition = (request, exception, retries) ->
+                !(isThrottling(exception) && Boolean.TRUE.equals(request.getHandlerContext(RATE_LIMITED)))
+                        && PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION.shouldRetry(request, exception, retries);
         clientConfiguration
-                .setRetryPolicy(new RetryPolicy(PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION,
+                .setRetryPolicy(new RetryPolicy(retryCondition,
                         PredefinedRetryPolicies.DEFAULT_BACKOFF_STRATEGY, maxRetries, true));
         clientConfiguration.setUserAgentPrefix(AppenderConstants.USER_AGENT_STRING);
+        clientConfiguration.setMaxConnections(maxConnections());
         return clientConfiguration;
     }
 
@@ -4,16 +4,18 @@ import ch.qos.logback.core.spi.DeferredProcessingAware;
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.client.builder.ExecutorFactory;
-import com.amazonaws.services.kinesis.AmazonKinesis;
 import com.amazonaws.services.kinesis.AmazonKinesisAsync;
 import com.amazonaws.services.kinesis.AmazonKinesisAsyncClientBuilder;
 import com.amazonaws.services.kinesis.model.DescribeStreamResult;
-import com.amazonaws.services.kinesis.model.PutRecordRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
 import com.amazonaws.services.kinesis.model.ResourceNotFoundException;
 import com.example.kinesislogger.logback.helpers.KinesisStatsReporter;
+import com.example.kinesislogger.logback.partition.PartitionKey;
+import com.example.kinesislogger.logback.partition.ShardMapCache;
 
 import java.nio.ByteBuffer;
-import java.util.UUID;
+import java.util.List;
 
 /**
  * Kinesis 비동기 Appender
@@ -52,7 +54,7 @@ public class KinesisAsyncAppender<Event extends DeferredProcessingAware>
      * @param streamName
      */
     @Override
-    protected void validateStreamName(AmazonKinesis client, String streamName) {
+    protected void validateStreamName(AmazonKinesisAsync client, String streamName) {
 
         try {
             DescribeStreamResult result = client.describeStream(streamName);
@@ -67,21 +69,52 @@ public class KinesisAsyncAppender<Event extends DeferredProcessingAware>
     }
 
     /**
-     * message 전송
+     * client 종료
      *
-     * @param message
+     * @param client
+     */
+    @Override
+    protected void shutdownClient(AmazonKinesisAsync client) {
+        client.shutdown();
+    }
+
+    /**
+     * ListShards 로 stream 의 open shard 를 주기적으로 갱신하는 shard map
+     *
+     * @param refreshMillis
+     * @return
+     */
+    @Override
+    protected ShardMapCache createShardMap(long refreshMillis) {
+        return new ShardMapCache(getClient(), getStreamName(), refreshMillis, this::addError);
+    }
+
+    /**
+     * 레코드를 배치에 추가
+     *
+     * @param event
+     * @param data
      * @throws Exception
      */
     @Override
-    protected void putMessage(String message) throws Exception {
+    protected void putRecord(Event event, ByteBuffer data) throws Exception {
 
-        System.out.println(message);
+        PartitionKey key = partitionKey(event);
+        addRecord(key.getPartitionKey(), key.getExplicitHashKey(), data);
+    }
 
-        ByteBuffer data = ByteBuffer.wrap(message.getBytes(getEncoding()));
+    /**
+     * 배치 전송
+     *
+     * @param entries
+     */
+    @Override
+    protected void putRecords(List<PutRecordsRequestEntry> entries) {
 
-        AmazonKinesisAsync client = (AmazonKinesisAsync) getClient();
-        client.putRecordAsync(new PutRecordRequest().withPartitionKey(UUID.randomUUID().toString())
-                .withStreamName(getStreamName()).withData(data), asyncCallHandler);
+        AmazonKinesisAsync client = getClient();
+        PutRecordsRequest request = new PutRecordsRequest().withStreamName(getStreamName()).withRecords(entries);
+        markRateLimited(request);
+        client.putRecordsAsync(request, asyncCallHandler.forRequest(request));
     }
 
 }
@@ -0,0 +1,217 @@
+package com.example.kinesislogger.logback;
+
+import ch.qos.logback.core.spi.DeferredProcessingAware;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.client.builder.ExecutorFactory;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesisfirehose.AmazonKinesisFirehoseAsync;
+import com.amazonaws.services.kinesisfirehose.AmazonKinesisFirehoseAsyncClientBuilder;
+import com.amazonaws.services.kinesisfirehose.model.DescribeDeliveryStreamRequest;
+import com.amazonaws.services.kinesisfirehose.model.DescribeDeliveryStreamResult;
+import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchRequest;
+import com.amazonaws.services.kinesisfirehose.model.Record;
+import com.amazonaws.services.kinesisfirehose.model.ResourceNotFoundException;
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+import com.example.kinesislogger.logback.helpers.FirehoseStatsReporter;
+import com.example.kinesislogger.logback.helpers.NewlineRecordPacker;
+import com.example.kinesislogger.logback.helpers.RecordEntryPool;
+import com.example.kinesislogger.logback.helpers.RecordPacker;
+import com.example.kinesislogger.logback.helpers.Validator;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kinesis Data Firehose 비동기 Appender (실시간 consumer 없이 S3 등으로 바로 적재하는 로그용)
+ * <p>
+ * - 버퍼, 배치, 재시도, overflow, disk spill 은 KinesisAsyncAppender 와 같은 파이프라인을 사용하고 PutRecordBatch 로 전송
+ * - streamName 은 delivery stream 이름
+ * - recordPacking 이면 로그를 줄바꿈으로 구분해서 maxPackedBytes 크기의 Firehose 레코드로 묶음 (아니면 로그마다 줄바꿈만 붙임)
+ * - shard 가 없으므로 partition key 를 사용하지 않고, shard 단위 partition key 전략 / rateLimitEnabled / KPL aggregation 은 무시됨
+ */
+public class KinesisFirehoseAppender<Event extends DeferredProcessingAware>
+        extends BaseKinesisAppender<Event, AmazonKinesisFirehoseAsync> {
+
+    /**
+     * 파이프라인에서 사용하는 partition key (Firehose 로는 전송되지 않음)
+     */
+    private static final String NO_PARTITION_KEY = "";
+
+    private boolean recordPacking = true;
+    private int maxPackedBytes = AppenderConstants.FIREHOSE_MAX_RECORD_BYTES;
+
+    private final FirehoseStatsReporter asyncCallHandler = new FirehoseStatsReporter(this);
+
+    public KinesisFirehoseAppender() {
+        setMaxBatchBytes(AppenderConstants.FIREHOSE_MAX_BATCH_BYTES);
+    }
+
+    /**
+     * firehose 비동기 client 생성
+     *
+     * @param credential
+     * @param configuration
+     * @param threadFactory
+     * @return
+     */
+    @Override
+    protected AmazonKinesisFirehoseAsync createClient(AWSCredentialsProvider credential,
+                                                      ClientConfiguration configuration,
+                                                      ExecutorFactory threadFactory) {
+
+        return AmazonKinesisFirehoseAsyncClientBuilder.standard()
+                .withRegion(getRegion())
+                .withCredentials(credential)
+                .withClientConfiguration(configuration)
+                .withExecutorFactory(threadFactory)
+                .build();
+    }
+
+    /**
+     * delivery stream 체크
+     *
+     * @param client
+     * @param streamName
+     */
+    @Override
+    protected void validateStreamName(AmazonKinesisFirehoseAsync client, String streamName) {
+
+        try {
+            DescribeDeliveryStreamResult result = client.describeDeliveryStream(
+                    new DescribeDeliveryStreamRequest().withDeliveryStreamName(streamName));
+            if (!"ACTIVE".equals(result.getDeliveryStreamDescription().getDeliveryStreamStatus())) {
+                addError("Delivery stream " + streamName + " is not active. Please wait a few moments and try again.");
+            }
+        } catch (ResourceNotFoundException e) {
+            addError("Delivery stream " + streamName + " does not exist. Please create it in the console.");
+        } catch (Exception e) {
+            addError("Error found while describing the delivery stream " + streamName);
+        }
+    }
+
+    /**
+     * client 종료
+     *
+     * @param client
+     */
+    @Override
+    protected void shutdownClient(AmazonKinesisFirehoseAsync client) {
+        client.shutdown();
+    }
+
+    /**
+     * 줄바꿈 packing (recordPacking 이 아니면 로그마다 줄바꿈만 붙임)
+     *
+     * @param bufferPool
+     * @param entryPool
+     * @return
+     */
+    @Override
+    protected RecordPacker createPacker(ByteBufferPool bufferPool, RecordEntryPool entryPool) {
+        if (isAggregationEnabled()) {
+            addWarn("KPL aggregation is not supported by Firehose. aggregationEnabled is ignored for appender: " + name);
+        }
+        return new NewlineRecordPacker(maxPackedBytes, recordPacking ? Integer.MAX_VALUE : 1, bufferPool,
+                entryPool::acquire);
+    }
+
+    /**
+     * 레코드를 배치에 추가
+     *
+     * @param event
+     * @param data
+     * @throws Exception
+     */
+    @Override
+    protected void putRecord(Event event, ByteBuffer data) throws Exception {
+
+        addRecord(NO_PARTITION_KEY, null, data);
+    }
+
+    /**
+     * 배치 전송 (PutRecordBatch)
+     *
+     * @param entries
+     */
+    @Override
+    protected void putRecords(List<PutRecordsRequestEntry> entries) {
+
+        List<Record> records = new ArrayList<>(entries.size());
+        for (PutRecordsRequestEntry entry : entries) {
+            records.add(new Record().withData(entry.getData()));
+        }
+        PutRecordBatchRequest request = new PutRecordBatchRequest()
+                .withDeliveryStreamName(getStreamName()).withRecords(records);
+        getClient().putRecordBatchAsync(request, asyncCallHandler.forRequest(entries));
+    }
+
+    /**
+     * Configures maximum number of bytes in a PutRecordBatch call. Values above
+     * the Firehose limit of 4 MB are capped to it.
+     *
+     * @param maxBatchBytes maximum number of bytes in a batch
+     */
+    @Override
+    public void setMaxBatchBytes(int maxBatchBytes) {
+        super.setMaxBatchBytes(Math.min(maxBatchBytes, AppenderConstants.FIREHOSE_MAX_BATCH_BYTES));
+    }
+
+    /**
+     * record packing 설정도 복사 (target 이 KinesisFirehoseAppender 인 경우)
+     *
+     * @param target
+     */
+    @Override
+    protected void copySettingsTo(BaseKinesisAppender<Event, ?> target) {
+        super.copySettingsTo(target);
+        if (target instanceof KinesisFirehoseAppender) {
+            KinesisFirehoseAppender<?> firehose = (KinesisFirehoseAppender<?>) target;
+            firehose.recordPacking = recordPacking;
+            firehose.maxPackedBytes = maxPackedBytes;
+        }
+    }
+
+    /**
+     * Returns whether log records are packed newline-delimited into Firehose
+     * records.
+     *
+     * @return true if record packing is enabled
+     */
+    public boolean isRecordPacking() {
+        return recordPacking;
+    }
+
+    /**
+     * Configures whether log records are packed newline-delimited into Firehose
+     * records of up to maxPackedBytes. If disabled, every log record is sent as
+     * its own Firehose record, still terminated by a newline.
+     *
+     * @param recordPacking true to pack log records
+     */
+    public void setRecordPacking(boolean recordPacking) {
+        this.recordPacking = recordPacking;
+    }
+
+    /**
+     * Returns configured maximum size in bytes of a packed Firehose record.
+     *
+     * @return configured maximum size of a packed record
+     */
+    public int getMaxPackedBytes() {
+        return maxPackedBytes;
+    }
+
+    /**
+     * Configures maximum size in bytes of a packed Firehose record (at most
+     * 1000 KB).
+     *
+     * @param maxPackedBytes maximum size of a packed record
+     */
+    public void setMaxPackedBytes(int maxPackedBytes) {
+        Validator.validate(maxPackedBytes > 1 && maxPackedBytes <= AppenderConstants.FIREHOSE_MAX_RECORD_BYTES,
+                "maxPackedBytes must be >1 and <=" + AppenderConstants.FIREHOSE_MAX_RECORD_BYTES);
+        this.maxPackedBytes = maxPackedBytes;
+    }
+}
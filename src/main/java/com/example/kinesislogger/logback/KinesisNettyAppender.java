@@ -0,0 +1,308 @@
+package com.example.kinesislogger.logback;
+
+import ch.qos.logback.core.spi.DeferredProcessingAware;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.client.builder.ExecutorFactory;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesis.model.PutRecordsResult;
+import com.amazonaws.services.kinesis.model.PutRecordsResultEntry;
+import com.example.kinesislogger.logback.helpers.KinesisStatsReporter;
+import com.example.kinesislogger.logback.helpers.NamedThreadFactory;
+import com.example.kinesislogger.logback.helpers.Validator;
+import com.example.kinesislogger.logback.partition.PartitionKey;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.client.config.ClientAsyncConfiguration;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.core.client.config.SdkAdvancedClientOption;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.awssdk.http.Protocol;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryResponse;
+import software.amazon.awssdk.services.kinesis.model.LimitExceededException;
+import software.amazon.awssdk.services.kinesis.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kinesis.model.StreamStatus;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Kinesis non-blocking Appender (SDK v2 KinesisAsyncClient + Netty NIO HTTP client)
+ * <p>
+ * - PutRecords 는 Netty event loop 쓰레드 (eventLoopThreads 개) 에서 non-blocking 으로 보내고 응답 callback 도 event loop
+ *   에서 처리. 요청마다 쓰레드를 잡지 않으므로 SDK 전송 쓰레드 풀을 만들지 않음 (virtualThreads 는 무시됨)
+ * - http2 이면 연결 하나에 여러 요청을 multiplexing (동시 요청 수만큼 연결을 맺지 않음)
+ * - 동시 요청 수는 KinesisAsyncAppender 와 같이 concurrencyLimiter 가 제한 (adaptiveConcurrency / maxConcurrency,
+ *   adaptiveConcurrency 가 아니면 threadCount)
+ * - 버퍼, 배치, 재시도, overflow, disk spill, 지표는 KinesisAsyncAppender 와 같은 파이프라인을 사용
+ * - shard map (ListShards) 을 만들지 않으므로 shard 단위 partition key 전략 / rateLimitEnabled 는 무시됨.
+ *   logback 재설정 시 client 를 이어받지 않음 (handoff)
+ * - software.amazon.awssdk:kinesis / netty-nio-client 는 optional 의존성 (이 appender 를 쓸 때만 필요)
+ */
+public class KinesisNettyAppender<Event extends DeferredProcessingAware>
+        extends BaseKinesisAppender<Event, KinesisAsyncClient> {
+
+    private int eventLoopThreads = AppenderConstants.DEFAULT_EVENT_LOOP_THREADS;
+    private boolean http2 = true;
+
+    private final KinesisStatsReporter asyncCallHandler =
+            new KinesisStatsReporter(this, KinesisNettyAppender::isThrottlingError);
+
+    /**
+     * SDK v2 비동기 client 생성 (Netty event loop)
+     * <p>
+     * - 재시도 횟수 / user agent / 동시 요청 수 (연결 수, http2 이면 stream 수) 는 configuration 의 설정을 사용
+     * - 응답 future 는 event loop 쓰레드에서 바로 완료 (SDK 의 future completion 쓰레드 풀을 거치지 않음)
+     *
+     * @param credential
+     * @param configuration
+     * @param threadFactory 사용하지 않음 (null)
+     * @return
+     */
+    @Override
+    protected KinesisAsyncClient createClient(AWSCredentialsProvider credential, ClientConfiguration configuration,
+                                              ExecutorFactory threadFactory) {
+
+        return KinesisAsyncClient.builder()
+                .region(Region.of(getRegion()))
+                .credentialsProvider(() -> {
+                    AWSCredentials credentials = credential.getCredentials();
+                    return AwsBasicCredentials.create(credentials.getAWSAccessKeyId(), credentials.getAWSSecretKey());
+                })
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .protocol(http2 ? Protocol.HTTP2 : Protocol.HTTP1_1)
+                        .maxConcurrency(configuration.getMaxConnections())
+                        .eventLoopGroupBuilder(SdkEventLoopGroup.builder()
+                                .numberOfThreads(eventLoopThreads)
+                                .threadFactory(new NamedThreadFactory(
+                                        getClass().getSimpleName() + "[" + getStreamName() + "]-netty-"))))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .retryPolicy(RetryPolicy.builder()
+                                .numRetries(configuration.getMaxErrorRetry())
+                                // shard map 이 없어 전송량 제한을 하지 않으므로 throttling 도 SDK 가 backoff 후 재시도
+                                .retryCondition(RetryCondition.defaultRetryCondition())
+                                .build())
+                        .putAdvancedOption(SdkAdvancedClientOption.USER_AGENT_PREFIX,
+                                configuration.getUserAgentPrefix())
+                        .build())
+                .asyncConfiguration(ClientAsyncConfiguration.builder()
+                        .advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR, Runnable::run)
+                        .build())
+                .build();
+    }
+
+    /**
+     * 요청은 event loop 에서 non-blocking 으로 보냄 (SDK 전송 쓰레드 풀 없음)
+     *
+     * @return
+     */
+    @Override
+    protected boolean usesSenderThreads() {
+        return false;
+    }
+
+    /**
+     * stream 체크 (DescribeStreamSummary)
+     *
+     * @param client
+     * @param streamName
+     */
+    @Override
+    protected void validateStreamName(KinesisAsyncClient client, String streamName) {
+
+        try {
+            DescribeStreamSummaryResponse response = client.describeStreamSummary(
+                    DescribeStreamSummaryRequest.builder().streamName(streamName).build()).join();
+            if (response.streamDescriptionSummary().streamStatus() != StreamStatus.ACTIVE) {
+                addError("Stream " + streamName + " is not active. Please wait a few moments and try again.");
+            }
+        } catch (Exception e) {
+            if (unwrap(e) instanceof ResourceNotFoundException) {
+                addError("Stream " + streamName + " does not exist. Please create it in the console.");
+            } else {
+                addError("Error found while describing the stream " + streamName);
+            }
+        }
+    }
+
+    /**
+     * client 종료 (Netty event loop 포함)
+     *
+     * @param client
+     */
+    @Override
+    protected void shutdownClient(KinesisAsyncClient client) {
+        client.close();
+    }
+
+    /**
+     * 레코드를 배치에 추가
+     *
+     * @param event
+     * @param data
+     * @throws Exception
+     */
+    @Override
+    protected void putRecord(Event event, ByteBuffer data) throws Exception {
+
+        PartitionKey key = partitionKey(event);
+        addRecord(key.getPartitionKey(), key.getExplicitHashKey(), data);
+    }
+
+    /**
+     * 배치 전송. 응답 (또는 오류) 은 event loop 쓰레드에서 KinesisStatsReporter 로 넘김
+     *
+     * @param entries
+     */
+    @Override
+    protected void putRecords(List<PutRecordsRequestEntry> entries) {
+
+        PutRecordsRequest request = new PutRecordsRequest().withStreamName(getStreamName()).withRecords(entries);
+        AsyncHandler<PutRecordsRequest, PutRecordsResult> handler = asyncCallHandler.forRequest(request);
+        getClient().putRecords(toRequest(request)).whenComplete((response, error) -> {
+            if (error == null) {
+                handler.onSuccess(request, toResult(response));
+            } else {
+                handler.onError(unwrap(error));
+            }
+        });
+    }
+
+    /**
+     * throttling 오류인지 여부 (SDK v2 예외)
+     *
+     * @param exception
+     * @return
+     */
+    private static boolean isThrottlingError(Throwable exception) {
+        return exception instanceof ProvisionedThroughputExceededException
+                || exception instanceof LimitExceededException
+                || exception instanceof AwsServiceException
+                && ((AwsServiceException) exception).isThrottlingException();
+    }
+
+    /**
+     * SDK v2 요청으로 변환 (data 는 복사됨. 원래 버퍼는 응답 후 KinesisStatsReporter 가 반납)
+     *
+     * @param request
+     * @return
+     */
+    private static software.amazon.awssdk.services.kinesis.model.PutRecordsRequest toRequest(
+            PutRecordsRequest request) {
+        List<software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry> records =
+                new ArrayList<>(request.getRecords().size());
+        for (PutRecordsRequestEntry entry : request.getRecords()) {
+            records.add(software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry.builder()
+                    .data(SdkBytes.fromByteBuffer(entry.getData()))
+                    .partitionKey(entry.getPartitionKey())
+                    .explicitHashKey(entry.getExplicitHashKey())
+                    .build());
+        }
+        return software.amazon.awssdk.services.kinesis.model.PutRecordsRequest.builder()
+                .streamName(request.getStreamName())
+                .records(records)
+                .build();
+    }
+
+    /**
+     * SDK v1 결과로 변환 (레코드별 shard id / 오류 코드)
+     *
+     * @param response
+     * @return
+     */
+    private static PutRecordsResult toResult(PutRecordsResponse response) {
+        List<PutRecordsResultEntry> records = new ArrayList<>(response.records().size());
+        for (software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry record : response.records()) {
+            records.add(new PutRecordsResultEntry()
+                    .withShardId(record.shardId())
+                    .withSequenceNumber(record.sequenceNumber())
+                    .withErrorCode(record.errorCode())
+                    .withErrorMessage(record.errorMessage()));
+        }
+        return new PutRecordsResult().withFailedRecordCount(response.failedRecordCount()).withRecords(records);
+    }
+
+    /**
+     * CompletableFuture 가 감싼 예외를 꺼냄
+     *
+     * @param error
+     * @return
+     */
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
+    }
+
+    /**
+     * event loop / http2 설정도 복사 (target 이 KinesisNettyAppender 인 경우)
+     *
+     * @param target
+     */
+    @Override
+    protected void copySettingsTo(BaseKinesisAppender<Event, ?> target) {
+        super.copySettingsTo(target);
+        if (target instanceof KinesisNettyAppender) {
+            KinesisNettyAppender<?> netty = (KinesisNettyAppender<?>) target;
+            netty.eventLoopThreads = eventLoopThreads;
+            netty.http2 = http2;
+        }
+    }
+
+    /**
+     * Returns configured number of Netty event loop threads that send
+     * requests and handle responses.
+     *
+     * @return configured number of event loop threads
+     */
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    /**
+     * Configures number of Netty event loop threads that send requests and
+     * handle responses. A handful is enough for hundreds of concurrent
+     * requests because no thread is blocked while a request is in flight.
+     *
+     * @param eventLoopThreads number of event loop threads
+     */
+    public void setEventLoopThreads(int eventLoopThreads) {
+        Validator.validate(eventLoopThreads > 0, "eventLoopThreads must be >0");
+        this.eventLoopThreads = eventLoopThreads;
+    }
+
+    /**
+     * Returns whether requests are multiplexed over HTTP/2 connections.
+     *
+     * @return true if HTTP/2 is used
+     */
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    /**
+     * Configures whether requests are multiplexed over HTTP/2 connections.
+     * If disabled, HTTP/1.1 is used and every in-flight request needs its own
+     * connection.
+     *
+     * @param http2 true to use HTTP/2
+     */
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+}
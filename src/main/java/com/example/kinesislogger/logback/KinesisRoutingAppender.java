@@ -0,0 +1,174 @@
+package com.example.kinesislogger.logback;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.amazonaws.services.kinesis.AmazonKinesisAsync;
+import com.example.kinesislogger.logback.routing.KinesisRoute;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 이벤트마다 route 규칙 (level, logger, marker, MDC) 으로 stream 을 골라 보내는 Kinesis 비동기 Appender
+ * <p>
+ * - route 는 설정 순서대로 확인하고 처음 일치한 route 의 stream 으로 보냄. 일치하는 route 가 없으면 streamName 으로 보냄
+ * - 모든 route 가 이 appender 의 client (connection pool, SDK 쓰레드 풀) 를 같이 사용. 쓰레드 풀 / 연결 수는 route 수만큼 늘림
+ * - route 별 rateLimitEnabled 는 요청 단위로 적용되므로 client 를 같이 사용해도 route 마다 다르게 설정할 수 있음
+ * - ring buffer, 전송 쓰레드, 배치, overflowPolicy, 전송량 제한, shard map, 지표는 route (stream) 별로 따로 둠
+ * <pre>
+ *   &lt;appender name="KINESIS" class="com.example.kinesislogger.logback.KinesisRoutingAppender"&gt;
+ *       &lt;streamName&gt;app-log&lt;/streamName&gt;
+ *       &lt;route&gt;
+ *           &lt;streamName&gt;audit-log&lt;/streamName&gt;
+ *           &lt;marker&gt;AUDIT&lt;/marker&gt;
+ *       &lt;/route&gt;
+ *       &lt;route&gt;
+ *           &lt;streamName&gt;error-log&lt;/streamName&gt;
+ *           &lt;level&gt;ERROR&lt;/level&gt;
+ *           &lt;rateLimitEnabled&gt;true&lt;/rateLimitEnabled&gt;
+ *       &lt;/route&gt;
+ *       ...
+ *   &lt;/appender&gt;
+ * </pre>
+ */
+public class KinesisRoutingAppender extends KinesisAsyncAppender<ILoggingEvent> {
+
+    private final List<KinesisRoute> routes = new ArrayList<>();
+    private volatile List<RouteAppender> routeAppenders = Collections.emptyList();
+
+    /**
+     * route 별 전송 파이프라인 시작 (client 는 이 appender 가 만든 것을 같이 사용)
+     */
+    @Override
+    public void start() {
+        super.start();
+
+        AmazonKinesisAsync client = getClient();
+        if (client == null) {
+            return;
+        }
+        List<RouteAppender> started = new ArrayList<>(routes.size());
+        for (KinesisRoute route : routes) {
+            if (route.getStreamName() == null) {
+                addError("Invalid configuration - streamName cannot be null for route " + route
+                        + " of appender: " + name);
+                continue;
+            }
+            RouteAppender appender = new RouteAppender(route);
+            configure(appender, route);
+            appender.setSharedClient(client);
+            appender.start();
+            started.add(appender);
+        }
+        routeAppenders = started;
+    }
+
+    /**
+     * route 를 먼저 종료한 뒤 (남은 배치 전송) client 를 종료
+     */
+    @Override
+    public void stop() {
+        List<RouteAppender> stopping = routeAppenders;
+        routeAppenders = Collections.emptyList();
+        for (RouteAppender appender : stopping) {
+            appender.stop();
+        }
+        super.stop();
+    }
+
+    /**
+     * 처음 일치한 route 로 보냄. 없으면 streamName 으로 보냄
+     *
+     * @param logEvent
+     */
+    @Override
+    protected void append(ILoggingEvent logEvent) {
+        List<RouteAppender> appenders = routeAppenders;
+        for (int i = 0, size = appenders.size(); i < size; i++) {
+            RouteAppender appender = appenders.get(i);
+            if (appender.route.matches(logEvent)) {
+                appender.append(logEvent);
+                return;
+            }
+        }
+        super.append(logEvent);
+    }
+
+    /**
+     * Adds a route. Routes are checked in the configured order and the first
+     * matching route is used.
+     *
+     * @param route route to add
+     */
+    public void addRoute(KinesisRoute route) {
+        routes.add(route);
+    }
+
+    /**
+     * Returns configured routes.
+     *
+     * @return configured routes
+     */
+    public List<KinesisRoute> getRoutes() {
+        return Collections.unmodifiableList(routes);
+    }
+
+    /**
+     * 시작된 route 별 appender (지표 등록용)
+     *
+     * @return
+     */
+    public List<? extends BaseKinesisAppender<ILoggingEvent, AmazonKinesisAsync>> getRouteAppenders() {
+        return routeAppenders;
+    }
+
+    /**
+     * route appender 들도 이 appender 의 client 를 같이 사용하므로 SDK 쓰레드 풀 / HTTP 연결 수를 route 수만큼 늘림
+     * (route appender 는 동시 요청 설정을 이 appender 에서 복사하므로 동시 요청 한도가 같음)
+     *
+     * @return
+     */
+    @Override
+    protected int clientConcurrency() {
+        return super.clientConcurrency() * (routes.size() + 1);
+    }
+
+    /**
+     * route appender 에 이 appender 설정을 복사하고 route 설정으로 덮어씀
+     */
+    private void configure(RouteAppender appender, KinesisRoute route) {
+        copySettingsTo(appender);
+        appender.setContext(getContext());
+        appender.setName(name + "[" + route.getStreamName() + "]");
+        appender.setStreamName(route.getStreamName());
+
+        if (route.getBufferSize() != null) {
+            appender.setBufferSize(route.getBufferSize());
+        }
+        if (route.getLingerMillis() != null) {
+            appender.setLingerMillis(route.getLingerMillis());
+        }
+        if (route.getOverflowPolicy() != null) {
+            appender.setOverflowPolicy(route.getOverflowPolicy());
+        }
+        if (route.getRateLimitEnabled() != null) {
+            appender.setRateLimitEnabled(route.getRateLimitEnabled());
+        }
+        if (route.getPartitionKeyStrategy() != null) {
+            appender.setPartitionKeyStrategy(route.getPartitionKeyStrategy());
+            appender.setPartitionKeyField(route.getPartitionKeyField());
+        }
+    }
+
+    /**
+     * route 하나의 전송 파이프라인. logger 에 붙지 않고 KinesisRoutingAppender 를 통해서만 호출됨
+     */
+    private static final class RouteAppender extends KinesisAsyncAppender<ILoggingEvent> {
+
+        private final KinesisRoute route;
+
+        private RouteAppender(KinesisRoute route) {
+            this.route = route;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.kinesislogger.logback.binary;
+
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 문자열 대신 바로 레코드 byte 를 만드는 layout
+ * - appender 의 layout 이 이 interface 를 구현하면 doLayout + 문자 인코딩 대신 {@link #encode} 를 사용
+ */
+public interface BinaryLayout<E> {
+
+    /**
+     * 이벤트를 풀에서 빌린 버퍼로 인코딩 (읽기 모드. 전송 완료 후 풀로 반납됨)
+     *
+     * @param event
+     * @param pool
+     * @return
+     */
+    ByteBuffer encode(E event, ByteBufferPool pool);
+}
@@ -0,0 +1,203 @@
+package com.example.kinesislogger.logback.binary;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.LayoutBase;
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+import org.slf4j.Marker;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * LogstashLayout 과 같은 필드를 CBOR 로 쓰는 layout
+ * <p>
+ * - 레코드: self-describe tag (0xD9D9F7) + stringref namespace (tag 256) + map
+ * - logstash 필드는 정수 key ({@link CborLogFields}), @timestamp 는 epoch millis 정수
+ * - 필드 이름 / logger / thread / level / MDC / customFields 는 레코드 안에서 stringref 로 한번만 씀
+ * - stringref 테이블은 레코드마다 새로 시작 (aggregation / 압축 / 재전송과 상관없이 레코드 하나만으로 읽을 수 있음)
+ * - appender 는 {@link BinaryLayout#encode} 로 풀 버퍼에 바로 인코딩. {@link #doLayout} 은 JSON 으로 바꾼 문자열 (디버깅용)
+ * - consumer 쪽은 {@link CborLogDecoder} 로 JSON 으로 되돌림
+ */
+public class CborLayout extends LayoutBase<ILoggingEvent> implements BinaryLayout<ILoggingEvent> {
+
+    private static final String VERSION = "1";
+
+    /**
+     * 쓰레드별 writer 가 이보다 커지면 (긴 stack trace 등) 버리고 새로 만듦
+     */
+    private static final int MAX_RETAINED_BYTES = 64 * 1024;
+
+    private String customFields;
+    private boolean includeMdc = true;
+
+    private CborWriter customFieldsFragment;
+
+    private final ThreadLocal<CborWriter> writers = ThreadLocal.withInitial(CborWriter::new);
+
+    @Override
+    public void start() {
+        if (customFields != null && !customFields.trim().isEmpty()) {
+            CborWriter fields = new CborWriter();
+            try {
+                JsonToCbor.writeFields(customFields, fields);
+            } catch (IllegalArgumentException e) {
+                addError("Invalid customFields for CborLayout", e);
+                return;
+            }
+            customFieldsFragment = fields;
+        } else {
+            customFieldsFragment = null;
+        }
+        super.start();
+    }
+
+    @Override
+    public ByteBuffer encode(ILoggingEvent event, ByteBufferPool pool) {
+        CborWriter writer = writers.get();
+        write(event, writer);
+        ByteBuffer data = writer.toBuffer(pool);
+        release(writer);
+        return data;
+    }
+
+    /**
+     * @param event
+     * @return CBOR 레코드
+     */
+    public byte[] toByteArray(ILoggingEvent event) {
+        CborWriter writer = writers.get();
+        write(event, writer);
+        byte[] data = writer.toByteArray();
+        release(writer);
+        return data;
+    }
+
+    /**
+     * CBOR 레코드를 JSON 으로 바꾼 문자열 (BinaryLayout 을 모르는 appender / 디버깅용. 느림)
+     */
+    @Override
+    public String doLayout(ILoggingEvent event) {
+        return CborLogDecoder.toJson(toByteArray(event));
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/cbor";
+    }
+
+    /**
+     * 이벤트를 writer 에 씀 (customFields 를 먼저 써서 조각의 stringref index 를 그대로 사용)
+     *
+     * @param event
+     * @param out
+     */
+    private void write(ILoggingEvent event, CborWriter out) {
+        out.reset();
+        out.writeTag(CborWriter.TAG_SELF_DESCRIBE);
+        out.writeTag(CborWriter.TAG_STRING_REF_NAMESPACE);
+        out.startMap();
+        if (customFieldsFragment != null) {
+            out.writeFragment(customFieldsFragment);
+        }
+        out.writeInt(CborLogFields.TIMESTAMP);
+        out.writeInt(event.getTimeStamp());
+        out.writeInt(CborLogFields.VERSION);
+        out.writeSharedText(VERSION);
+        out.writeInt(CborLogFields.MESSAGE);
+        out.writeText(String.valueOf(event.getFormattedMessage()));
+        out.writeInt(CborLogFields.LOGGER_NAME);
+        out.writeSharedText(String.valueOf(event.getLoggerName()));
+        out.writeInt(CborLogFields.THREAD_NAME);
+        out.writeSharedText(String.valueOf(event.getThreadName()));
+        out.writeInt(CborLogFields.LEVEL);
+        out.writeSharedText(event.getLevel().toString());
+        out.writeInt(CborLogFields.LEVEL_VALUE);
+        out.writeInt(event.getLevel().toInt());
+        if (includeMdc) {
+            writeMdc(event.getMDCPropertyMap(), out);
+        }
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            out.writeInt(CborLogFields.STACK_TRACE);
+            out.writeText(ThrowableProxyUtil.asString(throwable));
+        }
+        Marker marker = event.getMarker();
+        if (marker != null) {
+            out.writeInt(CborLogFields.TAGS);
+            out.startArray();
+            writeTags(marker, out);
+            out.endArray();
+        }
+        out.endMap();
+    }
+
+    private static void writeMdc(Map<String, String> mdc, CborWriter out) {
+        if (mdc == null || mdc.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : mdc.entrySet()) {
+            if (entry.getValue() != null) {
+                out.writeSharedText(entry.getKey());
+                out.writeSharedText(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * marker 이름과 참조하는 marker 이름 (LogstashLayout 의 tags 와 같음)
+     */
+    private static void writeTags(Marker marker, CborWriter out) {
+        out.writeSharedText(marker.getName());
+        if (marker.hasReferences()) {
+            for (Iterator<Marker> references = marker.iterator(); references.hasNext(); ) {
+                writeTags(references.next(), out);
+            }
+        }
+    }
+
+    private void release(CborWriter writer) {
+        if (writer.size() > MAX_RETAINED_BYTES) {
+            writers.remove();
+        }
+    }
+
+    /**
+     * Returns configured custom fields.
+     *
+     * @return custom fields as a JSON object
+     */
+    public String getCustomFields() {
+        return customFields;
+    }
+
+    /**
+     * Configures fields added to every record, as a JSON object (same format
+     * as LogstashLayout customFields). Encoded once when the layout starts.
+     *
+     * @param customFields custom fields as a JSON object
+     */
+    public void setCustomFields(String customFields) {
+        this.customFields = customFields;
+    }
+
+    /**
+     * Returns whether MDC properties are written.
+     *
+     * @return true if MDC properties are written
+     */
+    public boolean isIncludeMdc() {
+        return includeMdc;
+    }
+
+    /**
+     * Configures whether MDC properties are written as fields.
+     *
+     * @param includeMdc true to write MDC properties
+     */
+    public void setIncludeMdc(boolean includeMdc) {
+        this.includeMdc = includeMdc;
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.kinesislogger.logback.binary;
+
+import com.example.kinesislogger.logback.helpers.JsonStrings;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * {@link CborLayout} 레코드를 LogstashLayout 과 같은 모양의 JSON 으로 되돌림 (consumer 용)
+ * - 정수 key 는 {@link CborLogFields} 이름으로, @timestamp 는 ISO-8601 (UTC, millis) 문자열로 바꿈
+ * - stringref (tag 256 / 25), 길이를 모르는 array / map 지원. byte string 은 base64 문자열로 씀
+ * - thread-safe (상태 없음)
+ */
+public final class CborLogDecoder {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private CborLogDecoder() {
+    }
+
+    /**
+     * self-describe tag (0xD9D9F7) 로 시작하는지 여부. JSON / 일반 문자열 레코드와 구분
+     *
+     * @param data
+     * @param offset
+     * @param length
+     * @return
+     */
+    public static boolean isCbor(byte[] data, int offset, int length) {
+        return length >= 3 && (data[offset] & 0xFF) == 0xD9 && (data[offset + 1] & 0xFF) == 0xD9
+                && (data[offset + 2] & 0xFF) == 0xF7;
+    }
+
+    public static boolean isCbor(byte[] data) {
+        return isCbor(data, 0, data.length);
+    }
+
+    /**
+     * @param data CBOR 레코드
+     * @return JSON (한 줄)
+     * @throws IllegalArgumentException CBOR 형식이 맞지 않으면
+     */
+    public static String toJson(byte[] data) {
+        return toJson(data, 0, data.length);
+    }
+
+    public static String toJson(byte[] data, int offset, int length) {
+        Reader reader = new Reader(data, offset, offset + length);
+        StringBuilder json = new StringBuilder(length * 2);
+        reader.readItem(json, -1);
+        if (reader.position != reader.end) {
+            throw new IllegalArgumentException("Unexpected trailing bytes in CBOR record");
+        }
+        return json.toString();
+    }
+
+    /**
+     * 레코드 하나를 읽는 상태 (위치, stringref 테이블)
+     */
+    private static final class Reader {
+
+        private final byte[] data;
+        private final int end;
+        private int position;
+        private List<String> sharedStrings;
+
+        private Reader(byte[] data, int position, int end) {
+            this.data = data;
+            this.position = position;
+            this.end = end;
+        }
+
+        /**
+         * @param json
+         * @param fieldKey 값이 속한 map 의 정수 key (없으면 -1)
+         */
+        private void readItem(StringBuilder json, long fieldKey) {
+            int initial = next();
+            int major = initial >>> 5;
+            int info = initial & 0x1F;
+            switch (major) {
+                case CborWriter.MAJOR_UNSIGNED:
+                case CborWriter.MAJOR_NEGATIVE:
+                    long number = readInteger(major, info);
+                    if (fieldKey == CborLogFields.TIMESTAMP) {
+                        JsonStrings.appendQuoted(json, TIMESTAMP.format(Instant.ofEpochMilli(number)));
+                    } else {
+                        json.append(number);
+                    }
+                    break;
+                case CborWriter.MAJOR_BYTES:
+                    JsonStrings.appendQuoted(json, readBytes(info));
+                    break;
+                case CborWriter.MAJOR_TEXT:
+                    JsonStrings.appendQuoted(json, readText(info, true));
+                    break;
+                case CborWriter.MAJOR_ARRAY:
+                    readArray(json, info);
+                    break;
+                case CborWriter.MAJOR_MAP:
+                    readMap(json, info);
+                    break;
+                case CborWriter.MAJOR_TAG:
+                    readTagged(json, readArgument(info), fieldKey);
+                    break;
+                default:
+                    readSimple(json, initial);
+            }
+        }
+
+        private void readTagged(StringBuilder json, long tag, long fieldKey) {
+            if (tag == CborWriter.TAG_STRING_REF) {
+                JsonStrings.appendQuoted(json, readStringRef());
+            } else if (tag == CborWriter.TAG_STRING_REF_NAMESPACE) {
+                List<String> outer = sharedStrings;
+                sharedStrings = new ArrayList<>();
+                readItem(json, fieldKey);
+                sharedStrings = outer;
+            } else {
+                // self-describe 등 나머지 tag 는 값만 씀
+                readItem(json, fieldKey);
+            }
+        }
+
+        private void readArray(StringBuilder json, int info) {
+            json.append('[');
+            long length = info == 31 ? Long.MAX_VALUE : readArgument(info);
+            for (long i = 0; i < length && !endOfContainer(info); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                readItem(json, -1);
+            }
+            json.append(']');
+        }
+
+        private void readMap(StringBuilder json, int info) {
+            json.append('{');
+            long length = info == 31 ? Long.MAX_VALUE : readArgument(info);
+            for (long i = 0; i < length && !endOfContainer(info); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                long fieldKey = readKey(json);
+                json.append(':');
+                readItem(json, fieldKey);
+            }
+            json.append('}');
+        }
+
+        /**
+         * 길이를 모르는 container 의 break byte 면 건너뛰고 true
+         */
+        private boolean endOfContainer(int info) {
+            if (info == 31 && peek() == CborWriter.BREAK) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * map key 를 문자열로 씀. 정수 key 는 {@link CborLogFields} 이름으로 바꿈
+         *
+         * @return 정수 key 면 그 값, 아니면 -1
+         */
+        private long readKey(StringBuilder json) {
+            int initial = peek();
+            int major = initial >>> 5;
+            if (major == CborWriter.MAJOR_UNSIGNED || major == CborWriter.MAJOR_NEGATIVE) {
+                position++;
+                long key = readInteger(major, initial & 0x1F);
+                String name = CborLogFields.name(key);
+                JsonStrings.appendQuoted(json, name != null ? name : Long.toString(key));
+                return key;
+            }
+            readItem(json, -1);
+            return -1;
+        }
+
+        private String readStringRef() {
+            int initial = next();
+            if (initial >>> 5 != CborWriter.MAJOR_UNSIGNED) {
+                throw new IllegalArgumentException("Invalid stringref index");
+            }
+            long index = readArgument(initial & 0x1F);
+            if (sharedStrings == null || index >= sharedStrings.size()) {
+                throw new IllegalArgumentException("Unknown stringref " + index);
+            }
+            return sharedStrings.get((int) index);
+        }
+
+        private void readSimple(StringBuilder json, int initial) {
+            switch (initial) {
+                case CborWriter.FALSE:
+                    json.append("false");
+                    break;
+                case CborWriter.TRUE:
+                    json.append("true");
+                    break;
+                case CborWriter.NULL:
+                case 0xF7:
+                    json.append("null");
+                    break;
+                case 0xF9:
+                    appendDouble(json, halfToDouble((int) readUnsigned(2)));
+                    break;
+                case 0xFA:
+                    appendDouble(json, Float.intBitsToFloat((int) readUnsigned(4)));
+                    break;
+                case CborWriter.FLOAT64:
+                    appendDouble(json, Double.longBitsToDouble(readUnsigned(8)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported CBOR simple value " + initial);
+            }
+        }
+
+        /**
+         * @param share stringref 테이블에 추가할지 (길이를 모르는 문자열의 조각은 추가하지 않음)
+         */
+        private String readText(int info, boolean share) {
+            if (info == 31) {
+                StringBuilder chunks = new StringBuilder();
+                while (peek() != CborWriter.BREAK) {
+                    chunks.append(readText(next() & 0x1F, false));
+                }
+                position++;
+                return chunks.toString();
+            }
+            int length = readLength(info);
+            String text = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            if (share) {
+                share(text, length);
+            }
+            return text;
+        }
+
+        private String readBytes(int info) {
+            int length = readLength(info);
+            String encoded = Base64.getEncoder().encodeToString(Arrays.copyOfRange(data, position, position + length));
+            position += length;
+            share(encoded, length);
+            return encoded;
+        }
+
+        private int readLength(int info) {
+            long length = readArgument(info);
+            if (length > end - position) {
+                throw new IllegalArgumentException("Truncated CBOR record");
+            }
+            return (int) length;
+        }
+
+        private long readInteger(int major, int info) {
+            long value = readArgument(info);
+            return major == CborWriter.MAJOR_UNSIGNED ? value : -1 - value;
+        }
+
+        private void share(String value, int byteLength) {
+            if (sharedStrings != null && CborWriter.isShareable(byteLength, sharedStrings.size())) {
+                sharedStrings.add(value);
+            }
+        }
+
+        private long readArgument(int info) {
+            if (info < 24) {
+                return info;
+            }
+            switch (info) {
+                case 24:
+                    return readUnsigned(1);
+                case 25:
+                    return readUnsigned(2);
+                case 26:
+                    return readUnsigned(4);
+                case 27:
+                    return readUnsigned(8);
+                default:
+                    throw new IllegalArgumentException("Unsupported CBOR argument " + info);
+            }
+        }
+
+        private long readUnsigned(int bytes) {
+            if (position + bytes > end) {
+                throw new IllegalArgumentException("Truncated CBOR record");
+            }
+            long value = 0;
+            for (int i = 0; i < bytes; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        private int peek() {
+            if (position >= end) {
+                throw new IllegalArgumentException("Truncated CBOR record");
+            }
+            return data[position] & 0xFF;
+        }
+
+        private int next() {
+            int value = peek();
+            position++;
+            return value;
+        }
+
+        private static void appendDouble(StringBuilder json, double value) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                json.append("null");
+            } else {
+                json.append(value);
+            }
+        }
+
+        private static double halfToDouble(int half) {
+            int exponent = (half >> 10) & 0x1F;
+            int mantissa = half & 0x3FF;
+            double value;
+            if (exponent == 0) {
+                value = mantissa * Math.pow(2, -24);
+            } else if (exponent != 31) {
+                value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+            } else {
+                value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+            }
+            return (half & 0x8000) != 0 ? -value : value;
+        }
+    }
+}
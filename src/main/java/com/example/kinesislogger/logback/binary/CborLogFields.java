@@ -0,0 +1,38 @@
+package com.example.kinesislogger.logback.binary;
+
+/**
+ * {@link CborLayout} 이 정수 key 로 쓰는 logstash 필드 (LogstashLayout 과 같은 이름)
+ * - 번호는 바꾸거나 재사용하지 않음 (이미 stream 에 쓴 레코드를 consumer 가 읽어야 함). 새 필드는 뒤에 추가
+ * - MDC, customFields 처럼 이름이 정해지지 않은 필드는 문자열 key 로 씀
+ */
+public final class CborLogFields {
+
+    /**
+     * epoch millis (정수). JSON 으로 바꿀 때 ISO-8601 (UTC) 문자열로 씀
+     */
+    public static final int TIMESTAMP = 0;
+    public static final int VERSION = 1;
+    public static final int MESSAGE = 2;
+    public static final int LOGGER_NAME = 3;
+    public static final int THREAD_NAME = 4;
+    public static final int LEVEL = 5;
+    public static final int LEVEL_VALUE = 6;
+    public static final int STACK_TRACE = 7;
+    public static final int TAGS = 8;
+
+    private static final String[] NAMES = {
+            "@timestamp", "@version", "message", "logger_name", "thread_name", "level", "level_value", "stack_trace",
+            "tags"
+    };
+
+    private CborLogFields() {
+    }
+
+    /**
+     * @param key
+     * @return 모르는 번호면 null
+     */
+    public static String name(long key) {
+        return key >= 0 && key < NAMES.length ? NAMES[(int) key] : null;
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.kinesislogger.logback.binary;
+
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CBOR (RFC 8949) 인코더. 레코드 하나를 byte[] 에 쓰고 풀 버퍼로 복사
+ * - 문자열은 String 을 거치지 않고 바로 UTF-8 로 씀
+ * - stringref (tag 256 / tag 25) 지원. {@link #writeSharedText} 로 쓴 문자열은 같은 레코드에서 다시 나오면 index 로 씀
+ * - 쓰레드 하나에서만 사용 (thread-safe 하지 않음). {@link #reset()} 후 재사용
+ */
+public class CborWriter {
+
+    static final int MAJOR_UNSIGNED = 0;
+    static final int MAJOR_NEGATIVE = 1;
+    static final int MAJOR_BYTES = 2;
+    static final int MAJOR_TEXT = 3;
+    static final int MAJOR_ARRAY = 4;
+    static final int MAJOR_MAP = 5;
+    static final int MAJOR_TAG = 6;
+    static final int MAJOR_SIMPLE = 7;
+
+    static final int TAG_STRING_REF = 25;
+    static final int TAG_STRING_REF_NAMESPACE = 256;
+    static final int TAG_SELF_DESCRIBE = 55799;
+
+    static final int INDEFINITE_ARRAY = 0x9F;
+    static final int INDEFINITE_MAP = 0xBF;
+    static final int BREAK = 0xFF;
+    static final int FALSE = 0xF4;
+    static final int TRUE = 0xF5;
+    static final int NULL = 0xF6;
+    static final int FLOAT64 = 0xFB;
+
+    private static final int INITIAL_SIZE = 1024;
+
+    private byte[] buffer = new byte[INITIAL_SIZE];
+    private int size;
+
+    private final Map<String, Integer> sharedStrings = new HashMap<>();
+    private int sharedCount;
+
+    /**
+     * 비우고 stringref 테이블 초기화
+     */
+    public void reset() {
+        size = 0;
+        sharedStrings.clear();
+        sharedCount = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 쓴 내용을 풀에서 빌린 버퍼로 복사 (읽기 모드)
+     *
+     * @param pool
+     * @return
+     */
+    public ByteBuffer toBuffer(ByteBufferPool pool) {
+        ByteBuffer data = pool.acquire(size);
+        data.put(buffer, 0, size);
+        data.flip();
+        return data;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public void writeTag(long tag) {
+        writeHeader(MAJOR_TAG, tag);
+    }
+
+    public void startMap() {
+        writeByte(INDEFINITE_MAP);
+    }
+
+    public void endMap() {
+        writeByte(BREAK);
+    }
+
+    public void startArray(int length) {
+        writeHeader(MAJOR_ARRAY, length);
+    }
+
+    /**
+     * 길이를 모르는 array 시작 ({@link #endArray()} 로 끝냄)
+     */
+    public void startArray() {
+        writeByte(INDEFINITE_ARRAY);
+    }
+
+    public void endArray() {
+        writeByte(BREAK);
+    }
+
+    public void writeInt(long value) {
+        if (value >= 0) {
+            writeHeader(MAJOR_UNSIGNED, value);
+        } else {
+            writeHeader(MAJOR_NEGATIVE, -1 - value);
+        }
+    }
+
+    public void writeDouble(double value) {
+        ensure(9);
+        buffer[size++] = (byte) FLOAT64;
+        long bits = Double.doubleToLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (bits >>> shift);
+        }
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? TRUE : FALSE);
+    }
+
+    public void writeNull() {
+        writeByte(NULL);
+    }
+
+    /**
+     * 다른 writer 가 만든 CBOR 조각을 그대로 씀. 조각의 stringref 테이블도 이어 붙임 (이후 같은 문자열은 참조로 씀)
+     *
+     * @param fragment 빈 테이블에서 시작해 쓴 writer (이후 변경하지 않음)
+     */
+    public void writeFragment(CborWriter fragment) {
+        ensure(fragment.size);
+        System.arraycopy(fragment.buffer, 0, buffer, size, fragment.size);
+        size += fragment.size;
+        for (Map.Entry<String, Integer> shared : fragment.sharedStrings.entrySet()) {
+            sharedStrings.putIfAbsent(shared.getKey(), sharedCount + shared.getValue());
+        }
+        sharedCount += fragment.sharedCount;
+    }
+
+    /**
+     * 문자열을 그대로 씀 (stringref 테이블 index 만 증가. 메시지, stack trace 처럼 다시 나오지 않는 값)
+     *
+     * @param value
+     */
+    public void writeText(String value) {
+        int length = writeUtf8(value);
+        if (isShareable(length, sharedCount)) {
+            sharedCount++;
+        }
+    }
+
+    /**
+     * 같은 레코드에서 이미 쓴 문자열이면 stringref, 아니면 그대로 쓰고 테이블에 추가 (필드 이름, logger, thread 등)
+     *
+     * @param value
+     */
+    public void writeSharedText(String value) {
+        Integer index = sharedStrings.get(value);
+        if (index != null) {
+            writeTag(TAG_STRING_REF);
+            writeHeader(MAJOR_UNSIGNED, index);
+            return;
+        }
+        int length = writeUtf8(value);
+        if (isShareable(length, sharedCount)) {
+            sharedStrings.put(value, sharedCount++);
+        }
+    }
+
+    /**
+     * stringref 테이블에 추가되는 문자열인지 여부 (index 를 쓰는 것이 문자열보다 짧은 경우만. RFC 8949 stringref 규칙)
+     *
+     * @param byteLength 문자열의 UTF-8 길이
+     * @param tableSize  지금 테이블 크기
+     * @return
+     */
+    static boolean isShareable(int byteLength, long tableSize) {
+        if (tableSize < 24) {
+            return byteLength >= 3;
+        } else if (tableSize < 256) {
+            return byteLength >= 4;
+        } else if (tableSize < 65536) {
+            return byteLength >= 5;
+        } else if (tableSize < 4294967296L) {
+            return byteLength >= 7;
+        }
+        return byteLength >= 11;
+    }
+
+    /**
+     * @return UTF-8 길이
+     */
+    private int writeUtf8(String value) {
+        int chars = value.length();
+        int length = utf8Length(value, chars);
+        writeHeader(MAJOR_TEXT, length);
+        ensure(length);
+        byte[] out = buffer;
+        int position = size;
+        if (length == chars) {
+            for (int i = 0; i < chars; i++) {
+                out[position++] = (byte) value.charAt(i);
+            }
+        } else {
+            for (int i = 0; i < chars; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    out[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    out[position++] = (byte) (0xC0 | (c >> 6));
+                    out[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    out[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    out[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    out[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    out[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    out[position++] = '?';
+                } else {
+                    out[position++] = (byte) (0xE0 | (c >> 12));
+                    out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    out[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+        size = position;
+        return length;
+    }
+
+    /**
+     * 짝이 맞지 않는 surrogate 는 '?' 한 byte 로 셈
+     */
+    private static int utf8Length(String value, int chars) {
+        int length = chars;
+        for (int i = 0; i < chars; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    length += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2;
+                }
+            }
+        }
+        return length;
+    }
+
+    private void writeHeader(int major, long value) {
+        ensure(9);
+        int type = major << 5;
+        if (value < 24) {
+            buffer[size++] = (byte) (type | value);
+        } else if (value < 0x100) {
+            buffer[size++] = (byte) (type | 24);
+            buffer[size++] = (byte) value;
+        } else if (value < 0x10000) {
+            buffer[size++] = (byte) (type | 25);
+            buffer[size++] = (byte) (value >>> 8);
+            buffer[size++] = (byte) value;
+        } else if (value < 0x100000000L) {
+            buffer[size++] = (byte) (type | 26);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        } else {
+            buffer[size++] = (byte) (type | 27);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[size++] = (byte) value;
+    }
+
+    private void ensure(int length) {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(size + length, buffer.length * 2));
+        }
+    }
+}
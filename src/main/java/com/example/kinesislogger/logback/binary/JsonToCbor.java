@@ -0,0 +1,196 @@
+package com.example.kinesislogger.logback.binary;
+
+/**
+ * customFields (JSON object) 를 CBOR map 항목으로 변환 (layout start 시 한번만 사용)
+ * - 최상위 object 의 항목을 map 헤더 없이 씀 (로그 map 에 그대로 합쳐짐)
+ * - 정수는 정수로, 소수/지수는 double 로 씀
+ */
+final class JsonToCbor {
+
+    private final String json;
+    private int position;
+
+    private JsonToCbor(String json) {
+        this.json = json;
+    }
+
+    /**
+     * @param json JSON object
+     * @param out
+     * @throws IllegalArgumentException JSON object 가 아니면
+     */
+    static void writeFields(String json, CborWriter out) {
+        JsonToCbor parser = new JsonToCbor(json);
+        parser.skipWhitespace();
+        parser.expect('{');
+        parser.writeMembers(out);
+        parser.skipWhitespace();
+        if (parser.position != json.length()) {
+            throw parser.error("Unexpected trailing characters");
+        }
+    }
+
+    private void writeMembers(CborWriter out) {
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            out.writeSharedText(readString());
+            skipWhitespace();
+            expect(':');
+            writeValue(out);
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return;
+            } else if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private void writeValue(CborWriter out) {
+        skipWhitespace();
+        char c = peek();
+        if (c == '{') {
+            position++;
+            out.startMap();
+            writeMembers(out);
+            out.endMap();
+        } else if (c == '[') {
+            position++;
+            writeArray(out);
+        } else if (c == '"') {
+            out.writeSharedText(readString());
+        } else if (json.startsWith("true", position)) {
+            position += 4;
+            out.writeBoolean(true);
+        } else if (json.startsWith("false", position)) {
+            position += 5;
+            out.writeBoolean(false);
+        } else if (json.startsWith("null", position)) {
+            position += 4;
+            out.writeNull();
+        } else {
+            writeNumber(out);
+        }
+    }
+
+    private void writeArray(CborWriter out) {
+        out.startArray();
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+        } else {
+            while (true) {
+                writeValue(out);
+                skipWhitespace();
+                char c = next();
+                if (c == ']') {
+                    break;
+                } else if (c != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+        }
+        out.endArray();
+    }
+
+    private void writeNumber(CborWriter out) {
+        int start = position;
+        boolean integer = true;
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integer = false;
+            } else if (c != '-' && c != '+' && (c < '0' || c > '9')) {
+                break;
+            }
+            position++;
+        }
+        String number = json.substring(start, position);
+        try {
+            if (integer) {
+                out.writeInt(Long.parseLong(number));
+            } else {
+                out.writeDouble(Double.parseDouble(number));
+            }
+        } catch (NumberFormatException e) {
+            throw error("Invalid value '" + number + "'");
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > json.length()) {
+                        throw error("Invalid unicode escape");
+                    }
+                    value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private char peek() {
+        if (position >= json.length()) {
+            throw error("Unexpected end");
+        }
+        return json.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at " + position + " in customFields: " + json);
+    }
+}
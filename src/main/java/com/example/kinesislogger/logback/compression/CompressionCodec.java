@@ -0,0 +1,63 @@
+package com.example.kinesislogger.logback.compression;
+
+/**
+ * 레코드 압축 codec SPI
+ * - 내장 codec (gzip, deflate, lz4, zstd) 외에는 META-INF/services/
+ *   com.example.kinesislogger.logback.compression.CompressionCodec 에 구현체를 등록하고 getName() 으로 설정
+ * - 인스턴스는 쓰레드에 안전하지 않아도 됨 (전송 쓰레드 하나만 사용)
+ * - getId() 는 레코드 헤더에 기록되어 consumer 가 codec 을 판별하는데 사용. 직접 구현한 codec 은 64 이상 사용
+ */
+public interface CompressionCodec {
+
+    /**
+     * codec 기본 압축 레벨을 사용
+     */
+    int DEFAULT_LEVEL = -1;
+
+    /**
+     * 레코드 헤더에 기록되는 codec id
+     *
+     * @return
+     */
+    byte getId();
+
+    /**
+     * 설정에 사용하는 이름 (compression)
+     *
+     * @return
+     */
+    String getName();
+
+    /**
+     * 압축 레벨 설정 (DEFAULT_LEVEL 이면 codec 기본값)
+     *
+     * @param level
+     */
+    void setLevel(int level);
+
+    /**
+     * length 바이트를 압축했을 때 최대 크기
+     *
+     * @param length
+     * @return
+     */
+    int maxCompressedLength(int length);
+
+    /**
+     * src 를 압축하여 dst 에 씀. dst 에는 maxCompressedLength(srcLength) 만큼의 공간이 있음
+     *
+     * @return 압축된 바이트 수
+     */
+    int compress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset);
+
+    /**
+     * 압축 해제. dst 에 원본 크기(originalLength)만큼 씀
+     */
+    void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int originalLength);
+
+    /**
+     * native 자원 해제
+     */
+    default void close() {
+    }
+}
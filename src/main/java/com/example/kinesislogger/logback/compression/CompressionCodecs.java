@@ -0,0 +1,82 @@
+package com.example.kinesislogger.logback.compression;
+
+import java.util.ServiceLoader;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * CompressionCodec 조회
+ * - 내장 codec 을 먼저 찾고, 없으면 ServiceLoader 로 등록된 codec 을 찾음
+ * - lz4 / zstd 는 optional 의존성이므로 클래스패스에 없으면 설정 시점에 오류
+ */
+public final class CompressionCodecs {
+
+    public static final String NONE = "none";
+
+    private CompressionCodecs() {
+    }
+
+    /**
+     * 설정 이름으로 codec 생성 (none 이면 null)
+     *
+     * @param name
+     * @return
+     */
+    public static CompressionCodec of(String name) {
+        String normalized = name.trim().toLowerCase();
+        switch (normalized) {
+            case NONE:
+                return null;
+            case "gzip":
+                return new GzipCodec();
+            case "deflate":
+            case "zlib":
+                return new DeflateCodec();
+            case "lz4":
+                return load(Lz4Codec::new, "lz4", "org.lz4:lz4-java");
+            case "zstd":
+                return load(ZstdCodec::new, "zstd", "com.github.luben:zstd-jni");
+            default:
+                return lookup(codec -> codec.getName().equalsIgnoreCase(normalized),
+                        "Unknown compression: " + name + " (none, gzip, deflate, lz4, zstd)");
+        }
+    }
+
+    /**
+     * 레코드 헤더의 codec id 로 codec 생성 (압축 해제용)
+     *
+     * @param id
+     * @return
+     */
+    public static CompressionCodec of(byte id) {
+        switch (id) {
+            case GzipCodec.ID:
+                return new GzipCodec();
+            case DeflateCodec.ID:
+                return new DeflateCodec();
+            case Lz4Codec.ID:
+                return load(Lz4Codec::new, "lz4", "org.lz4:lz4-java");
+            case ZstdCodec.ID:
+                return load(ZstdCodec::new, "zstd", "com.github.luben:zstd-jni");
+            default:
+                return lookup(codec -> codec.getId() == id, "Unknown compression codec id: " + id);
+        }
+    }
+
+    private static CompressionCodec load(Supplier<CompressionCodec> factory, String name, String artifact) {
+        try {
+            return factory.get();
+        } catch (LinkageError e) {
+            throw new IllegalArgumentException(name + " compression requires " + artifact + " on the classpath", e);
+        }
+    }
+
+    private static CompressionCodec lookup(Predicate<CompressionCodec> matcher, String errorMesg) {
+        for (CompressionCodec codec : ServiceLoader.load(CompressionCodec.class)) {
+            if (matcher.test(codec)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException(errorMesg);
+    }
+}
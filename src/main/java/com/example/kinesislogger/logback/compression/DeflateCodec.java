@@ -0,0 +1,112 @@
+package com.example.kinesislogger.logback.compression;
+
+import com.example.kinesislogger.logback.helpers.Validator;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * zlib(deflate) codec (JDK 내장)
+ * - Deflater / Inflater 를 재사용하여 레코드마다 native 자원을 만들지 않음
+ */
+public class DeflateCodec implements CompressionCodec {
+
+    public static final byte ID = 2;
+
+    private final boolean nowrap;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private Deflater deflater;
+    private Inflater inflater;
+
+    public DeflateCodec() {
+        this(false);
+    }
+
+    /**
+     * @param nowrap true 이면 zlib 헤더 / adler32 없이 raw deflate 스트림 (gzip 에서 사용)
+     */
+    protected DeflateCodec(boolean nowrap) {
+        this.nowrap = nowrap;
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "deflate";
+    }
+
+    @Override
+    public void setLevel(int level) {
+        Validator.validate(level == DEFAULT_LEVEL || (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+                "deflate compressionLevel must be between 0 and 9");
+        this.level = level;
+        if (deflater != null) {
+            deflater.setLevel(level);
+        }
+    }
+
+    /**
+     * zlib compressBound + zlib 헤더 / trailer
+     */
+    @Override
+    public int maxCompressedLength(int length) {
+        return length + (length >>> 12) + (length >>> 14) + (length >>> 25) + 13 + 6;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+        if (deflater == null) {
+            deflater = new Deflater(level, nowrap);
+        }
+        deflater.reset();
+        deflater.setInput(src, srcOffset, srcLength);
+        deflater.finish();
+        int written = 0;
+        while (!deflater.finished()) {
+            int count = deflater.deflate(dst, dstOffset + written, dst.length - dstOffset - written);
+            if (count == 0 && dstOffset + written == dst.length) {
+                throw new IllegalStateException("deflate output exceeded maxCompressedLength");
+            }
+            written += count;
+        }
+        return written;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int originalLength) {
+        if (inflater == null) {
+            inflater = new Inflater(nowrap);
+        }
+        inflater.reset();
+        inflater.setInput(src, srcOffset, srcLength);
+        try {
+            int read = 0;
+            while (read < originalLength) {
+                int count = inflater.inflate(dst, dstOffset + read, originalLength - read);
+                if (count == 0) {
+                    throw new IllegalArgumentException("Truncated " + getName() + " record");
+                }
+                read += count;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted " + getName() + " record", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.kinesislogger.logback.compression;
+
+import java.util.zip.CRC32;
+
+/**
+ * gzip codec (JDK 내장)
+ * - 압축 결과는 단일 member gzip 파일 포맷이므로 헤더를 제외하면 gunzip / GZIPInputStream 으로 읽을 수 있음
+ * - GZIPOutputStream 대신 raw deflate + 고정 헤더 / trailer 를 직접 써서 레코드마다 스트림을 만들지 않음
+ */
+public class GzipCodec extends DeflateCodec {
+
+    public static final byte ID = 1;
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int HEADER_LENGTH = 10;
+    private static final int TRAILER_LENGTH = 8;
+
+    private final CRC32 crc = new CRC32();
+
+    public GzipCodec() {
+        super(true);
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "gzip";
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+        return super.maxCompressedLength(length) + HEADER_LENGTH + TRAILER_LENGTH;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+        // magic, CM=deflate, FLG=0, MTIME=0, XFL=0, OS=unknown
+        dst[dstOffset] = (byte) GZIP_MAGIC;
+        dst[dstOffset + 1] = (byte) (GZIP_MAGIC >> 8);
+        dst[dstOffset + 2] = 8;
+        for (int i = 3; i < HEADER_LENGTH - 1; i++) {
+            dst[dstOffset + i] = 0;
+        }
+        dst[dstOffset + HEADER_LENGTH - 1] = (byte) 0xff;
+
+        int deflated = super.compress(src, srcOffset, srcLength, dst, dstOffset + HEADER_LENGTH);
+
+        crc.reset();
+        crc.update(src, srcOffset, srcLength);
+        int trailer = dstOffset + HEADER_LENGTH + deflated;
+        writeIntLE(dst, trailer, (int) crc.getValue());
+        writeIntLE(dst, trailer + 4, srcLength);
+        return HEADER_LENGTH + deflated + TRAILER_LENGTH;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int originalLength) {
+        if (srcLength < HEADER_LENGTH + TRAILER_LENGTH
+                || (src[srcOffset] & 0xff | (src[srcOffset + 1] & 0xff) << 8) != GZIP_MAGIC
+                || src[srcOffset + 3] != 0) {
+            throw new IllegalArgumentException("Unsupported gzip header");
+        }
+        super.decompress(src, srcOffset + HEADER_LENGTH, srcLength - HEADER_LENGTH - TRAILER_LENGTH,
+                dst, dstOffset, originalLength);
+
+        crc.reset();
+        crc.update(dst, dstOffset, originalLength);
+        if (readIntLE(src, srcOffset + srcLength - TRAILER_LENGTH) != (int) crc.getValue()) {
+            throw new IllegalArgumentException("Corrupted gzip record (crc mismatch)");
+        }
+    }
+
+    private static void writeIntLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        bytes[offset + 2] = (byte) (value >> 16);
+        bytes[offset + 3] = (byte) (value >> 24);
+    }
+
+    private static int readIntLE(byte[] bytes, int offset) {
+        return bytes[offset] & 0xff | (bytes[offset + 1] & 0xff) << 8
+                | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.kinesislogger.logback.compression;
+
+import com.example.kinesislogger.logback.helpers.Validator;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * LZ4 block codec (org.lz4:lz4-java 필요)
+ * - level 이 기본값이면 fast compressor, 1 ~ 17 이면 high compressor (LZ4 HC)
+ * - 블록 포맷이므로 원본 크기는 레코드 헤더에서 읽음
+ * - stream 에서 읽은 데이터는 신뢰할 수 없으므로 safe decompressor 로 풀고 풀린 크기가 헤더와 같은지 확인
+ */
+public class Lz4Codec implements CompressionCodec {
+
+    public static final byte ID = 3;
+
+    private static final int MAX_LEVEL = 17;
+
+    private final LZ4Factory factory = LZ4Factory.fastestInstance();
+    private LZ4Compressor compressor = factory.fastCompressor();
+    private LZ4SafeDecompressor decompressor;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "lz4";
+    }
+
+    @Override
+    public void setLevel(int level) {
+        Validator.validate(level == DEFAULT_LEVEL || (level >= 1 && level <= MAX_LEVEL),
+                "lz4 compressionLevel must be between 1 and " + MAX_LEVEL);
+        this.compressor = level == DEFAULT_LEVEL ? factory.fastCompressor() : factory.highCompressor(level);
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+        return compressor.maxCompressedLength(length);
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+        return compressor.compress(src, srcOffset, srcLength, dst, dstOffset, dst.length - dstOffset);
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int originalLength) {
+        if (decompressor == null) {
+            decompressor = factory.safeDecompressor();
+        }
+        int written;
+        try {
+            written = decompressor.decompress(src, srcOffset, srcLength, dst, dstOffset, originalLength);
+        } catch (LZ4Exception e) {
+            throw new IllegalArgumentException("Corrupted lz4 record", e);
+        }
+        if (written != originalLength) {
+            throw new IllegalArgumentException("Corrupted lz4 record");
+        }
+    }
+}
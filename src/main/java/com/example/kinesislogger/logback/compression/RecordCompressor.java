@@ -0,0 +1,122 @@
+package com.example.kinesislogger.logback.compression;
+
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 전송할 레코드(또는 aggregated record)를 압축하고 codec 헤더를 붙임
+ * <p>
+ * 헤더 (8 bytes, big-endian)
+ * <pre>
+ *   0xC1 'K' | version(1) | codec id(1) | 원본 길이(4) | 압축된 데이터
+ * </pre>
+ * - 0xC1 은 UTF-8 / JSON / KPL magic(0xF3) 의 첫 바이트가 될 수 없으므로 consumer 가 압축 여부를 판별할 수 있음
+ * - minBytes 보다 작거나 압축해도 작아지지 않는 레코드는 그대로 보냄 (헤더 없음)
+ * - 전송 쓰레드 하나만 사용 (쓰레드에 안전하지 않음)
+ */
+public class RecordCompressor {
+
+    public static final byte MAGIC_0 = (byte) 0xC1;
+    public static final byte MAGIC_1 = 'K';
+    public static final byte VERSION = 1;
+    public static final int HEADER_LENGTH = 8;
+
+    private final CompressionCodec codec;
+    private final int minBytes;
+    private final ByteBufferPool pool;
+
+    public RecordCompressor(CompressionCodec codec, int minBytes, ByteBufferPool pool) {
+        this.codec = codec;
+        this.minBytes = minBytes;
+        this.pool = pool;
+    }
+
+    /**
+     * data 를 압축한 버퍼. 압축하지 않은 경우 data 를 그대로 반환
+     * <p>
+     * - 압축한 경우 data 는 풀로 반납됨
+     *
+     * @param data
+     * @return
+     */
+    public ByteBuffer compress(ByteBuffer data) {
+        int length = data.remaining();
+        if (length < minBytes || !data.hasArray()) {
+            return data;
+        }
+
+        ByteBuffer target = pool.acquire(HEADER_LENGTH + codec.maxCompressedLength(length));
+        int compressed;
+        try {
+            compressed = codec.compress(data.array(), data.arrayOffset() + data.position(), length,
+                    target.array(), target.arrayOffset() + HEADER_LENGTH);
+        } catch (RuntimeException e) {
+            pool.release(target);
+            throw e;
+        }
+        if (HEADER_LENGTH + compressed >= length) {
+            pool.release(target);
+            return data;
+        }
+
+        target.put(0, MAGIC_0);
+        target.put(1, MAGIC_1);
+        target.put(2, VERSION);
+        target.put(3, codec.getId());
+        target.putInt(4, length);
+        target.limit(HEADER_LENGTH + compressed);
+        pool.release(data);
+        return target;
+    }
+
+    public CompressionCodec getCodec() {
+        return codec;
+    }
+
+    public void close() {
+        codec.close();
+    }
+
+    /**
+     * codec 헤더가 붙은 레코드인지 여부
+     *
+     * @param data
+     * @return
+     */
+    public static boolean isCompressed(ByteBuffer data) {
+        int position = data.position();
+        return data.remaining() >= HEADER_LENGTH
+                && data.get(position) == MAGIC_0
+                && data.get(position + 1) == MAGIC_1
+                && data.get(position + 2) == VERSION;
+    }
+
+    /**
+     * consumer 용 압축 해제. 헤더가 없으면 data 를 그대로 반환
+     *
+     * @param data
+     * @return
+     */
+    public static ByteBuffer decompress(ByteBuffer data) {
+        if (!isCompressed(data)) {
+            return data;
+        }
+        int position = data.position();
+        CompressionCodec codec = CompressionCodecs.of(data.get(position + 3));
+        int originalLength = data.getInt(position + 4);
+
+        byte[] source = new byte[data.remaining() - HEADER_LENGTH];
+        ByteBuffer body = data.duplicate();
+        body.position(position + HEADER_LENGTH);
+        body.get(source);
+
+        byte[] original = new byte[originalLength];
+        try {
+            codec.decompress(source, 0, source.length, original, 0, originalLength);
+        } finally {
+            codec.close();
+        }
+        return ByteBuffer.wrap(original);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.kinesislogger.logback.compression;
+
+import com.example.kinesislogger.logback.helpers.Validator;
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Zstandard codec (com.github.luben:zstd-jni 필요)
+ * - level 기본값은 3, 1 ~ 22 사용 가능
+ */
+public class ZstdCodec implements CompressionCodec {
+
+    public static final byte ID = 4;
+
+    private static final int DEFAULT_ZSTD_LEVEL = 3;
+    private static final int MAX_LEVEL = 22;
+
+    private int level = DEFAULT_ZSTD_LEVEL;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "zstd";
+    }
+
+    @Override
+    public void setLevel(int level) {
+        Validator.validate(level == DEFAULT_LEVEL || (level >= 1 && level <= MAX_LEVEL),
+                "zstd compressionLevel must be between 1 and " + MAX_LEVEL);
+        this.level = level == DEFAULT_LEVEL ? DEFAULT_ZSTD_LEVEL : level;
+    }
+
+    @Override
+    public int maxCompressedLength(int length) {
+        return (int) Zstd.compressBound(length);
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+        long result = Zstd.compressByteArray(dst, dstOffset, dst.length - dstOffset, src, srcOffset, srcLength, level);
+        if (Zstd.isError(result)) {
+            throw new IllegalStateException("zstd compression failed: " + Zstd.getErrorName(result));
+        }
+        return (int) result;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int originalLength) {
+        long result = Zstd.decompressByteArray(dst, dstOffset, originalLength, src, srcOffset, srcLength);
+        if (Zstd.isError(result) || result != originalLength) {
+            throw new IllegalArgumentException("Corrupted zstd record"
+                    + (Zstd.isError(result) ? ": " + Zstd.getErrorName(result) : ""));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.util.function.IntSupplier;
+
+/**
+ * stream 단위 전송량 제한 (AIMD)
+ * <p>
+ * - 한도 = open shard 수 x shard 한도 (초당 1000 레코드, 1 MB) x fraction
+ * - throttling 을 받으면 fraction 을 절반으로 (multiplicative decrease, DECREASE_INTERVAL 당 한번)
+ * - throttling 이 없는 동안 초당 INCREASE_PER_SECOND 씩 fraction 을 올림 (additive increase, 최대 1)
+ * - 레코드 / 바이트 token bucket (최대 1초 분량) 에서 배치만큼 빌리고, 부족한 만큼 기다릴 시간을 돌려줌
+ * - shard 수를 아직 모르면 제한하지 않음
+ */
+public class AimdRateLimiter {
+
+    public static final int SHARD_RECORDS_PER_SECOND = 1000;
+    public static final int SHARD_BYTES_PER_SECOND = 1024 * 1024;
+
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double INCREASE_PER_SECOND = 0.05;
+    private static final double MIN_FRACTION = 0.01;
+    private static final long DECREASE_INTERVAL_NANOS = 200_000_000L;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final IntSupplier shardCount;
+
+    private double fraction = 1.0;
+    // 처음에는 가득 찬 bucket 으로 시작 (첫 refill 에서 1초 분량으로 맞춰짐)
+    private double recordTokens = Double.MAX_VALUE;
+    private double byteTokens = Double.MAX_VALUE;
+    private long lastRefillNanos = System.nanoTime();
+    private long lastDecreaseNanos = lastRefillNanos - DECREASE_INTERVAL_NANOS;
+    private long throttledCount;
+
+    /**
+     * @param shardCount 현재 open shard 수 (모르면 0)
+     */
+    public AimdRateLimiter(IntSupplier shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * 배치 전송 전에 호출 (전송 쓰레드)
+     *
+     * @param records 배치의 레코드 수
+     * @param bytes   배치 크기
+     * @return 보내기 전에 기다려야 하는 시간(ns), 바로 보내도 되면 0
+     */
+    public synchronized long acquire(int records, long bytes) {
+        int shards = shardCount.getAsInt();
+        if (shards <= 0) {
+            return 0;
+        }
+        refill(System.nanoTime(), shards);
+        recordTokens -= records;
+        byteTokens -= bytes;
+
+        double waitSeconds = Math.max(-recordTokens / recordsPerSecond(shards), -byteTokens / bytesPerSecond(shards));
+        return waitSeconds > 0 ? (long) (waitSeconds * NANOS_PER_SECOND) : 0;
+    }
+
+    /**
+     * throttling 응답을 받았을 때 호출 (SDK callback 쓰레드)
+     */
+    public synchronized void onThrottled() {
+        throttledCount++;
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos < DECREASE_INTERVAL_NANOS) {
+            return;
+        }
+        refill(now, Math.max(1, shardCount.getAsInt()));
+        fraction = Math.max(MIN_FRACTION, fraction * DECREASE_FACTOR);
+        lastDecreaseNanos = now;
+        // 줄어든 한도를 넘는 token 은 버림
+        recordTokens = Math.min(recordTokens, 0);
+        byteTokens = Math.min(byteTokens, 0);
+    }
+
+    /**
+     * shard 한도 대비 현재 허용 비율 (0.01 ~ 1)
+     *
+     * @return
+     */
+    public synchronized double getFraction() {
+        return fraction;
+    }
+
+    /**
+     * 현재 초당 허용 레코드 수 (shard 수를 모르면 0)
+     *
+     * @return
+     */
+    public synchronized double getRecordsPerSecond() {
+        return recordsPerSecond(shardCount.getAsInt());
+    }
+
+    public synchronized long getThrottledCount() {
+        return throttledCount;
+    }
+
+    private void refill(long now, int shards) {
+        double elapsed = (now - lastRefillNanos) / NANOS_PER_SECOND;
+        lastRefillNanos = now;
+        if (now - lastDecreaseNanos >= DECREASE_INTERVAL_NANOS) {
+            fraction = Math.min(1.0, fraction + INCREASE_PER_SECOND * elapsed);
+        }
+        double recordRate = recordsPerSecond(shards);
+        double byteRate = bytesPerSecond(shards);
+        recordTokens = Math.min(recordRate, recordTokens + recordRate * elapsed);
+        byteTokens = Math.min(byteRate, byteTokens + byteRate * elapsed);
+    }
+
+    private double recordsPerSecond(int shards) {
+        return fraction * shards * SHARD_RECORDS_PER_SECOND;
+    }
+
+    private double bytesPerSecond(int shards) {
+        return fraction * shards * SHARD_BYTES_PER_SECOND;
+    }
+}
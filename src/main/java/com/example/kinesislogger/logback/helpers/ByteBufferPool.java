@@ -0,0 +1,75 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 재사용 가능한 heap ByteBuffer 풀
+ * - 2의 거듭제곱 크기 클래스 (256 B ~ 1 MB) 별로 BoundedQueue 에 보관
+ * - 클래스 별로 poolBytes / 클래스 수 만큼만 보관하고 나머지는 GC 에 맡김
+ * - 1 MB 를 넘는 요청은 풀을 거치지 않고 그대로 할당
+ */
+public class ByteBufferPool {
+
+    private static final int MIN_SHIFT = 8;
+    private static final int MAX_SHIFT = 20;
+    private static final int MAX_SLOTS_PER_CLASS = 4096;
+
+    private final BoundedQueue<ByteBuffer>[] classes;
+
+    @SuppressWarnings("unchecked")
+    public ByteBufferPool(long poolBytes) {
+        Validator.validate(poolBytes > 0, "poolBytes must be >0");
+        int classCount = MAX_SHIFT - MIN_SHIFT + 1;
+        this.classes = new BoundedQueue[classCount];
+        for (int i = 0; i < classCount; i++) {
+            long slots = poolBytes / classCount / (1L << (MIN_SHIFT + i));
+            classes[i] = new BoundedQueue<>((int) Math.max(1, Math.min(MAX_SLOTS_PER_CLASS, slots)));
+        }
+    }
+
+    /**
+     * capacity 이상의 비어있는 버퍼 (position 0, limit = capacity)
+     *
+     * @param capacity
+     * @return
+     */
+    public ByteBuffer acquire(int capacity) {
+        int index = classIndex(capacity);
+        if (index < 0) {
+            return ByteBuffer.allocate(capacity);
+        }
+        ByteBuffer buffer = classes[index].poll();
+        if (buffer == null) {
+            return ByteBuffer.allocate(1 << (MIN_SHIFT + index));
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 버퍼 반납. 풀에서 할당한 크기가 아니거나 풀이 가득 찬 경우 버림
+     *
+     * @param buffer
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.hasArray() || buffer.arrayOffset() != 0) {
+            return;
+        }
+        int capacity = buffer.capacity();
+        int index = classIndex(capacity);
+        if (index >= 0 && capacity == 1 << (MIN_SHIFT + index)) {
+            classes[index].offer(buffer);
+        }
+    }
+
+    /**
+     * capacity 를 담을 수 있는 가장 작은 클래스 (1 MB 초과시 -1)
+     */
+    private static int classIndex(int capacity) {
+        if (capacity <= 1 << MIN_SHIFT) {
+            return 0;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        return shift > MAX_SHIFT ? -1 : shift - MIN_SHIFT;
+    }
+}
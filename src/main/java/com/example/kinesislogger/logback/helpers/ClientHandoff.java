@@ -0,0 +1,148 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * logback 재설정 (scan) 시 멈춘 appender 의 client 를 새 appender 에 넘겨주는 보관소
+ * - stop 한 appender 가 client 와 SDK 쓰레드 풀을 key 로 맡겨두면 (park) 같은 key 로 start 하는 appender 가 이어받음 (claim)
+ *   (connection pool 이 유지되고 client 생성 / stream 체크를 다시 하지 않음)
+ * - timeout 안에 이어받는 appender 가 없으면 (appender 삭제, 종료) 맡긴 쪽이 넘긴 shutdown 을 실행
+ * - key 에는 client 설정에 영향을 주는 값 (region, 인증 정보, 재시도 설정 등) 을 모두 넣어야 함
+ * - HTTP 연결 수는 key 에 넣지 않고 client 와 같이 맡김. 이어받는 쪽에 필요한 연결 수보다 적으면 이어받지 않고 종료함
+ *   (재설정으로 threadCount 를 늘린 경우 연결 수가 큰 client 를 새로 만듦)
+ * - 맡겨진 동안에는 SDK 쓰레드 풀의 idle 쓰레드를 바로 종료해서 JVM 종료를 막지 않음 (이어받을 때 원래대로 돌림)
+ */
+public final class ClientHandoff {
+
+    private static final ConcurrentMap<String, Parked<?>> PARKED = new ConcurrentHashMap<>();
+    private static final ScheduledThreadPoolExecutor REAPER = reaper();
+    private static final long PARKED_KEEP_ALIVE_MILLIS = 100;
+
+    private ClientHandoff() {
+    }
+
+    /**
+     * client 를 맡김. 같은 key 로 맡겨진 client 가 있으면 바로 종료
+     *
+     * @param key           client 설정을 나타내는 key
+     * @param client
+     * @param executor      client 의 SDK 쓰레드 풀
+     * @param maxConnections client 의 HTTP 연결 수
+     * @param streamName    client 로 체크를 마친 stream
+     * @param timeoutMillis 이어받기를 기다리는 시간
+     * @param shutdown      이어받는 appender 가 없을 때 실행할 종료 작업
+     * @param <C>
+     */
+    public static <C> void park(String key, C client, ThreadPoolExecutor executor, int maxConnections,
+                                String streamName, long timeoutMillis, Runnable shutdown) {
+        Parked<C> parked = new Parked<>(client, executor, maxConnections, streamName, shutdown);
+        executor.setKeepAliveTime(PARKED_KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        Parked<?> previous = PARKED.put(key, parked);
+        if (previous != null) {
+            previous.shutdown();
+        }
+        parked.reaper = REAPER.schedule(() -> {
+            if (PARKED.remove(key, parked)) {
+                parked.shutdown();
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 맡겨진 client 를 이어받음. HTTP 연결 수가 maxConnections 보다 적은 client 는 종료하고 이어받지 않음
+     *
+     * @param key
+     * @param maxConnections 이어받는 쪽에 필요한 HTTP 연결 수
+     * @param <C>
+     * @return 없으면 null
+     */
+    @SuppressWarnings("unchecked")
+    public static <C> Parked<C> claim(String key, int maxConnections) {
+        Parked<C> parked = (Parked<C>) PARKED.remove(key);
+        if (parked == null) {
+            return null;
+        }
+        if (parked.reaper != null) {
+            parked.reaper.cancel(false);
+        }
+        if (parked.maxConnections < maxConnections) {
+            parked.shutdown();
+            return null;
+        }
+        parked.executor.allowCoreThreadTimeOut(false);
+        parked.executor.setKeepAliveTime(parked.keepAliveNanos, TimeUnit.NANOSECONDS);
+        return parked;
+    }
+
+    /**
+     * 맡겨진 client
+     *
+     * @param <C>
+     */
+    public static final class Parked<C> {
+
+        private final C client;
+        private final ThreadPoolExecutor executor;
+        private final int maxConnections;
+        private final String streamName;
+        private final Runnable shutdown;
+        private final long keepAliveNanos;
+        private volatile ScheduledFuture<?> reaper;
+
+        private Parked(C client, ThreadPoolExecutor executor, int maxConnections, String streamName,
+                       Runnable shutdown) {
+            this.client = client;
+            this.executor = executor;
+            this.maxConnections = maxConnections;
+            this.streamName = streamName;
+            this.shutdown = shutdown;
+            this.keepAliveNanos = executor.getKeepAliveTime(TimeUnit.NANOSECONDS);
+        }
+
+        public C getClient() {
+            return client;
+        }
+
+        public ThreadPoolExecutor getExecutor() {
+            return executor;
+        }
+
+        /**
+         * client 의 HTTP 연결 수
+         *
+         * @return
+         */
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        /**
+         * client 로 체크를 마친 stream 이름
+         *
+         * @return
+         */
+        public String getStreamName() {
+            return streamName;
+        }
+
+        private void shutdown() {
+            shutdown.run();
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor reaper() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new NamedThreadFactory("kinesis-client-handoff-").newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
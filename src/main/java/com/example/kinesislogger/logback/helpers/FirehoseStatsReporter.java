@@ -0,0 +1,137 @@
+package com.example.kinesislogger.logback.helpers;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchRequest;
+import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchResponseEntry;
+import com.amazonaws.services.kinesisfirehose.model.PutRecordBatchResult;
+import com.amazonaws.services.kinesisfirehose.model.ServiceUnavailableException;
+import com.example.kinesislogger.logback.KinesisFirehoseAppender;
+import com.example.kinesislogger.logback.metrics.KinesisAppenderMetrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Firehose PutRecordBatch 비동기 핸들러 ({@link KinesisStatsReporter} 의 Firehose 판)
+ * - 응답은 요청한 레코드 순서대로 오므로 전송 파이프라인의 entry 목록과 index 로 맞춤
+ * - ServiceUnavailableException (delivery stream 한도 초과) 은 throttling 으로 보고 레코드를 다시 배치에 넣음
+ * - 오류 보고는 ERROR_REPORT_INTERVAL 당 한번만
+ */
+public class FirehoseStatsReporter {
+
+    private static final String THROTTLED_ERROR_CODE = "ServiceUnavailableException";
+    private static final long ERROR_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final KinesisFirehoseAppender<?> appender;
+    private final KinesisAppenderMetrics metrics;
+    private final ReportThrottle errorReportThrottle = new ReportThrottle(ERROR_REPORT_INTERVAL_NANOS);
+
+    public FirehoseStatsReporter(KinesisFirehoseAppender<?> appender) {
+        this.appender = appender;
+        this.metrics = appender.getMetrics();
+    }
+
+    /**
+     * 요청별 비동기 핸들러 (응답 시간은 핸들러를 만든 시각부터 잼)
+     *
+     * @param entries 요청에 담은 레코드 (Record 와 같은 순서)
+     * @return
+     */
+    public AsyncHandler<PutRecordBatchRequest, PutRecordBatchResult> forRequest(List<PutRecordsRequestEntry> entries) {
+        long sentNanos = System.nanoTime();
+        return new AsyncHandler<PutRecordBatchRequest, PutRecordBatchResult>() {
+            @Override
+            public void onError(Exception exception) {
+                FirehoseStatsReporter.this.onError(entries, exception);
+                appender.onRequestCompleted(sentNanos, exception instanceof ServiceUnavailableException);
+            }
+
+            @Override
+            public void onSuccess(PutRecordBatchRequest request, PutRecordBatchResult result) {
+                FirehoseStatsReporter.this.onSuccess(entries, result);
+                appender.onRequestCompleted(sentNanos, hasThrottledRecords(result));
+            }
+        };
+    }
+
+    /**
+     * 전송 오류시 호출
+     *
+     *  - throttling 이면 레코드 전체를 다시 배치에 넣음
+     *  - 그 외 오류는 레코드를 버리고 (버린 레코드로 집계) 버퍼를 반납
+     */
+    public void onError(List<PutRecordsRequestEntry> entries, Exception exception) {
+        if (exception instanceof ServiceUnavailableException) {
+            metrics.onRequestThrottled();
+            for (PutRecordsRequestEntry entry : entries) {
+                appender.retryRecord(entry);
+            }
+            return;
+        }
+        metrics.onRequestFailed();
+        reportError(exception);
+        for (PutRecordsRequestEntry entry : entries) {
+            appender.dropRecord(entry, "was in a failed request");
+        }
+    }
+
+    /**
+     * 전송 성공 callback
+     *
+     *  - PutRecordBatch 는 레코드 단위로 실패할 수 있으므로 실패한 레코드는 다시 배치에 넣음
+     *  - 전송된 레코드의 크기 / enqueue 부터의 지연을 기록하고 버퍼는 풀로 반납
+     */
+    public void onSuccess(List<PutRecordsRequestEntry> entries, PutRecordBatchResult result) {
+
+        metrics.onRequestSent();
+        long now = System.nanoTime();
+
+        Integer failed = result.getFailedPutCount();
+        if (failed == null || failed == 0) {
+            for (PutRecordsRequestEntry entry : entries) {
+                sent(entry, now);
+            }
+            return;
+        }
+
+        List<PutRecordBatchResponseEntry> responses = result.getRequestResponses();
+        for (int i = 0; i < responses.size(); i++) {
+            String errorCode = responses.get(i).getErrorCode();
+            if (errorCode != null) {
+                metrics.onRecordFailed();
+                if (THROTTLED_ERROR_CODE.equals(errorCode)) {
+                    metrics.onRecordThrottled();
+                }
+                appender.retryRecord(entries.get(i));
+            } else {
+                sent(entries.get(i), now);
+            }
+        }
+    }
+
+    private static boolean hasThrottledRecords(PutRecordBatchResult result) {
+        Integer failed = result.getFailedPutCount();
+        if (failed == null || failed == 0) {
+            return false;
+        }
+        for (PutRecordBatchResponseEntry entry : result.getRequestResponses()) {
+            if (THROTTLED_ERROR_CODE.equals(entry.getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sent(PutRecordsRequestEntry entry, long now) {
+        metrics.onRecordSent(entry.getData().remaining(), RecordEntry.enqueuedNanos(entry), now);
+        appender.releaseRecord(entry);
+    }
+
+    private void reportError(Exception exception) {
+        if (errorReportThrottle.tryAcquire()) {
+            appender.addError("Failed to publish log entries to firehose using appender: " + appender.getStreamName()
+                    + " (failed requests so far: " + metrics.getFailedRequests() + ")", exception);
+        }
+    }
+}
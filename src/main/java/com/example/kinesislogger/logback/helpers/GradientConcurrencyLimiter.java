@@ -0,0 +1,128 @@
+package com.example.kinesislogger.logback.helpers;
+
+/**
+ * 동시에 보내는 PutRecords 요청 수 제한 (gradient 방식)
+ * <p>
+ * - 응답 시간의 단기 평균 (SHORT_WINDOW 요청) 과 장기 평균 (LONG_WINDOW 요청) 을 비교
+ * - gradient = TOLERANCE x 장기 / 단기 (0.5 ~ 1). 응답이 느려지면 (대기열이 생기면) 한도를 줄이고,
+ *   그렇지 않으면 sqrt(한도) 만큼 늘림. 새 한도는 SMOOTHING 비율로 반영
+ * - 한도의 절반도 쓰지 않는 동안에는 늘리지 않음 (로그가 적을 때 한도만 커지지 않도록)
+ * - throttling 을 받으면 DROP_FACTOR 만큼 줄임
+ * - 응답 시간이 크게 줄면 (장기 평균이 단기의 2배 이상) 장기 평균을 빠르게 낮춤
+ * - 한도는 minLimit ~ maxLimit. minLimit == maxLimit 이면 고정 한도
+ */
+public class GradientConcurrencyLimiter {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double DROP_FACTOR = 0.9;
+    private static final double LONG_RTT_DECAY = 0.95;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private int inFlight;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    /**
+     * @param initialLimit 처음 한도 (minLimit ~ maxLimit 으로 맞춤)
+     * @param minLimit     최소 한도
+     * @param maxLimit     최대 한도
+     */
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        Validator.validate(minLimit > 0, "minLimit must be >0");
+        Validator.validate(maxLimit >= minLimit, "maxLimit must be >= minLimit");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * 요청을 보내기 전에 호출 (전송 쓰레드). 보내는 중인 요청이 한도만큼 있으면 응답이 올 때까지 기다림
+     * - interrupt 되면 한도를 넘더라도 바로 반환 (종료 중)
+     */
+    public synchronized void acquire() {
+        while (inFlight >= (int) limit) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        inFlight++;
+    }
+
+    /**
+     * 요청이 끝났을 때 호출 (SDK callback 쓰레드). 응답 시간으로 한도를 조정
+     *
+     * @param rttNanos  요청부터 응답까지의 시간
+     * @param throttled throttling 을 받았는지 여부
+     */
+    public synchronized void release(long rttNanos, boolean throttled) {
+        int active = inFlight;
+        inFlight = Math.max(0, inFlight - 1);
+        if (shortRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+        } else {
+            shortRttNanos = average(shortRttNanos, rttNanos, SHORT_WINDOW);
+            longRttNanos = average(longRttNanos, rttNanos, LONG_WINDOW);
+            if (longRttNanos > 2 * shortRttNanos) {
+                longRttNanos *= LONG_RTT_DECAY;
+            }
+        }
+
+        double newLimit;
+        if (throttled) {
+            newLimit = limit * DROP_FACTOR;
+        } else if (active < limit / 2) {
+            newLimit = limit;
+        } else {
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+            newLimit = limit * gradient + Math.sqrt(limit);
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        notifyAll();
+    }
+
+    /**
+     * 요청을 보내지 못했을 때 호출 (응답 시간은 반영하지 않음)
+     */
+    public synchronized void cancel() {
+        inFlight = Math.max(0, inFlight - 1);
+        notifyAll();
+    }
+
+    /**
+     * @return 현재 동시 요청 한도
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return 보내는 중인 요청 수
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    private static double average(double average, long sample, int window) {
+        double alpha = 2.0 / (window + 1);
+        return average + alpha * (sample - average);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.kinesislogger.logback.helpers;
+
+/**
+ * 직접 만드는 JSON 레코드 (stack trace dictionary, Elasticsearch bulk 요청 등) 의 문자열 escape
+ */
+public final class JsonStrings {
+
+    private JsonStrings() {
+    }
+
+    /**
+     * value 를 따옴표로 감싸고 escape 해서 추가
+     *
+     * @param json
+     * @param value
+     */
+    public static void appendQuoted(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -1,27 +1,72 @@
 package com.example.kinesislogger.logback.helpers;
 
 import com.amazonaws.handlers.AsyncHandler;
-import com.amazonaws.services.kinesis.model.PutRecordRequest;
-import com.amazonaws.services.kinesis.model.PutRecordResult;
-import com.example.kinesislogger.logback.KinesisAsyncAppender;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesis.model.PutRecordsResult;
+import com.amazonaws.services.kinesis.model.PutRecordsResultEntry;
+import com.example.kinesislogger.logback.BaseKinesisAppender;
+import com.example.kinesislogger.logback.metrics.KinesisAppenderMetrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /**
  *  비동기 핸들러
  *  - 비동기 callback 처리를 위함.
  *  - 성공, 실패에 대한 응답 처리
+ *  - 여러 SDK callback 쓰레드에서 동시에 호출되므로 집계는 {@link KinesisAppenderMetrics} (LongAdder) 에 함
+ *  - 오류 보고는 ERROR_REPORT_INTERVAL 당 한번만 (실패가 몰릴 때 status 가 넘치지 않도록)
  *
  * @author 한주희
  */
-public class KinesisStatsReporter implements AsyncHandler<PutRecordRequest, PutRecordResult> {
+public class KinesisStatsReporter implements AsyncHandler<PutRecordsRequest, PutRecordsResult> {
+
+    private static final String THROTTLED_ERROR_CODE = "ProvisionedThroughputExceededException";
+    private static final long ERROR_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
 
-    private final String appenderName;
-    private final KinesisAsyncAppender<?> appender;
-    private long successfulRequestCount;
-    private long failedRequestCount;
+    private final BaseKinesisAppender<?, ?> appender;
+    private final KinesisAppenderMetrics metrics;
+    private final Predicate<Exception> throttling;
+    private final ReportThrottle errorReportThrottle = new ReportThrottle(ERROR_REPORT_INTERVAL_NANOS);
+
+    public KinesisStatsReporter(BaseKinesisAppender<?, ?> appender) {
+        this(appender, BaseKinesisAppender::isThrottling);
+    }
 
-    public KinesisStatsReporter(KinesisAsyncAppender<?> appender) {
-        this.appenderName = appender.getStreamName();
+    /**
+     * @param appender
+     * @param throttling throttling 오류인지 여부 (SDK 에 따라 예외 타입이 다름)
+     */
+    public KinesisStatsReporter(BaseKinesisAppender<?, ?> appender, Predicate<Exception> throttling) {
         this.appender = appender;
+        this.metrics = appender.getMetrics();
+        this.throttling = throttling;
+    }
+
+    /**
+     * 요청별 비동기 핸들러. 오류시에도 요청에 담긴 레코드를 처리할 수 있도록 request 를 함께 보관
+     * - 응답 시간은 핸들러를 만든 시각 (요청을 보내기 직전) 부터 잼 (동시 요청 한도 조정)
+     *
+     * @param request
+     * @return
+     */
+    public AsyncHandler<PutRecordsRequest, PutRecordsResult> forRequest(PutRecordsRequest request) {
+        long sentNanos = System.nanoTime();
+        return new AsyncHandler<PutRecordsRequest, PutRecordsResult>() {
+            @Override
+            public void onError(Exception exception) {
+                KinesisStatsReporter.this.onError(request, exception);
+                appender.onRequestCompleted(sentNanos, throttling.test(exception));
+            }
+
+            @Override
+            public void onSuccess(PutRecordsRequest putRecordsRequest, PutRecordsResult result) {
+                KinesisStatsReporter.this.onSuccess(putRecordsRequest, result);
+                appender.onRequestCompleted(sentNanos, hasThrottledRecords(result));
+            }
+        };
     }
 
     /**
@@ -30,18 +75,99 @@ public class KinesisStatsReporter implements AsyncHandler<PutRecordRequest, PutR
      */
     @Override
     public void onError(Exception exception) {
-        this.failedRequestCount++;
-        appender.addError("Failed to publish a log entry to kinesis using appender: " + appenderName, exception);
+        metrics.onRequestFailed();
+        // AsyncHandler.onError 에는 request 가 전달되지 않으므로 버퍼는 반납하지 못하고 GC 에 맡김
+        reportError(exception);
+    }
+
+    /**
+     * kinesis 전송 오류시 호출 ({@link #forRequest(PutRecordsRequest)} 로 등록한 경우)
+     *
+     *  - throttling 이면 전송량 제한을 줄이고 레코드 전체를 다시 배치에 넣음
+     *  - 그 외 오류는 레코드를 버리고 (버린 레코드로 집계) 버퍼를 반납
+     */
+    public void onError(PutRecordsRequest request, Exception exception) {
+        if (throttling.test(exception)) {
+            metrics.onRequestThrottled();
+            appender.onThrottled();
+            for (PutRecordsRequestEntry entry : request.getRecords()) {
+                appender.retryRecord(entry);
+            }
+            return;
+        }
+        metrics.onRequestFailed();
+        reportError(exception);
+        for (PutRecordsRequestEntry entry : request.getRecords()) {
+            appender.dropRecord(entry, "was in a failed request");
+        }
     }
 
     /**
      * kinesis 전송 성공 callback
      *
-     *  prod환경에서는 유용하지 않음. 디버깅용
+     *  - PutRecords 는 레코드 단위로 실패할 수 있으므로 실패한 레코드는 다시 배치에 넣음
+     *  - 전송된 레코드의 크기 / enqueue 부터의 지연을 기록하고 버퍼는 풀로 반납
+     *  - 레코드가 들어간 shard id 로 resharding 감지
+     *  - shard 한도 초과(ProvisionedThroughputExceeded) 로 실패한 레코드가 있으면 전송량 제한을 줄임
      */
     @Override
-    public void onSuccess(PutRecordRequest request, PutRecordResult result) {
+    public void onSuccess(PutRecordsRequest request, PutRecordsResult result) {
+
+        metrics.onRequestSent();
+        long now = System.nanoTime();
+
+        List<PutRecordsRequestEntry> entries = request.getRecords();
+        Integer failed = result.getFailedRecordCount();
+        List<PutRecordsResultEntry> results = result.getRecords();
+        if (failed == null || failed == 0) {
+            for (int i = 0; i < entries.size(); i++) {
+                sent(entries.get(i), results.get(i), now);
+            }
+            return;
+        }
+
+        boolean throttled = false;
+        for (int i = 0; i < results.size(); i++) {
+            String errorCode = results.get(i).getErrorCode();
+            if (errorCode != null) {
+                metrics.onRecordFailed();
+                if (THROTTLED_ERROR_CODE.equals(errorCode)) {
+                    metrics.onRecordThrottled();
+                    throttled = true;
+                }
+                appender.retryRecord(entries.get(i));
+            } else {
+                sent(entries.get(i), results.get(i), now);
+            }
+        }
+        if (throttled) {
+            appender.onThrottled();
+        }
+    }
+
+    private static boolean hasThrottledRecords(PutRecordsResult result) {
+        Integer failed = result.getFailedRecordCount();
+        if (failed == null || failed == 0) {
+            return false;
+        }
+        for (PutRecordsResultEntry entry : result.getRecords()) {
+            if (THROTTLED_ERROR_CODE.equals(entry.getErrorCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sent(PutRecordsRequestEntry entry, PutRecordsResultEntry result, long now) {
+        metrics.onRecordSent(entry.getData().remaining(), RecordEntry.enqueuedNanos(entry), now);
+        appender.observeShard(result.getShardId());
+        appender.releaseRecord(entry);
+    }
 
-        this.successfulRequestCount++;
+    private void reportError(Exception exception) {
+        if (errorReportThrottle.tryAcquire()) {
+            appender.addError("Failed to publish log entries to kinesis using appender: " + appender.getStreamName()
+                    + " (failed requests so far: " + metrics.getFailedRequests() + ")", exception);
+        }
     }
 }
@@ -0,0 +1,154 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * layout (직렬화) 을 애플리케이션 쓰레드 대신 처리하는 worker 쓰레드 풀 (deferredLayout)
+ * - worker 마다 BoundedQueue 를 하나씩 두고, 이벤트는 append 한 쓰레드 id 로 queue 를 고름
+ *   (같은 쓰레드가 남긴 로그는 같은 worker 가 순서대로 처리)
+ * - queue 가 가득 찬 경우 offer 는 false. 기다리거나 버리는 것은 호출하는 쪽 (overflowPolicy) 에서 결정
+ * - 종료시 queue 에 남은 이벤트를 모두 처리한 뒤 worker 가 끝남
+ *
+ * @param <E>
+ */
+public class LayoutWorkerPool<E> {
+
+    private final BoundedQueue<E>[] queues;
+    private final Thread[] workers;
+    private final int capacity;
+    private final WaitStrategy waitStrategy;
+    private final Consumer<E> handler;
+    private final BiConsumer<String, Exception> errorHandler;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    /**
+     * @param workerCount   worker 쓰레드 수
+     * @param queueCapacity worker 별 queue 크기
+     * @param waitStrategy  이벤트가 없을 때 대기 방식
+     * @param handler       worker 쓰레드에서 이벤트 처리 (layout, 인코딩, ring buffer 에 추가)
+     * @param errorHandler  오류 보고 (appender::addError)
+     * @param threadFactory worker 쓰레드 생성
+     */
+    @SuppressWarnings("unchecked")
+    public LayoutWorkerPool(int workerCount, int queueCapacity, WaitStrategy waitStrategy, Consumer<E> handler,
+                            BiConsumer<String, Exception> errorHandler, ThreadFactory threadFactory) {
+        Validator.validate(workerCount > 0, "workerCount must be >0");
+        Validator.validate(queueCapacity > 0, "queueCapacity must be >0");
+        this.queues = new BoundedQueue[workerCount];
+        this.workers = new Thread[workerCount];
+        this.capacity = workerCount * queueCapacity;
+        this.waitStrategy = waitStrategy;
+        this.handler = handler;
+        this.errorHandler = errorHandler;
+        for (int i = 0; i < workerCount; i++) {
+            BoundedQueue<E> queue = new BoundedQueue<>(queueCapacity);
+            queues[i] = queue;
+            workers[i] = threadFactory.newThread(() -> work(queue));
+            workers[i].setDaemon(true);
+        }
+    }
+
+    public void start() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * 현재 쓰레드의 queue 에 이벤트를 넣음
+     *
+     * @param event prepareForDeferredProcessing() 을 마친 이벤트
+     * @return queue 가 가득 찬 경우 false
+     */
+    public boolean offer(E event) {
+        if (!queue().offer(event)) {
+            return false;
+        }
+        pending.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 현재 쓰레드의 queue 에서 가장 오래된 이벤트를 꺼내 버림 (drop-oldest 정책)
+     *
+     * @return 버린 이벤트가 있으면 true
+     */
+    public boolean evictOldest() {
+        if (queue().poll() == null) {
+            return false;
+        }
+        pending.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * 처리를 기다리는 이벤트 수
+     *
+     * @return
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 남은 이벤트를 처리하고 worker 를 종료. timeoutMillis 동안 기다림
+     *
+     * @param timeoutMillis
+     * @return 시간 안에 모든 worker 가 끝났으면 true
+     */
+    public boolean shutdown(long timeoutMillis) {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            for (Thread worker : workers) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining > 0) {
+                    worker.join(remaining);
+                }
+                if (worker.isAlive()) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    private BoundedQueue<E> queue() {
+        return queues[(int) (Thread.currentThread().getId() % queues.length)];
+    }
+
+    private void work(BoundedQueue<E> queue) {
+        int idle = 0;
+        while (true) {
+            // running 을 먼저 읽어야 종료 전에 들어온 이벤트를 모두 처리함
+            boolean stopping = !running;
+            E event = queue.poll();
+            if (event != null) {
+                pending.decrementAndGet();
+                try {
+                    handler.accept(event);
+                } catch (Exception e) {
+                    errorHandler.accept("Failed to layout log entry for publishing into Kinesis", e);
+                }
+                idle = 0;
+            } else if (stopping) {
+                break;
+            } else {
+                idle = waitStrategy.idle(idle);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.kinesislogger.logback.helpers;
+
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * 로그 레코드를 줄바꿈('\n') 으로 구분해서 하나의 레코드로 이어붙임 (newline-delimited)
+ * - Firehose 는 레코드를 구분자 없이 S3 객체에 이어쓰므로 레코드마다 끝에 줄바꿈을 붙임 (이미 있으면 그대로)
+ * - Firehose 는 5 KB 단위로 과금하므로 작은 로그를 묶으면 비용과 PutRecordBatch 호출 수가 줄어듦
+ * - maxRecords 가 1 이면 묶지 않고 줄바꿈만 붙임
+ * - 전송 쓰레드 하나에서만 사용 (thread-safe 하지 않음)
+ */
+public class NewlineRecordPacker implements RecordPacker {
+
+    private static final byte NEWLINE = '\n';
+
+    private final int maxBytes;
+    private final int maxRecords;
+    private final ByteBufferPool pool;
+    private final BiFunction<String, ByteBuffer, PutRecordsRequestEntry> entryFactory;
+
+    private ByteBuffer[] records = new ByteBuffer[64];
+    private int recordCount;
+    private int packedSize;
+    private String firstPartitionKey;
+    private long firstAddedNanos;
+    private long firstEnqueuedNanos;
+
+    /**
+     * @param maxBytes     묶은 레코드 최대 크기 (줄바꿈 포함)
+     * @param maxRecords   묶을 최대 로그 레코드 수
+     * @param pool         묶은 레코드 버퍼를 빌리고, 묶인 레코드 버퍼를 반납할 풀
+     * @param entryFactory 완성된 레코드로 entry 생성
+     */
+    public NewlineRecordPacker(int maxBytes, int maxRecords, ByteBufferPool pool,
+                               BiFunction<String, ByteBuffer, PutRecordsRequestEntry> entryFactory) {
+        Validator.validate(maxBytes > 1, "maxBytes must be >1");
+        Validator.validate(maxRecords > 0, "maxRecords must be >0");
+        this.maxBytes = maxBytes;
+        this.maxRecords = maxRecords;
+        this.pool = pool;
+        this.entryFactory = entryFactory;
+    }
+
+    /**
+     * 레코드 추가
+     * <p>
+     * - 추가하면 maxBytes / maxRecords 를 넘는 경우 지금까지 모은 레코드를 반환하고 새로 시작
+     * - 레코드 하나가 maxBytes 보다 큰 경우는 묶지 않고 그대로 반환 (전송시 크기 한도로 실패함)
+     */
+    @Override
+    public PutRecordsRequestEntry add(String partitionKey, String explicitHashKey, ByteBuffer data,
+                                      long enqueuedNanos) {
+        int size = packedLength(data);
+        if (size > maxBytes) {
+            PutRecordsRequestEntry entry = entryFactory.apply(partitionKey, data);
+            RecordEntry.stamp(entry, enqueuedNanos);
+            return entry;
+        }
+
+        PutRecordsRequestEntry completed = null;
+        if (recordCount > 0 && packedSize + size > maxBytes) {
+            completed = build();
+        }
+        if (recordCount == 0) {
+            firstPartitionKey = partitionKey;
+            firstAddedNanos = System.nanoTime();
+            firstEnqueuedNanos = enqueuedNanos;
+        }
+        if (recordCount == records.length) {
+            ByteBuffer[] grown = new ByteBuffer[recordCount * 2];
+            System.arraycopy(records, 0, grown, 0, recordCount);
+            records = grown;
+        }
+        records[recordCount++] = data;
+        packedSize += size;
+
+        if (recordCount >= maxRecords) {
+            return completed == null ? build() : completed;
+        }
+        return completed;
+    }
+
+    @Override
+    public PutRecordsRequestEntry flushIfLingered(long lingerMillis) {
+        if (recordCount == 0
+                || System.nanoTime() - firstAddedNanos < TimeUnit.MILLISECONDS.toNanos(lingerMillis)) {
+            return null;
+        }
+        return build();
+    }
+
+    @Override
+    public PutRecordsRequestEntry flush() {
+        return recordCount == 0 ? null : build();
+    }
+
+    private PutRecordsRequestEntry build() {
+        ByteBuffer buffer = pool.acquire(packedSize);
+        for (int i = 0; i < recordCount; i++) {
+            ByteBuffer data = records[i];
+            int length = data.remaining();
+            System.arraycopy(data.array(), data.arrayOffset() + data.position(), buffer.array(),
+                    buffer.arrayOffset() + buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            if (!endsWithNewline(data)) {
+                buffer.put(NEWLINE);
+            }
+            pool.release(data);
+            records[i] = null;
+        }
+        buffer.flip();
+
+        PutRecordsRequestEntry entry = entryFactory.apply(firstPartitionKey, buffer);
+        RecordEntry.stamp(entry, firstEnqueuedNanos);
+        recordCount = 0;
+        packedSize = 0;
+        firstPartitionKey = null;
+        return entry;
+    }
+
+    /**
+     * 줄바꿈을 포함한 길이
+     */
+    private static int packedLength(ByteBuffer data) {
+        return endsWithNewline(data) ? data.remaining() : data.remaining() + 1;
+    }
+
+    private static boolean endsWithNewline(ByteBuffer data) {
+        return data.hasRemaining() && data.get(data.limit() - 1) == NEWLINE;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.kinesislogger.logback.helpers;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link OverflowPolicy} 적용과 버린 레코드 수 집계
+ * - {@link #admit(Object, int, int)} 는 layout / 인코딩 전에 호출되어 버릴 이벤트에 드는 비용을 줄임
+ * - 버린 레코드는 정책과 상관없이 모두 droppedCount 에 집계됨
+ * - 오류 보고는 REPORT_INTERVAL 당 한번만 (status 가 drop 메시지로 넘치지 않도록)
+ */
+public class OverflowController {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final OverflowPolicy policy;
+    private final long timeoutNanos;
+    private final int levelThreshold;
+    private final double sampleThreshold;
+    private final LongAdder dropped = new LongAdder();
+    private final ReportThrottle reportThrottle = new ReportThrottle(REPORT_INTERVAL_NANOS);
+
+    /**
+     * @param policy        버퍼가 가득 찼을 때 처리 방식
+     * @param timeoutMillis 기다리는 정책에서 자리가 날 때까지 기다리는 최대 시간
+     * @param level         DROP_BELOW_LEVEL 에서 남길 최소 level
+     * @param samplePercent SAMPLE 에서 버리기 시작하는 버퍼 사용률 (0 ~ 99)
+     */
+    public OverflowController(OverflowPolicy policy, long timeoutMillis, Level level, int samplePercent) {
+        Validator.validate(timeoutMillis >= 0, "timeoutMillis must be >=0");
+        Validator.validate(samplePercent >= 0 && samplePercent < 100, "samplePercent must be between 0 and 99");
+        this.policy = policy;
+        this.timeoutNanos = policy.waitsWhenFull() ? TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+        this.levelThreshold = level.toInt();
+        this.sampleThreshold = samplePercent / 100.0;
+    }
+
+    /**
+     * 버퍼 사용량을 보고 이벤트를 받을지 결정. 받지 않으면 drop 으로 집계
+     *
+     * @param event    로그 이벤트
+     * @param used     버퍼에서 사용중인 slot 수
+     * @param capacity 버퍼 크기
+     * @return 버퍼에 넣어야 하면 true
+     */
+    public boolean admit(Object event, int used, int capacity) {
+        boolean admitted;
+        switch (policy) {
+            case DROP_BELOW_LEVEL:
+                admitted = used < capacity || !(event instanceof ILoggingEvent)
+                        || ((ILoggingEvent) event).getLevel().toInt() >= levelThreshold;
+                break;
+            case SAMPLE:
+                double fill = (double) used / capacity;
+                admitted = fill < sampleThreshold
+                        || ThreadLocalRandom.current().nextDouble() >= (fill - sampleThreshold) / (1 - sampleThreshold);
+                break;
+            default:
+                admitted = true;
+        }
+        if (!admitted) {
+            dropped.increment();
+        }
+        return admitted;
+    }
+
+    /**
+     * 레코드를 버림 (집계만 함)
+     */
+    public void drop() {
+        dropped.increment();
+    }
+
+    /**
+     * 레코드를 count 개 버림 (집계만 함)
+     *
+     * @param count
+     */
+    public void drop(int count) {
+        dropped.add(count);
+    }
+
+    /**
+     * 마지막 보고 이후 REPORT_INTERVAL 이 지났으면 true (한 쓰레드만 true 를 받음)
+     *
+     * @return
+     */
+    public boolean shouldReport() {
+        return reportThrottle.tryAcquire();
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 버퍼가 가득 찼을 때 기다리는 최대 시간(ns). 기다리지 않는 정책이면 0
+     *
+     * @return
+     */
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
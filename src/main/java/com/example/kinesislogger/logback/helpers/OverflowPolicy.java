@@ -0,0 +1,51 @@
+package com.example.kinesislogger.logback.helpers;
+
+/**
+ * 버퍼(ring buffer) 가 가득 찼을 때 로그를 남긴 애플리케이션 쓰레드의 처리 방식
+ * - BLOCK            : 자리가 날 때까지 overflowTimeoutMillis 동안 기다린 뒤 버림 (기본값)
+ * - DROP_NEWEST      : 기다리지 않고 새 레코드를 버림
+ * - DROP_OLDEST      : 전송 쓰레드에 가장 오래된 레코드를 버리도록 요청하고 자리가 날 때까지 기다림
+ * - DROP_BELOW_LEVEL : overflowLevel 미만 (기본 INFO 이하) 이벤트는 layout 전에 버리고, 나머지는 BLOCK 과 같음
+ * - SAMPLE           : 버퍼 사용률이 overflowSamplePercent 를 넘으면 사용률에 비례해 확률적으로 버림.
+ *                      가득 찬 경우 기다리지 않음
+ */
+public enum OverflowPolicy {
+
+    BLOCK(true),
+    DROP_NEWEST(false),
+    DROP_OLDEST(true),
+    DROP_BELOW_LEVEL(true),
+    SAMPLE(false);
+
+    private final boolean waitsWhenFull;
+
+    OverflowPolicy(boolean waitsWhenFull) {
+        this.waitsWhenFull = waitsWhenFull;
+    }
+
+    /**
+     * 버퍼가 가득 찼을 때 자리가 날 때까지 (overflowTimeoutMillis 까지) 기다리는지 여부
+     *
+     * @return
+     */
+    public boolean waitsWhenFull() {
+        return waitsWhenFull;
+    }
+
+    /**
+     * 설정값으로 OverflowPolicy 조회 (block, dropNewest, dropOldest, dropBelowLevel, sample / 대소문자, '_' 무시)
+     *
+     * @param name
+     * @return
+     */
+    public static OverflowPolicy of(String name) {
+        String normalized = name.trim().replace("_", "").replace("-", "");
+        for (OverflowPolicy policy : values()) {
+            if (policy.name().replace("_", "").equalsIgnoreCase(normalized)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown overflowPolicy: " + name
+                + " (block, dropNewest, dropOldest, dropBelowLevel, sample)");
+    }
+}
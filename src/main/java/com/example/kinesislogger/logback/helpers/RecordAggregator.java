@@ -0,0 +1,336 @@
+package com.example.kinesislogger.logback.helpers;
+
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * KPL 호환 레코드 aggregation
+ * - 여러 로그 레코드를 하나의 Kinesis 레코드로 묶음. (KCL 에서 de-aggregation 가능)
+ * - 포맷 : magic(4 bytes) + AggregatedRecord protobuf + MD5(protobuf)
+ * - aggregated record 는 첫 레코드의 explicit hash key (없으면 partition key 의 MD5) 로 전송하고,
+ * 모든 레코드에 그 hash key 를 explicit_hash_key 로 기록함
+ * (KCL 은 de-aggregation 할 때 hash key 가 shard 범위 밖인 레코드를 버리므로,
+ * partition key 가 다른 shard 로 가는 레코드도 aggregated record 를 받은 shard 에서 모두 읽히게 함)
+ * - 전송 쓰레드 하나에서만 사용 (thread-safe 하지 않음)
+ *
+ * <pre>
+ * message AggregatedRecord {
+ *   repeated string partition_key_table     = 1;
+ *   repeated string explicit_hash_key_table = 2;
+ *   repeated Record records                 = 3;
+ * }
+ * message Record {
+ *   required uint64 partition_key_index     = 1;
+ *   optional uint64 explicit_hash_key_index = 2;
+ *   required bytes  data                    = 3;
+ * }
+ * </pre>
+ *
+ * @see <a href="https://github.com/awslabs/amazon-kinesis-producer/blob/master/aggregation-format.md">aggregation-format</a>
+ */
+public class RecordAggregator implements RecordPacker {
+
+    public static final byte[] KPL_MAGIC = {(byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2};
+    public static final int DIGEST_LENGTH = 16;
+
+    private static final int PARTITION_KEY_TABLE_TAG = (1 << 3) | 2;
+    private static final int EXPLICIT_HASH_KEY_TABLE_TAG = (2 << 3) | 2;
+    private static final int RECORDS_TAG = (3 << 3) | 2;
+    private static final int PARTITION_KEY_INDEX_TAG = 1 << 3;
+    private static final int EXPLICIT_HASH_KEY_INDEX_TAG = 2 << 3;
+    private static final int DATA_TAG = (3 << 3) | 2;
+    // explicit hash key (0 ~ 2^128 - 1 의 10진수) 최대 길이
+    private static final int MAX_EXPLICIT_HASH_KEY_LENGTH = 39;
+
+    private final int maxBytes;
+    private final ByteBufferPool pool;
+    private final BiFunction<String, ByteBuffer, PutRecordsRequestEntry> entryFactory;
+    private final MessageDigest md5 = md5();
+
+    private final Map<String, Integer> partitionKeyIndex = new HashMap<>();
+    private final List<String> partitionKeys = new ArrayList<>();
+    private ByteBuffer[] records = new ByteBuffer[64];
+    private int[] recordKeyIndexes = new int[64];
+    private int recordCount;
+
+    private String firstPartitionKey;
+    private String firstExplicitHashKey;
+    private int firstPartitionKeyLength;
+    private int protobufSize;
+    private long firstAddedNanos;
+    private long firstEnqueuedNanos;
+
+    /**
+     * @param maxBytes     aggregated record 최대 크기 (outer partition key 포함)
+     * @param pool         aggregated record 버퍼를 빌리고, 묶인 레코드 버퍼를 반납할 풀
+     * @param entryFactory 완성된 레코드로 PutRecords entry 생성
+     */
+    public RecordAggregator(int maxBytes, ByteBufferPool pool,
+                            BiFunction<String, ByteBuffer, PutRecordsRequestEntry> entryFactory) {
+        Validator.validate(maxBytes > KPL_MAGIC.length + DIGEST_LENGTH, "maxBytes is too small for aggregation");
+        this.maxBytes = maxBytes;
+        this.pool = pool;
+        this.entryFactory = entryFactory;
+    }
+
+    /**
+     * 레코드 추가 (data 버퍼의 소유권은 aggregator 로 넘어옴)
+     * <p>
+     * - 추가하면 maxBytes 를 넘는 경우 지금까지 모은 레코드를 aggregated record 로 반환하고 새로 시작
+     * - 레코드 하나가 maxBytes 보다 큰 경우는 aggregation 하지 않고 그대로 반환
+     *
+     * @param partitionKey
+     * @param data
+     * @return 완성된 레코드, 없으면 null
+     */
+    public PutRecordsRequestEntry add(String partitionKey, ByteBuffer data) {
+        return add(partitionKey, null, data);
+    }
+
+    /**
+     * 레코드 추가. aggregated record 는 첫 레코드의 partition key / explicit hash key
+     * (없으면 partition key 의 hash key) 로 전송됨
+     *
+     * @param partitionKey
+     * @param explicitHashKey 없으면 null
+     * @param data
+     * @return 완성된 레코드, 없으면 null
+     */
+    public PutRecordsRequestEntry add(String partitionKey, String explicitHashKey, ByteBuffer data) {
+        return add(partitionKey, explicitHashKey, data, System.nanoTime());
+    }
+
+    /**
+     * 레코드 추가. 반환되는 레코드에는 첫 레코드의 enqueue 시각이 기록됨 ({@link RecordEntry})
+     *
+     * @param partitionKey
+     * @param explicitHashKey 없으면 null
+     * @param data
+     * @param enqueuedNanos   레코드가 appender 에 들어온 시각
+     * @return 완성된 레코드, 없으면 null
+     */
+    @Override
+    public PutRecordsRequestEntry add(String partitionKey, String explicitHashKey, ByteBuffer data,
+                                      long enqueuedNanos) {
+        int keyLength = utf8Length(partitionKey);
+        int dataLength = data.remaining();
+        if (KPL_MAGIC.length + fieldSize(recordSize(0, dataLength)) + fieldSize(keyLength)
+                + fieldSize(MAX_EXPLICIT_HASH_KEY_LENGTH) + DIGEST_LENGTH + keyLength > maxBytes) {
+            PutRecordsRequestEntry entry = entryFactory.apply(partitionKey, data);
+            entry.setExplicitHashKey(explicitHashKey);
+            RecordEntry.stamp(entry, enqueuedNanos);
+            return entry;
+        }
+
+        PutRecordsRequestEntry completed = null;
+        Integer keyIndex = partitionKeyIndex.get(partitionKey);
+        if (aggregatedSize(keyLength, dataLength, keyIndex == null) > maxBytes) {
+            completed = build();
+            keyIndex = null;
+        }
+
+        if (recordCount == 0) {
+            firstPartitionKey = partitionKey;
+            firstExplicitHashKey = explicitHashKey;
+            firstPartitionKeyLength = keyLength;
+            firstAddedNanos = System.nanoTime();
+            firstEnqueuedNanos = enqueuedNanos;
+        }
+        if (keyIndex == null) {
+            keyIndex = partitionKeys.size();
+            partitionKeyIndex.put(partitionKey, keyIndex);
+            partitionKeys.add(partitionKey);
+            protobufSize += fieldSize(keyLength);
+        }
+        if (recordCount == records.length) {
+            records = Arrays.copyOf(records, recordCount * 2);
+            recordKeyIndexes = Arrays.copyOf(recordKeyIndexes, recordCount * 2);
+        }
+        records[recordCount] = data;
+        recordKeyIndexes[recordCount] = keyIndex;
+        recordCount++;
+        protobufSize += fieldSize(recordSize(keyIndex, dataLength));
+
+        return completed;
+    }
+
+    /**
+     * 첫 레코드가 들어온 뒤 lingerMillis 이상 지났으면 aggregated record 반환
+     *
+     * @param lingerMillis
+     * @return aggregated record, 없으면 null
+     */
+    @Override
+    public PutRecordsRequestEntry flushIfLingered(long lingerMillis) {
+        if (recordCount == 0
+                || System.nanoTime() - firstAddedNanos < TimeUnit.MILLISECONDS.toNanos(lingerMillis)) {
+            return null;
+        }
+        return build();
+    }
+
+    /**
+     * 모아둔 레코드를 aggregated record 로 반환
+     *
+     * @return aggregated record, 없으면 null
+     */
+    @Override
+    public PutRecordsRequestEntry flush() {
+        return recordCount == 0 ? null : build();
+    }
+
+    /**
+     * 레코드 하나를 추가했을 때의 aggregated record 크기 (outer partition key 포함, explicit hash key 는 최대 길이로 계산)
+     */
+    private int aggregatedSize(int keyLength, int dataLength, boolean newKey) {
+        int keyIndex = newKey ? partitionKeys.size() : 0;
+        int size = protobufSize + fieldSize(recordSize(keyIndex, dataLength));
+        if (newKey) {
+            size += fieldSize(keyLength);
+        }
+        int outerKeyLength = recordCount == 0 ? keyLength : firstPartitionKeyLength;
+        return KPL_MAGIC.length + size + fieldSize(MAX_EXPLICIT_HASH_KEY_LENGTH) + DIGEST_LENGTH + outerKeyLength;
+    }
+
+    private PutRecordsRequestEntry build() {
+        String explicitHashKey = firstExplicitHashKey != null
+                ? firstExplicitHashKey : hashKey(firstPartitionKey);
+        byte[] hashKeyBytes = explicitHashKey.getBytes(StandardCharsets.UTF_8);
+        int protobufLength = protobufSize + fieldSize(hashKeyBytes.length);
+        ByteBuffer buffer = pool.acquire(KPL_MAGIC.length + protobufLength + DIGEST_LENGTH);
+        buffer.put(KPL_MAGIC);
+
+        for (String key : partitionKeys) {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            writeVarint(buffer, PARTITION_KEY_TABLE_TAG);
+            writeVarint(buffer, keyBytes.length);
+            buffer.put(keyBytes);
+        }
+        writeVarint(buffer, EXPLICIT_HASH_KEY_TABLE_TAG);
+        writeVarint(buffer, hashKeyBytes.length);
+        buffer.put(hashKeyBytes);
+        for (int i = 0; i < recordCount; i++) {
+            ByteBuffer data = records[i];
+            int keyIndex = recordKeyIndexes[i];
+            int dataLength = data.remaining();
+            writeVarint(buffer, RECORDS_TAG);
+            writeVarint(buffer, recordSize(keyIndex, dataLength));
+            writeVarint(buffer, PARTITION_KEY_INDEX_TAG);
+            writeVarint(buffer, keyIndex);
+            writeVarint(buffer, EXPLICIT_HASH_KEY_INDEX_TAG);
+            writeVarint(buffer, 0);
+            writeVarint(buffer, DATA_TAG);
+            writeVarint(buffer, dataLength);
+            System.arraycopy(data.array(), data.arrayOffset() + data.position(), buffer.array(),
+                    buffer.arrayOffset() + buffer.position(), dataLength);
+            buffer.position(buffer.position() + dataLength);
+            pool.release(data);
+            records[i] = null;
+        }
+
+        md5.update(buffer.array(), buffer.arrayOffset() + KPL_MAGIC.length, protobufLength);
+        try {
+            md5.digest(buffer.array(), buffer.arrayOffset() + buffer.position(), DIGEST_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Failed to compute MD5 of aggregated record", e);
+        }
+        buffer.position(buffer.position() + DIGEST_LENGTH);
+        buffer.flip();
+
+        PutRecordsRequestEntry entry = entryFactory.apply(firstPartitionKey, buffer);
+        entry.setExplicitHashKey(explicitHashKey);
+        RecordEntry.stamp(entry, firstEnqueuedNanos);
+        reset();
+        return entry;
+    }
+
+    private void reset() {
+        partitionKeyIndex.clear();
+        partitionKeys.clear();
+        recordCount = 0;
+        firstPartitionKey = null;
+        firstExplicitHashKey = null;
+        firstPartitionKeyLength = 0;
+        protobufSize = 0;
+    }
+
+    /**
+     * Kinesis 가 partition key 를 shard 에 매핑하는 hash key (MD5 의 10진수)
+     */
+    private String hashKey(String partitionKey) {
+        return new BigInteger(1, md5.digest(partitionKey.getBytes(StandardCharsets.UTF_8))).toString();
+    }
+
+    /**
+     * Record 크기 (partition_key_index + explicit_hash_key_index (항상 0) + data)
+     */
+    private static int recordSize(int keyIndex, int dataLength) {
+        return 1 + varintSize(keyIndex) + 2 + fieldSize(dataLength);
+    }
+
+    /**
+     * length-delimited 필드 크기 (tag + length + value)
+     */
+    private static int fieldSize(int length) {
+        return 1 + varintSize(length) + length;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * 문자열을 인코딩하지 않고 UTF-8 길이 계산
+     */
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * 레코드 배치 버퍼
+ * - 레코드를 모아서 한번의 PutRecords 요청으로 전송하기 위함.
+ * - 레코드 수, 바이트 수, linger 시간 중 먼저 도달한 조건으로 flush
+ *
+ * @param <T> 배치에 담길 레코드 타입
+ */
+public class RecordBatcher<T> {
+
+    private final int maxRecords;
+    private final long maxBytes;
+    private final ToIntFunction<T> sizer;
+    private final Consumer<List<T>> flusher;
+
+    private List<T> entries;
+    private long bytes;
+    private long firstAddedNanos;
+
+    public RecordBatcher(int maxRecords, long maxBytes, ToIntFunction<T> sizer, Consumer<List<T>> flusher) {
+        Validator.validate(maxRecords > 0, "maxRecords must be >0");
+        Validator.validate(maxBytes > 0, "maxBytes must be >0");
+        this.maxRecords = maxRecords;
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+        this.flusher = flusher;
+        this.entries = new ArrayList<>(maxRecords);
+    }
+
+    /**
+     * 레코드 추가
+     * <p>
+     * - 추가하면 maxBytes를 넘는 경우 기존 배치를 먼저 flush
+     * - maxRecords에 도달하면 flush
+     *
+     * @param entry
+     */
+    public void add(T entry) {
+        int size = sizer.applyAsInt(entry);
+        List<T> full = null;
+        List<T> overflow = null;
+
+        synchronized (this) {
+            if (!entries.isEmpty() && bytes + size > maxBytes) {
+                full = swap();
+            }
+            if (entries.isEmpty()) {
+                firstAddedNanos = System.nanoTime();
+            }
+            entries.add(entry);
+            bytes += size;
+            if (entries.size() >= maxRecords || bytes >= maxBytes) {
+                overflow = swap();
+            }
+        }
+
+        // 전송은 lock 밖에서 (전송 큐가 가득 차면 block 될 수 있음)
+        send(full);
+        send(overflow);
+    }
+
+    /**
+     * 첫 레코드가 들어온 뒤 lingerMillis 이상 지난 배치를 flush
+     *
+     * @param lingerMillis
+     */
+    public void flushIfLingered(long lingerMillis) {
+        List<T> lingered = null;
+        synchronized (this) {
+            if (!entries.isEmpty()
+                    && System.nanoTime() - firstAddedNanos >= TimeUnit.MILLISECONDS.toNanos(lingerMillis)) {
+                lingered = swap();
+            }
+        }
+        send(lingered);
+    }
+
+    /**
+     * 남아있는 레코드를 즉시 flush
+     */
+    public void flush() {
+        List<T> remaining;
+        synchronized (this) {
+            remaining = entries.isEmpty() ? null : swap();
+        }
+        send(remaining);
+    }
+
+    /**
+     * 현재 버퍼에 쌓인 레코드 수
+     *
+     * @return
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private List<T> swap() {
+        List<T> batch = entries;
+        entries = new ArrayList<>(maxRecords);
+        bytes = 0;
+        return batch;
+    }
+
+    private void send(List<T> batch) {
+        if (batch != null) {
+            flusher.accept(batch);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * layout 결과를 풀에서 빌린 ByteBuffer 로 인코딩
+ * - Charset 은 생성시 한번만 조회
+ * - 쓰레드별 CharsetEncoder / char[] 를 재사용하여 이벤트마다 byte[], CharBuffer 를 만들지 않음
+ * - 반환된 버퍼는 전송 완료 후 {@link ByteBufferPool#release(ByteBuffer)} 로 반납
+ */
+public class RecordEncoder {
+
+    private static final int INITIAL_CHARS = 1024;
+
+    private final Charset charset;
+    private final ByteBufferPool pool;
+    private final ThreadLocal<State> state;
+
+    public RecordEncoder(String encoding, ByteBufferPool pool) {
+        this.charset = Charset.forName(encoding);
+        this.pool = pool;
+        this.state = ThreadLocal.withInitial(State::new);
+    }
+
+    /**
+     * message 를 인코딩한 버퍼 (읽기 모드: position 0, limit = 길이)
+     *
+     * @param message
+     * @return
+     * @throws CharacterCodingException
+     */
+    public ByteBuffer encode(CharSequence message) throws CharacterCodingException {
+        State local = state.get();
+        int length = message.length();
+        CharBuffer chars = local.chars(length);
+        if (message instanceof String) {
+            ((String) message).getChars(0, length, chars.array(), 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                chars.array()[i] = message.charAt(i);
+            }
+        }
+        chars.limit(length);
+
+        CharsetEncoder encoder = local.encoder;
+        ByteBuffer buffer = pool.acquire((int) (length * encoder.maxBytesPerChar()) + 1);
+        encoder.reset();
+        CoderResult result = encoder.encode(chars, buffer, true);
+        if (!result.isUnderflow()) {
+            pool.release(buffer);
+            result.throwException();
+        }
+        encoder.flush(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * 쓰레드별 재사용 상태
+     */
+    private final class State {
+
+        private final CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private CharBuffer chars = CharBuffer.wrap(new char[INITIAL_CHARS]);
+
+        private CharBuffer chars(int length) {
+            if (chars.capacity() < length) {
+                chars = CharBuffer.wrap(new char[Math.max(length, chars.capacity() * 2)]);
+            }
+            chars.clear();
+            return chars;
+        }
+    }
+}
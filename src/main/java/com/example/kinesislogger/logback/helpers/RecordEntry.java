@@ -0,0 +1,72 @@
+package com.example.kinesislogger.logback.helpers;
+
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+
+/**
+ * 레코드가 appender 에 들어온 시각을 함께 보관하는 PutRecordsRequestEntry
+ * - enqueue 부터 PutRecords 응답까지의 지연 측정에 사용
+ * - aggregated record 는 첫 레코드의 시각, 재시도 레코드는 처음 들어온 시각을 유지함
+ * - 재시도 횟수를 세어 계속 실패하는 레코드를 버릴 수 있게 함
+ */
+public class RecordEntry extends PutRecordsRequestEntry {
+
+    private static final long serialVersionUID = 1L;
+
+    private long enqueuedNanos;
+    private int retries;
+
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    public void setEnqueuedNanos(long enqueuedNanos) {
+        this.enqueuedNanos = enqueuedNanos;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * entry 가 들어온 시각 (System.nanoTime), RecordEntry 가 아니면 0
+     *
+     * @param entry
+     * @return
+     */
+    public static long enqueuedNanos(PutRecordsRequestEntry entry) {
+        return entry instanceof RecordEntry ? ((RecordEntry) entry).enqueuedNanos : 0L;
+    }
+
+    /**
+     * entry 가 들어온 시각 설정 (RecordEntry 가 아니면 무시)
+     *
+     * @param entry
+     * @param enqueuedNanos
+     */
+    public static void stamp(PutRecordsRequestEntry entry, long enqueuedNanos) {
+        if (entry instanceof RecordEntry) {
+            ((RecordEntry) entry).enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * 재시도 횟수를 하나 늘리고 늘린 값을 반환, RecordEntry 가 아니면 0 (세지 않음)
+     *
+     * @param entry
+     * @return
+     */
+    public static int retried(PutRecordsRequestEntry entry) {
+        return entry instanceof RecordEntry ? ++((RecordEntry) entry).retries : 0;
+    }
+
+    /**
+     * 재시도 횟수 초기화 (풀에서 다시 꺼낼 때)
+     *
+     * @param entry
+     */
+    static void resetRetries(PutRecordsRequestEntry entry) {
+        if (entry instanceof RecordEntry) {
+            ((RecordEntry) entry).retries = 0;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.kinesislogger.logback.helpers;
+
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * PutRecordsRequestEntry 재사용 풀
+ * - 전송이 끝난 entry 와 data 버퍼를 함께 반납
+ * - entry 는 {@link RecordEntry} 로 만들고, acquire 한 시각을 enqueue 시각으로 기록함 (재시도 횟수는 초기화)
+ */
+public class RecordEntryPool {
+
+    private final ByteBufferPool bufferPool;
+    private final BoundedQueue<PutRecordsRequestEntry> entries;
+
+    public RecordEntryPool(ByteBufferPool bufferPool, int capacity) {
+        this.bufferPool = bufferPool;
+        this.entries = new BoundedQueue<>(capacity);
+    }
+
+    public PutRecordsRequestEntry acquire(String partitionKey, ByteBuffer data) {
+        return acquire(partitionKey, null, data);
+    }
+
+    public PutRecordsRequestEntry acquire(String partitionKey, String explicitHashKey, ByteBuffer data) {
+        PutRecordsRequestEntry entry = entries.poll();
+        if (entry == null) {
+            entry = new RecordEntry();
+        }
+        RecordEntry.stamp(entry, System.nanoTime());
+        RecordEntry.resetRetries(entry);
+        entry.setPartitionKey(partitionKey);
+        entry.setExplicitHashKey(explicitHashKey);
+        entry.setData(data);
+        return entry;
+    }
+
+    /**
+     * 전송 완료(또는 포기)된 entry 반납
+     *
+     * @param entry
+     */
+    public void release(PutRecordsRequestEntry entry) {
+        bufferPool.release(entry.getData());
+        entry.setData(null);
+        entry.setPartitionKey(null);
+        entry.setExplicitHashKey(null);
+        entries.offer(entry);
+    }
+
+    public ByteBufferPool getBufferPool() {
+        return bufferPool;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.kinesislogger.logback.helpers;
+
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 여러 로그 레코드를 전송 단위 레코드 하나로 묶는 방식 (전송 쓰레드 하나에서만 사용)
+ * - {@link RecordAggregator}     : KPL aggregated record (Kinesis Data Streams)
+ * - {@link NewlineRecordPacker}  : 줄바꿈으로 구분해서 이어붙임 (Kinesis Data Firehose)
+ */
+public interface RecordPacker {
+
+    /**
+     * 레코드 추가 (data 버퍼의 소유권은 packer 로 넘어옴)
+     *
+     * @param partitionKey
+     * @param explicitHashKey 없으면 null
+     * @param data
+     * @param enqueuedNanos   레코드가 appender 에 들어온 시각
+     * @return 완성된 레코드, 없으면 null
+     */
+    PutRecordsRequestEntry add(String partitionKey, String explicitHashKey, ByteBuffer data, long enqueuedNanos);
+
+    /**
+     * 첫 레코드가 들어온 뒤 lingerMillis 이상 지났으면 묶은 레코드 반환
+     *
+     * @param lingerMillis
+     * @return 묶은 레코드, 없으면 null
+     */
+    PutRecordsRequestEntry flushIfLingered(long lingerMillis);
+
+    /**
+     * 모아둔 레코드를 묶어서 반환
+     *
+     * @return 묶은 레코드, 없으면 null
+     */
+    PutRecordsRequestEntry flush();
+}
@@ -0,0 +1,338 @@
+package com.example.kinesislogger.logback.helpers;
+
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.example.kinesislogger.logback.compression.RecordCompressor;
+import com.example.kinesislogger.logback.spill.DiskSpillBuffer;
+import com.example.kinesislogger.logback.spill.SpillRecord;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * RingBuffer 의 단일 소비자
+ * - 애플리케이션 쓰레드가 publish 한 레코드를 aggregation(packing) / 배치에 넣고 전송을 요청함
+ * - linger 체크와 PutRecords 부분 실패 재시도도 이 쓰레드에서 처리 (배치는 이 쓰레드만 사용)
+ * - 압축은 aggregation(packing) 이후 전송 단위 레코드에 한번만 적용 (재시도 레코드는 이미 압축됨)
+ * - disk spill 을 사용하면 ring buffer 가 비었을 때 디스크의 레코드를 순서대로 다시 보냄.
+ *   종료시 디스크에 밀린 레코드가 있으면 (전송이 밀린 상태) ring buffer 와 재시도 레코드도 디스크에 남김
+ * - 전송 쓰레드가 끝난 뒤 (종료 중 도착한 SDK callback) 의 재시도 레코드는 반납하고 버린 레코드로 집계
+ * - drop-oldest 정책에서 애플리케이션 쓰레드가 요청한 만큼 ring buffer 의 가장 오래된 레코드를 버림
+ */
+public class RecordSender implements Runnable {
+
+    private static final int REPLAY_BATCH = 512;
+
+    private final RingBuffer<RecordSlot> ring;
+    private final WaitStrategy waitStrategy;
+    private final RecordPacker packer;
+    private final RecordCompressor compressor;
+    private final DiskSpillBuffer spill;
+    private final SpillRecord spilled = new SpillRecord();
+    private final RecordBatcher<PutRecordsRequestEntry> batcher;
+    private final RecordEntryPool entryPool;
+    private final long lingerMillis;
+    private final BiConsumer<String, Exception> errorHandler;
+    private final IntConsumer dropHandler;
+    private final AtomicInteger evictions = new AtomicInteger();
+    private final Queue<PutRecordsRequestEntry> retries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingRetries = new AtomicInteger();
+
+    private volatile boolean running = true;
+    private volatile boolean stopped;
+
+    /**
+     * @param ring         애플리케이션 쓰레드와 공유하는 버퍼
+     * @param waitStrategy 레코드가 없을 때 대기 방식
+     * @param packer       레코드 묶음 (KPL aggregation, 줄바꿈 packing. 사용하지 않으면 null)
+     * @param compressor   레코드 압축 (사용하지 않으면 null)
+     * @param spill        disk spill (사용하지 않으면 null)
+     * @param batcher      PutRecords 배치
+     * @param entryPool    PutRecords entry 풀
+     * @param lingerMillis 배치 linger 시간
+     * @param errorHandler 오류 보고 (appender::addError)
+     * @param dropHandler  버린 레코드 수 집계
+     */
+    public RecordSender(RingBuffer<RecordSlot> ring, WaitStrategy waitStrategy, RecordPacker packer,
+                        RecordCompressor compressor, DiskSpillBuffer spill,
+                        RecordBatcher<PutRecordsRequestEntry> batcher, RecordEntryPool entryPool,
+                        long lingerMillis, BiConsumer<String, Exception> errorHandler, IntConsumer dropHandler) {
+        this.ring = ring;
+        this.waitStrategy = waitStrategy;
+        this.packer = packer;
+        this.compressor = compressor;
+        this.spill = spill;
+        this.batcher = batcher;
+        this.entryPool = entryPool;
+        this.lingerMillis = lingerMillis;
+        this.errorHandler = errorHandler;
+        this.dropHandler = dropHandler;
+    }
+
+    @Override
+    public void run() {
+        long next = ring.getConsumed() + 1;
+        int idle = 0;
+
+        while (true) {
+            // running 을 먼저 읽어야 종료 전에 publish 된 레코드를 모두 소비함
+            boolean stopping = !running;
+            long available = ring.highestPublished(next);
+
+            if (available >= next && evictions.get() > 0) {
+                next = evict(next, available);
+            }
+            if (available >= next) {
+                if (stopping && spillBacklogged()) {
+                    spillRange(next, available);
+                } else {
+                    drain(next, available);
+                }
+                next = available + 1;
+                idle = 0;
+            } else if (stopping) {
+                break;
+            } else if (replaySpilled()) {
+                idle = 0;
+            } else {
+                idle = waitStrategy.idle(idle);
+            }
+
+            drainRetries();
+            flushLingered();
+        }
+
+        if (spillBacklogged()) {
+            spillRetries();
+        }
+        flushAll();
+        if (compressor != null) {
+            compressor.close();
+        }
+        // 이후 들어오는 재시도 레코드는 retry() 에서 버림
+        stopped = true;
+        dropRetries();
+    }
+
+    /**
+     * PutRecords 에서 실패한 레코드 재전송 요청 (SDK callback 쓰레드에서 호출)
+     * - 전송 쓰레드가 이미 끝났으면 레코드를 반납하고 버린 레코드로 집계
+     *
+     * @param entry
+     */
+    public void retry(PutRecordsRequestEntry entry) {
+        pendingRetries.incrementAndGet();
+        retries.add(entry);
+        if (stopped) {
+            dropRetries();
+        }
+    }
+
+    /**
+     * 아직 배치에 넣지 않은 재시도 레코드 수 (appender 의 queue depth 에 포함)
+     *
+     * @return
+     */
+    public int getPendingRetries() {
+        return pendingRetries.get();
+    }
+
+    /**
+     * ring buffer 의 가장 오래된 레코드 하나를 버리도록 요청 (애플리케이션 쓰레드에서 호출)
+     * - 다음 drain 전에 처리됨. 그 사이 ring buffer 가 비면 요청은 버려짐
+     */
+    public void evictOldest() {
+        if (evictions.get() < ring.getBufferSize()) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * 종료 요청. 버퍼에 남은 레코드는 모두 전송 요청 후 종료됨
+     */
+    public void shutdown() {
+        running = false;
+    }
+
+    /**
+     * 요청된 수 만큼 from 부터 레코드를 버림
+     *
+     * @return 다음에 읽을 sequence
+     */
+    private long evict(long from, long to) {
+        int count = (int) Math.min(evictions.getAndSet(0), to - from + 1);
+        long last = from + count - 1;
+        for (long sequence = from; sequence <= last; sequence++) {
+            RecordSlot slot = ring.get(sequence);
+            entryPool.getBufferPool().release(slot.getData());
+            slot.clear();
+        }
+        ring.release(last);
+        dropHandler.accept(count);
+        return last + 1;
+    }
+
+    private void drain(long from, long to) {
+        for (long sequence = from; sequence <= to; sequence++) {
+            RecordSlot slot = ring.get(sequence);
+            try {
+                add(slot.getPartitionKey(), slot.getExplicitHashKey(), slot.getData(), slot.getEnqueuedNanos());
+            } catch (Exception e) {
+                errorHandler.accept("Failed to batch log entry for publishing into Kinesis", e);
+            } finally {
+                slot.clear();
+            }
+        }
+        ring.release(to);
+    }
+
+    /**
+     * 디스크에 밀린 레코드를 REPLAY_BATCH 개까지 다시 보냄
+     *
+     * @return 보낸 레코드가 있으면 true
+     */
+    private boolean replaySpilled() {
+        if (spill == null || !spill.hasPending()) {
+            return false;
+        }
+        int count = 0;
+        while (count < REPLAY_BATCH && spill.poll(spilled)) {
+            try {
+                if (spilled.isPrepared()) {
+                    batcher.add(entryPool.acquire(spilled.getPartitionKey(), spilled.getExplicitHashKey(),
+                            spilled.getData()));
+                } else {
+                    add(spilled.getPartitionKey(), spilled.getExplicitHashKey(), spilled.getData(), System.nanoTime());
+                }
+            } catch (Exception e) {
+                errorHandler.accept("Failed to replay spilled log entry into Kinesis", e);
+            } finally {
+                spilled.clear();
+            }
+            count++;
+        }
+        return count > 0;
+    }
+
+    private boolean spillBacklogged() {
+        return spill != null && spill.hasPending();
+    }
+
+    /**
+     * 종료시 ring buffer 에 남은 레코드를 디스크에 기록 (디스크 한도를 넘으면 그대로 전송)
+     */
+    private void spillRange(long from, long to) {
+        for (long sequence = from; sequence <= to; sequence++) {
+            RecordSlot slot = ring.get(sequence);
+            try {
+                if (spill.append(slot.getPartitionKey(), slot.getExplicitHashKey(), slot.getData(), false)) {
+                    entryPool.getBufferPool().release(slot.getData());
+                } else {
+                    add(slot.getPartitionKey(), slot.getExplicitHashKey(), slot.getData(), slot.getEnqueuedNanos());
+                }
+            } catch (Exception e) {
+                errorHandler.accept("Failed to spill log entry to disk", e);
+            } finally {
+                slot.clear();
+            }
+        }
+        ring.release(to);
+    }
+
+    /**
+     * 종료시 아직 재시도하지 못한 레코드를 디스크에 기록
+     */
+    private void spillRetries() {
+        PutRecordsRequestEntry entry;
+        while ((entry = retries.peek()) != null) {
+            try {
+                if (!spill.append(entry.getPartitionKey(), entry.getExplicitHashKey(), entry.getData(), true)) {
+                    return;
+                }
+            } catch (Exception e) {
+                errorHandler.accept("Failed to spill log entry to disk", e);
+                return;
+            }
+            retries.poll();
+            pendingRetries.decrementAndGet();
+            entryPool.release(entry);
+        }
+    }
+
+    private void add(String partitionKey, String explicitHashKey, ByteBuffer data, long enqueuedNanos) {
+        if (packer == null) {
+            PutRecordsRequestEntry entry = entryPool.acquire(partitionKey, explicitHashKey, data);
+            RecordEntry.stamp(entry, enqueuedNanos);
+            enqueue(entry);
+            return;
+        }
+        PutRecordsRequestEntry packed = packer.add(partitionKey, explicitHashKey, data, enqueuedNanos);
+        if (packed != null) {
+            enqueue(packed);
+        }
+    }
+
+    /**
+     * 전송 단위 레코드를 압축하여 배치에 넣음
+     */
+    private void enqueue(PutRecordsRequestEntry entry) {
+        if (compressor != null) {
+            entry.setData(compressor.compress(entry.getData()));
+        }
+        batcher.add(entry);
+    }
+
+    private void drainRetries() {
+        PutRecordsRequestEntry entry;
+        while ((entry = retries.poll()) != null) {
+            pendingRetries.decrementAndGet();
+            batcher.add(entry);
+        }
+    }
+
+    /**
+     * 남은 재시도 레코드를 반납하고 버린 레코드로 집계 (전송 쓰레드가 끝난 뒤)
+     */
+    private void dropRetries() {
+        PutRecordsRequestEntry entry;
+        int dropped = 0;
+        while ((entry = retries.poll()) != null) {
+            pendingRetries.decrementAndGet();
+            entryPool.release(entry);
+            dropped++;
+        }
+        if (dropped > 0) {
+            dropHandler.accept(dropped);
+        }
+    }
+
+    private void flushLingered() {
+        try {
+            PutRecordsRequestEntry packed = packer == null ? null : packer.flushIfLingered(lingerMillis);
+            if (packed != null) {
+                enqueue(packed);
+                batcher.flush();
+            } else {
+                batcher.flushIfLingered(lingerMillis);
+            }
+        } catch (Exception e) {
+            errorHandler.accept("Failed to flush lingering records into Kinesis", e);
+        }
+    }
+
+    private void flushAll() {
+        try {
+            drainRetries();
+            PutRecordsRequestEntry packed = packer == null ? null : packer.flush();
+            if (packed != null) {
+                enqueue(packed);
+            }
+            batcher.flush();
+        } catch (Exception e) {
+            errorHandler.accept("Failed to flush buffered records into Kinesis", e);
+        }
+    }
+}
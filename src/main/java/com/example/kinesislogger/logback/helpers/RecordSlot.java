@@ -0,0 +1,55 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * RingBuffer 의 slot. 미리 할당해두고 재사용함
+ */
+public class RecordSlot {
+
+    private String partitionKey;
+    private String explicitHashKey;
+    private ByteBuffer data;
+    private long enqueuedNanos;
+
+    public void set(String partitionKey, ByteBuffer data) {
+        set(partitionKey, null, data);
+    }
+
+    public void set(String partitionKey, String explicitHashKey, ByteBuffer data) {
+        this.partitionKey = partitionKey;
+        this.explicitHashKey = explicitHashKey;
+        this.data = data;
+        this.enqueuedNanos = System.nanoTime();
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public String getExplicitHashKey() {
+        return explicitHashKey;
+    }
+
+    public ByteBuffer getData() {
+        return data;
+    }
+
+    /**
+     * 애플리케이션 쓰레드가 slot 을 채운 시각 (System.nanoTime)
+     *
+     * @return
+     */
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    /**
+     * 소비 후 참조를 끊어 GC 대상이 되도록 함
+     */
+    public void clear() {
+        this.partitionKey = null;
+        this.explicitHashKey = null;
+        this.data = null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 같은 종류의 오류 / 경고를 interval 당 한번만 보고하기 위한 throttle
+ * - 실패가 몰릴 때 logback status 가 같은 메시지로 넘치지 않도록 함
+ * - 여러 쓰레드가 동시에 호출해도 interval 당 한 쓰레드만 true 를 받음
+ */
+public class ReportThrottle {
+
+    private final long intervalNanos;
+    private final AtomicLong lastReportNanos;
+
+    public ReportThrottle(long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+        this.lastReportNanos = new AtomicLong(System.nanoTime() - intervalNanos);
+    }
+
+    /**
+     * 마지막 보고 이후 interval 이 지났으면 true
+     *
+     * @return
+     */
+    public boolean tryAcquire() {
+        long last = lastReportNanos.get();
+        long now = System.nanoTime();
+        return now - last >= intervalNanos && lastReportNanos.compareAndSet(last, now);
+    }
+}
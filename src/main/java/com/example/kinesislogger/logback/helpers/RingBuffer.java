@@ -0,0 +1,146 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 미리 할당된 multi-producer / single-consumer 링 버퍼
+ * - 생산자는 cursor 에 대한 CAS 로 sequence 를 claim 하고, slot 을 채운 뒤 publish
+ * - 소비자는 publish 된 구간을 한번에 읽고 release 로 slot 을 반납
+ * - 이벤트마다 노드/Runnable 을 만들지 않고, 하나의 lock 을 두고 경쟁하지 않음
+ * <pre>
+ *   long sequence = ring.tryNext();     // 가득 찬 경우 -1
+ *   ring.get(sequence).set(...);
+ *   ring.publish(sequence);
+ * </pre>
+ *
+ * @param <E> slot 타입
+ */
+public class RingBuffer<E> {
+
+    private final Object[] entries;
+    private final int bufferSize;
+    private final int mask;
+    private final int indexShift;
+    private final AtomicIntegerArray available;
+
+    private final Sequence cursor = new Sequence();
+    private final Sequence consumed = new Sequence();
+    private volatile long consumedCache = -1L;
+
+    public RingBuffer(int capacity, Supplier<E> factory) {
+        Validator.validate(capacity > 0, "capacity must be >0");
+        this.bufferSize = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.entries = new Object[bufferSize];
+        this.available = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = factory.get();
+            available.set(i, -1);
+        }
+    }
+
+    /**
+     * 다음 sequence claim (버퍼가 가득 찬 경우 -1)
+     *
+     * @return claim 한 sequence, 가득 찬 경우 -1
+     */
+    public long tryNext() {
+        long current;
+        long next;
+        do {
+            current = cursor.get();
+            next = current + 1;
+            long wrapPoint = next - bufferSize;
+            if (wrapPoint > consumedCache) {
+                long gating = consumed.get();
+                if (wrapPoint > gating) {
+                    return -1L;
+                }
+                consumedCache = gating;
+            }
+        } while (!cursor.compareAndSet(current, next));
+        return next;
+    }
+
+    /**
+     * claim 한 sequence 의 slot
+     *
+     * @param sequence
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    /**
+     * slot 을 채운 뒤 소비자에게 공개
+     *
+     * @param sequence
+     */
+    public void publish(long sequence) {
+        available.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+    }
+
+    /**
+     * from 부터 연속으로 publish 된 마지막 sequence (없으면 from - 1)
+     *
+     * @param from
+     * @return
+     */
+    public long highestPublished(long from) {
+        long claimed = cursor.get();
+        for (long sequence = from; sequence <= claimed; sequence++) {
+            if (available.get((int) sequence & mask) != (int) (sequence >>> indexShift)) {
+                return sequence - 1;
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * sequence 까지 소비 완료. 해당 slot 들은 생산자가 다시 claim 할 수 있음
+     *
+     * @param sequence
+     */
+    public void release(long sequence) {
+        consumed.lazySet(sequence);
+    }
+
+    /**
+     * 마지막으로 소비 완료된 sequence
+     *
+     * @return
+     */
+    public long getConsumed() {
+        return consumed.get();
+    }
+
+    /**
+     * claim 되었지만 아직 소비되지 않은 slot 수
+     *
+     * @return
+     */
+    public int size() {
+        return (int) (cursor.get() - consumed.get());
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * cursor 와 consumed 가 같은 cache line 에 놓이지 않도록 padding
+     */
+    @SuppressWarnings("unused")
+    private static final class Sequence extends AtomicLong {
+        private long p1, p2, p3, p4, p5, p6, p7;
+
+        Sequence() {
+            super(-1L);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * 여러 appender 가 같이 사용하는 client 보관소 (shareClient)
+ * - 같은 owner (logback context, 객체 identity 로 비교) 안에서 client 설정 (region, 인증 정보, 재시도 설정 등) 이 같은
+ *   appender 는 client, SDK 쓰레드 풀, connection pool 을 하나만 만들어 같이 사용. 다른 context 와는 같이 사용하지 않음
+ * - owner 는 weak reference 로 보관 (버려진 context 의 client 목록이 남지 않음)
+ * - 참조 수를 세고, 마지막 appender 가 반납할 때 그 appender 가 client 를 종료 (또는 {@link ClientHandoff} 에 맡김)
+ * - SDK 쓰레드 풀의 최대 크기는 사용하는 appender 들의 동시 요청 한도의 합 (쉬는 쓰레드는 처음 만든 appender 의 core 수만 유지)
+ * - HTTP connection pool 은 만든 뒤에 크기를 바꿀 수 없으므로 쓰레드 풀 최대 크기를 connection pool 크기로 제한함
+ *   (넘는 요청은 연결을 기다리지 않고 쓰레드 풀에서 기다림)
+ * - key 에는 client 설정에 영향을 주는 값을 모두 넣어야 함 (ClientHandoff 와 같은 key 를 사용)
+ */
+public final class SharedClientRegistry {
+
+    private static final Map<Object, Map<String, Shared<?>>> SHARED = new WeakHashMap<>();
+
+    private SharedClientRegistry() {
+    }
+
+    /**
+     * owner 안에서 key 로 공유 중인 client 를 빌림. 없으면 factory 로 만들어 등록
+     *
+     * @param owner       client 를 같이 사용할 범위 (logback context)
+     * @param key         client 설정을 나타내는 key
+     * @param maxPoolSize 빌리는 appender 의 동시 요청 한도 (SDK 쓰레드 풀 최대 크기에 더함)
+     * @param factory     client 생성 (처음 빌리는 appender 만 호출)
+     * @param <C>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <C> Shared<C> acquire(Object owner, String key, int maxPoolSize,
+                                                     Supplier<Shared<C>> factory) {
+        Map<String, Shared<?>> clients = SHARED.computeIfAbsent(owner, o -> new HashMap<>());
+        Shared<C> shared = (Shared<C>) clients.get(key);
+        if (shared == null) {
+            shared = factory.get();
+            clients.put(key, shared);
+        }
+        shared.references++;
+        shared.resize(shared.maxPoolSize + maxPoolSize);
+        return shared;
+    }
+
+    /**
+     * 빌린 client 를 반납
+     *
+     * @param owner       acquire 에 넘긴 owner
+     * @param key
+     * @param shared      acquire 로 받은 client
+     * @param maxPoolSize acquire 에 넘긴 동시 요청 한도
+     * @return 마지막 참조였으면 true (호출한 appender 가 client 를 종료해야 함)
+     */
+    public static synchronized boolean release(Object owner, String key, Shared<?> shared, int maxPoolSize) {
+        Map<String, Shared<?>> clients = SHARED.get(owner);
+        if (clients == null || clients.get(key) != shared || shared.references == 0) {
+            return false;
+        }
+        shared.references--;
+        if (shared.references == 0) {
+            clients.remove(key);
+            if (clients.isEmpty()) {
+                SHARED.remove(owner);
+            }
+            return true;
+        }
+        shared.resize(shared.maxPoolSize - maxPoolSize);
+        return false;
+    }
+
+    /**
+     * 공유 중인 client
+     *
+     * @param <C>
+     */
+    public static final class Shared<C> {
+
+        private final C client;
+        private final ThreadPoolExecutor executor;
+        private final int maxConnections;
+        private int references;
+        private int maxPoolSize;
+
+        /**
+         * @param client
+         * @param executor client 의 SDK 쓰레드 풀 (쓰레드 풀을 쓰지 않는 client 는 null)
+         */
+        public Shared(C client, ThreadPoolExecutor executor) {
+            this(client, executor, 0);
+        }
+
+        /**
+         * @param client
+         * @param executor       client 의 SDK 쓰레드 풀 (쓰레드 풀을 쓰지 않는 client 는 null)
+         * @param maxConnections client 의 HTTP connection pool 크기 (쓰레드 풀 최대 크기의 상한, 0 이면 제한 없음)
+         */
+        public Shared(C client, ThreadPoolExecutor executor, int maxConnections) {
+            this.client = client;
+            this.executor = executor;
+            this.maxConnections = maxConnections;
+        }
+
+        public C getClient() {
+            return client;
+        }
+
+        public ThreadPoolExecutor getExecutor() {
+            return executor;
+        }
+
+        /**
+         * @return HTTP connection pool 크기, 0 이면 제한 없음
+         */
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        /**
+         * @return 빌려간 appender 들의 동시 요청 한도의 합
+         */
+        public int getMaxPoolSize() {
+            synchronized (SharedClientRegistry.class) {
+                return maxPoolSize;
+            }
+        }
+
+        /**
+         * @return 빌려간 appender 수
+         */
+        public int getReferences() {
+            synchronized (SharedClientRegistry.class) {
+                return references;
+            }
+        }
+
+        /**
+         * SDK 쓰레드 풀 최대 크기 조정 (connection pool 크기 이하). 크기 제한이 없는 풀 (virtual thread) 은 그대로 둠
+         * - 늘릴 때는 max 먼저, 줄일 때는 core 먼저 바꿔야 core <= max 가 유지됨
+         */
+        private void resize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+            if (executor == null || executor.getMaximumPoolSize() == Integer.MAX_VALUE || maxPoolSize <= 0) {
+                return;
+            }
+            int size = maxConnections > 0 ? Math.min(maxPoolSize, maxConnections) : maxPoolSize;
+            if (size > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(size);
+            } else {
+                executor.setCorePoolSize(Math.min(executor.getCorePoolSize(), size));
+                executor.setMaximumPoolSize(size);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * JDK 21 virtual thread 사용 (Java 11 로 빌드하므로 reflection 으로 호출)
+ * - Thread.ofVirtual().name(prefix, 1).factory()
+ * - JDK 21 미만 (preview 가 꺼진 JDK 19 / 20 포함) 에서는 지원하지 않음 ({@link #factory} 가 null)
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = ofVirtual();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return 이 JVM 에서 virtual thread 를 만들 수 있는지 여부
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 이름이 namePrefix + 번호 (1 부터) 인 virtual thread factory
+     *
+     * @param namePrefix
+     * @return 지원하지 않으면 null
+     */
+    public static ThreadFactory factory(String namePrefix) {
+        if (OF_VIRTUAL == null) {
+            return null;
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Thread.ofVirtual() 을 찾고 한번 호출해 봄 (preview API 이면 UnsupportedOperationException)
+     */
+    private static Method ofVirtual() {
+        try {
+            Method method = Thread.class.getMethod("ofVirtual");
+            method.invoke(null);
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+}
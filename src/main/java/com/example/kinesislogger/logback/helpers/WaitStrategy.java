@@ -0,0 +1,74 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RingBuffer 소비자가 새 레코드를 기다리는 방식
+ * - BUSY_SPIN : 지연이 가장 낮지만 코어 하나를 계속 사용
+ * - YIELD     : 잠시 spin 후 Thread.yield()
+ * - PARK      : spin, yield 후 parkNanos (기본값, CPU 사용이 가장 적음)
+ */
+public enum WaitStrategy {
+
+    BUSY_SPIN {
+        @Override
+        public int idle(int counter) {
+            Thread.onSpinWait();
+            return counter + 1;
+        }
+    },
+
+    YIELD {
+        @Override
+        public int idle(int counter) {
+            if (counter < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return counter + 1;
+        }
+    },
+
+    PARK {
+        @Override
+        public int idle(int counter) {
+            if (counter < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (counter < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return counter + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 100_000L;
+
+    /**
+     * 기다리는 동안 반복 호출됨
+     *
+     * @param counter 이번 대기에서 지금까지 호출된 횟수 (처음에는 0)
+     * @return 다음 호출에 넘길 counter
+     */
+    public abstract int idle(int counter);
+
+    /**
+     * 설정값으로 WaitStrategy 조회 (busySpin, yield, park / 대소문자, '_' 무시)
+     *
+     * @param name
+     * @return
+     */
+    public static WaitStrategy of(String name) {
+        String normalized = name.trim().replace("_", "").replace("-", "");
+        for (WaitStrategy strategy : values()) {
+            if (strategy.name().replace("_", "").equalsIgnoreCase(normalized)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown waitStrategy: " + name + " (busySpin, yield, park)");
+    }
+}
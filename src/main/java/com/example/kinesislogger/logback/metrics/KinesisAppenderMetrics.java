@@ -0,0 +1,314 @@
+package com.example.kinesislogger.logback.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * appender 지표
+ * - 카운터는 LongAdder 로 SDK callback 쓰레드 / 애플리케이션 쓰레드 간 경합 없이 집계
+ * - enqueue 부터 PutRecords 응답까지의 지연과 배치 크기는 HdrHistogram 으로 기록
+ * - 버퍼 사용량 / 버린 레코드 / disk spill / 동시 요청 한도는 appender 의 값을 그대로 읽음
+ * - 시작 지표: start() 에 걸린 시간, warm-up (stream 체크 등) 시간, start 부터 첫 레코드 전송 완료까지의 시간
+ * - JMX ({@link KinesisAppenderMetricsMXBean}) 와 Micrometer ({@link KinesisMetricsBinder}) 로 노출됨
+ */
+public class KinesisAppenderMetrics implements KinesisAppenderMetricsMXBean {
+
+    public static final String OBJECT_NAME_PREFIX = "com.example.kinesislogger:type=KinesisAppender,name=";
+
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+    private static final long PENDING = -1L;
+
+    private final LongAdder recordsSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder requestsSent = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder failedRecords = new LongAdder();
+    private final LongAdder throttledRequests = new LongAdder();
+    private final LongAdder throttledRecords = new LongAdder();
+    private final LongAdder retriedRecords = new LongAdder();
+    private final LongAdder suppressedRecords = new LongAdder();
+    private final WindowedHistogram latency = new WindowedHistogram(WINDOW_NANOS);
+    private final WindowedHistogram batchSize = new WindowedHistogram(WINDOW_NANOS);
+
+    private volatile long startNanos;
+    private volatile long startupNanos = PENDING;
+    private volatile long warmUpNanos = PENDING;
+    private final AtomicLong firstRecordNanos = new AtomicLong(NOT_STARTED);
+
+    private volatile IntSupplier queueDepth = () -> 0;
+    private volatile LongSupplier droppedRecords = () -> 0L;
+    private volatile LongSupplier spilledRecords = () -> 0L;
+    private volatile IntSupplier concurrencyLimit = () -> 0;
+    private volatile IntSupplier inFlightRequests = () -> 0;
+
+    /**
+     * PutRecords 요청 (배치) 전송
+     *
+     * @param records 배치의 레코드 수
+     */
+    public void onBatch(int records) {
+        batchSize.record(records);
+    }
+
+    /**
+     * 레코드 전송 완료 (PutRecords 응답에서 성공한 레코드)
+     *
+     * @param bytes         레코드 크기
+     * @param enqueuedNanos 레코드가 appender 에 들어온 시각, 모르면 0
+     * @param nowNanos      응답 시각
+     */
+    public void onRecordSent(long bytes, long enqueuedNanos, long nowNanos) {
+        if (firstRecordNanos.get() == PENDING) {
+            firstRecordNanos.compareAndSet(PENDING, nowNanos - startNanos);
+        }
+        recordsSent.increment();
+        bytesSent.add(bytes);
+        if (enqueuedNanos != 0) {
+            latency.record(nowNanos - enqueuedNanos);
+        }
+    }
+
+    /**
+     * appender start 시작 (시작 지표 초기화)
+     *
+     * @param nowNanos start 시각
+     */
+    public void onStarting(long nowNanos) {
+        startNanos = nowNanos;
+        startupNanos = PENDING;
+        warmUpNanos = PENDING;
+        firstRecordNanos.set(PENDING);
+    }
+
+    /**
+     * @param elapsedNanos start() 에 걸린 시간 (로깅 초기화를 막은 시간)
+     */
+    public void onStarted(long elapsedNanos) {
+        startupNanos = elapsedNanos;
+    }
+
+    /**
+     * @param elapsedNanos stream 체크, credentials 확인, 쓰레드 / 연결 warm-up 에 걸린 시간
+     */
+    public void onWarmedUp(long elapsedNanos) {
+        warmUpNanos = elapsedNanos;
+    }
+
+    public void onRequestSent() {
+        requestsSent.increment();
+    }
+
+    public void onRequestFailed() {
+        failedRequests.increment();
+    }
+
+    public void onRecordFailed() {
+        failedRecords.increment();
+    }
+
+    public void onRequestThrottled() {
+        throttledRequests.increment();
+    }
+
+    public void onRecordThrottled() {
+        throttledRecords.increment();
+    }
+
+    public void onRecordRetried() {
+        retriedRecords.increment();
+    }
+
+    public void onRecordSuppressed() {
+        suppressedRecords.increment();
+    }
+
+    /**
+     * appender 상태를 읽는 gauge 연결 (appender start 시)
+     *
+     * @param queueDepth     ring buffer 에 쌓인 레코드 수
+     * @param droppedRecords 버린 레코드 수
+     * @param spilledRecords 디스크에 밀린 레코드 수
+     */
+    public void bind(IntSupplier queueDepth, LongSupplier droppedRecords, LongSupplier spilledRecords) {
+        this.queueDepth = queueDepth;
+        this.droppedRecords = droppedRecords;
+        this.spilledRecords = spilledRecords;
+    }
+
+    /**
+     * 동시 요청 한도 gauge 연결 (appender start 시)
+     *
+     * @param concurrencyLimit 현재 동시 요청 한도
+     * @param inFlightRequests 보내는 중인 요청 수
+     */
+    public void bindConcurrency(IntSupplier concurrencyLimit, IntSupplier inFlightRequests) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.inFlightRequests = inFlightRequests;
+    }
+
+    /**
+     * 최근 window 의 enqueue ~ 응답 지연 (ns)
+     *
+     * @param percentile 0 ~ 100
+     * @return
+     */
+    public long getLatencyNanos(double percentile) {
+        return latency.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * 최근 window 의 배치 크기 (레코드 수)
+     *
+     * @param percentile 0 ~ 100
+     * @return
+     */
+    public long getBatchSize(double percentile) {
+        return batchSize.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * @return start() 에 걸린 시간 (ns), 아직 끝나지 않았으면 -1
+     */
+    public long getStartupNanos() {
+        return startupNanos;
+    }
+
+    /**
+     * @return warm-up 에 걸린 시간 (ns), 아직 끝나지 않았으면 -1
+     */
+    public long getWarmUpNanos() {
+        return warmUpNanos;
+    }
+
+    /**
+     * @return start 부터 첫 레코드 전송 완료까지의 시간 (ns), 아직 보내지 않았으면 -1
+     */
+    public long getTimeToFirstRecordNanos() {
+        long nanos = firstRecordNanos.get();
+        return nanos < 0 ? PENDING : nanos;
+    }
+
+    @Override
+    public long getRecordsSent() {
+        return recordsSent.sum();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public long getRequestsSent() {
+        return requestsSent.sum();
+    }
+
+    @Override
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    @Override
+    public long getFailedRecords() {
+        return failedRecords.sum();
+    }
+
+    @Override
+    public long getThrottledRequests() {
+        return throttledRequests.sum();
+    }
+
+    @Override
+    public long getThrottledRecords() {
+        return throttledRecords.sum();
+    }
+
+    @Override
+    public long getRetriedRecords() {
+        return retriedRecords.sum();
+    }
+
+    @Override
+    public long getSuppressedRecords() {
+        return suppressedRecords.sum();
+    }
+
+    @Override
+    public long getDroppedRecords() {
+        return droppedRecords.getAsLong();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public long getSpilledRecords() {
+        return spilledRecords.getAsLong();
+    }
+
+    @Override
+    public int getConcurrencyLimit() {
+        return concurrencyLimit.getAsInt();
+    }
+
+    @Override
+    public int getInFlightRequests() {
+        return inFlightRequests.getAsInt();
+    }
+
+    @Override
+    public double getBatchSizeMean() {
+        return batchSize.getMean();
+    }
+
+    @Override
+    public long getBatchSizeMax() {
+        return batchSize.getMaxValue();
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return getLatencyNanos(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return getLatencyNanos(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getLatencyP999Millis() {
+        return getLatencyNanos(99.9) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getLatencyMaxMillis() {
+        return latency.getMaxValue() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getStartupMillis() {
+        return toMillis(getStartupNanos());
+    }
+
+    @Override
+    public double getWarmUpMillis() {
+        return toMillis(getWarmUpNanos());
+    }
+
+    @Override
+    public double getTimeToFirstRecordMillis() {
+        return toMillis(getTimeToFirstRecordNanos());
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos < 0 ? -1 : nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.kinesislogger.logback.metrics;
+
+/**
+ * appender 지표 JMX 인터페이스
+ * - ObjectName : com.example.kinesislogger:type=KinesisAppender,name={appender name}
+ * - 지연시간 / 배치 크기는 최근 1분 window 의 값
+ * - 시작 지표는 아직 값이 없으면 -1
+ */
+public interface KinesisAppenderMetricsMXBean {
+
+    long getRecordsSent();
+
+    long getBytesSent();
+
+    long getRequestsSent();
+
+    long getFailedRequests();
+
+    long getFailedRecords();
+
+    long getThrottledRequests();
+
+    long getThrottledRecords();
+
+    long getRetriedRecords();
+
+    long getSuppressedRecords();
+
+    long getDroppedRecords();
+
+    int getQueueDepth();
+
+    long getSpilledRecords();
+
+    int getConcurrencyLimit();
+
+    int getInFlightRequests();
+
+    double getBatchSizeMean();
+
+    long getBatchSizeMax();
+
+    double getLatencyP50Millis();
+
+    double getLatencyP99Millis();
+
+    double getLatencyP999Millis();
+
+    double getLatencyMaxMillis();
+
+    double getStartupMillis();
+
+    double getWarmUpMillis();
+
+    double getTimeToFirstRecordMillis();
+}
@@ -0,0 +1,170 @@
+package com.example.kinesislogger.logback.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link KinesisAppenderMetrics} 를 Micrometer meter 로 등록
+ * - 모든 meter 에 appender / stream tag 를 붙임
+ * - 카운터는 FunctionCounter, 지연시간 / 배치 크기 percentile 은 quantile tag 를 붙인 gauge
+ * - 시작 지표 (startup.*) 는 값이 없으면 NaN
+ * - Supplier 로 만들면 값을 읽을 때마다 지표를 다시 가져옴 (appender 를 다시 만들어도 같은 meter 로 읽음)
+ */
+public class KinesisMetricsBinder implements MeterBinder {
+
+    private static final String PREFIX = "kinesis.appender.";
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final KinesisAppenderMetrics metrics;
+    private final Supplier<KinesisAppenderMetrics> source;
+    private final Tags tags;
+
+    /**
+     * @param metrics      appender 지표
+     * @param appenderName appender 이름
+     * @param streamName   stream 이름
+     */
+    public KinesisMetricsBinder(KinesisAppenderMetrics metrics, String appenderName, String streamName) {
+        this(metrics, null, appenderName, streamName);
+    }
+
+    /**
+     * Micrometer 는 meter 의 state (source) 를 weak reference 로 들고 있으므로 source 의 참조는 호출자가 유지해야 함
+     *
+     * @param source       값을 읽을 때마다 호출 (null 이 아니어야 함)
+     * @param appenderName appender 이름
+     * @param streamName   stream 이름
+     */
+    public KinesisMetricsBinder(Supplier<KinesisAppenderMetrics> source, String appenderName, String streamName) {
+        this(null, source, appenderName, streamName);
+    }
+
+    private KinesisMetricsBinder(KinesisAppenderMetrics metrics, Supplier<KinesisAppenderMetrics> source,
+                                 String appenderName, String streamName) {
+        this.metrics = metrics;
+        this.source = source;
+        this.tags = Tags.of("appender", appenderName, "stream", streamName);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (source == null) {
+            bindTo(new Meters<>(registry, tags, metrics, Function.identity()));
+        } else {
+            bindTo(new Meters<>(registry, tags, source, Supplier::get));
+        }
+    }
+
+    private static void bindTo(Meters<?> meters) {
+        meters.counter("records.sent", "Records acknowledged by Kinesis", null,
+                KinesisAppenderMetrics::getRecordsSent);
+        meters.counter("bytes.sent", "Record bytes acknowledged by Kinesis", "bytes",
+                KinesisAppenderMetrics::getBytesSent);
+        meters.counter("requests.sent", "Successful PutRecords requests", null,
+                KinesisAppenderMetrics::getRequestsSent);
+        meters.counter("requests.failed", "Failed PutRecords requests", null,
+                KinesisAppenderMetrics::getFailedRequests);
+        meters.counter("records.failed", "Records rejected in PutRecords results", null,
+                KinesisAppenderMetrics::getFailedRecords);
+        meters.counter("requests.throttled", "PutRecords requests rejected by throttling", null,
+                KinesisAppenderMetrics::getThrottledRequests);
+        meters.counter("records.throttled", "Records rejected by throttling", null,
+                KinesisAppenderMetrics::getThrottledRecords);
+        meters.counter("records.retried", "Records put back into a batch after a failure", null,
+                KinesisAppenderMetrics::getRetriedRecords);
+        meters.counter("records.suppressed", "Repeated log events collapsed into summary records", null,
+                KinesisAppenderMetrics::getSuppressedRecords);
+        meters.counter("records.dropped",
+                "Records dropped because the buffer was full or maxRecordRetries was exceeded", null,
+                KinesisAppenderMetrics::getDroppedRecords);
+
+        meters.gauge("queue.depth", "Records waiting in the ring buffer", null,
+                KinesisAppenderMetrics::getQueueDepth);
+        meters.gauge("records.spilled", "Records waiting in the disk spill", null,
+                KinesisAppenderMetrics::getSpilledRecords);
+        meters.gauge("concurrency.limit", "Current limit of concurrent PutRecords requests", null,
+                KinesisAppenderMetrics::getConcurrencyLimit);
+        meters.gauge("requests.inflight", "PutRecords requests waiting for a response", null,
+                KinesisAppenderMetrics::getInFlightRequests);
+
+        meters.timeGauge("startup.duration", "Time start() blocked logback initialization", null,
+                KinesisAppenderMetrics::getStartupNanos);
+        meters.timeGauge("startup.warmup", "Time spent on stream validation and connection warm-up", null,
+                KinesisAppenderMetrics::getWarmUpNanos);
+        meters.timeGauge("startup.first.record", "Time from start to the first acknowledged record", null,
+                KinesisAppenderMetrics::getTimeToFirstRecordNanos);
+
+        for (double quantile : QUANTILES) {
+            double percentile = quantile * 100;
+            String tag = String.valueOf(quantile);
+            meters.timeGauge("latency", "Time from enqueue to PutRecords acknowledgement (last minute)", tag,
+                    m -> m.getLatencyNanos(percentile));
+            meters.gauge("batch.size", "Records per PutRecords request (last minute)", tag,
+                    m -> m.getBatchSize(percentile));
+        }
+    }
+
+    /**
+     * state 에서 지표를 꺼내서 meter 등록 (quantile 이 null 이 아니면 quantile tag 를 붙임)
+     */
+    private static final class Meters<T> {
+
+        private final MeterRegistry registry;
+        private final Tags tags;
+        private final T state;
+        private final Function<T, KinesisAppenderMetrics> resolve;
+
+        Meters(MeterRegistry registry, Tags tags, T state, Function<T, KinesisAppenderMetrics> resolve) {
+            this.registry = registry;
+            this.tags = tags;
+            this.state = state;
+            this.resolve = resolve;
+        }
+
+        void counter(String name, String description, String baseUnit,
+                     ToDoubleFunction<KinesisAppenderMetrics> function) {
+            FunctionCounter.builder(PREFIX + name, state, s -> function.applyAsDouble(resolve.apply(s)))
+                    .description(description)
+                    .baseUnit(baseUnit)
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        void gauge(String name, String description, String quantile,
+                   ToDoubleFunction<KinesisAppenderMetrics> function) {
+            Gauge.builder(PREFIX + name, state, s -> function.applyAsDouble(resolve.apply(s)))
+                    .description(description)
+                    .tags(quantileTags(quantile))
+                    .register(registry);
+        }
+
+        /**
+         * 값이 없으면 (-1) NaN
+         */
+        void timeGauge(String name, String description, String quantile,
+                       ToLongFunction<KinesisAppenderMetrics> nanos) {
+            ToDoubleFunction<T> value = s -> {
+                long elapsed = nanos.applyAsLong(resolve.apply(s));
+                return elapsed < 0 ? Double.NaN : elapsed;
+            };
+            TimeGauge.builder(PREFIX + name, state, TimeUnit.NANOSECONDS, value)
+                    .description(description)
+                    .tags(quantileTags(quantile))
+                    .register(registry);
+        }
+
+        private Tags quantileTags(String quantile) {
+            return quantile == null ? tags : tags.and("quantile", quantile);
+        }
+    }
+}
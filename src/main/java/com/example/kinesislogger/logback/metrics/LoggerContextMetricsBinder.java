@@ -0,0 +1,139 @@
+package com.example.kinesislogger.logback.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.example.kinesislogger.logback.BaseKinesisAppender;
+import com.example.kinesislogger.logback.KinesisRoutingAppender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * LoggerContext 에 설정된 Kinesis appender (routing appender 는 route 별로도) 의 지표를 Micrometer 에 등록
+ * <p>
+ * - meter 는 appender 이름 / stream 으로 등록하고, 값은 읽을 때마다 그 이름의 appender 에서 읽음
+ * (설정 재로딩 (scan) 으로 다시 만든 appender 도 같은 meter 로 읽고, 없어지거나 종료된 appender 는 0 / NaN)
+ * - 값을 읽을 때 (최대 1초에 한번) LoggerContext 를 다시 훑어서 등록 뒤에 생긴 appender / route 의 meter 도 등록
+ */
+public class LoggerContextMetricsBinder implements MeterBinder {
+
+    private static final long SCAN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // 없어지거나 종료된 appender 대신 읽는 빈 지표
+    private static final KinesisAppenderMetrics ABSENT = new KinesisAppenderMetrics();
+
+    private final LoggerContext context;
+    private final long scanIntervalNanos;
+    private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+    // Micrometer 는 meter 의 state 를 weak reference 로 들고 있으므로 여기서 참조를 유지
+    private final Map<String, Source> sources = new ConcurrentHashMap<>();
+    private volatile long lastScanNanos;
+
+    public LoggerContextMetricsBinder(LoggerContext context) {
+        this(context, SCAN_INTERVAL_NANOS);
+    }
+
+    LoggerContextMetricsBinder(LoggerContext context, long scanIntervalNanos) {
+        this.context = context;
+        this.scanIntervalNanos = scanIntervalNanos;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        registries.add(registry);
+        for (Source source : sources.values()) {
+            source.binder.bindTo(registry);
+        }
+        scan();
+    }
+
+    /**
+     * 마지막으로 훑은 지 scanIntervalNanos 가 지났으면 다시 훑음
+     */
+    private void scanIfStale() {
+        if (System.nanoTime() - lastScanNanos >= scanIntervalNanos) {
+            synchronized (this) {
+                if (System.nanoTime() - lastScanNanos >= scanIntervalNanos) {
+                    scan();
+                }
+            }
+        }
+    }
+
+    /**
+     * 지금 설정된 appender 로 source 를 갱신 (routing appender 의 route 는 routing appender 이름으로)
+     */
+    private synchronized void scan() {
+        Map<String, BaseKinesisAppender<?, ?>> found = new HashMap<>();
+        for (Logger logger : context.getLoggerList()) {
+            Iterator<Appender<ILoggingEvent>> appenders = logger.iteratorForAppenders();
+            while (appenders.hasNext()) {
+                Appender<ILoggingEvent> appender = appenders.next();
+                if (!(appender instanceof BaseKinesisAppender)) {
+                    continue;
+                }
+                found(found, appender.getName(), (BaseKinesisAppender<?, ?>) appender);
+                if (appender instanceof KinesisRoutingAppender) {
+                    for (BaseKinesisAppender<?, ?> route : ((KinesisRoutingAppender) appender).getRouteAppenders()) {
+                        found(found, appender.getName(), route);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, Source> entry : sources.entrySet()) {
+            if (!found.containsKey(entry.getKey())) {
+                entry.getValue().appender = null;
+            }
+        }
+        lastScanNanos = System.nanoTime();
+    }
+
+    /**
+     * 처음 보는 appender 이름 / stream 이면 모든 registry 에 meter 등록 (같은 이름 / stream 은 먼저 찾은 appender)
+     */
+    private void found(Map<String, BaseKinesisAppender<?, ?>> found, String appenderName,
+                       BaseKinesisAppender<?, ?> appender) {
+        String key = appenderName + '/' + appender.getStreamName();
+        if (found.putIfAbsent(key, appender) != null) {
+            return;
+        }
+        Source source = sources.get(key);
+        if (source == null) {
+            source = new Source(appenderName, appender.getStreamName());
+            sources.put(key, source);
+            for (MeterRegistry registry : registries) {
+                source.binder.bindTo(registry);
+            }
+        }
+        source.appender = appender;
+    }
+
+    /**
+     * 같은 appender 이름 / stream 의 지금 appender 지표
+     */
+    private final class Source implements Supplier<KinesisAppenderMetrics> {
+
+        private final KinesisMetricsBinder binder;
+        private volatile BaseKinesisAppender<?, ?> appender;
+
+        Source(String appenderName, String streamName) {
+            this.binder = new KinesisMetricsBinder(this, appenderName, streamName);
+        }
+
+        @Override
+        public KinesisAppenderMetrics get() {
+            scanIfStale();
+            BaseKinesisAppender<?, ?> current = appender;
+            return current != null && current.isStarted() ? current.getMetrics() : ABSENT;
+        }
+    }
+}
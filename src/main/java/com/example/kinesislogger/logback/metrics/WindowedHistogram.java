@@ -0,0 +1,67 @@
+package com.example.kinesislogger.logback.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * HdrHistogram 기반 값 분포 (지연시간, 배치 크기)
+ * - 기록은 {@link Recorder} 로 lock 없이 처리 (SDK callback 쓰레드 여러개에서 동시에 호출됨)
+ * - 조회시 지금까지 기록된 값을 window 에 합치고, window 는 windowNanos 마다 비움.
+ *   (시작 이후 누적값이 아니라 최근 값의 percentile 을 보여주기 위함)
+ */
+public class WindowedHistogram {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram window = new Histogram(SIGNIFICANT_DIGITS);
+    private final long windowNanos;
+    private Histogram interval;
+    private long windowStartNanos = System.nanoTime();
+
+    public WindowedHistogram(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * 값 기록 (음수는 0 으로 기록)
+     *
+     * @param value
+     */
+    public void record(long value) {
+        recorder.recordValue(Math.max(0, value));
+    }
+
+    /**
+     * 현재 window 의 percentile 값 (기록된 값이 없으면 0)
+     *
+     * @param percentile 0 ~ 100
+     * @return
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        return refresh().getValueAtPercentile(percentile);
+    }
+
+    public synchronized long getMaxValue() {
+        return refresh().getMaxValue();
+    }
+
+    public synchronized double getMean() {
+        return refresh().getMean();
+    }
+
+    public synchronized long getCount() {
+        return refresh().getTotalCount();
+    }
+
+    private Histogram refresh() {
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= windowNanos) {
+            window.reset();
+            windowStartNanos = now;
+        }
+        interval = recorder.getIntervalHistogram(interval);
+        window.add(interval);
+        return window;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.kinesislogger.logback.partition;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import org.slf4j.MDC;
+
+/**
+ * MDC 값(예: traceId)을 partition key 로 사용하여 관련된 로그를 같은 shard 에 순서대로 보냄
+ * - 값이 없으면 random 전략으로 대체
+ * - 256 자를 넘는 값은 잘라서 사용
+ * - 만든 PartitionKey 는 값의 hash 로 정한 칸 (CACHE_SIZE 개) 에 보관해서 같은 값의 이벤트는 할당 없이 재사용
+ *   (칸이 겹치면 덮어씀. PartitionKey 는 불변이므로 쓰레드 사이에 동기화 없이 공유해도 됨)
+ */
+public class MdcPartitionKeyStrategy implements PartitionKeyStrategy {
+
+    private static final int CACHE_SIZE = 1024;
+
+    private final String field;
+    private final PartitionKey[] cache = new PartitionKey[CACHE_SIZE];
+
+    public MdcPartitionKeyStrategy(String field) {
+        this.field = field;
+    }
+
+    @Override
+    public PartitionKey select(Object event) {
+        String value = event instanceof ILoggingEvent
+                ? ((ILoggingEvent) event).getMDCPropertyMap().get(field)
+                : MDC.get(field);
+        if (value == null || value.isEmpty()) {
+            return RandomPartitionKeyStrategy.next();
+        }
+        int index = value.hashCode() & (CACHE_SIZE - 1);
+        PartitionKey cached = cache[index];
+        if (cached != null && matches(cached.getPartitionKey(), value)) {
+            return cached;
+        }
+        if (value.length() > PartitionKey.MAX_LENGTH) {
+            value = value.substring(0, PartitionKey.MAX_LENGTH);
+        }
+        PartitionKey key = new PartitionKey(value, null);
+        cache[index] = key;
+        return key;
+    }
+
+    /**
+     * 보관된 key 가 값 (MAX_LENGTH 로 자른 값) 과 같은지 여부
+     */
+    private static boolean matches(String key, String value) {
+        if (value.length() <= PartitionKey.MAX_LENGTH) {
+            return key.equals(value);
+        }
+        return key.length() == PartitionKey.MAX_LENGTH && value.startsWith(key);
+    }
+
+    public String getField() {
+        return field;
+    }
+}
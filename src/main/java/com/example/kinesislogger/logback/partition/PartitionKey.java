@@ -0,0 +1,31 @@
+package com.example.kinesislogger.logback.partition;
+
+/**
+ * 레코드를 보낼 shard 를 정하는 partition key / explicit hash key 쌍 (불변)
+ * - explicitHashKey 가 있으면 Kinesis 는 partition key 의 MD5 대신 이 값으로 shard 를 정함
+ */
+public final class PartitionKey {
+
+    public static final int MAX_LENGTH = 256;
+
+    private final String partitionKey;
+    private final String explicitHashKey;
+
+    public PartitionKey(String partitionKey, String explicitHashKey) {
+        this.partitionKey = partitionKey;
+        this.explicitHashKey = explicitHashKey;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public String getExplicitHashKey() {
+        return explicitHashKey;
+    }
+
+    @Override
+    public String toString() {
+        return explicitHashKey == null ? partitionKey : partitionKey + "/" + explicitHashKey;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.kinesislogger.logback.partition;
+
+import com.example.kinesislogger.logback.helpers.Validator;
+
+/**
+ * PartitionKeyStrategy 생성
+ * - random (기본), roundRobin, mdc 또는 PartitionKeyStrategy 구현 클래스 이름
+ */
+public final class PartitionKeyStrategies {
+
+    public static final String RANDOM = "random";
+    private static final String ROUND_ROBIN = "roundRobin";
+    private static final String MDC = "mdc";
+
+    private PartitionKeyStrategies() {
+    }
+
+    /**
+     * @param name  전략 이름 또는 클래스 이름
+     * @param field mdc 전략에서 사용할 MDC key
+     * @return
+     */
+    public static PartitionKeyStrategy of(String name, String field) {
+        String normalized = normalize(name);
+        if (RANDOM.equalsIgnoreCase(normalized)) {
+            return new RandomPartitionKeyStrategy();
+        }
+        if (ROUND_ROBIN.equalsIgnoreCase(normalized)) {
+            return new RoundRobinPartitionKeyStrategy();
+        }
+        if (MDC.equalsIgnoreCase(normalized)) {
+            Validator.validate(!Validator.isBlank(field), "partitionKeyField is required for mdc partitionKeyStrategy");
+            return new MdcPartitionKeyStrategy(field.trim());
+        }
+        try {
+            return strategyClass(name).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw unknown(name, e);
+        }
+    }
+
+    /**
+     * 전략 이름 확인 (설정 단계). mdc 전략의 partitionKeyField 는 생성할 때 확인
+     *
+     * @param name 전략 이름 또는 클래스 이름
+     * @throws IllegalArgumentException 알 수 없는 전략
+     */
+    public static void validate(String name) {
+        String normalized = normalize(name);
+        if (!RANDOM.equalsIgnoreCase(normalized) && !ROUND_ROBIN.equalsIgnoreCase(normalized)
+                && !MDC.equalsIgnoreCase(normalized)) {
+            strategyClass(name);
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").replace("-", "");
+    }
+
+    private static Class<? extends PartitionKeyStrategy> strategyClass(String name) {
+        try {
+            return Class.forName(name.trim()).asSubclass(PartitionKeyStrategy.class);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw unknown(name, e);
+        }
+    }
+
+    private static IllegalArgumentException unknown(String name, Exception cause) {
+        return new IllegalArgumentException("Unknown partitionKeyStrategy: " + name
+                + " (random, roundRobin, mdc or a PartitionKeyStrategy class name)", cause);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.kinesislogger.logback.partition;
+
+/**
+ * 로그 이벤트별 partition key 선택 전략
+ * - 애플리케이션 쓰레드에서 이벤트마다 호출되므로 가볍고 쓰레드에 안전해야 함
+ * - 직접 구현한 전략은 partitionKeyStrategy 에 클래스 이름을 설정 (public 기본 생성자 필요)
+ */
+public interface PartitionKeyStrategy {
+
+    /**
+     * @param event logback 이벤트 (ILoggingEvent 등)
+     * @return
+     */
+    PartitionKey select(Object event);
+
+    /**
+     * shard map (ListShards) 이 필요한 전략인지 여부
+     *
+     * @return
+     */
+    default boolean isShardAware() {
+        return false;
+    }
+
+    /**
+     * isShardAware() 가 true 이면 appender start 시 호출됨
+     *
+     * @param shardMap
+     */
+    default void setShardMap(ShardMapCache shardMap) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.kinesislogger.logback.partition;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 미리 만들어둔 partition key 중 하나를 ThreadLocalRandom 으로 선택 (기본 전략)
+ * - UUID.randomUUID() 와 달리 SecureRandom 경합과 이벤트마다 문자열 할당이 없음
+ * - key 의 MD5 는 고르게 퍼지므로 shard 분산은 UUID 와 같음
+ */
+public class RandomPartitionKeyStrategy implements PartitionKeyStrategy {
+
+    private static final int KEY_COUNT = 1024;
+    private static final PartitionKey[] KEYS = new PartitionKey[KEY_COUNT];
+
+    static {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            KEYS[i] = new PartitionKey(Integer.toString(i), null);
+        }
+    }
+
+    @Override
+    public PartitionKey select(Object event) {
+        return next();
+    }
+
+    static PartitionKey next() {
+        return KEYS[ThreadLocalRandom.current().nextInt(KEY_COUNT)];
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.kinesislogger.logback.partition;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * open shard 의 explicit hash key 를 돌아가며 사용
+ * - 쓰레드마다 임의의 위치에서 시작하는 카운터를 사용하여 쓰레드간 경합 없이 shard 에 고르게 분산
+ * - shard map 을 아직 읽지 못했으면 random 전략으로 대체
+ */
+public class RoundRobinPartitionKeyStrategy implements PartitionKeyStrategy {
+
+    private final ThreadLocal<int[]> counter = ThreadLocal.withInitial(
+            () -> new int[]{ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE)});
+    private ShardMapCache shardMap;
+
+    @Override
+    public PartitionKey select(Object event) {
+        ShardMap current = shardMap == null ? ShardMap.EMPTY : shardMap.current();
+        int size = current.size();
+        if (size == 0) {
+            return RandomPartitionKeyStrategy.next();
+        }
+        int[] next = counter.get();
+        int index = (next[0]++ & Integer.MAX_VALUE) % size;
+        return current.get(index);
+    }
+
+    @Override
+    public boolean isShardAware() {
+        return true;
+    }
+
+    @Override
+    public void setShardMap(ShardMapCache shardMap) {
+        this.shardMap = shardMap;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.kinesislogger.logback.partition;
+
+import com.amazonaws.services.kinesis.model.Shard;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ListShards 결과 snapshot (불변)
+ * - open shard 마다 hash key 범위의 중간값을 explicit hash key 로 미리 만들어둠
+ * - 닫힌 shard (resharding 의 부모) 는 id 만 기억하고 전송 대상에서는 제외
+ */
+public final class ShardMap {
+
+    public static final ShardMap EMPTY = new ShardMap(Collections.emptySet(), new PartitionKey[0]);
+
+    private final Set<String> shardIds;
+    private final PartitionKey[] openShards;
+
+    private ShardMap(Set<String> shardIds, PartitionKey[] openShards) {
+        this.shardIds = shardIds;
+        this.openShards = openShards;
+    }
+
+    public static ShardMap of(List<Shard> shards) {
+        Set<String> shardIds = new HashSet<>();
+        List<PartitionKey> openShards = new ArrayList<>();
+        for (Shard shard : shards) {
+            shardIds.add(shard.getShardId());
+            if (shard.getSequenceNumberRange() != null
+                    && shard.getSequenceNumberRange().getEndingSequenceNumber() != null) {
+                continue;
+            }
+            BigInteger start = new BigInteger(shard.getHashKeyRange().getStartingHashKey());
+            BigInteger end = new BigInteger(shard.getHashKeyRange().getEndingHashKey());
+            openShards.add(new PartitionKey(shard.getShardId(), start.add(end).shiftRight(1).toString()));
+        }
+        return new ShardMap(shardIds, openShards.toArray(new PartitionKey[0]));
+    }
+
+    /**
+     * open shard 수
+     *
+     * @return
+     */
+    public int size() {
+        return openShards.length;
+    }
+
+    /**
+     * index 번째 open shard 로 보내는 partition key (partition key 는 shard id)
+     *
+     * @param index
+     * @return
+     */
+    public PartitionKey get(int index) {
+        return openShards[index];
+    }
+
+    /**
+     * 알고 있는 shard 인지 여부 (모르는 shard 면 resharding 된 것)
+     *
+     * @param shardId
+     * @return
+     */
+    public boolean contains(String shardId) {
+        return shardIds.contains(shardId);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.kinesislogger.logback.partition;
+
+import com.amazonaws.services.kinesis.AmazonKinesis;
+import com.amazonaws.services.kinesis.model.ListShardsRequest;
+import com.amazonaws.services.kinesis.model.ListShardsResult;
+import com.amazonaws.services.kinesis.model.Shard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * stream 의 shard map 캐시
+ * - refreshMillis 마다 별도 쓰레드에서 ListShards 로 갱신
+ * - PutRecords 결과에 모르는 shard id 가 나오면 (resharding) 바로 갱신 (최소 간격 MIN_REFRESH_INTERVAL_MILLIS)
+ * - 애플리케이션 쓰레드는 volatile snapshot 만 읽음
+ */
+public class ShardMapCache {
+
+    private static final long MIN_REFRESH_INTERVAL_MILLIS = 1000L;
+
+    private final AmazonKinesis client;
+    private final String streamName;
+    private final long refreshMillis;
+    private final BiConsumer<String, Exception> errorHandler;
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+    private volatile ShardMap current = ShardMap.EMPTY;
+    private volatile long lastRefreshMillis;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param client        ListShards 를 호출할 client
+     * @param streamName
+     * @param refreshMillis 주기적 갱신 간격
+     * @param errorHandler  오류 보고 (appender::addError)
+     */
+    public ShardMapCache(AmazonKinesis client, String streamName, long refreshMillis,
+                         BiConsumer<String, Exception> errorHandler) {
+        this.client = client;
+        this.streamName = streamName;
+        this.refreshMillis = refreshMillis;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * 첫 갱신과 주기적 갱신 시작
+     *
+     * @param threadFactory
+     */
+    public void start(ThreadFactory threadFactory) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public ShardMap current() {
+        return current;
+    }
+
+    /**
+     * PutRecords 결과의 shard id 확인 (SDK callback 쓰레드에서 호출)
+     *
+     * @param shardId
+     */
+    public void observe(String shardId) {
+        if (shardId == null || current.contains(shardId)) {
+            return;
+        }
+        if (scheduler != null && System.currentTimeMillis() - lastRefreshMillis >= MIN_REFRESH_INTERVAL_MILLIS
+                && refreshRequested.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                refreshRequested.set(false);
+                refreshQuietly();
+            });
+        }
+    }
+
+    /**
+     * ListShards 로 shard map 갱신 (NextToken 이 있으면 이어서 조회)
+     *
+     * @return
+     */
+    public ShardMap refresh() {
+        lastRefreshMillis = System.currentTimeMillis();
+        List<Shard> shards = new ArrayList<>();
+        String nextToken = null;
+        do {
+            ListShardsRequest request = nextToken == null
+                    ? new ListShardsRequest().withStreamName(streamName)
+                    : new ListShardsRequest().withNextToken(nextToken);
+            ListShardsResult result = client.listShards(request);
+            shards.addAll(result.getShards());
+            nextToken = result.getNextToken();
+        } while (nextToken != null);
+
+        current = ShardMap.of(shards);
+        return current;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            errorHandler.accept("Failed to list shards of Kinesis stream: " + streamName, e);
+        }
+    }
+}
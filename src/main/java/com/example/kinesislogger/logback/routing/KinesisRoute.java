@@ -0,0 +1,267 @@
+package com.example.kinesislogger.logback.routing;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.example.kinesislogger.logback.helpers.OverflowPolicy;
+import com.example.kinesislogger.logback.helpers.Validator;
+import com.example.kinesislogger.logback.partition.PartitionKeyStrategies;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * KinesisRoutingAppender 의 route 설정 (logback xml 의 &lt;route&gt;)
+ * - 설정한 조건 (level, logger, marker, mdcKey) 을 모두 만족하는 이벤트를 streamName 으로 보냄
+ * - 조건이 하나도 없으면 모든 이벤트와 일치 (appender 기본 stream 대신 사용하는 catch-all)
+ * - bufferSize, lingerMillis, overflowPolicy, rateLimitEnabled, partitionKeyStrategy 를 설정하지 않으면
+ *   appender 설정을 그대로 사용
+ */
+public class KinesisRoute {
+
+    private String streamName;
+    private Level level;
+    private List<String> loggers = Collections.emptyList();
+    private String marker;
+    private String mdcKey;
+    private String mdcValue;
+
+    private Integer bufferSize;
+    private Integer lingerMillis;
+    private String overflowPolicy;
+    private Boolean rateLimitEnabled;
+    private String partitionKeyStrategy;
+    private String partitionKeyField;
+
+    /**
+     * 이벤트가 이 route 의 조건을 모두 만족하는지 여부
+     *
+     * @param event
+     * @return
+     */
+    public boolean matches(ILoggingEvent event) {
+        if (level != null && !event.getLevel().isGreaterOrEqual(level)) {
+            return false;
+        }
+        if (!loggers.isEmpty() && !matchesLogger(event.getLoggerName())) {
+            return false;
+        }
+        if (marker != null) {
+            Marker eventMarker = event.getMarker();
+            if (eventMarker == null || !eventMarker.contains(marker)) {
+                return false;
+            }
+        }
+        if (mdcKey != null) {
+            Map<String, String> mdc = event.getMDCPropertyMap();
+            String value = mdc == null ? null : mdc.get(mdcKey);
+            return value != null && (mdcValue == null || mdcValue.equals(value));
+        }
+        return true;
+    }
+
+    /**
+     * logger 이름이 설정한 logger 중 하나이거나 그 하위 logger 인지 여부
+     */
+    private boolean matchesLogger(String loggerName) {
+        if (loggerName == null) {
+            return false;
+        }
+        for (String logger : loggers) {
+            if (loggerName.equals(logger)
+                    || loggerName.startsWith(logger) && loggerName.charAt(logger.length()) == '.') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getStreamName() {
+        return streamName;
+    }
+
+    /**
+     * Configures the Kinesis stream that matching events are published to.
+     *
+     * @param streamName name of the target stream
+     */
+    public void setStreamName(String streamName) {
+        Validator.validate(!Validator.isBlank(streamName), "streamName cannot be blank");
+        this.streamName = streamName.trim();
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Configures the minimum level of matching events (e.g. ERROR).
+     *
+     * @param level minimum level
+     */
+    public void setLevel(String level) {
+        Level parsed = Level.toLevel(level, null);
+        Validator.validate(parsed != null, "Unknown level: " + level);
+        this.level = parsed;
+    }
+
+    public List<String> getLoggers() {
+        return loggers;
+    }
+
+    /**
+     * Configures comma separated logger names. Events of these loggers and
+     * their descendants match.
+     *
+     * @param logger comma separated logger names
+     */
+    public void setLogger(String logger) {
+        List<String> names = new ArrayList<>();
+        for (String name : logger.split(",")) {
+            if (!Validator.isBlank(name)) {
+                names.add(name.trim());
+            }
+        }
+        Validator.validate(!names.isEmpty(), "logger cannot be blank");
+        this.loggers = names;
+    }
+
+    public String getMarker() {
+        return marker;
+    }
+
+    /**
+     * Configures the marker name of matching events. Markers referencing it
+     * also match.
+     *
+     * @param marker marker name
+     */
+    public void setMarker(String marker) {
+        Validator.validate(!Validator.isBlank(marker), "marker cannot be blank");
+        this.marker = marker.trim();
+    }
+
+    public String getMdcKey() {
+        return mdcKey;
+    }
+
+    /**
+     * Configures the MDC key that matching events must have.
+     *
+     * @param mdcKey MDC key
+     */
+    public void setMdcKey(String mdcKey) {
+        Validator.validate(!Validator.isBlank(mdcKey), "mdcKey cannot be blank");
+        this.mdcKey = mdcKey.trim();
+    }
+
+    public String getMdcValue() {
+        return mdcValue;
+    }
+
+    /**
+     * Configures the value the MDC key must have. Any value matches if not set.
+     *
+     * @param mdcValue MDC value
+     */
+    public void setMdcValue(String mdcValue) {
+        this.mdcValue = mdcValue;
+    }
+
+    public Integer getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Configures the buffer size of this route. Uses the appender setting if
+     * not set.
+     *
+     * @param bufferSize buffer size of this route
+     */
+    public void setBufferSize(int bufferSize) {
+        Validator.validate(bufferSize > 0, "bufferSize must be >0");
+        this.bufferSize = bufferSize;
+    }
+
+    public Integer getLingerMillis() {
+        return lingerMillis;
+    }
+
+    /**
+     * Configures the batch linger time of this route. Uses the appender
+     * setting if not set.
+     *
+     * @param lingerMillis linger time in milliseconds
+     */
+    public void setLingerMillis(int lingerMillis) {
+        Validator.validate(lingerMillis > 0, "lingerMillis must be >0");
+        this.lingerMillis = lingerMillis;
+    }
+
+    public String getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Configures the overflow policy of this route. Uses the appender setting
+     * if not set.
+     *
+     * @param overflowPolicy overflow policy name
+     */
+    public void setOverflowPolicy(String overflowPolicy) {
+        Validator.validate(!Validator.isBlank(overflowPolicy), "overflowPolicy cannot be blank");
+        this.overflowPolicy = OverflowPolicy.of(overflowPolicy).name();
+    }
+
+    public Boolean getRateLimitEnabled() {
+        return rateLimitEnabled;
+    }
+
+    /**
+     * Configures client side rate limiting for this route. Uses the appender
+     * setting if not set.
+     *
+     * @param rateLimitEnabled true to enable client side rate limiting
+     */
+    public void setRateLimitEnabled(boolean rateLimitEnabled) {
+        this.rateLimitEnabled = rateLimitEnabled;
+    }
+
+    public String getPartitionKeyStrategy() {
+        return partitionKeyStrategy;
+    }
+
+    /**
+     * Configures the partition key strategy of this route. Uses the appender
+     * setting if not set.
+     *
+     * @param partitionKeyStrategy partition key strategy name
+     */
+    public void setPartitionKeyStrategy(String partitionKeyStrategy) {
+        Validator.validate(!Validator.isBlank(partitionKeyStrategy), "partitionKeyStrategy cannot be blank");
+        PartitionKeyStrategies.validate(partitionKeyStrategy);
+        this.partitionKeyStrategy = partitionKeyStrategy.trim();
+    }
+
+    public String getPartitionKeyField() {
+        return partitionKeyField;
+    }
+
+    /**
+     * Configures the partition key field used by the partition key strategy of
+     * this route.
+     *
+     * @param partitionKeyField MDC key or field name
+     */
+    public void setPartitionKeyField(String partitionKeyField) {
+        this.partitionKeyField = partitionKeyField;
+    }
+
+    @Override
+    public String toString() {
+        return "KinesisRoute{streamName=" + streamName + ", level=" + level + ", loggers=" + loggers
+                + ", marker=" + marker + ", mdcKey=" + mdcKey + ", mdcValue=" + mdcValue + "}";
+    }
+}
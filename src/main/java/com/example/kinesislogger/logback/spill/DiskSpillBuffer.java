@@ -0,0 +1,238 @@
+package com.example.kinesislogger.logback.spill;
+
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * ring buffer 가 가득 찼을 때 레코드를 받아두는 디스크 버퍼 (memory-mapped segment 파일)
+ * <p>
+ * - 애플리케이션 쓰레드가 append, 전송 쓰레드가 poll (segment 접근은 모두 lock 안에서)
+ * - segment 를 다 읽으면 삭제하고 다음 segment 로 넘어감. 순서는 segment id 순
+ * - 전체 크기가 maxBytes 를 넘게 되면 append 는 false (호출자는 기존처럼 대기)
+ * - 재시작시 {@link #open()} 에서 남아있는 segment 를 복구하여 이어서 전송 (헤더가 깨진 segment 는 .corrupt 로 옮김)
+ * - 디렉토리는 lock 파일로 한 프로세스만 사용
+ */
+public class DiskSpillBuffer {
+
+    private static final String SEGMENT_SUFFIX = ".spill";
+    private static final String LOCK_FILE = "spill.lock";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final ByteBufferPool pool;
+    private final Deque<SpillSegment> segments = new ArrayDeque<>();
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private long nextId;
+    private long totalBytes;
+    private volatile long pendingRecords;
+    private boolean closed = true;
+
+    public DiskSpillBuffer(Path directory, int segmentBytes, long maxBytes, ByteBufferPool pool) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.pool = pool;
+    }
+
+    /**
+     * 디렉토리 lock 후 남아있는 segment 복구
+     *
+     * @return 복구된(아직 전송하지 않은) 레코드 수
+     * @throws IOException
+     */
+    public synchronized long open() throws IOException {
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Spill directory is used by another appender: " + directory);
+        }
+
+        long recovered = 0;
+        for (Path path : listSegments()) {
+            long id = segmentId(path);
+            nextId = Math.max(nextId, id + 1);
+            SpillSegment segment;
+            try {
+                segment = SpillSegment.open(path, id);
+            } catch (IOException e) {
+                // 헤더가 깨진 segment 는 옮겨두고 나머지를 복구
+                Files.move(path, path.resolveSibling(path.getFileName() + ".corrupt"));
+                continue;
+            }
+            if (segment.getPendingRecords() == 0) {
+                segment.delete();
+                continue;
+            }
+            segments.addLast(segment);
+            totalBytes += segment.getCapacity();
+            recovered += segment.getPendingRecords();
+        }
+        pendingRecords = recovered;
+        closed = false;
+        return recovered;
+    }
+
+    /**
+     * 레코드 추가. data 는 복사되므로 호출자가 반납함
+     *
+     * @param partitionKey
+     * @param explicitHashKey 없으면 null
+     * @param data
+     * @param prepared     aggregation / 압축이 끝난 전송 단위 레코드인지 여부
+     * @return 디스크 한도를 넘거나, segment 보다 큰 레코드이거나, 닫힌 경우 false
+     * @throws IOException segment 파일 생성 실패
+     */
+    public synchronized boolean append(String partitionKey, String explicitHashKey, ByteBuffer data,
+                                       boolean prepared) throws IOException {
+        if (closed) {
+            return false;
+        }
+        byte[] key = partitionKey.getBytes(StandardCharsets.UTF_8);
+        byte[] hashKey = explicitHashKey == null ? null : explicitHashKey.getBytes(StandardCharsets.US_ASCII);
+        SpillSegment tail = segments.peekLast();
+        if (tail == null || !tail.append(prepared, key, hashKey, data)) {
+            if (totalBytes + segmentBytes > maxBytes || !SpillSegment.fits(segmentBytes, key, hashKey, data)) {
+                return false;
+            }
+            tail = SpillSegment.create(directory.resolve(segmentName(nextId)), nextId, segmentBytes);
+            nextId++;
+            if (!tail.append(prepared, key, hashKey, data)) {
+                tail.delete();
+                return false;
+            }
+            segments.addLast(tail);
+            totalBytes += segmentBytes;
+        }
+        pendingRecords++;
+        return true;
+    }
+
+    /**
+     * 가장 오래된 레코드를 읽어 record 에 채움 (전송 쓰레드 전용)
+     *
+     * @param record
+     * @return 읽을 레코드가 없으면 false
+     */
+    public synchronized boolean poll(SpillRecord record) {
+        while (!closed) {
+            SpillSegment head = segments.peekFirst();
+            if (head == null) {
+                return false;
+            }
+            if (head.read(record, pool)) {
+                pendingRecords--;
+                return true;
+            }
+            if (head == segments.peekLast()) {
+                return false;
+            }
+            // 다 읽은 segment 삭제 (쓰기는 항상 마지막 segment 에만 함)
+            segments.pollFirst();
+            totalBytes -= head.getCapacity();
+            try {
+                head.delete();
+            } catch (IOException e) {
+                // 재시작시 다시 정리됨
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 전송하지 않은 레코드가 디스크에 남아있는지 여부
+     *
+     * @return
+     */
+    public boolean hasPending() {
+        return pendingRecords > 0;
+    }
+
+    public long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * segment 를 디스크에 기록하고 닫음. 다 읽은 segment 는 삭제
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (SpillSegment segment : segments) {
+            try {
+                if (segment.isExhausted()) {
+                    segment.delete();
+                } else {
+                    segment.close();
+                }
+            } catch (IOException e) {
+                // 재시작시 다시 정리됨
+            }
+        }
+        segments.clear();
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+    private static String segmentName(long id) {
+        return String.format("%020d%s", id, SEGMENT_SUFFIX);
+    }
+
+    private static long segmentId(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid spill segment name: " + path, e);
+        }
+    }
+}
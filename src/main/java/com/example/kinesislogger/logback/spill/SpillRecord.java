@@ -0,0 +1,45 @@
+package com.example.kinesislogger.logback.spill;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 디스크에서 읽은 레코드 (전송 쓰레드가 재사용하는 holder)
+ * - prepared 가 true 이면 이미 aggregation / 압축이 끝난 전송 단위 레코드 (PutRecords 재시도 대상이었던 레코드)
+ * - data 는 풀에서 빌린 버퍼
+ */
+public class SpillRecord {
+
+    private boolean prepared;
+    private String partitionKey;
+    private String explicitHashKey;
+    private ByteBuffer data;
+
+    void set(boolean prepared, String partitionKey, String explicitHashKey, ByteBuffer data) {
+        this.prepared = prepared;
+        this.partitionKey = partitionKey;
+        this.explicitHashKey = explicitHashKey;
+        this.data = data;
+    }
+
+    public boolean isPrepared() {
+        return prepared;
+    }
+
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public String getExplicitHashKey() {
+        return explicitHashKey;
+    }
+
+    public ByteBuffer getData() {
+        return data;
+    }
+
+    public void clear() {
+        this.partitionKey = null;
+        this.explicitHashKey = null;
+        this.data = null;
+    }
+}
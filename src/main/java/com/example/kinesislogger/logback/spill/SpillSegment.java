@@ -0,0 +1,278 @@
+package com.example.kinesislogger.logback.spill;
+
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * memory-mapped segment 파일
+ * <p>
+ * 포맷 (big-endian)
+ * <pre>
+ *   header : magic 'KSPL'(4) | version(4) | readOffset(4) | reserved(4)
+ *   record : length(4) | crc32(4) | flags(1) | partition key 길이(2) | partition key
+ *            | [explicit hash key 길이(1) | explicit hash key] | data
+ * </pre>
+ * - explicit hash key 는 flags 에 FLAG_EXPLICIT_HASH_KEY 가 있을 때만 기록
+ * - length 는 crc / payload 를 쓴 뒤 마지막에 기록하므로 중간에 죽으면 length 0 으로 남음
+ * - readOffset 은 레코드를 읽을 때마다 갱신되어 재시작시 이어서 읽음
+ * - 닫거나 삭제한 segment 는 mapping 을 바로 해제함 (Unsafe.invokeCleaner). 사용할 수 없는 JVM 에서는 GC 될 때까지
+ *   mapping 이 남음
+ * - 쓰레드에 안전하지 않음 (DiskSpillBuffer 의 lock 안에서만 사용)
+ */
+final class SpillSegment {
+
+    static final int MAGIC = 0x4B53504C;
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 16;
+    static final int RECORD_HEADER_LENGTH = 8;
+    static final byte FLAG_PREPARED = 1;
+    static final byte FLAG_EXPLICIT_HASH_KEY = 2;
+
+    private static final int READ_OFFSET_POSITION = 8;
+    private static final int PAYLOAD_OVERHEAD = 3;
+    private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+    private final long id;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private int writePosition;
+    private int readPosition;
+    private long pendingRecords;
+    private boolean unmapped;
+
+    private SpillSegment(long id, Path path, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    /**
+     * 새 segment 파일 생성 (size 만큼 미리 할당). 실패하면 만든 파일은 삭제
+     */
+    static SpillSegment create(Path path, long id, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            SpillSegment segment = new SpillSegment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(4, VERSION);
+            segment.buffer.putInt(READ_OFFSET_POSITION, HEADER_LENGTH);
+            segment.writePosition = HEADER_LENGTH;
+            segment.readPosition = HEADER_LENGTH;
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    /**
+     * 비어있는 size 크기의 segment 에 레코드가 들어가는지 여부
+     */
+    static boolean fits(int size, byte[] partitionKey, byte[] explicitHashKey, ByteBuffer data) {
+        return HEADER_LENGTH + recordLength(partitionKey, explicitHashKey, data) <= size;
+    }
+
+    /**
+     * 레코드 헤더를 포함한 레코드 크기
+     */
+    private static long recordLength(byte[] partitionKey, byte[] explicitHashKey, ByteBuffer data) {
+        int hashKeyLength = explicitHashKey == null ? 0 : 1 + explicitHashKey.length;
+        return (long) RECORD_HEADER_LENGTH + PAYLOAD_OVERHEAD + partitionKey.length + hashKeyLength + data.remaining();
+    }
+
+    /**
+     * 기존 segment 파일 복구
+     * <p>
+     * - readOffset 부터 crc 가 맞는 레코드까지를 유효한 레코드로 봄. 이후는 다음 append 가 덮어씀
+     */
+    static SpillSegment open(Path path, long id) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid spill segment size: " + path);
+            }
+            SpillSegment segment = new SpillSegment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            MappedByteBuffer buffer = segment.buffer;
+            int readOffset = buffer.getInt(READ_OFFSET_POSITION);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || readOffset < HEADER_LENGTH || readOffset > size) {
+                segment.unmap();
+                throw new IOException("Not a spill segment: " + path);
+            }
+            segment.readPosition = readOffset;
+            segment.writePosition = readOffset;
+            while (segment.isValidRecord(segment.writePosition)) {
+                segment.writePosition += RECORD_HEADER_LENGTH + buffer.getInt(segment.writePosition);
+                segment.pendingRecords++;
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * 레코드 추가. 공간이 부족하면 false
+     */
+    boolean append(boolean prepared, byte[] partitionKey, byte[] explicitHashKey, ByteBuffer data) {
+        long recordLength = recordLength(partitionKey, explicitHashKey, data);
+        if (writePosition + recordLength > buffer.capacity()) {
+            return false;
+        }
+        int length = (int) recordLength - RECORD_HEADER_LENGTH;
+        int payload = writePosition + RECORD_HEADER_LENGTH;
+        buffer.putInt(writePosition, 0);
+        buffer.position(payload);
+        buffer.put((byte) ((prepared ? FLAG_PREPARED : 0) | (explicitHashKey != null ? FLAG_EXPLICIT_HASH_KEY : 0)));
+        buffer.putShort((short) partitionKey.length);
+        buffer.put(partitionKey);
+        if (explicitHashKey != null) {
+            buffer.put((byte) explicitHashKey.length);
+            buffer.put(explicitHashKey);
+        }
+        buffer.put(data.duplicate());
+
+        buffer.putInt(writePosition + 4, checksum(payload, length));
+        buffer.putInt(writePosition, length);
+        writePosition = payload + length;
+        pendingRecords++;
+        return true;
+    }
+
+    /**
+     * 다음 레코드를 읽어 record 에 채움. 읽을 레코드가 없으면 false
+     */
+    boolean read(SpillRecord record, ByteBufferPool pool) {
+        if (readPosition >= writePosition) {
+            return false;
+        }
+        int length = buffer.getInt(readPosition);
+        int payload = readPosition + RECORD_HEADER_LENGTH;
+        byte flags = buffer.get(payload);
+        int keyLength = buffer.getShort(payload + 1) & 0xffff;
+
+        byte[] key = new byte[keyLength];
+        buffer.position(payload + PAYLOAD_OVERHEAD);
+        buffer.get(key);
+        String explicitHashKey = null;
+        if ((flags & FLAG_EXPLICIT_HASH_KEY) != 0) {
+            byte[] hashKey = new byte[buffer.get() & 0xff];
+            buffer.get(hashKey);
+            explicitHashKey = new String(hashKey, StandardCharsets.US_ASCII);
+        }
+
+        ByteBuffer source = buffer.duplicate();
+        source.limit(payload + length);
+        ByteBuffer data = pool.acquire(source.remaining());
+        data.put(source);
+        data.flip();
+
+        readPosition = payload + length;
+        buffer.putInt(READ_OFFSET_POSITION, readPosition);
+        pendingRecords--;
+        record.set((flags & FLAG_PREPARED) != 0, new String(key, StandardCharsets.UTF_8), explicitHashKey, data);
+        return true;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    int getCapacity() {
+        return buffer.capacity();
+    }
+
+    boolean isExhausted() {
+        return readPosition >= writePosition;
+    }
+
+    /**
+     * 변경 내용을 디스크에 기록하고 mapping 해제 (이후 사용하지 않음)
+     */
+    void close() {
+        if (!unmapped) {
+            buffer.force();
+        }
+        unmap();
+    }
+
+    /**
+     * mapping 해제 후 파일 삭제 (이후 사용하지 않음)
+     */
+    void delete() throws IOException {
+        unmap();
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * mapping 해제. 해제한 뒤 buffer 에 접근하면 JVM 이 죽으므로 close / delete 에서만 호출
+     */
+    private void unmap() {
+        if (unmapped) {
+            return;
+        }
+        unmapped = true;
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            // GC 에 맡김
+        }
+    }
+
+    /**
+     * sun.misc.Unsafe.invokeCleaner (Java 9+). 없으면 null
+     */
+    private static MethodHandle invokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private boolean isValidRecord(int position) {
+        if (position + RECORD_HEADER_LENGTH > buffer.capacity()) {
+            return false;
+        }
+        int length = buffer.getInt(position);
+        if (length < PAYLOAD_OVERHEAD || (long) position + RECORD_HEADER_LENGTH + length > buffer.capacity()) {
+            return false;
+        }
+        int payload = position + RECORD_HEADER_LENGTH;
+        int keyLength = buffer.getShort(payload + 1) & 0xffff;
+        return PAYLOAD_OVERHEAD + keyLength <= length && buffer.getInt(position + 4) == checksum(payload, length);
+    }
+
+    private int checksum(int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        crc.reset();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.kinesislogger.logback.stacktrace;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import org.slf4j.Marker;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * stack trace fingerprint 를 붙인 이벤트 (layout 에 넘기는 용도)
+ * - MDC 에 traceFingerprint 를 추가
+ * - 전체 trace 를 보내지 않는 경우 예외 (stack trace) 를 숨기고 MDC 의 traceException 에 예외 클래스와 메시지만 남김
+ */
+public class FingerprintedEvent implements ILoggingEvent {
+
+    public static final String MDC_TRACE_FINGERPRINT = "traceFingerprint";
+    public static final String MDC_TRACE_EXCEPTION = "traceException";
+
+    private final ILoggingEvent event;
+    private final String fingerprint;
+    private final boolean firstInWindow;
+    private final boolean fullTrace;
+    private final Map<String, String> mdc;
+
+    /**
+     * @param event         원래 이벤트
+     * @param fingerprint   stack trace fingerprint (16자리 hex)
+     * @param firstInWindow window 에서 처음 나온 trace 인지 여부
+     * @param fullTrace     로그에 전체 trace 를 포함할지 여부
+     */
+    public FingerprintedEvent(ILoggingEvent event, String fingerprint, boolean firstInWindow, boolean fullTrace) {
+        this.event = event;
+        this.fingerprint = fingerprint;
+        this.firstInWindow = firstInWindow;
+        this.fullTrace = fullTrace;
+
+        Map<String, String> eventMdc = event.getMDCPropertyMap();
+        Map<String, String> fingerprintMdc = eventMdc == null ? new HashMap<>() : new HashMap<>(eventMdc);
+        fingerprintMdc.put(MDC_TRACE_FINGERPRINT, fingerprint);
+        if (!fullTrace) {
+            IThrowableProxy throwable = event.getThrowableProxy();
+            fingerprintMdc.put(MDC_TRACE_EXCEPTION, throwable.getMessage() == null
+                    ? throwable.getClassName() : throwable.getClassName() + ": " + throwable.getMessage());
+        }
+        this.mdc = Collections.unmodifiableMap(fingerprintMdc);
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public boolean isFirstInWindow() {
+        return firstInWindow;
+    }
+
+    public boolean isFullTrace() {
+        return fullTrace;
+    }
+
+    /**
+     * 숨기지 않은 원래 예외
+     *
+     * @return
+     */
+    public IThrowableProxy getOriginalThrowableProxy() {
+        return event.getThrowableProxy();
+    }
+
+    @Override
+    public String getThreadName() {
+        return event.getThreadName();
+    }
+
+    @Override
+    public Level getLevel() {
+        return event.getLevel();
+    }
+
+    @Override
+    public String getMessage() {
+        return event.getMessage();
+    }
+
+    @Override
+    public Object[] getArgumentArray() {
+        return event.getArgumentArray();
+    }
+
+    @Override
+    public String getFormattedMessage() {
+        return event.getFormattedMessage();
+    }
+
+    @Override
+    public String getLoggerName() {
+        return event.getLoggerName();
+    }
+
+    @Override
+    public LoggerContextVO getLoggerContextVO() {
+        return event.getLoggerContextVO();
+    }
+
+    /**
+     * 전체 trace 를 보내지 않으면 null
+     *
+     * @return
+     */
+    @Override
+    public IThrowableProxy getThrowableProxy() {
+        return fullTrace ? event.getThrowableProxy() : null;
+    }
+
+    @Override
+    public StackTraceElement[] getCallerData() {
+        return event.getCallerData();
+    }
+
+    @Override
+    public boolean hasCallerData() {
+        return event.hasCallerData();
+    }
+
+    @Override
+    public Marker getMarker() {
+        return event.getMarker();
+    }
+
+    @Override
+    public Map<String, String> getMDCPropertyMap() {
+        return mdc;
+    }
+
+    @Override
+    @Deprecated
+    public Map<String, String> getMdc() {
+        return mdc;
+    }
+
+    @Override
+    public long getTimeStamp() {
+        return event.getTimeStamp();
+    }
+
+    @Override
+    public void prepareForDeferredProcessing() {
+        event.prepareForDeferredProcessing();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.kinesislogger.logback.stacktrace;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import com.example.kinesislogger.logback.helpers.JsonStrings;
+import com.example.kinesislogger.logback.helpers.Validator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 예외 stack trace 를 fingerprint 로 바꿔 같은 trace 를 다시 보내지 않음
+ * - fingerprint 는 예외 클래스와 frame (클래스, 메소드, 파일, 줄 번호) 을 cause / suppressed 까지 포함해서 계산한 64 bit hash
+ * - 최근에 보낸 fingerprint 를 cacheSize 개까지 LRU 로 기억하고, windowMillis 안에서는 처음 한번만 전체 trace 를 보냄
+ * - dictionary 를 사용하면 전체 trace 는 dictionary 레코드 ({@link #dictionaryRecord}) 로만 보내고 로그에는 항상 fingerprint 만 남김
+ * - layout 직전에 호출됨 (deferredLayout 이면 layout 쓰레드)
+ */
+public class StackTraceFingerprinter {
+
+    public static final String DICTIONARY_RECORD_TYPE = "stackTraceDictionary";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long windowMillis;
+    private final boolean dictionary;
+    private final Map<Long, Long> published;
+
+    /**
+     * @param windowMillis 같은 trace 를 다시 보내기까지의 시간
+     * @param cacheSize    기억하는 fingerprint 수 (넘으면 가장 오래 쓰지 않은 것부터 잊음)
+     * @param dictionary   전체 trace 를 dictionary 레코드로 따로 보낼지 여부
+     */
+    public StackTraceFingerprinter(long windowMillis, int cacheSize, boolean dictionary) {
+        Validator.validate(windowMillis > 0, "windowMillis must be >0");
+        Validator.validate(cacheSize > 0, "cacheSize must be >0");
+        this.windowMillis = windowMillis;
+        this.dictionary = dictionary;
+        this.published = new LinkedHashMap<Long, Long>(cacheSize * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * 예외가 있는 이벤트에 fingerprint 를 붙임
+     *
+     * @param event
+     * @return 예외가 없으면 null
+     */
+    public FingerprintedEvent fingerprint(ILoggingEvent event) {
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable == null) {
+            return null;
+        }
+        long fingerprint = fingerprintOf(throwable);
+        boolean first = markPublished(fingerprint, event.getTimeStamp());
+        return new FingerprintedEvent(event, toHex(fingerprint), first, first && !dictionary);
+    }
+
+    /**
+     * 전체 trace 를 담은 dictionary 레코드 (JSON). dictionary 를 사용하고 window 에서 처음 나온 trace 이면 반환
+     *
+     * @param event
+     * @return 보낼 레코드가 없으면 null
+     */
+    public String dictionaryRecord(FingerprintedEvent event) {
+        if (!dictionary || !event.isFirstInWindow()) {
+            return null;
+        }
+        IThrowableProxy throwable = event.getOriginalThrowableProxy();
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\"type\":\"").append(DICTIONARY_RECORD_TYPE)
+                .append("\",\"").append(FingerprintedEvent.MDC_TRACE_FINGERPRINT).append("\":\"")
+                .append(event.getFingerprint())
+                .append("\",\"exception\":");
+        JsonStrings.appendQuoted(json, throwable.getClassName());
+        json.append(",\"stack_trace\":");
+        JsonStrings.appendQuoted(json, ThrowableProxyUtil.asString(throwable));
+        return json.append('}').toString();
+    }
+
+    /**
+     * 예외 클래스와 frame 으로 계산한 64 bit hash (FNV-1a)
+     *
+     * @param throwable
+     * @return
+     */
+    public static long fingerprintOf(IThrowableProxy throwable) {
+        return hash(FNV_OFFSET, throwable);
+    }
+
+    public static String toHex(long fingerprint) {
+        String hex = Long.toHexString(fingerprint);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    private synchronized boolean markPublished(long fingerprint, long nowMillis) {
+        Long publishedAt = published.get(fingerprint);
+        if (publishedAt != null && nowMillis - publishedAt < windowMillis) {
+            return false;
+        }
+        published.put(fingerprint, nowMillis);
+        return true;
+    }
+
+    private static long hash(long h, IThrowableProxy throwable) {
+        h = mix(h, throwable.getClassName().hashCode());
+        StackTraceElementProxy[] frames = throwable.getStackTraceElementProxyArray();
+        if (frames != null) {
+            for (StackTraceElementProxy frame : frames) {
+                StackTraceElement element = frame.getStackTraceElement();
+                h = mix(h, element.getClassName().hashCode());
+                h = mix(h, element.getMethodName().hashCode());
+                h = mix(h, element.getFileName() == null ? 0 : element.getFileName().hashCode());
+                h = mix(h, element.getLineNumber());
+            }
+        }
+        IThrowableProxy[] suppressed = throwable.getSuppressed();
+        if (suppressed != null) {
+            for (IThrowableProxy each : suppressed) {
+                h = hash(mix(h, 's'), each);
+            }
+        }
+        IThrowableProxy cause = throwable.getCause();
+        return cause == null ? h : hash(mix(h, 'c'), cause);
+    }
+
+    private static long mix(long h, int value) {
+        return (h ^ value) * FNV_PRIME;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.kinesislogger.logback.suppression;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import com.example.kinesislogger.logback.helpers.Validator;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 같은 곳에서 반복되는 로그 (log storm) 억제
+ * - key 는 logger 이름 + 메시지 템플릿 (포맷 전) + 예외 클래스. 모두 캐시된 String hash 를 사용하므로 이벤트마다 계산 비용이 거의 없음
+ * - window 안에서 처음 threshold 개는 그대로 보내고 나머지는 버린 뒤, window 가 끝나면 버린 수 / 처음 / 마지막 시각과
+ *   첫번째로 버린 이벤트 (sample) 를 담은 요약 이벤트 하나를 보냄
+ * - key 는 maxKeys 크기의 고정 테이블에 저장 (메모리 고정). 다른 key 가 쓰고 있는 자리와 겹치면 억제하지 않음
+ * - 끝난 window 는 별도 쓰레드에서 주기적으로 정리하고 요약 이벤트를 보냄
+ */
+public class RepeatSuppressor {
+
+    private static final long CLOSED = Long.MIN_VALUE;
+    private static final int SAMPLE_SPIN_LIMIT = 1 << 20;
+
+    private final int threshold;
+    private final long windowMillis;
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    private final Consumer<ILoggingEvent> summaryHandler;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param threshold      window 안에서 그대로 보내는 이벤트 수
+     * @param windowMillis   window 길이
+     * @param maxKeys        동시에 추적하는 key 수 (2의 거듭제곱으로 올림)
+     * @param summaryHandler 요약 이벤트를 보냄 (appender 의 layout / 전송)
+     */
+    public RepeatSuppressor(int threshold, long windowMillis, int maxKeys, Consumer<ILoggingEvent> summaryHandler) {
+        Validator.validate(threshold > 0, "threshold must be >0");
+        Validator.validate(windowMillis > 0, "windowMillis must be >0");
+        Validator.validate(maxKeys > 0 && maxKeys <= 1 << 20, "maxKeys must be between 1 and " + (1 << 20));
+        int size = Integer.highestOneBit(maxKeys);
+        if (size < maxKeys) {
+            size <<= 1;
+        }
+        this.threshold = threshold;
+        this.windowMillis = windowMillis;
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.summaryHandler = summaryHandler;
+    }
+
+    /**
+     * 끝난 window 정리 쓰레드 시작
+     *
+     * @param threadFactory
+     */
+    public void start(ThreadFactory threadFactory) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        scheduler.scheduleWithFixedDelay(() -> flushExpired(System.currentTimeMillis()),
+                windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 정리 쓰레드를 멈추고 남은 요약 이벤트를 모두 보냄
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flushExpired(Long.MAX_VALUE);
+    }
+
+    /**
+     * 이벤트를 보낼지 결정 (애플리케이션 쓰레드에서 호출)
+     *
+     * @param event 로그 이벤트 (ILoggingEvent 가 아니면 항상 보냄)
+     * @return 억제해야 하면 false
+     */
+    public boolean admit(Object event) {
+        if (!(event instanceof ILoggingEvent)) {
+            return true;
+        }
+        ILoggingEvent logEvent = (ILoggingEvent) event;
+        String logger = logEvent.getLoggerName();
+        String template = logEvent.getMessage();
+        IThrowableProxy throwable = logEvent.getThrowableProxy();
+        String throwableClass = throwable == null ? null : throwable.getClassName();
+        int hash = hash(logger, template, throwableClass);
+        int index = hash & mask;
+        long now = logEvent.getTimeStamp();
+
+        Entry entry = table.get(index);
+        if (entry == null || now - entry.windowStart >= windowMillis) {
+            Entry fresh = new Entry(hash, logger, template, throwableClass, now);
+            if (table.compareAndSet(index, entry, fresh)) {
+                if (entry != null) {
+                    close(entry);
+                }
+                return true;
+            }
+            entry = table.get(index);
+            if (entry == null) {
+                return true;
+            }
+        }
+        if (!entry.matches(hash, logger, template, throwableClass)) {
+            return true;
+        }
+        if (entry.seen.incrementAndGet() <= threshold) {
+            return true;
+        }
+        return !entry.suppress(logEvent);
+    }
+
+    /**
+     * nowMillis 기준으로 끝난 window 를 테이블에서 빼고 요약 이벤트를 보냄
+     *
+     * @param nowMillis
+     */
+    public void flushExpired(long nowMillis) {
+        for (int i = 0, length = table.length(); i < length; i++) {
+            Entry entry = table.get(i);
+            if (entry != null && nowMillis - entry.windowStart >= windowMillis && table.compareAndSet(i, entry, null)) {
+                close(entry);
+            }
+        }
+    }
+
+    /**
+     * window 를 닫고 버린 이벤트가 있으면 요약 이벤트를 보냄. 닫은 뒤 들어온 이벤트는 억제하지 않음
+     */
+    private void close(Entry entry) {
+        long suppressed = entry.suppressed.getAndSet(CLOSED);
+        if (suppressed <= 0) {
+            return;
+        }
+        // 첫번째로 버린 쓰레드가 sample 을 저장하는 중일 수 있음
+        ILoggingEvent sample = entry.sample;
+        for (int spins = 0; sample == null && spins < SAMPLE_SPIN_LIMIT; spins++) {
+            Thread.onSpinWait();
+            sample = entry.sample;
+        }
+        if (sample != null) {
+            summaryHandler.accept(new SuppressionSummaryEvent(sample, suppressed, entry.firstMillis,
+                    Math.max(entry.firstMillis, entry.lastMillis)));
+        }
+    }
+
+    private static int hash(String logger, String template, String throwableClass) {
+        int h = 31 * (31 * hashOf(logger) + hashOf(template)) + hashOf(throwableClass);
+        return h ^ (h >>> 16);
+    }
+
+    private static int hashOf(String value) {
+        return value == null ? 0 : value.hashCode();
+    }
+
+    /**
+     * key 하나의 현재 window
+     */
+    private static final class Entry {
+
+        private final int hash;
+        private final String logger;
+        private final String template;
+        private final String throwableClass;
+        private final long windowStart;
+        private final AtomicInteger seen = new AtomicInteger(1);
+        private final AtomicLong suppressed = new AtomicLong();
+        private volatile ILoggingEvent sample;
+        private volatile long firstMillis;
+        private volatile long lastMillis;
+
+        private Entry(int hash, String logger, String template, String throwableClass, long windowStart) {
+            this.hash = hash;
+            this.logger = logger;
+            this.template = template;
+            this.throwableClass = throwableClass;
+            this.windowStart = windowStart;
+        }
+
+        private boolean matches(int hash, String logger, String template, String throwableClass) {
+            return this.hash == hash && equals(this.template, template) && equals(this.logger, logger)
+                    && equals(this.throwableClass, throwableClass);
+        }
+
+        /**
+         * @return 억제했으면 true. 이미 닫힌 window 이면 false
+         */
+        private boolean suppress(ILoggingEvent event) {
+            long count = suppressed.incrementAndGet();
+            if (count <= 0) {
+                return false;
+            }
+            if (count == 1) {
+                // 요약 이벤트는 다른 쓰레드에서 layout 되므로 MDC, 메시지를 지금 값으로 고정
+                event.prepareForDeferredProcessing();
+                firstMillis = event.getTimeStamp();
+                sample = event;
+            }
+            lastMillis = event.getTimeStamp();
+            return true;
+        }
+
+        private static boolean equals(String a, String b) {
+            return a == b || a != null && a.equals(b);
+        }
+    }
+}
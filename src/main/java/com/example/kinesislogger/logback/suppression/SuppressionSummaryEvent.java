@@ -0,0 +1,139 @@
+package com.example.kinesislogger.logback.suppression;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import org.slf4j.Marker;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 반복 로그 억제의 요약 이벤트
+ * - logger, level, 쓰레드, marker, 예외 (stack trace) 는 sample (첫번째로 버린 이벤트) 의 값을 사용
+ * - 메시지 앞에 버린 수를 붙이고, MDC 에 suppressedCount / suppressedFirst / suppressedLast (ISO-8601) 를 추가
+ *   (JSON layout 에서 필드로 검색할 수 있도록)
+ */
+public class SuppressionSummaryEvent implements ILoggingEvent {
+
+    public static final String MDC_SUPPRESSED_COUNT = "suppressedCount";
+    public static final String MDC_SUPPRESSED_FIRST = "suppressedFirst";
+    public static final String MDC_SUPPRESSED_LAST = "suppressedLast";
+
+    private final ILoggingEvent sample;
+    private final long suppressedCount;
+    private final long lastMillis;
+    private final String message;
+    private final Map<String, String> mdc;
+
+    /**
+     * @param sample          첫번째로 버린 이벤트 (prepareForDeferredProcessing 을 마친 것)
+     * @param suppressedCount 버린 이벤트 수
+     * @param firstMillis     처음 버린 시각
+     * @param lastMillis      마지막으로 버린 시각
+     */
+    public SuppressionSummaryEvent(ILoggingEvent sample, long suppressedCount, long firstMillis, long lastMillis) {
+        this.sample = sample;
+        this.suppressedCount = suppressedCount;
+        this.lastMillis = lastMillis;
+        this.message = "Suppressed " + suppressedCount + " repeated log events: " + sample.getFormattedMessage();
+
+        Map<String, String> sampleMdc = sample.getMDCPropertyMap();
+        Map<String, String> summaryMdc = sampleMdc == null ? new HashMap<>() : new HashMap<>(sampleMdc);
+        summaryMdc.put(MDC_SUPPRESSED_COUNT, Long.toString(suppressedCount));
+        summaryMdc.put(MDC_SUPPRESSED_FIRST, Instant.ofEpochMilli(firstMillis).toString());
+        summaryMdc.put(MDC_SUPPRESSED_LAST, Instant.ofEpochMilli(lastMillis).toString());
+        this.mdc = Collections.unmodifiableMap(summaryMdc);
+    }
+
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    public ILoggingEvent getSample() {
+        return sample;
+    }
+
+    @Override
+    public String getThreadName() {
+        return sample.getThreadName();
+    }
+
+    @Override
+    public Level getLevel() {
+        return sample.getLevel();
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public Object[] getArgumentArray() {
+        return null;
+    }
+
+    @Override
+    public String getFormattedMessage() {
+        return message;
+    }
+
+    @Override
+    public String getLoggerName() {
+        return sample.getLoggerName();
+    }
+
+    @Override
+    public LoggerContextVO getLoggerContextVO() {
+        return sample.getLoggerContextVO();
+    }
+
+    @Override
+    public IThrowableProxy getThrowableProxy() {
+        return sample.getThrowableProxy();
+    }
+
+    @Override
+    public StackTraceElement[] getCallerData() {
+        return sample.getCallerData();
+    }
+
+    @Override
+    public boolean hasCallerData() {
+        return sample.hasCallerData();
+    }
+
+    @Override
+    public Marker getMarker() {
+        return sample.getMarker();
+    }
+
+    @Override
+    public Map<String, String> getMDCPropertyMap() {
+        return mdc;
+    }
+
+    @Override
+    @Deprecated
+    public Map<String, String> getMdc() {
+        return mdc;
+    }
+
+    /**
+     * 마지막으로 버린 시각
+     *
+     * @return
+     */
+    @Override
+    public long getTimeStamp() {
+        return lastMillis;
+    }
+
+    @Override
+    public void prepareForDeferredProcessing() {
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.kinesislogger.consumer;
+
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.example.kinesislogger.consumer.checkpoint.InMemoryCheckpointStore;
+import com.example.kinesislogger.consumer.sink.RecordSink;
+import com.example.kinesislogger.logback.fake.FakeKinesisAsync;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * in-process Kinesis 로 consumer 동작 테스트
+ */
+public class KinesisLogConsumerTest {
+
+    private static final String STREAM = "fake-stream";
+
+    private final FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM, 4).withCaptureRecords(true);
+    private final InMemoryCheckpointStore checkpoints = new InMemoryCheckpointStore();
+    private KinesisLogConsumer consumer;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (consumer != null) {
+            consumer.stop(5000);
+        }
+        kinesis.shutdown();
+    }
+
+    @Test
+    public void 모든_shard_를_병렬로_shard_안의_순서대로_읽음() throws Exception {
+        put(0, 200);
+        CollectingSink sink = new CollectingSink();
+
+        consumer = start(sink);
+        sink.await(200);
+
+        assertThat(sink.records).hasSize(200);
+        assertThat(consumer.getReadingShardIds()).hasSize(4);
+        Map<String, Long> lastSequence = new ConcurrentHashMap<>();
+        for (ConsumedRecord record : sink.records) {
+            long sequence = Long.parseLong(record.getSequenceNumber());
+            Long previous = lastSequence.put(record.getShardId(), sequence);
+            assertThat(previous == null || previous < sequence).isTrue();
+        }
+        for (Map.Entry<String, Long> shard : lastSequence.entrySet()) {
+            assertThat(checkpoints.get(shard.getKey())).isEqualTo(String.valueOf(shard.getValue()));
+        }
+    }
+
+    @Test
+    public void 다시_시작하면_checkpoint_다음부터_읽음() throws Exception {
+        put(0, 50);
+        CollectingSink first = new CollectingSink();
+        consumer = start(first);
+        first.await(50);
+        consumer.stop(5000);
+
+        put(50, 10);
+        CollectingSink second = new CollectingSink();
+        consumer = start(second);
+        second.await(10);
+        Thread.sleep(200);
+
+        assertThat(second.records).hasSize(10);
+        for (ConsumedRecord record : second.records) {
+            assertThat(Integer.parseInt(record.getDataAsString().substring("log-".length()))).isGreaterThanOrEqualTo(50);
+        }
+    }
+
+    @Test
+    public void sink_가_실패하면_같은_배치를_다시_전달() throws Exception {
+        put(0, 20);
+        CollectingSink sink = new CollectingSink();
+        sink.failures.set(3);
+
+        consumer = start(sink);
+        sink.await(20);
+
+        assertThat(sink.records).hasSize(20);
+        assertThat(sink.failures.get()).isLessThanOrEqualTo(0);
+    }
+
+    private KinesisLogConsumer start(RecordSink sink) {
+        KinesisLogConsumer consumer = new KinesisLogConsumer(kinesis, STREAM, checkpoints, sink);
+        consumer.setMinPollIntervalMillis(5);
+        consumer.setMaxPollIntervalMillis(50);
+        consumer.setRetryBackoffMillis(10);
+        consumer.setMaxRecordsPerPoll(16);
+        consumer.start();
+        return consumer;
+    }
+
+    private void put(int from, int count) {
+        List<PutRecordsRequestEntry> entries = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            entries.add(new PutRecordsRequestEntry().withPartitionKey("pk-" + i)
+                    .withData(ByteBuffer.wrap(("log-" + i).getBytes(StandardCharsets.UTF_8))));
+        }
+        assertThat(kinesis.putRecords(new PutRecordsRequest().withStreamName(STREAM).withRecords(entries))
+                .getFailedRecordCount()).isEqualTo(0);
+    }
+
+    /**
+     * 받은 레코드를 모아두는 sink (failures 만큼 실패)
+     */
+    private static class CollectingSink implements RecordSink {
+
+        private final List<ConsumedRecord> records = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public void write(List<ConsumedRecord> batch) throws IOException {
+            if (failures.getAndDecrement() > 0) {
+                throw new IOException("sink unavailable");
+            }
+            records.addAll(batch);
+        }
+
+        private void await(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (records.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.kinesislogger.consumer;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesis.model.Record;
+import com.example.kinesislogger.logback.binary.CborLayout;
+import com.example.kinesislogger.logback.compression.GzipCodec;
+import com.example.kinesislogger.logback.compression.RecordCompressor;
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+import com.example.kinesislogger.logback.helpers.RecordAggregator;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * appender 가 보낸 레코드 디코딩 테스트
+ */
+public class RecordDecoderTest {
+
+    private final ByteBufferPool pool = new ByteBufferPool(1024 * 1024);
+    private final RecordDecoder decoder = new RecordDecoder();
+
+    @Test
+    public void 일반_레코드는_그대로() {
+        List<ConsumedRecord> records = decoder.decode("shard-1", record("pk", bytes("{\"message\":\"hello\"}\n")));
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getShardId()).isEqualTo("shard-1");
+        assertThat(records.get(0).getSequenceNumber()).isEqualTo("100");
+        assertThat(records.get(0).getSubSequenceNumber()).isEqualTo(0L);
+        assertThat(records.get(0).getArrivalTimestamp()).isEqualTo(1000L);
+        assertThat(records.get(0).getDataAsString()).isEqualTo("{\"message\":\"hello\"}");
+    }
+
+    @Test
+    public void 압축된_aggregated_레코드는_로그별로_나눔() {
+        RecordAggregator aggregator = new RecordAggregator(1024, pool,
+                (partitionKey, data) -> new PutRecordsRequestEntry().withPartitionKey(partitionKey).withData(data));
+        aggregator.add("pk-1", bytes("first"));
+        aggregator.add("pk-2", bytes("second"));
+        aggregator.add("pk-1", bytes("third"));
+        ByteBuffer aggregated = aggregator.flush().getData();
+        ByteBuffer compressed = new RecordCompressor(new GzipCodec(), 0, pool).compress(aggregated);
+
+        List<ConsumedRecord> records = decoder.decode("shard-1", record("pk-1", compressed));
+
+        assertThat(records).hasSize(3);
+        assertThat(records.get(0).getPartitionKey()).isEqualTo("pk-1");
+        assertThat(records.get(1).getPartitionKey()).isEqualTo("pk-2");
+        assertThat(records.get(1).getDataAsString()).isEqualTo("second");
+        assertThat(records.get(2).getDataAsString()).isEqualTo("third");
+        assertThat(records.get(2).getSequenceNumber()).isEqualTo("100");
+        assertThat(records.get(2).getSubSequenceNumber()).isEqualTo(2L);
+    }
+
+    @Test
+    public void MD5_가_맞지_않으면_하나의_레코드() {
+        RecordAggregator aggregator = new RecordAggregator(1024, pool,
+                (partitionKey, data) -> new PutRecordsRequestEntry().withPartitionKey(partitionKey).withData(data));
+        aggregator.add("pk-1", bytes("first"));
+        ByteBuffer aggregated = aggregator.flush().getData();
+        aggregated.put(aggregated.limit() - 1, (byte) (aggregated.get(aggregated.limit() - 1) + 1));
+
+        List<ConsumedRecord> records = decoder.decode("shard-1", record("pk-1", aggregated));
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getData().length).isEqualTo(aggregated.remaining());
+    }
+
+    @Test
+    public void aggregated_CBOR_레코드는_JSON_으로_바꿈() {
+        CborLayout layout = new CborLayout();
+        layout.setCustomFields("{\"app\":\"order-api\"}");
+        layout.start();
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage("paid");
+        event.setLoggerName("com.example.OrderService");
+        event.setThreadName("main");
+        event.setTimeStamp(0L);
+        RecordAggregator aggregator = new RecordAggregator(1024, pool,
+                (partitionKey, data) -> new PutRecordsRequestEntry().withPartitionKey(partitionKey).withData(data));
+        aggregator.add("pk-1", layout.encode(event, pool));
+        aggregator.add("pk-1", bytes("{\"type\":\"stackTraceDictionary\"}"));
+
+        List<ConsumedRecord> records = decoder.decode("shard-1", record("pk-1", aggregator.flush().getData()));
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).getDataAsString()).isEqualTo("{\"app\":\"order-api\","
+                + "\"@timestamp\":\"1970-01-01T00:00:00.000Z\",\"@version\":\"1\",\"message\":\"paid\","
+                + "\"logger_name\":\"com.example.OrderService\",\"thread_name\":\"main\",\"level\":\"INFO\","
+                + "\"level_value\":20000}");
+        assertThat(records.get(1).getDataAsString()).isEqualTo("{\"type\":\"stackTraceDictionary\"}");
+    }
+
+    private static Record record(String partitionKey, ByteBuffer data) {
+        return new Record().withSequenceNumber("100").withPartitionKey(partitionKey).withData(data)
+                .withApproximateArrivalTimestamp(new Date(1000L));
+    }
+
+    private static ByteBuffer bytes(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
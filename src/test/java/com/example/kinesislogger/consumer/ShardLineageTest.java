@@ -0,0 +1,58 @@
+package com.example.kinesislogger.consumer;
+
+import com.amazonaws.services.kinesis.model.Shard;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * reshard 된 shard 의 읽기 순서 테스트
+ */
+public class ShardLineageTest {
+
+    private final Shard parent = new Shard().withShardId("shard-0");
+    private final Shard left = new Shard().withShardId("shard-1").withParentShardId("shard-0");
+    private final Shard right = new Shard().withShardId("shard-2").withParentShardId("shard-0");
+    private final Shard merged = new Shard().withShardId("shard-3")
+            .withParentShardId("shard-1").withAdjacentParentShardId("shard-2");
+
+    @Test
+    public void split_된_자식은_부모를_다_읽은_뒤에_시작() {
+        List<Shard> shards = Arrays.asList(parent, left, right);
+
+        assertThat(ready(shards)).containsExactly("shard-0");
+        assertThat(ready(shards, "shard-0")).containsExactly("shard-1", "shard-2");
+        assertThat(ShardLineage.hasListedParent(left, shards)).isTrue();
+        assertThat(ShardLineage.hasListedParent(parent, shards)).isFalse();
+    }
+
+    @Test
+    public void merge_된_자식은_두_부모를_다_읽은_뒤에_시작() {
+        List<Shard> shards = Arrays.asList(left, right, merged);
+
+        assertThat(ready(shards, "shard-1")).containsExactly("shard-2");
+        assertThat(ready(shards, "shard-1", "shard-2")).containsExactly("shard-3");
+    }
+
+    @Test
+    public void 보존_기간이_지나_목록에_없는_부모는_끝난_것으로_봄() {
+        List<Shard> shards = Collections.singletonList(left);
+
+        assertThat(ready(shards)).containsExactly("shard-1");
+        assertThat(ShardLineage.hasListedParent(left, shards)).isFalse();
+    }
+
+    private static List<String> ready(List<Shard> shards, String... finished) {
+        Set<String> done = new HashSet<>(Arrays.asList(finished));
+        return ShardLineage.readyShards(shards, done::contains).stream()
+                .map(Shard::getShardId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.kinesislogger.consumer.sink;
+
+import com.example.kinesislogger.consumer.ConsumedRecord;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Elasticsearch bulk 요청 본문 테스트
+ */
+public class ElasticsearchBulkSinkTest {
+
+    // 2019-10-30T00:00:00Z
+    private static final long ARRIVAL = 1572393600000L;
+
+    @Test
+    public void 레코드마다_index_action_과_문서_줄() throws Exception {
+        ElasticsearchBulkSink sink = new ElasticsearchBulkSink("http://localhost:9200/", "kinesis-logs");
+
+        String body = sink.bulkBody(Arrays.asList(
+                record("100", 0, "{\"level\":\"INFO\",\"message\":\"hello\"}\n"),
+                record("101", 2, "plain \"text\"")));
+
+        assertThat(body).isEqualTo(
+                "{\"index\":{\"_index\":\"kinesis-logs-2019.10.30\",\"_type\":\"_doc\",\"_id\":\"100-0\"}}\n"
+                        + "{\"level\":\"INFO\",\"message\":\"hello\"}\n"
+                        + "{\"index\":{\"_index\":\"kinesis-logs-2019.10.30\",\"_type\":\"_doc\",\"_id\":\"101-2\"}}\n"
+                        + "{\"message\":\"plain \\\"text\\\"\"}\n");
+    }
+
+    private static ConsumedRecord record(String sequenceNumber, long subSequenceNumber, String data) {
+        return new ConsumedRecord("shard-0", sequenceNumber, subSequenceNumber, "pk", ARRIVAL,
+                data.getBytes(StandardCharsets.UTF_8));
+    }
+}
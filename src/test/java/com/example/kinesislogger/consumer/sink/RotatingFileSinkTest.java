@@ -0,0 +1,66 @@
+package com.example.kinesislogger.consumer.sink;
+
+import com.example.kinesislogger.consumer.ConsumedRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 로컬 파일 sink 테스트
+ */
+public class RotatingFileSinkTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("rotating-file-sink");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void 레코드마다_한_줄씩_쓰고_크기를_넘으면_새_파일() throws Exception {
+        RotatingFileSink sink = new RotatingFileSink(directory, "kinesis", 10);
+
+        sink.write(Arrays.asList(record("first\n"), record("second")));
+        Thread.sleep(5);
+        sink.write(Collections.singletonList(record("third")));
+        sink.close();
+
+        List<Path> files = sorted();
+        assertThat(files).hasSize(2);
+        assertThat(files.get(0).getFileName().toString()).startsWith("kinesis-");
+        assertThat(new String(Files.readAllBytes(files.get(0)), StandardCharsets.UTF_8)).isEqualTo("first\nsecond\n");
+        assertThat(new String(Files.readAllBytes(files.get(1)), StandardCharsets.UTF_8)).isEqualTo("third\n");
+    }
+
+    private List<Path> sorted() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.sorted().collect(Collectors.toList()));
+        }
+    }
+
+    private static ConsumedRecord record(String data) {
+        return new ConsumedRecord("shard-0", "1", 0, "pk", 0, data.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,10 +2,13 @@ package com.example.kinesislogger.logback;
 
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.services.kinesis.AmazonKinesis;
-import com.amazonaws.services.kinesis.AmazonKinesisClientBuilder;
-import com.amazonaws.services.kinesis.model.*;
+import com.amazonaws.services.kinesis.AmazonKinesisAsync;
+import com.amazonaws.services.kinesis.AmazonKinesisAsyncClientBuilder;
+import com.example.kinesislogger.consumer.ConsumedRecord;
+import com.example.kinesislogger.consumer.KinesisLogConsumer;
+import com.example.kinesislogger.consumer.checkpoint.InMemoryCheckpointStore;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,9 +17,6 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
-import java.nio.charset.StandardCharsets;
-import java.util.List;
-
 /**
  * 키네시스 컨슈머 테스트
  *
@@ -40,59 +40,39 @@ public class KinesisConsumerTest {
     @Value("${aws.kinesis.secretKey}")
     private String secret_key_id;
 
-    private AmazonKinesis client;
+    private AmazonKinesisAsync client;
 
     @Before
     public void setUp() {
 
-        this.client = AmazonKinesisClientBuilder.standard()
+        this.client = AmazonKinesisAsyncClientBuilder.standard()
                 .withRegion(regionName)
                 .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(access_key_id, secret_key_id)))
                 .build();
     }
 
-    @Test
-    public void SDK_API로_메세지_가져오기_테스트() {
-
-        String shardIterator;
-        GetShardIteratorRequest getShardIteratorRequest = new GetShardIteratorRequest();
-        getShardIteratorRequest.setStreamName(streamName);
-        getShardIteratorRequest.setShardId("0");
-        getShardIteratorRequest.setShardIteratorType(ShardIteratorType.TRIM_HORIZON.name());
-
-        GetShardIteratorResult getShardIteratorResult = client.getShardIterator(getShardIteratorRequest);
-        shardIterator = getShardIteratorResult.getShardIterator();
-
-
-        List<Record> records;
-        while (shardIterator != null) {
-
-            // Create a new getRecordsRequest with an existing shardIterator
-            // Set the maximum records to return to 25
-            GetRecordsRequest getRecordsRequest = new GetRecordsRequest();
-            getRecordsRequest.setShardIterator(shardIterator);
-            getRecordsRequest.setLimit(2);
-
-            GetRecordsResult result = client.getRecords(getRecordsRequest);
-
-            //result를 record 리스트에 넣음.
-            records = result.getRecords();
-
-            for (Record record :records) {
-
-                String logMessage = new String( record.getData().array(), StandardCharsets.UTF_8 );
-                System.out.println(record.getSequenceNumber() + " : " + logMessage);
-            }
-
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException exception) {
-                throw new RuntimeException(exception);
-            }
-
-            shardIterator = result.getNextShardIterator();
-        }
+    @After
+    public void tearDown() {
+        client.shutdown();
     }
 
+    @Test
+    public void 모든_shard_에서_메세지_가져오기_테스트() throws InterruptedException {
+
+        // 모든 shard 를 병렬로 처음부터 읽어서 출력 (checkpoint 는 메모리에만)
+        KinesisLogConsumer consumer = new KinesisLogConsumer(client, streamName, new InMemoryCheckpointStore(),
+                records -> {
+                    for (ConsumedRecord record : records) {
+                        System.out.println(record.getShardId() + " " + record.getSequenceNumber() + " : "
+                                + record.getDataAsString());
+                    }
+                });
+        consumer.start();
+
+        Thread.sleep(10000);
+
+        log.info("reading shards: {}", consumer.getReadingShardIds());
+        consumer.stop(5000);
+    }
 
 }
@@ -0,0 +1,149 @@
+package com.example.kinesislogger.logback.binary;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+import org.junit.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * CBOR layout 테스트 (인코딩 후 {@link CborLogDecoder} 로 JSON 으로 되돌려 확인)
+ */
+public class CborLayoutTest {
+
+    private static final long TIMESTAMP = 1571234567890L;
+
+    @Test
+    public void logstash_필드를_JSON_으로_되돌림() {
+        CborLayout layout = layout(null);
+
+        String json = layout.doLayout(event("hello \"kinesis\" 안녕", Level.WARN));
+
+        assertThat(json).isEqualTo("{\"@timestamp\":\"2019-10-16T14:02:47.890Z\",\"@version\":\"1\","
+                + "\"message\":\"hello \\\"kinesis\\\" 안녕\",\"logger_name\":\"com.example.OrderService\","
+                + "\"thread_name\":\"http-nio-8080-exec-1\",\"level\":\"WARN\",\"level_value\":30000}");
+    }
+
+    @Test
+    public void customFields_와_MDC_와_marker_를_씀() {
+        CborLayout layout = layout("{\"app\":\"order-api\",\"env\":{\"zone\":\"a\",\"ports\":[80,443]},"
+                + "\"ratio\":0.5,\"debug\":false,\"owner\":null}");
+        LoggingEvent event = event("paid", Level.INFO);
+        Map<String, String> mdc = new LinkedHashMap<>();
+        mdc.put("requestId", "r-1");
+        mdc.put("app", "order-api");
+        event.setMDCPropertyMap(mdc);
+        Marker marker = MarkerFactory.getMarker("audit");
+        marker.add(MarkerFactory.getMarker("billing"));
+        event.setMarker(marker);
+
+        String json = layout.doLayout(event);
+
+        assertThat(json).startsWith("{\"app\":\"order-api\",\"env\":{\"zone\":\"a\",\"ports\":[80,443]},"
+                + "\"ratio\":0.5,\"debug\":false,\"owner\":null,\"@timestamp\":");
+        assertThat(json).endsWith("\"level_value\":20000,\"requestId\":\"r-1\",\"app\":\"order-api\","
+                + "\"tags\":[\"audit\",\"billing\"]}");
+    }
+
+    @Test
+    public void 같은_레코드에서_반복되는_문자열은_stringref_로_씀() {
+        CborLayout layout = layout("{\"service\":\"order-api\"}");
+        LoggingEvent event = event("x", Level.INFO);
+        Map<String, String> mdc = new LinkedHashMap<>();
+        mdc.put("upstream", "order-api");
+        mdc.put("service", "order-api");
+        event.setMDCPropertyMap(mdc);
+
+        byte[] record = layout.toByteArray(event);
+
+        assertThat(count(record, "order-api".getBytes(StandardCharsets.UTF_8))).isEqualTo(1);
+        assertThat(CborLogDecoder.toJson(record)).contains("\"upstream\":\"order-api\",\"service\":\"order-api\"");
+    }
+
+    @Test
+    public void stack_trace_를_씀() {
+        LoggingEvent event = event("failed", Level.ERROR);
+        event.setThrowableProxy(new ThrowableProxy(new IllegalStateException("timeout")));
+
+        String json = layout(null).doLayout(event);
+
+        assertThat(json).contains("\"stack_trace\":\"java.lang.IllegalStateException: timeout\\n\\tat ");
+    }
+
+    @Test
+    public void JSON_보다_작음() {
+        CborLayout layout = layout("{\"app\":\"order-api\",\"env\":\"production\"}");
+        LoggingEvent event = event("order 1234 paid", Level.INFO);
+        Map<String, String> mdc = new LinkedHashMap<>();
+        mdc.put("requestId", "4f1c2a9e-0b5d-4e7a-9c3f-2d8e6b1a7c40");
+        mdc.put("userId", "42");
+        event.setMDCPropertyMap(mdc);
+
+        byte[] record = layout.toByteArray(event);
+        byte[] json = CborLogDecoder.toJson(record).getBytes(StandardCharsets.UTF_8);
+
+        assertThat(record.length).isLessThan(json.length * 3 / 4);
+    }
+
+    @Test
+    public void 풀_버퍼로_인코딩() {
+        CborLayout layout = layout(null);
+        LoggingEvent event = event("hello", Level.INFO);
+
+        ByteBuffer data = layout.encode(event, new ByteBufferPool(1024 * 1024));
+
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        assertThat(bytes).isEqualTo(layout.toByteArray(event));
+        assertThat(CborLogDecoder.isCbor(bytes)).isTrue();
+    }
+
+    @Test
+    public void 잘못된_customFields_는_쓰지_않음() {
+        CborLayout layout = new CborLayout();
+        layout.setCustomFields("{\"app\":");
+        layout.start();
+
+        assertThat(layout.doLayout(event("hello", Level.INFO))).startsWith("{\"@timestamp\":");
+    }
+
+    private static CborLayout layout(String customFields) {
+        CborLayout layout = new CborLayout();
+        layout.setCustomFields(customFields);
+        layout.start();
+        return layout;
+    }
+
+    private static LoggingEvent event(String message, Level level) {
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage(message);
+        event.setLevel(level);
+        event.setLoggerName("com.example.OrderService");
+        event.setThreadName("http-nio-8080-exec-1");
+        event.setTimeStamp(TIMESTAMP);
+        return event;
+    }
+
+    private static int count(byte[] data, byte[] value) {
+        int count = 0;
+        for (int i = 0; i + value.length <= data.length; i++) {
+            int j = 0;
+            while (j < value.length && data[i + j] == value[j]) {
+                j++;
+            }
+            if (j == value.length) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.kinesislogger.logback.binary;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * CBOR → JSON 변환 테스트 (RFC 8949 Appendix A 예제 사용)
+ */
+public class CborLogDecoderTest {
+
+    @Test
+    public void 기본_값() {
+        assertThat(toJson("00")).isEqualTo("0");
+        assertThat(toJson("1903e8")).isEqualTo("1000");
+        assertThat(toJson("3903e7")).isEqualTo("-1000");
+        assertThat(toJson("fb3ff199999999999a")).isEqualTo("1.1");
+        assertThat(toJson("f93e00")).isEqualTo("1.5");
+        assertThat(toJson("fa47c35000")).isEqualTo("100000.0");
+        assertThat(toJson("f97c00")).isEqualTo("null");
+        assertThat(toJson("f4")).isEqualTo("false");
+        assertThat(toJson("f6")).isEqualTo("null");
+        assertThat(toJson("6449455446")).isEqualTo("\"IETF\"");
+        assertThat(toJson("62c3bc")).isEqualTo("\"ü\"");
+        assertThat(toJson("4401020304")).isEqualTo("\"AQIDBA==\"");
+    }
+
+    @Test
+    public void 길이를_모르는_container_와_문자열() {
+        assertThat(toJson("9f018202039f0405ffff")).isEqualTo("[1,[2,3],[4,5]]");
+        assertThat(toJson("bf61610161629f0203ffff")).isEqualTo("{\"a\":1,\"b\":[2,3]}");
+        assertThat(toJson("7f657374726561646d696e67ff")).isEqualTo("\"streaming\"");
+        assertThat(toJson("a201020304")).isEqualTo("{\"@version\":2,\"logger_name\":4}");
+    }
+
+    @Test
+    public void stringref() {
+        // RFC 8949 stringref 확장 예제 (tag 256 namespace 안에서 3 byte 이상 문자열을 index 로 참조)
+        String json = toJson("d9010083" + "a3" + "6472616e6b04" + "65636f756e7418" + "2d" + "646e616d65"
+                + "6e636f6e666964656e7469616c2d31"
+                + "a3" + "d81900" + "05" + "d81901" + "1819" + "d81902" + "6a6e6f7420636f6e666964"
+                + "a3" + "d81900" + "02" + "d81901" + "0a" + "d81902" + "d81903");
+
+        assertThat(json).isEqualTo("[{\"rank\":4,\"count\":45,\"name\":\"confidential-1\"},"
+                + "{\"rank\":5,\"count\":25,\"name\":\"not confid\"},"
+                + "{\"rank\":2,\"count\":10,\"name\":\"confidential-1\"}]");
+    }
+
+    @Test
+    public void timestamp_는_ISO_8601_로() {
+        assertThat(toJson("d9d9f7a1001b0000016dd4e0d6d2")).isEqualTo("{\"@timestamp\":\"2019-10-16T14:02:47.890Z\"}");
+    }
+
+    @Test
+    public void CBOR_레코드_구분() {
+        assertThat(CborLogDecoder.isCbor(bytes("d9d9f7a0"))).isTrue();
+        assertThat(CborLogDecoder.isCbor("{\"a\":1}".getBytes())).isFalse();
+        assertThat(CborLogDecoder.isCbor(bytes("d9d9"))).isFalse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 잘린_레코드는_예외() {
+        toJson("d9d9f7bf6161");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 없는_stringref_는_예외() {
+        toJson("d9010081d81900");
+    }
+
+    private static String toJson(String hex) {
+        return CborLogDecoder.toJson(bytes(hex));
+    }
+
+    private static byte[] bytes(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+}
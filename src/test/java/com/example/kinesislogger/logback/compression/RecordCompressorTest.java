@@ -0,0 +1,127 @@
+package com.example.kinesislogger.logback.compression;
+
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 레코드 압축 / 헤더 테스트
+ */
+public class RecordCompressorTest {
+
+    private static final String LOG = "{\"@timestamp\":\"2019-10-30 10:00:00.000\",\"message\":\"logging=userTest\","
+            + "\"logger_name\":\"com.example.kinesislogger.MainController\",\"level\":\"INFO\",\"port\":\"8080\"}\n";
+
+    private final ByteBufferPool pool = new ByteBufferPool(1024 * 1024);
+
+    @Test
+    public void codec_별_압축_해제() throws Exception {
+        for (String name : Arrays.asList("gzip", "deflate", "lz4", "zstd")) {
+            RecordCompressor compressor = new RecordCompressor(CompressionCodecs.of(name), 0, pool);
+            byte[] original = logs(50);
+
+            ByteBuffer compressed = compressor.compress(ByteBuffer.wrap(original));
+
+            assertThat(RecordCompressor.isCompressed(compressed)).isTrue();
+            assertThat(compressed.get(3)).isEqualTo(compressor.getCodec().getId());
+            assertThat(compressed.remaining()).isLessThan(original.length / 5);
+            assertThat(toArray(RecordCompressor.decompress(compressed))).isEqualTo(original);
+            compressor.close();
+        }
+    }
+
+    @Test
+    public void gzip_본문은_표준_gzip_포맷() throws Exception {
+        RecordCompressor compressor = new RecordCompressor(new GzipCodec(), 0, pool);
+        byte[] original = logs(20);
+
+        ByteBuffer compressed = compressor.compress(ByteBuffer.wrap(original));
+        byte[] body = Arrays.copyOfRange(toArray(compressed), RecordCompressor.HEADER_LENGTH, compressed.remaining());
+
+        assertThat(readAll(new GZIPInputStream(new ByteArrayInputStream(body)))).isEqualTo(original);
+    }
+
+    @Test
+    public void minBytes_보다_작으면_압축하지_않음() {
+        RecordCompressor compressor = new RecordCompressor(new GzipCodec(), 1024, pool);
+        ByteBuffer data = ByteBuffer.wrap(LOG.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(compressor.compress(data)).isSameAs(data);
+        assertThat(RecordCompressor.isCompressed(data)).isFalse();
+    }
+
+    @Test
+    public void 작아지지_않으면_원본_전송() {
+        RecordCompressor compressor = new RecordCompressor(new DeflateCodec(), 0, pool);
+        byte[] random = new byte[4096];
+        new Random(1).nextBytes(random);
+        ByteBuffer data = ByteBuffer.wrap(random);
+
+        assertThat(compressor.compress(data)).isSameAs(data);
+    }
+
+    @Test
+    public void 압축되지_않은_레코드는_그대로_반환() {
+        ByteBuffer data = ByteBuffer.wrap(LOG.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(RecordCompressor.decompress(data)).isSameAs(data);
+    }
+
+    @Test
+    public void lz4_헤더의_원본_크기가_다르면_오류() {
+        RecordCompressor compressor = new RecordCompressor(CompressionCodecs.of("lz4"), 0, pool);
+        byte[] original = logs(50);
+        ByteBuffer compressed = compressor.compress(ByteBuffer.wrap(original));
+        compressor.close();
+
+        for (int delta : new int[]{-1, 1}) {
+            ByteBuffer corrupted = ByteBuffer.wrap(toArray(compressed));
+            corrupted.putInt(4, original.length + delta);
+            try {
+                RecordCompressor.decompress(corrupted);
+                throw new AssertionError("corrupted lz4 record was decompressed");
+            } catch (IllegalArgumentException expected) {
+                // 원본 크기를 헤더에서 믿지 않음
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 알수없는_codec() {
+        CompressionCodecs.of("snappy");
+    }
+
+    private static byte[] logs(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(LOG);
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1024];
+        int read;
+        while ((read = in.read(chunk)) > 0) {
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.kinesislogger.logback.fake;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.LayoutBase;
+import com.example.kinesislogger.logback.AppenderConstants;
+import com.example.kinesislogger.logback.metrics.KinesisAppenderMetrics;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * append 경로 (layout → 인코딩 → ring buffer → 배치 → RecordEntryPool) 의 할당 테스트
+ * <p>
+ * - layout 은 고정 문자열을 반환해서 layout 자체의 할당은 빼고 잼
+ * - 로깅 쓰레드는 이벤트당 할당이 없어야 함
+ * - 전송 쓰레드는 배치마다 요청 / 리스트 / client 호출에 할당하므로 레코드당 할당은 배치 크기로 나눈 값만 남음
+ */
+public class AppendAllocationTest {
+
+    private static final String STREAM_NAME = "allocation-stream";
+    private static final String MESSAGE = "{\"@timestamp\":\"2019-10-30 10:00:00.000\","
+            + "\"message\":\"logging=userTest\",\"logger_name\":\"com.example.kinesislogger.MainController\","
+            + "\"level\":\"INFO\",\"port\":\"8080\"}";
+    private static final int ITERATIONS = 100_000;
+    // 풀 (크기 클래스당 4096 개) 이 비지 않도록 이만큼씩 append 하고 전송을 기다림 (꽉 찬 배치 2개)
+    private static final int BURST = 2 * AppenderConstants.MAX_BATCH_RECORDS;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private FakeKinesisAppender appender;
+
+    @After
+    public void tearDown() {
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void append_경로는_이벤트당_할당_없음() throws Exception {
+        appender = appender();
+        assertNoAllocationPerEvent(event());
+    }
+
+    @Test
+    public void mdc_partition_key_전략도_이벤트당_할당_없음() throws Exception {
+        appender = appender();
+        appender.setPartitionKeyStrategy("mdc");
+        appender.setPartitionKeyField("traceId");
+        LoggingEvent event = event();
+        event.setMDCPropertyMap(Collections.singletonMap("traceId", "4bf92f3577b34da6a3ce929d0e0e4736"));
+        assertNoAllocationPerEvent(event);
+    }
+
+    private void assertNoAllocationPerEvent(LoggingEvent event) throws InterruptedException {
+        appender.start();
+        Thread sender = senderThread();
+        long threadId = Thread.currentThread().getId();
+
+        // warm-up (JIT, ThreadLocal 상태, 버퍼 / entry 풀 채우기)
+        appendInBursts(event);
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long senderBefore = threads.getThreadAllocatedBytes(sender.getId());
+        appendInBursts(event);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        long senderAllocated = threads.getThreadAllocatedBytes(sender.getId()) - senderBefore;
+
+        assertThat(allocated / ITERATIONS).isLessThan(8L);
+        assertThat(senderAllocated / ITERATIONS).isLessThan(64L);
+    }
+
+    /**
+     * ITERATIONS 개를 BURST 개씩 append 하고, burst 마다 모두 전송될 때까지 기다림 (반납된 버퍼 / entry 를 재사용)
+     */
+    private void appendInBursts(LoggingEvent event) throws InterruptedException {
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        for (int sent = 0; sent < ITERATIONS; sent += BURST) {
+            long target = metrics.getRecordsSent() + BURST;
+            for (int i = 0; i < BURST; i++) {
+                appender.doAppend(event);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (metrics.getRecordsSent() < target && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(metrics.getRecordsSent()).isEqualTo(target);
+        }
+    }
+
+    private static Thread senderThread() {
+        String prefix = FakeKinesisAppender.class.getSimpleName() + "[" + STREAM_NAME + "]-sender-";
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(prefix)) {
+                return thread;
+            }
+        }
+        throw new IllegalStateException("sender thread not found");
+    }
+
+    private static FakeKinesisAppender appender() {
+        LoggerContext context = new LoggerContext();
+        LayoutBase<ILoggingEvent> layout = new LayoutBase<ILoggingEvent>() {
+            @Override
+            public String doLayout(ILoggingEvent event) {
+                return MESSAGE;
+            }
+        };
+        layout.setContext(context);
+        layout.start();
+
+        FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM_NAME, 1)
+                .withShardLimits(Integer.MAX_VALUE, Long.MAX_VALUE);
+        FakeKinesisAppender appender = new FakeKinesisAppender(kinesis);
+        appender.setContext(context);
+        appender.setName("allocation-test");
+        appender.setAccessKey("allocation-test");
+        appender.setSecretKey("allocation-test");
+        appender.setRegion("ap-northeast-2");
+        appender.setStreamName(STREAM_NAME);
+        appender.setLayout(layout);
+        appender.setBufferSize(BURST * 2);
+        appender.setLingerMillis(1000);
+        appender.setHandoffTimeoutMillis(0);
+        appender.setJmxEnabled(false);
+        appender.setAsyncStartup(false);
+        return appender;
+    }
+
+    private static LoggingEvent event() {
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage("logging=userTest");
+        event.setLoggerName("com.example.kinesislogger.MainController");
+        event.setThreadName("main");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.kinesislogger.logback.fake;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.example.kinesislogger.logback.metrics.KinesisAppenderMetrics;
+import net.logstash.logback.layout.LogstashLayout;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * appender 시작 테스트 (asyncStartup)
+ */
+public class AppenderStartupTest {
+
+    private static final String STREAM_NAME = "startup-stream";
+    private static final long DESCRIBE_LATENCY_MILLIS = 1000;
+
+    private FakeKinesisAppender appender;
+
+    @After
+    public void tearDown() {
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void asyncStartup_이면_stream_체크를_기다리지_않고_전송() throws Exception {
+        appender = appender(true);
+
+        long startNanos = System.nanoTime();
+        appender.start();
+        long startMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        appender.doAppend(event());
+
+        FakeKinesisAsync kinesis = appender.getKinesis();
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DESCRIBE_LATENCY_MILLIS / 2);
+        while (metrics.getRecordsSent() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(startMillis).isLessThan(DESCRIBE_LATENCY_MILLIS / 2);
+        assertThat(kinesis.getCapturedRecords()).hasSize(1);
+        assertThat(metrics.getWarmUpNanos()).isEqualTo(-1L);
+        assertThat(metrics.getTimeToFirstRecordNanos()).isGreaterThan(0L);
+
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DESCRIBE_LATENCY_MILLIS * 5);
+        while (metrics.getWarmUpNanos() < 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(metrics.getWarmUpNanos()).isGreaterThanOrEqualTo(
+                TimeUnit.MILLISECONDS.toNanos(DESCRIBE_LATENCY_MILLIS));
+    }
+
+    @Test
+    public void asyncStartup_이_아니면_start_에서_stream_체크() {
+        appender = appender(false);
+
+        appender.start();
+
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        assertThat(metrics.getWarmUpNanos()).isGreaterThanOrEqualTo(
+                TimeUnit.MILLISECONDS.toNanos(DESCRIBE_LATENCY_MILLIS));
+        assertThat(metrics.getStartupNanos()).isGreaterThanOrEqualTo(metrics.getWarmUpNanos());
+    }
+
+    private static FakeKinesisAppender appender(boolean asyncStartup) {
+        LoggerContext context = new LoggerContext();
+        LogstashLayout layout = new LogstashLayout();
+        layout.setContext(context);
+        layout.start();
+
+        FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM_NAME, 1)
+                .withDescribeLatency(DESCRIBE_LATENCY_MILLIS)
+                .withCaptureRecords(true);
+        FakeKinesisAppender appender = new FakeKinesisAppender(kinesis);
+        appender.setContext(context);
+        appender.setName("startup-test");
+        appender.setAccessKey("startup-test");
+        appender.setSecretKey("startup-test");
+        appender.setRegion("ap-northeast-2");
+        appender.setStreamName(STREAM_NAME);
+        appender.setLayout(layout);
+        appender.setLingerMillis(1);
+        appender.setHandoffTimeoutMillis(0);
+        appender.setJmxEnabled(false);
+        appender.setAsyncStartup(asyncStartup);
+        return appender;
+    }
+
+    private static LoggingEvent event() {
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage("started");
+        event.setLoggerName("com.example.Startup");
+        event.setThreadName("main");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.kinesislogger.logback.fake;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.example.kinesislogger.logback.compression.RecordCompressor;
+import net.logstash.logback.layout.LogstashLayout;
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * codec 의 범위를 벗어난 compressionLevel 테스트
+ */
+public class CompressionLevelTest {
+
+    private static final String STREAM_NAME = "compression-stream";
+
+    private FakeKinesisAppender appender;
+
+    @After
+    public void tearDown() {
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void codec_범위를_벗어난_level_은_압축하지_않고_시작() throws Exception {
+        FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM_NAME, 1).withCaptureRecords(true);
+        appender = appender(kinesis);
+        // deflate 는 0 ~ 9
+        appender.setCompression("deflate");
+        appender.setCompressionLevel(15);
+
+        appender.start();
+        assertThat(appender.isStarted()).isTrue();
+        appender.doAppend(event());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (appender.getMetrics().getRecordsSent() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(kinesis.getCapturedRecords()).hasSize(1);
+        ByteBuffer data = ByteBuffer.wrap(kinesis.getCapturedRecords().get(0));
+        assertThat(RecordCompressor.isCompressed(data)).isFalse();
+    }
+
+    private static FakeKinesisAppender appender(FakeKinesisAsync kinesis) {
+        LoggerContext context = new LoggerContext();
+        LogstashLayout layout = new LogstashLayout();
+        layout.setContext(context);
+        layout.start();
+
+        FakeKinesisAppender appender = new FakeKinesisAppender(kinesis);
+        appender.setContext(context);
+        appender.setName("compression-test");
+        appender.setAccessKey("compression-test");
+        appender.setSecretKey("compression-test");
+        appender.setRegion("ap-northeast-2");
+        appender.setStreamName(STREAM_NAME);
+        appender.setLayout(layout);
+        appender.setLingerMillis(1);
+        appender.setCompressionMinBytes(0);
+        appender.setHandoffTimeoutMillis(0);
+        appender.setJmxEnabled(false);
+        appender.setAsyncStartup(false);
+        return appender;
+    }
+
+    private static LoggingEvent event() {
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage("compressed");
+        event.setLoggerName("com.example.Compression");
+        event.setThreadName("main");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.kinesislogger.logback.fake;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.client.builder.ExecutorFactory;
+import com.amazonaws.services.kinesis.AmazonKinesisAsync;
+import com.example.kinesislogger.logback.KinesisAsyncAppender;
+
+/**
+ * AWS 대신 {@link FakeKinesisAsync} 로 전송하는 KinesisAsyncAppender
+ * <p>
+ * client 생성만 바꾸고 버퍼, 배치, 재시도, 비동기 callback 처리는 실제 appender 그대로 사용
+ */
+public class FakeKinesisAppender extends KinesisAsyncAppender<ILoggingEvent> {
+
+    private final FakeKinesisAsync kinesis;
+
+    public FakeKinesisAppender(FakeKinesisAsync kinesis) {
+        this.kinesis = kinesis;
+    }
+
+    @Override
+    protected AmazonKinesisAsync createClient(AWSCredentialsProvider credential, ClientConfiguration configuration,
+                                              ExecutorFactory threadFactory) {
+        return kinesis;
+    }
+
+    public FakeKinesisAsync getKinesis() {
+        return kinesis;
+    }
+}
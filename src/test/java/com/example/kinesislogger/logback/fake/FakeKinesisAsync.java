@@ -0,0 +1,543 @@
+package com.example.kinesislogger.logback.fake;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.kinesis.AbstractAmazonKinesisAsync;
+import com.amazonaws.services.kinesis.model.AmazonKinesisException;
+import com.amazonaws.services.kinesis.model.DescribeStreamResult;
+import com.amazonaws.services.kinesis.model.GetRecordsRequest;
+import com.amazonaws.services.kinesis.model.GetRecordsResult;
+import com.amazonaws.services.kinesis.model.GetShardIteratorRequest;
+import com.amazonaws.services.kinesis.model.GetShardIteratorResult;
+import com.amazonaws.services.kinesis.model.HashKeyRange;
+import com.amazonaws.services.kinesis.model.ListShardsRequest;
+import com.amazonaws.services.kinesis.model.ListShardsResult;
+import com.amazonaws.services.kinesis.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesis.model.PutRecordsResult;
+import com.amazonaws.services.kinesis.model.PutRecordsResultEntry;
+import com.amazonaws.services.kinesis.model.Record;
+import com.amazonaws.services.kinesis.model.ResourceNotFoundException;
+import com.amazonaws.services.kinesis.model.Shard;
+import com.amazonaws.services.kinesis.model.ShardIteratorType;
+import com.amazonaws.services.kinesis.model.StreamDescription;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 테스트 / 부하 테스트용 in-process Kinesis (AWS 계정, 네트워크 불필요)
+ * <p>
+ * - stream 하나와 hash key 범위를 균등하게 나눈 shard 들을 흉내냄 (partition key 의 MD5 또는 explicit hash key 로 shard 선택)
+ * - shard 별 초당 레코드 / 바이트 한도를 넘는 레코드는 ProvisionedThroughputExceededException 으로 실패 (PutRecords 부분 실패)
+ * - 응답 지연은 log-normal 분포 (median, sigma) 로 만들고, 요청 / 레코드 단위 실패를 확률로 주입할 수 있음
+ * - withCaptureRecords(true) 이면 받은 레코드를 shard 별로 보관하고 getShardIterator, getRecords(Async) 로 읽을 수 있음
+ *   (shard iterator 는 {shardId}/{index}, 아직 읽지 않은 레코드가 남아 있으면 millisBehindLatest > 0)
+ * - describeStream, listShards, putRecords(Async), getShardIterator, getRecords(Async) 만 구현. 나머지는 UnsupportedOperationException
+ */
+public class FakeKinesisAsync extends AbstractAmazonKinesisAsync {
+
+    public static final int DEFAULT_SHARD_RECORDS_PER_SECOND = 1000;
+    public static final long DEFAULT_SHARD_BYTES_PER_SECOND = 1024 * 1024;
+
+    private static final int MAX_RECORDS_PER_REQUEST = 500;
+    private static final String THROTTLED = "ProvisionedThroughputExceededException";
+    private static final String INTERNAL_FAILURE = "InternalFailure";
+    private static final BigInteger HASH_KEY_SPACE = BigInteger.ONE.shiftLeft(128);
+
+    private final String streamName;
+    private final FakeShard[] shards;
+    private final BigInteger shardRangeSize;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Random random;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile int shardRecordsPerSecond = DEFAULT_SHARD_RECORDS_PER_SECOND;
+    private volatile long shardBytesPerSecond = DEFAULT_SHARD_BYTES_PER_SECOND;
+    private volatile double medianLatencyMillis;
+    private volatile double latencySigma;
+    private volatile double requestErrorRate;
+    private volatile double requestThrottleRate;
+    private volatile double recordErrorRate;
+    private volatile boolean captureRecords;
+    private volatile long describeLatencyMillis;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder acceptedRecords = new LongAdder();
+    private final LongAdder acceptedBytes = new LongAdder();
+    private final LongAdder throttledRecords = new LongAdder();
+    private final LongAdder failedRecords = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final Queue<byte[]> captured = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param streamName stream 이름 (다른 이름으로 요청하면 ResourceNotFoundException)
+     * @param shardCount open shard 수
+     */
+    public FakeKinesisAsync(String streamName, int shardCount) {
+        this(streamName, shardCount, 4, 42L);
+    }
+
+    /**
+     * @param streamName      stream 이름
+     * @param shardCount      open shard 수
+     * @param responseThreads 응답 (callback) 을 처리하는 쓰레드 수
+     * @param seed            지연 / 실패 주입에 사용하는 난수 seed
+     */
+    public FakeKinesisAsync(String streamName, int shardCount, int responseThreads, long seed) {
+        this.streamName = streamName;
+        this.shards = new FakeShard[shardCount];
+        this.shardRangeSize = HASH_KEY_SPACE.divide(BigInteger.valueOf(shardCount));
+        for (int i = 0; i < shardCount; i++) {
+            BigInteger start = shardRangeSize.multiply(BigInteger.valueOf(i));
+            BigInteger end = i == shardCount - 1
+                    ? HASH_KEY_SPACE.subtract(BigInteger.ONE)
+                    : start.add(shardRangeSize).subtract(BigInteger.ONE);
+            shards[i] = new FakeShard(String.format("shardId-%012d", i), start, end);
+        }
+        this.executor = new ScheduledThreadPoolExecutor(responseThreads, runnable -> {
+            Thread thread = new Thread(runnable, "fake-kinesis-" + streamName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.random = new Random(seed);
+    }
+
+    /**
+     * shard 당 초당 한도 (기본값은 실제 Kinesis 와 같은 1000 레코드, 1 MB)
+     */
+    public FakeKinesisAsync withShardLimits(int recordsPerSecond, long bytesPerSecond) {
+        this.shardRecordsPerSecond = recordsPerSecond;
+        this.shardBytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * 응답 지연. median * exp(sigma * N(0, 1)) (sigma 가 0 이면 고정 지연)
+     */
+    public FakeKinesisAsync withLatency(double medianMillis, double sigma) {
+        this.medianLatencyMillis = medianMillis;
+        this.latencySigma = sigma;
+        return this;
+    }
+
+    /**
+     * 요청 전체가 실패할 확률 (InternalFailure, HTTP 500)
+     */
+    public FakeKinesisAsync withRequestErrorRate(double rate) {
+        this.requestErrorRate = rate;
+        return this;
+    }
+
+    /**
+     * 요청 전체가 ProvisionedThroughputExceededException 으로 실패할 확률
+     */
+    public FakeKinesisAsync withRequestThrottleRate(double rate) {
+        this.requestThrottleRate = rate;
+        return this;
+    }
+
+    /**
+     * 한도와 상관없이 레코드 하나가 InternalFailure 로 실패할 확률 (PutRecords 부분 실패)
+     */
+    public FakeKinesisAsync withRecordErrorRate(double rate) {
+        this.recordErrorRate = rate;
+        return this;
+    }
+
+    /**
+     * 받은 레코드의 data 를 복사해서 보관 ({@link #getCapturedRecords()})
+     */
+    public FakeKinesisAsync withCaptureRecords(boolean captureRecords) {
+        this.captureRecords = captureRecords;
+        return this;
+    }
+
+    /**
+     * describeStream 응답 지연 (appender 시작시 stream 체크)
+     */
+    public FakeKinesisAsync withDescribeLatency(long millis) {
+        this.describeLatencyMillis = millis;
+        return this;
+    }
+
+    @Override
+    public DescribeStreamResult describeStream(String streamName) {
+        if (describeLatencyMillis > 0) {
+            try {
+                Thread.sleep(describeLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        checkStream(streamName);
+        return new DescribeStreamResult().withStreamDescription(
+                new StreamDescription().withStreamName(streamName).withStreamStatus("ACTIVE"));
+    }
+
+    @Override
+    public ListShardsResult listShards(ListShardsRequest request) {
+        checkStream(request.getStreamName());
+        List<Shard> result = new ArrayList<>(shards.length);
+        for (FakeShard shard : shards) {
+            result.add(new Shard().withShardId(shard.id).withHashKeyRange(new HashKeyRange()
+                    .withStartingHashKey(shard.start.toString()).withEndingHashKey(shard.end.toString())));
+        }
+        return new ListShardsResult().withShards(result);
+    }
+
+    @Override
+    public PutRecordsResult putRecords(PutRecordsRequest request) {
+        try {
+            return putRecordsAsync(request, null).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    @Override
+    public Future<PutRecordsResult> putRecordsAsync(PutRecordsRequest request) {
+        return putRecordsAsync(request, null);
+    }
+
+    /**
+     * 지연 후 callback 쓰레드에서 요청을 처리하고 handler 호출
+     */
+    @Override
+    public Future<PutRecordsResult> putRecordsAsync(PutRecordsRequest request,
+                                                    AsyncHandler<PutRecordsRequest, PutRecordsResult> handler) {
+        CompletableFuture<PutRecordsResult> future = new CompletableFuture<>();
+        executor.schedule(() -> {
+            try {
+                PutRecordsResult result = process(request);
+                if (handler != null) {
+                    handler.onSuccess(request, result);
+                }
+                future.complete(result);
+            } catch (Exception e) {
+                if (handler != null) {
+                    handler.onError(e);
+                }
+                future.completeExceptionally(e);
+            }
+        }, sampleLatencyNanos(), TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+    @Override
+    public GetShardIteratorResult getShardIterator(GetShardIteratorRequest request) {
+        checkStream(request.getStreamName());
+        FakeShard shard = shard(request.getShardId());
+        int index;
+        switch (ShardIteratorType.fromValue(request.getShardIteratorType())) {
+            case TRIM_HORIZON:
+                index = 0;
+                break;
+            case LATEST:
+                index = shard.size();
+                break;
+            case AFTER_SEQUENCE_NUMBER:
+                index = shard.indexAfter(Long.parseLong(request.getStartingSequenceNumber()));
+                break;
+            default:
+                throw new UnsupportedOperationException(request.getShardIteratorType());
+        }
+        return new GetShardIteratorResult().withShardIterator(shard.id + "/" + index);
+    }
+
+    @Override
+    public GetRecordsResult getRecords(GetRecordsRequest request) {
+        String iterator = request.getShardIterator();
+        int separator = iterator.lastIndexOf('/');
+        FakeShard shard = shard(iterator.substring(0, separator));
+        int index = Integer.parseInt(iterator.substring(separator + 1));
+        int limit = request.getLimit() == null ? 10000 : request.getLimit();
+        return shard.read(index, limit);
+    }
+
+    @Override
+    public Future<GetRecordsResult> getRecordsAsync(GetRecordsRequest request) {
+        return getRecordsAsync(request, null);
+    }
+
+    /**
+     * 지연 후 callback 쓰레드에서 읽고 handler 호출
+     */
+    @Override
+    public Future<GetRecordsResult> getRecordsAsync(GetRecordsRequest request,
+                                                    AsyncHandler<GetRecordsRequest, GetRecordsResult> handler) {
+        CompletableFuture<GetRecordsResult> future = new CompletableFuture<>();
+        executor.schedule(() -> {
+            try {
+                GetRecordsResult result = getRecords(request);
+                if (handler != null) {
+                    handler.onSuccess(request, result);
+                }
+                future.complete(result);
+            } catch (Exception e) {
+                if (handler != null) {
+                    handler.onError(e);
+                }
+                future.completeExceptionally(e);
+            }
+        }, sampleLatencyNanos(), TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getAcceptedRecords() {
+        return acceptedRecords.sum();
+    }
+
+    public long getAcceptedBytes() {
+        return acceptedBytes.sum();
+    }
+
+    public long getThrottledRecords() {
+        return throttledRecords.sum();
+    }
+
+    public long getFailedRecords() {
+        return failedRecords.sum();
+    }
+
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    /**
+     * 성공한 레코드의 data (withCaptureRecords(true) 인 경우만)
+     *
+     * @return
+     */
+    public List<byte[]> getCapturedRecords() {
+        return new ArrayList<>(captured);
+    }
+
+    /**
+     * partition key / explicit hash key 가 속하는 shard id
+     *
+     * @param partitionKey
+     * @param explicitHashKey 없으면 null
+     * @return
+     */
+    public String shardIdOf(String partitionKey, String explicitHashKey) {
+        return shardOf(partitionKey, explicitHashKey).id;
+    }
+
+    private PutRecordsResult process(PutRecordsRequest request) {
+        requests.increment();
+        checkStream(request.getStreamName());
+        List<PutRecordsRequestEntry> entries = request.getRecords();
+        if (entries == null || entries.isEmpty() || entries.size() > MAX_RECORDS_PER_REQUEST) {
+            failedRequests.increment();
+            AmazonKinesisException exception = new AmazonKinesisException(
+                    "Records must contain between 1 and " + MAX_RECORDS_PER_REQUEST + " entries");
+            exception.setErrorCode("InvalidArgumentException");
+            exception.setStatusCode(400);
+            throw exception;
+        }
+        if (chance(requestThrottleRate)) {
+            failedRequests.increment();
+            ProvisionedThroughputExceededException exception =
+                    new ProvisionedThroughputExceededException("Rate exceeded for stream " + streamName);
+            exception.setErrorCode(THROTTLED);
+            exception.setStatusCode(400);
+            throw exception;
+        }
+        if (chance(requestErrorRate)) {
+            failedRequests.increment();
+            AmazonServiceException exception = new AmazonServiceException("Internal service failure");
+            exception.setErrorCode(INTERNAL_FAILURE);
+            exception.setStatusCode(500);
+            throw exception;
+        }
+
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        List<PutRecordsResultEntry> results = new ArrayList<>(entries.size());
+        int failed = 0;
+        for (PutRecordsRequestEntry entry : entries) {
+            ByteBuffer data = entry.getData();
+            int bytes = data.remaining() + entry.getPartitionKey().getBytes(StandardCharsets.UTF_8).length;
+            FakeShard shard = shardOf(entry.getPartitionKey(), entry.getExplicitHashKey());
+            if (chance(recordErrorRate)) {
+                failed++;
+                failedRecords.increment();
+                results.add(new PutRecordsResultEntry().withErrorCode(INTERNAL_FAILURE)
+                        .withErrorMessage("Internal service failure"));
+            } else if (!shard.tryAccept(second, bytes, shardRecordsPerSecond, shardBytesPerSecond)) {
+                failed++;
+                throttledRecords.increment();
+                results.add(new PutRecordsResultEntry().withErrorCode(THROTTLED)
+                        .withErrorMessage("Rate exceeded for shard " + shard.id + " in stream " + streamName));
+            } else {
+                acceptedRecords.increment();
+                acceptedBytes.add(bytes);
+                byte[] copy = null;
+                if (captureRecords) {
+                    copy = new byte[data.remaining()];
+                    data.duplicate().get(copy);
+                    captured.add(copy);
+                }
+                results.add(new PutRecordsResultEntry().withShardId(shard.id)
+                        .withSequenceNumber(shard.append(sequence, entry.getPartitionKey(), copy)));
+            }
+        }
+        return new PutRecordsResult().withFailedRecordCount(failed).withRecords(results);
+    }
+
+    private FakeShard shardOf(String partitionKey, String explicitHashKey) {
+        BigInteger hashKey = explicitHashKey != null ? new BigInteger(explicitHashKey) : md5(partitionKey);
+        int index = hashKey.divide(shardRangeSize).intValue();
+        return shards[Math.min(index, shards.length - 1)];
+    }
+
+    private FakeShard shard(String shardId) {
+        for (FakeShard shard : shards) {
+            if (shard.id.equals(shardId)) {
+                return shard;
+            }
+        }
+        throw new ResourceNotFoundException("Shard " + shardId + " not found");
+    }
+
+    private void checkStream(String requested) {
+        if (!streamName.equals(requested)) {
+            throw new ResourceNotFoundException("Stream " + requested + " not found");
+        }
+    }
+
+    private long sampleLatencyNanos() {
+        double median = medianLatencyMillis;
+        if (median <= 0) {
+            return 0;
+        }
+        double gaussian;
+        synchronized (random) {
+            gaussian = random.nextGaussian();
+        }
+        return (long) (median * Math.exp(latencySigma * gaussian) * 1_000_000L);
+    }
+
+    private boolean chance(double rate) {
+        if (rate <= 0) {
+            return false;
+        }
+        synchronized (random) {
+            return random.nextDouble() < rate;
+        }
+    }
+
+    private static BigInteger md5(String partitionKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(partitionKey.getBytes(StandardCharsets.UTF_8));
+            return new BigInteger(1, digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * shard 하나의 hash key 범위와 초 단위 사용량, 보관한 레코드
+     */
+    private static final class FakeShard {
+
+        private final String id;
+        private final BigInteger start;
+        private final BigInteger end;
+        private long second = -1;
+        private int records;
+        private long bytes;
+        private final List<Record> stored = new ArrayList<>();
+
+        private FakeShard(String id, BigInteger start, BigInteger end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+
+        private synchronized boolean tryAccept(long now, int size, int recordsPerSecond, long bytesPerSecond) {
+            if (now != second) {
+                second = now;
+                records = 0;
+                bytes = 0;
+            }
+            if (records + 1 > recordsPerSecond || bytes + size > bytesPerSecond) {
+                return false;
+            }
+            records++;
+            bytes += size;
+            return true;
+        }
+
+        /**
+         * sequence number 를 발급하고 data 가 있으면 보관 (shard 안에서 sequence number 순서 = 보관 순서)
+         */
+        private synchronized String append(AtomicLong sequence, String partitionKey, byte[] data) {
+            String sequenceNumber = Long.toString(sequence.incrementAndGet());
+            if (data != null) {
+                stored.add(new Record().withSequenceNumber(sequenceNumber).withPartitionKey(partitionKey)
+                        .withData(ByteBuffer.wrap(data)).withApproximateArrivalTimestamp(new Date()));
+            }
+            return sequenceNumber;
+        }
+
+        private synchronized int size() {
+            return stored.size();
+        }
+
+        private synchronized int indexAfter(long sequenceNumber) {
+            int index = 0;
+            while (index < stored.size() && Long.parseLong(stored.get(index).getSequenceNumber()) <= sequenceNumber) {
+                index++;
+            }
+            return index;
+        }
+
+        private synchronized GetRecordsResult read(int index, int limit) {
+            int end = Math.min(stored.size(), index + limit);
+            List<Record> records = new ArrayList<>(end - index);
+            for (Record record : stored.subList(index, end)) {
+                records.add(new Record().withSequenceNumber(record.getSequenceNumber())
+                        .withPartitionKey(record.getPartitionKey()).withData(record.getData().duplicate())
+                        .withApproximateArrivalTimestamp(record.getApproximateArrivalTimestamp()));
+            }
+            long millisBehindLatest = 0;
+            if (end < stored.size()) {
+                long oldestUnread = stored.get(end).getApproximateArrivalTimestamp().getTime();
+                millisBehindLatest = Math.max(1, System.currentTimeMillis() - oldestUnread);
+            }
+            return new GetRecordsResult().withRecords(records).withNextShardIterator(id + "/" + end)
+                    .withMillisBehindLatest(millisBehindLatest);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.kinesislogger.logback.fake;
+
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryResponse;
+import software.amazon.awssdk.services.kinesis.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+import software.amazon.awssdk.services.kinesis.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kinesis.model.StreamDescriptionSummary;
+import software.amazon.awssdk.services.kinesis.model.StreamStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 테스트용 in-process SDK v2 KinesisAsyncClient (non-blocking)
+ * <p>
+ * - putRecords 는 바로 future 를 반환하고, 응답은 event loop 를 흉내낸 쓰레드 1개에서 latency 뒤에 완료
+ * - withThrottledRequests(n) 이면 처음 n 개 요청은 ProvisionedThroughputExceededException 으로 실패,
+ *   withThrottledRecords(n) 이면 처음 n 개 레코드는 PutRecords 부분 실패
+ * - describeStreamSummary, putRecords 만 구현
+ */
+public class FakeKinesisAsyncClient implements KinesisAsyncClient {
+
+    private static final String THROTTLED = "ProvisionedThroughputExceededException";
+
+    private final String streamName;
+    private final ScheduledThreadPoolExecutor eventLoop;
+
+    private volatile long latencyMillis;
+    private final AtomicInteger throttledRequests = new AtomicInteger();
+    private final AtomicInteger throttledRecords = new AtomicInteger();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAccumulator maxInFlight = new LongAccumulator(Math::max, 0);
+    private final AtomicLong acceptedRecords = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public FakeKinesisAsyncClient(String streamName) {
+        this.streamName = streamName;
+        this.eventLoop = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "fake-event-loop-" + streamName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 응답 지연 (고정)
+     */
+    public FakeKinesisAsyncClient withLatency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * 처음 count 개 요청은 요청 전체가 throttling 으로 실패
+     */
+    public FakeKinesisAsyncClient withThrottledRequests(int count) {
+        this.throttledRequests.set(count);
+        return this;
+    }
+
+    /**
+     * 처음 count 개 레코드는 throttling 으로 실패 (PutRecords 부분 실패)
+     */
+    public FakeKinesisAsyncClient withThrottledRecords(int count) {
+        this.throttledRecords.set(count);
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<DescribeStreamSummaryResponse> describeStreamSummary(
+            DescribeStreamSummaryRequest request) {
+        CompletableFuture<DescribeStreamSummaryResponse> future = new CompletableFuture<>();
+        if (!streamName.equals(request.streamName())) {
+            future.completeExceptionally(ResourceNotFoundException.builder()
+                    .message("Stream " + request.streamName() + " not found").build());
+            return future;
+        }
+        future.complete(DescribeStreamSummaryResponse.builder()
+                .streamDescriptionSummary(StreamDescriptionSummary.builder().streamStatus(StreamStatus.ACTIVE).build())
+                .build());
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<PutRecordsResponse> putRecords(PutRecordsRequest request) {
+        maxInFlight.accumulate(inFlight.incrementAndGet());
+        CompletableFuture<PutRecordsResponse> future = new CompletableFuture<>();
+        eventLoop.schedule(() -> {
+            inFlight.decrementAndGet();
+            if (throttledRequests.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                future.completeExceptionally(ProvisionedThroughputExceededException.builder()
+                        .message("Rate exceeded for stream " + streamName).build());
+                return;
+            }
+            future.complete(respond(request));
+        }, latencyMillis, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private PutRecordsResponse respond(PutRecordsRequest request) {
+        List<PutRecordsResultEntry> results = new ArrayList<>(request.records().size());
+        int failed = 0;
+        for (PutRecordsRequestEntry ignored : request.records()) {
+            if (throttledRecords.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                failed++;
+                results.add(PutRecordsResultEntry.builder().errorCode(THROTTLED).errorMessage("Rate exceeded").build());
+            } else {
+                acceptedRecords.incrementAndGet();
+                results.add(PutRecordsResultEntry.builder().shardId("shardId-000000000000")
+                        .sequenceNumber(String.valueOf(sequence.incrementAndGet())).build());
+            }
+        }
+        return PutRecordsResponse.builder().failedRecordCount(failed).records(results).build();
+    }
+
+    /**
+     * 성공한 레코드 수
+     */
+    public long getAcceptedRecords() {
+        return acceptedRecords.get();
+    }
+
+    /**
+     * 동시에 받은 요청 수의 최대값
+     */
+    public long getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    @Override
+    public String serviceName() {
+        return "kinesis";
+    }
+
+    @Override
+    public void close() {
+        eventLoop.shutdownNow();
+    }
+}
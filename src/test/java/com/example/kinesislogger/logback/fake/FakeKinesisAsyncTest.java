@@ -0,0 +1,175 @@
+package com.example.kinesislogger.logback.fake;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.kinesis.model.ListShardsRequest;
+import com.amazonaws.services.kinesis.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.kinesis.model.PutRecordsRequest;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.amazonaws.services.kinesis.model.PutRecordsResult;
+import com.amazonaws.services.kinesis.model.PutRecordsResultEntry;
+import com.amazonaws.services.kinesis.model.Shard;
+import org.junit.After;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * in-process Kinesis 동작 테스트
+ */
+public class FakeKinesisAsyncTest {
+
+    private static final String STREAM = "fake-stream";
+
+    private FakeKinesisAsync kinesis;
+
+    @After
+    public void tearDown() {
+        if (kinesis != null) {
+            kinesis.shutdown();
+        }
+    }
+
+    @Test
+    public void shard_는_hash_key_범위를_균등하게_나눔() {
+        kinesis = new FakeKinesisAsync(STREAM, 4);
+
+        List<Shard> shards = kinesis.listShards(new ListShardsRequest().withStreamName(STREAM)).getShards();
+
+        assertThat(shards).hasSize(4);
+        assertThat(shards.get(0).getHashKeyRange().getStartingHashKey()).isEqualTo("0");
+        assertThat(new BigInteger(shards.get(3).getHashKeyRange().getEndingHashKey()))
+                .isEqualTo(BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE));
+        assertThat(kinesis.shardIdOf("ignored", "0")).isEqualTo("shardId-000000000000");
+        assertThat(kinesis.shardIdOf("ignored", shards.get(2).getHashKeyRange().getStartingHashKey()))
+                .isEqualTo("shardId-000000000002");
+    }
+
+    @Test
+    public void 같은_partition_key_는_같은_shard() {
+        kinesis = new FakeKinesisAsync(STREAM, 8);
+
+        PutRecordsResult result = kinesis.putRecords(request(entry("order-1"), entry("order-1"), entry("order-2")));
+
+        assertThat(result.getFailedRecordCount()).isEqualTo(0);
+        assertThat(result.getRecords().get(0).getShardId()).isEqualTo(result.getRecords().get(1).getShardId());
+        assertThat(result.getRecords().get(2).getShardId()).isEqualTo(kinesis.shardIdOf("order-2", null));
+        assertThat(kinesis.getAcceptedRecords()).isEqualTo(3);
+    }
+
+    @Test
+    public void shard_한도_초과시_부분_실패() {
+        kinesis = new FakeKinesisAsync(STREAM, 1).withShardLimits(3, 1024 * 1024);
+
+        PutRecordsResult result = putWithinOneSecond(5);
+
+        assertThat(result.getFailedRecordCount()).isEqualTo(2);
+        List<String> errorCodes = new ArrayList<>();
+        for (PutRecordsResultEntry entry : result.getRecords()) {
+            errorCodes.add(entry.getErrorCode());
+        }
+        assertThat(errorCodes).containsExactly(null, null, null,
+                "ProvisionedThroughputExceededException", "ProvisionedThroughputExceededException");
+        assertThat(kinesis.getThrottledRecords()).isEqualTo(2);
+    }
+
+    @Test
+    public void 레코드_단위_실패_주입() {
+        kinesis = new FakeKinesisAsync(STREAM, 4).withRecordErrorRate(1.0);
+
+        PutRecordsResult result = kinesis.putRecords(request(entry("a"), entry("b")));
+
+        assertThat(result.getFailedRecordCount()).isEqualTo(2);
+        assertThat(result.getRecords().get(0).getErrorCode()).isEqualTo("InternalFailure");
+        assertThat(kinesis.getFailedRecords()).isEqualTo(2);
+    }
+
+    @Test(expected = ProvisionedThroughputExceededException.class)
+    public void 요청_단위_throttling_주입() {
+        kinesis = new FakeKinesisAsync(STREAM, 1).withRequestThrottleRate(1.0);
+
+        kinesis.putRecords(request(entry("a")));
+    }
+
+    @Test
+    public void 요청_단위_실패_주입() throws Exception {
+        kinesis = new FakeKinesisAsync(STREAM, 1).withRequestErrorRate(1.0);
+
+        Future<PutRecordsResult> future = kinesis.putRecordsAsync(request(entry("a")));
+
+        Throwable cause = null;
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            cause = e.getCause();
+        }
+        assertThat(cause).isInstanceOf(AmazonServiceException.class);
+        assertThat(((AmazonServiceException) cause).getStatusCode()).isEqualTo(500);
+        assertThat(kinesis.getFailedRequests()).isEqualTo(1);
+    }
+
+    @Test
+    public void 지연_후_응답() {
+        kinesis = new FakeKinesisAsync(STREAM, 1).withLatency(20, 0);
+
+        long started = System.nanoTime();
+        kinesis.putRecords(request(entry("a")));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    public void 성공한_레코드_data_보관() {
+        kinesis = new FakeKinesisAsync(STREAM, 2).withCaptureRecords(true);
+
+        kinesis.putRecords(request(entry("a"), entry("b")));
+
+        Set<String> data = new HashSet<>();
+        for (byte[] record : kinesis.getCapturedRecords()) {
+            data.add(new String(record, StandardCharsets.UTF_8));
+        }
+        assertThat(data).containsOnly("data-a", "data-b");
+    }
+
+    /**
+     * 초 경계에 걸리면 한도가 초기화되므로 같은 1초 안에서 보낼 때까지 재시도
+     */
+    private PutRecordsResult putWithinOneSecond(int records) {
+        PutRecordsRequestEntry[] entries = new PutRecordsRequestEntry[records];
+        for (int i = 0; i < records; i++) {
+            entries[i] = entry("key-" + i);
+        }
+        while (true) {
+            long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            PutRecordsResult result = kinesis.putRecords(request(entries));
+            if (second == TimeUnit.NANOSECONDS.toSeconds(System.nanoTime())) {
+                return result;
+            }
+            kinesis.shutdown();
+            kinesis = new FakeKinesisAsync(STREAM, 1).withShardLimits(3, 1024 * 1024);
+        }
+    }
+
+    private static PutRecordsRequest request(PutRecordsRequestEntry... entries) {
+        List<PutRecordsRequestEntry> records = new ArrayList<>();
+        for (PutRecordsRequestEntry entry : entries) {
+            records.add(entry);
+        }
+        return new PutRecordsRequest().withStreamName(STREAM).withRecords(records);
+    }
+
+    private static PutRecordsRequestEntry entry(String partitionKey) {
+        return new PutRecordsRequestEntry().withPartitionKey(partitionKey)
+                .withData(ByteBuffer.wrap(("data-" + partitionKey).getBytes(StandardCharsets.UTF_8)));
+    }
+}
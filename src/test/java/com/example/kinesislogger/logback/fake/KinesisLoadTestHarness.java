@@ -0,0 +1,128 @@
+package com.example.kinesislogger.logback.fake;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.example.kinesislogger.logback.metrics.KinesisAppenderMetrics;
+import net.logstash.logback.layout.LogstashLayout;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FakeKinesisAsync} 에 KinesisAsyncAppender 를 붙여서 부하를 주는 부하 테스트
+ * - producers 개의 쓰레드가 seconds 초 동안 이벤트를 append
+ * - shard 수 / 응답 지연 / 실패율을 바꿔가며 처리량과 enqueue ~ 전송 완료 지연 (p50, p99, p99.9) 측정
+ * <p>
+ * 실행 : 테스트 클래스패스에서 main 실행 (surefire 대상 아님)
+ * <pre>
+ *   java -cp target/classes:target/test-classes:... \
+ *       com.example.kinesislogger.logback.fake.KinesisLoadTestHarness \
+ *       [producers=8] [seconds=30] [shards=4] [latencyMillis=30] [latencySigma=0.5] [recordErrorRate=0.001] [overflowPolicy=block]
+ * </pre>
+ */
+public class KinesisLoadTestHarness {
+
+    private static final String STREAM_NAME = "load-test-stream";
+    private static final int EVENT_COUNT = 1024;
+
+    public static void main(String[] args) throws Exception {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int shards = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        double latencyMillis = args.length > 3 ? Double.parseDouble(args[3]) : 30;
+        double latencySigma = args.length > 4 ? Double.parseDouble(args[4]) : 0.5;
+        double recordErrorRate = args.length > 5 ? Double.parseDouble(args[5]) : 0.001;
+        String overflowPolicy = args.length > 6 ? args[6] : "block";
+
+        FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM_NAME, shards)
+                .withLatency(latencyMillis, latencySigma)
+                .withRecordErrorRate(recordErrorRate);
+        LoggerContext context = new LoggerContext();
+        context.setName("load-test");
+        FakeKinesisAppender appender = appender(context, kinesis, overflowPolicy);
+        ILoggingEvent[] events = events(context);
+
+        System.out.printf("producers=%d seconds=%d shards=%d latency=%.1fms(sigma %.2f) recordErrorRate=%.4f overflowPolicy=%s%n",
+                producers, seconds, shards, latencyMillis, latencySigma, recordErrorRate, overflowPolicy);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(producers);
+        long started = System.nanoTime();
+        for (int p = 0; p < producers; p++) {
+            int offset = p;
+            Thread producer = new Thread(() -> {
+                for (int i = offset; System.nanoTime() < deadline; i++) {
+                    appender.doAppend(events[i & (EVENT_COUNT - 1)]);
+                }
+                done.countDown();
+            }, "load-producer-" + p);
+            producer.start();
+        }
+
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        long lastAccepted = 0;
+        while (!done.await(1, TimeUnit.SECONDS)) {
+            long accepted = kinesis.getAcceptedRecords();
+            System.out.printf("  %,10d records/s  queue=%,d  p99=%.1fms  throttled=%,d  dropped=%,d%n",
+                    accepted - lastAccepted, metrics.getQueueDepth(), metrics.getLatencyP99Millis(),
+                    kinesis.getThrottledRecords(), appender.getDroppedCount());
+            lastAccepted = accepted;
+        }
+        appender.stop();
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("%nacknowledged  %,d records (%,.0f records/s, %,.1f MB/s)%n", kinesis.getAcceptedRecords(),
+                kinesis.getAcceptedRecords() / elapsed, kinesis.getAcceptedBytes() / elapsed / (1024 * 1024));
+        System.out.printf("requests      %,d (failed %,d)%n", kinesis.getRequests(), kinesis.getFailedRequests());
+        System.out.printf("throttled     %,d records, failed %,d records, retried %,d records%n",
+                kinesis.getThrottledRecords(), kinesis.getFailedRecords(), metrics.getRetriedRecords());
+        System.out.printf("dropped       %,d records%n", appender.getDroppedCount());
+        System.out.printf("latency       p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms (last minute)%n",
+                metrics.getLatencyP50Millis(), metrics.getLatencyP99Millis(), metrics.getLatencyP999Millis(),
+                metrics.getLatencyMaxMillis());
+        System.out.printf("batch size    mean=%.1f max=%d%n", metrics.getBatchSizeMean(), metrics.getBatchSizeMax());
+        kinesis.shutdown();
+    }
+
+    private static FakeKinesisAppender appender(LoggerContext context, FakeKinesisAsync kinesis, String overflowPolicy) {
+        LogstashLayout layout = new LogstashLayout();
+        layout.setContext(context);
+        layout.start();
+
+        FakeKinesisAppender appender = new FakeKinesisAppender(kinesis);
+        appender.setContext(context);
+        appender.setName("load-test");
+        appender.setAccessKey("load-test");
+        appender.setSecretKey("load-test");
+        appender.setRegion("ap-northeast-2");
+        appender.setStreamName(STREAM_NAME);
+        appender.setLayout(layout);
+        appender.setOverflowPolicy(overflowPolicy);
+        appender.setRateLimitEnabled(true);
+        appender.setJmxEnabled(false);
+        appender.start();
+        return appender;
+    }
+
+    /**
+     * 메시지 길이가 조금씩 다르고 MDC traceId 가 있는 INFO 이벤트
+     */
+    private static ILoggingEvent[] events(LoggerContext context) {
+        Logger logger = context.getLogger("com.example.kinesislogger.loadtest");
+        ILoggingEvent[] events = new ILoggingEvent[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO,
+                    "request handled path=/api/orders/{} status={} elapsed={}ms", null,
+                    new Object[]{i, 200, i % 97});
+            event.setMDCPropertyMap(Collections.singletonMap("traceId", UUID.randomUUID().toString()));
+            event.prepareForDeferredProcessing();
+            events[i] = event;
+        }
+        return events;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.kinesislogger.logback.fake;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.client.builder.ExecutorFactory;
+import com.example.kinesislogger.logback.KinesisNettyAppender;
+import com.example.kinesislogger.logback.metrics.KinesisAppenderMetrics;
+import net.logstash.logback.layout.LogstashLayout;
+import org.junit.After;
+import org.junit.Test;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * non-blocking (SDK v2) appender 테스트
+ */
+public class KinesisNettyAppenderTest {
+
+    private static final String STREAM_NAME = "netty-stream";
+    private static final Pattern SDK_THREAD = Pattern.compile(
+            Pattern.quote(TestNettyAppender.class.getSimpleName() + "[" + STREAM_NAME + "]-") + "\\d+");
+
+    private TestNettyAppender appender;
+
+    @After
+    public void tearDown() {
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void SDK_전송_쓰레드_없이_여러_요청을_동시에_보냄() throws Exception {
+        FakeKinesisAsyncClient kinesis = new FakeKinesisAsyncClient(STREAM_NAME).withLatency(100);
+        appender = appender(kinesis);
+        appender.setMaxBatchRecords(1);
+        appender.start();
+
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(event(i));
+        }
+
+        assertThat(await(() -> kinesis.getAcceptedRecords() == 100)).isTrue();
+        assertThat(kinesis.getMaxInFlight()).isGreaterThan(1L);
+        assertThat(Thread.getAllStackTraces().keySet().stream()
+                .noneMatch(thread -> SDK_THREAD.matcher(thread.getName()).matches())).isTrue();
+        assertThat(appender.getMetrics().getRequestsSent()).isEqualTo(100L);
+    }
+
+    @Test
+    public void throttling_된_레코드는_다시_보냄() throws Exception {
+        FakeKinesisAsyncClient kinesis = new FakeKinesisAsyncClient(STREAM_NAME).withThrottledRecords(3);
+        appender = appender(kinesis);
+        appender.start();
+
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event(i));
+        }
+
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        assertThat(await(() -> metrics.getRecordsSent() == 10)).isTrue();
+        assertThat(metrics.getThrottledRecords()).isEqualTo(3L);
+        assertThat(metrics.getRetriedRecords()).isEqualTo(3L);
+        assertThat(kinesis.getAcceptedRecords()).isEqualTo(10L);
+    }
+
+    @Test
+    public void 요청이_throttling_되면_레코드_전체를_다시_보냄() throws Exception {
+        FakeKinesisAsyncClient kinesis = new FakeKinesisAsyncClient(STREAM_NAME).withThrottledRequests(1);
+        appender = appender(kinesis);
+        appender.start();
+
+        for (int i = 0; i < 5; i++) {
+            appender.doAppend(event(i));
+        }
+
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        assertThat(await(() -> metrics.getRecordsSent() == 5)).isTrue();
+        assertThat(metrics.getThrottledRequests()).isEqualTo(1L);
+        assertThat(metrics.getFailedRequests()).isZero();
+    }
+
+    @Test
+    public void stop_은_보내는_중인_요청이_끝날_때까지_기다림() {
+        FakeKinesisAsyncClient kinesis = new FakeKinesisAsyncClient(STREAM_NAME).withLatency(300);
+        appender = appender(kinesis);
+        appender.start();
+
+        for (int i = 0; i < 5; i++) {
+            appender.doAppend(event(i));
+        }
+        appender.stop();
+
+        assertThat(kinesis.getAcceptedRecords()).isEqualTo(5L);
+        assertThat(appender.getMetrics().getInFlightRequests()).isZero();
+    }
+
+    private static TestNettyAppender appender(FakeKinesisAsyncClient kinesis) {
+        LoggerContext context = new LoggerContext();
+        LogstashLayout layout = new LogstashLayout();
+        layout.setContext(context);
+        layout.start();
+
+        TestNettyAppender appender = new TestNettyAppender(kinesis);
+        appender.setContext(context);
+        appender.setName("netty-test");
+        appender.setAccessKey("netty-test");
+        appender.setSecretKey("netty-test");
+        appender.setRegion("ap-northeast-2");
+        appender.setStreamName(STREAM_NAME);
+        appender.setLayout(layout);
+        appender.setLingerMillis(1);
+        appender.setJmxEnabled(false);
+        return appender;
+    }
+
+    private static LoggingEvent event(int i) {
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage("message " + i);
+        event.setLoggerName("com.example.Netty");
+        event.setThreadName("main");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    /**
+     * Netty client 대신 {@link FakeKinesisAsyncClient} 로 보내는 KinesisNettyAppender
+     */
+    private static class TestNettyAppender extends KinesisNettyAppender<ILoggingEvent> {
+
+        private final FakeKinesisAsyncClient kinesis;
+
+        TestNettyAppender(FakeKinesisAsyncClient kinesis) {
+            this.kinesis = kinesis;
+        }
+
+        @Override
+        protected KinesisAsyncClient createClient(AWSCredentialsProvider credential,
+                                                  ClientConfiguration configuration, ExecutorFactory threadFactory) {
+            return kinesis;
+        }
+    }
+}
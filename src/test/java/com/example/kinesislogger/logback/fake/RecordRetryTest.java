@@ -0,0 +1,139 @@
+package com.example.kinesislogger.logback.fake;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import com.example.kinesislogger.logback.metrics.KinesisAppenderMetrics;
+import net.logstash.logback.layout.LogstashLayout;
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * PutRecords 에서 실패한 레코드 재시도 / 버림 테스트 (maxRecordRetries)
+ */
+public class RecordRetryTest {
+
+    private static final String STREAM_NAME = "retry-stream";
+    private static final int EVENTS = 10;
+    private static final int MAX_RECORD_RETRIES = 2;
+
+    private FakeKinesisAppender appender;
+
+    @After
+    public void tearDown() {
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void maxRecordRetries_번_넘게_실패한_레코드는_버림() throws Exception {
+        appender = appender(new FakeKinesisAsync(STREAM_NAME, 1).withRecordErrorRate(1.0));
+        appender.start();
+
+        for (int i = 0; i < EVENTS; i++) {
+            appender.doAppend(event());
+        }
+
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (metrics.getDroppedRecords() < EVENTS && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(metrics.getDroppedRecords()).isEqualTo(EVENTS);
+        assertThat(metrics.getRetriedRecords()).isEqualTo(EVENTS * MAX_RECORD_RETRIES);
+        assertThat(appender.getKinesis().getFailedRecords()).isEqualTo(EVENTS * (MAX_RECORD_RETRIES + 1));
+        assertThat(metrics.getRecordsSent()).isEqualTo(0);
+        assertThat(metrics.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void 다시_보내서_성공한_레코드는_버리지_않음() throws Exception {
+        FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM_NAME, 1).withRecordErrorRate(1.0);
+        appender = appender(kinesis);
+        appender.start();
+
+        appender.doAppend(event());
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (kinesis.getFailedRecords() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        kinesis.withRecordErrorRate(0);
+
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (metrics.getRecordsSent() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(metrics.getRecordsSent()).isEqualTo(1);
+        assertThat(metrics.getDroppedRecords()).isEqualTo(0);
+    }
+
+    @Test
+    public void 실패한_요청의_레코드는_버린_레코드로_집계() throws Exception {
+        appender = appender(new FakeKinesisAsync(STREAM_NAME, 1).withRequestErrorRate(1.0));
+        appender.start();
+
+        for (int i = 0; i < EVENTS; i++) {
+            appender.doAppend(event());
+        }
+
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (metrics.getDroppedRecords() < EVENTS && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(metrics.getDroppedRecords()).isEqualTo(EVENTS);
+        assertThat(metrics.getRecordsSent()).isEqualTo(0);
+    }
+
+    @Test
+    public void 종료된_뒤_재시도_요청된_레코드는_버린_레코드로_집계() {
+        appender = appender(new FakeKinesisAsync(STREAM_NAME, 1));
+        appender.start();
+        appender.stop();
+
+        // 종료 중에 도착한 PutRecords 응답의 실패 레코드
+        appender.retryRecord(new PutRecordsRequestEntry().withPartitionKey("pk").withData(ByteBuffer.allocate(16)));
+
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        assertThat(metrics.getDroppedRecords()).isEqualTo(1);
+        assertThat(metrics.getQueueDepth()).isEqualTo(0);
+    }
+
+    private static FakeKinesisAppender appender(FakeKinesisAsync kinesis) {
+        LoggerContext context = new LoggerContext();
+        LogstashLayout layout = new LogstashLayout();
+        layout.setContext(context);
+        layout.start();
+
+        FakeKinesisAppender appender = new FakeKinesisAppender(kinesis);
+        appender.setContext(context);
+        appender.setName("retry-test");
+        appender.setAccessKey("retry-test");
+        appender.setSecretKey("retry-test");
+        appender.setRegion("ap-northeast-2");
+        appender.setStreamName(STREAM_NAME);
+        appender.setLayout(layout);
+        appender.setLingerMillis(1);
+        appender.setMaxRecordRetries(MAX_RECORD_RETRIES);
+        appender.setHandoffTimeoutMillis(0);
+        appender.setJmxEnabled(false);
+        appender.setAsyncStartup(false);
+        return appender;
+    }
+
+    private static LoggingEvent event() {
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage("retried");
+        event.setLoggerName("com.example.Retry");
+        event.setThreadName("main");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+}
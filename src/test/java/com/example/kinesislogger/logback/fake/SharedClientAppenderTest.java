@@ -0,0 +1,147 @@
+package com.example.kinesislogger.logback.fake;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.client.builder.ExecutorFactory;
+import com.amazonaws.services.kinesis.AmazonKinesisAsync;
+import net.logstash.logback.layout.LogstashLayout;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 여러 appender 의 client 공유 테스트 (shareClient)
+ */
+public class SharedClientAppenderTest {
+
+    private static final String STREAM_NAME = "shared-stream";
+
+    private final List<CountingAppender> appenders = new ArrayList<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger shutdowns = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        for (CountingAppender appender : appenders) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void 설정이_같은_appender_는_client_를_하나만_만들고_마지막에_종료() throws Exception {
+        LoggerContext context = new LoggerContext();
+        FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM_NAME, 1).withCaptureRecords(true);
+        CountingAppender first = appender(context, "first", kinesis, true);
+        CountingAppender second = appender(context, "second", kinesis, true);
+        first.start();
+        second.start();
+
+        first.doAppend(event("first"));
+        second.doAppend(event("second"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (kinesis.getCapturedRecords().size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(kinesis.getCapturedRecords()).hasSize(2);
+        assertThat(created.get()).isEqualTo(1);
+
+        first.stop();
+        assertThat(shutdowns.get()).isZero();
+        second.stop();
+        assertThat(shutdowns.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shareClient_가_아니면_appender_마다_client_를_만듦() {
+        LoggerContext context = new LoggerContext();
+        FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM_NAME, 1);
+        appender(context, "first", kinesis, false).start();
+        appender(context, "second", kinesis, false).start();
+
+        assertThat(created.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void 다른_logback_context_는_client_를_같이_사용하지_않음() {
+        FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM_NAME, 1);
+        LoggerContext first = new LoggerContext();
+        first.setName("first");
+        LoggerContext second = new LoggerContext();
+        second.setName("second");
+        appender(first, "kinesis", kinesis, true).start();
+        appender(second, "kinesis", kinesis, true).start();
+
+        assertThat(created.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void 이름이_같아도_다른_logback_context_는_client_를_같이_사용하지_않음() {
+        FakeKinesisAsync kinesis = new FakeKinesisAsync(STREAM_NAME, 1);
+        appender(new LoggerContext(), "kinesis", kinesis, true).start();
+        appender(new LoggerContext(), "kinesis", kinesis, true).start();
+
+        assertThat(created.get()).isEqualTo(2);
+    }
+
+    private CountingAppender appender(LoggerContext context, String name, FakeKinesisAsync kinesis,
+                                      boolean shareClient) {
+        LogstashLayout layout = new LogstashLayout();
+        layout.setContext(context);
+        layout.start();
+
+        CountingAppender appender = new CountingAppender(kinesis);
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setAccessKey("shared-test");
+        appender.setSecretKey("shared-test");
+        appender.setRegion("ap-northeast-2");
+        appender.setStreamName(STREAM_NAME);
+        appender.setLayout(layout);
+        appender.setLingerMillis(1);
+        appender.setHandoffTimeoutMillis(0);
+        appender.setJmxEnabled(false);
+        appender.setShareClient(shareClient);
+        appenders.add(appender);
+        return appender;
+    }
+
+    private static LoggingEvent event(String message) {
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage(message);
+        event.setLoggerName("com.example.Shared");
+        event.setThreadName("main");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+
+    /**
+     * client 생성 / 종료 횟수를 세는 FakeKinesisAppender
+     */
+    private class CountingAppender extends FakeKinesisAppender {
+
+        CountingAppender(FakeKinesisAsync kinesis) {
+            super(kinesis);
+        }
+
+        @Override
+        protected AmazonKinesisAsync createClient(AWSCredentialsProvider credential, ClientConfiguration configuration,
+                                                  ExecutorFactory threadFactory) {
+            created.incrementAndGet();
+            return super.createClient(credential, configuration, threadFactory);
+        }
+
+        @Override
+        protected void shutdownClient(AmazonKinesisAsync client) {
+            shutdowns.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.kinesislogger.logback.helpers;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * AIMD 전송량 제한 테스트
+ */
+public class AimdRateLimiterTest {
+
+    @Test
+    public void shard_수를_모르면_제한하지_않음() {
+        AimdRateLimiter limiter = new AimdRateLimiter(() -> 0);
+
+        assertThat(limiter.acquire(100_000, 100L * 1024 * 1024)).isZero();
+    }
+
+    @Test
+    public void 한도_안에서는_기다리지_않음() {
+        AimdRateLimiter limiter = new AimdRateLimiter(() -> 2);
+
+        assertThat(limiter.acquire(500, 1024)).isZero();
+        assertThat(limiter.acquire(500, 1024)).isZero();
+    }
+
+    @Test
+    public void 한도를_넘으면_기다릴_시간을_반환() {
+        AimdRateLimiter limiter = new AimdRateLimiter(() -> 1);
+
+        assertThat(limiter.acquire(1000, 1024)).isZero();
+        long waitNanos = limiter.acquire(500, 1024);
+
+        // 1000 records/s 에서 500 레코드 만큼 -> 약 0.5초
+        assertThat(waitNanos).isBetween(400_000_000L, 500_000_000L);
+    }
+
+    @Test
+    public void 바이트_한도도_적용() {
+        AimdRateLimiter limiter = new AimdRateLimiter(() -> 1);
+
+        assertThat(limiter.acquire(1, AimdRateLimiter.SHARD_BYTES_PER_SECOND)).isZero();
+        assertThat(limiter.acquire(1, AimdRateLimiter.SHARD_BYTES_PER_SECOND)).isGreaterThan(900_000_000L);
+    }
+
+    @Test
+    public void throttling_시_한도를_절반으로() {
+        AimdRateLimiter limiter = new AimdRateLimiter(() -> 4);
+        assertThat(limiter.getRecordsPerSecond()).isEqualTo(4000.0);
+
+        limiter.onThrottled();
+
+        assertThat(limiter.getFraction()).isLessThan(0.51);
+        assertThat(limiter.getRecordsPerSecond()).isLessThan(2040.0);
+        assertThat(limiter.getThrottledCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void 연속된_throttling_은_한번만_줄임() {
+        AimdRateLimiter limiter = new AimdRateLimiter(() -> 1);
+
+        limiter.onThrottled();
+        limiter.onThrottled();
+        limiter.onThrottled();
+
+        assertThat(limiter.getFraction()).isGreaterThan(0.49);
+        assertThat(limiter.getThrottledCount()).isEqualTo(3L);
+    }
+
+    @Test
+    public void throttling_후_token_을_비움() {
+        AimdRateLimiter limiter = new AimdRateLimiter(() -> 1);
+
+        limiter.onThrottled();
+
+        assertThat(limiter.acquire(100, 1024)).isPositive();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.kinesislogger.logback.helpers;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 재설정시 client 이어받기 테스트
+ */
+public class ClientHandoffTest {
+
+    private static final int CONNECTIONS = 50;
+
+    @Test
+    public void 같은_key_로_맡긴_client_를_한번만_이어받음() {
+        Object client = new Object();
+        ThreadPoolExecutor executor = executor();
+        AtomicInteger shutdowns = new AtomicInteger();
+
+        ClientHandoff.park("claim", client, executor, CONNECTIONS, "stream", 10000, shutdowns::incrementAndGet);
+        ClientHandoff.Parked<Object> parked = ClientHandoff.claim("claim", CONNECTIONS);
+
+        assertThat(parked).isNotNull();
+        assertThat(parked.getClient()).isSameAs(client);
+        assertThat(parked.getExecutor()).isSameAs(executor);
+        assertThat(parked.getStreamName()).isEqualTo("stream");
+        assertThat(executor.allowsCoreThreadTimeOut()).isFalse();
+        assertThat(executor.getKeepAliveTime(TimeUnit.SECONDS)).isEqualTo(30);
+        assertThat((Object) ClientHandoff.claim("claim", CONNECTIONS)).isNull();
+        assertThat(shutdowns.get()).isZero();
+        executor.shutdown();
+    }
+
+    @Test
+    public void 연결_수가_모자라면_종료하고_이어받지_않음() {
+        ThreadPoolExecutor executor = executor();
+        AtomicInteger shutdowns = new AtomicInteger();
+        ClientHandoff.park("connections", new Object(), executor, CONNECTIONS, "stream", 10000,
+                shutdowns::incrementAndGet);
+
+        assertThat((Object) ClientHandoff.claim("connections", CONNECTIONS + 1)).isNull();
+        assertThat(shutdowns.get()).isEqualTo(1);
+        assertThat((Object) ClientHandoff.claim("connections", CONNECTIONS)).isNull();
+        executor.shutdown();
+    }
+
+    @Test
+    public void key_가_다르면_이어받지_않음() {
+        ThreadPoolExecutor executor = executor();
+        ClientHandoff.park("mismatch|ap-northeast-2", new Object(), executor, CONNECTIONS, "stream", 10000,
+                executor::shutdown);
+
+        assertThat((Object) ClientHandoff.claim("mismatch|us-east-1", CONNECTIONS)).isNull();
+        assertThat((Object) ClientHandoff.claim("mismatch|ap-northeast-2", CONNECTIONS)).isNotNull();
+        executor.shutdown();
+    }
+
+    @Test
+    public void 이어받지_않으면_timeout_후_종료() throws Exception {
+        CountDownLatch shutdown = new CountDownLatch(1);
+        ClientHandoff.park("reap", new Object(), executor(), CONNECTIONS, "stream", 50, shutdown::countDown);
+
+        assertThat(shutdown.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat((Object) ClientHandoff.claim("reap", CONNECTIONS)).isNull();
+    }
+
+    @Test
+    public void 같은_key_로_다시_맡기면_이전_client_는_바로_종료() {
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        ClientHandoff.park("replace", new Object(), executor(), CONNECTIONS, "stream", 10000,
+                first::incrementAndGet);
+        ClientHandoff.park("replace", new Object(), executor(), CONNECTIONS, "stream", 10000,
+                second::incrementAndGet);
+
+        assertThat(first.get()).isEqualTo(1);
+        assertThat((Object) ClientHandoff.claim("replace", CONNECTIONS)).isNotNull();
+        assertThat(second.get()).isZero();
+    }
+
+    private static ThreadPoolExecutor executor() {
+        return new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    }
+}
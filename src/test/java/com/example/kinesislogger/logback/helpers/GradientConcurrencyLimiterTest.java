@@ -0,0 +1,135 @@
+package com.example.kinesislogger.logback.helpers;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 동시 요청 한도 (gradient) 테스트
+ */
+public class GradientConcurrencyLimiterTest {
+
+    private static final long RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    public void 처음_한도는_최소_최대_사이로_맞춤() {
+        assertThat(new GradientConcurrencyLimiter(100, 2, 64).getLimit()).isEqualTo(64);
+        assertThat(new GradientConcurrencyLimiter(1, 2, 64).getLimit()).isEqualTo(2);
+        assertThat(new GradientConcurrencyLimiter(20, 2, 64).getLimit()).isEqualTo(20);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 최대가_최소보다_작으면_오류() {
+        new GradientConcurrencyLimiter(10, 8, 4);
+    }
+
+    @Test
+    public void 응답이_느려지지_않으면_최대까지_늘림() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(4, 1, 64);
+
+        for (int i = 0; i < 500; i++) {
+            saturate(limiter, RTT_NANOS);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(64);
+    }
+
+    @Test
+    public void 응답이_느려지면_줄임() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(32, 1, 64);
+        for (int i = 0; i < 200; i++) {
+            saturate(limiter, RTT_NANOS);
+        }
+        int before = limiter.getLimit();
+
+        // 오래 지속되면 장기 평균이 따라오므로 (새 기준) 바로 줄어드는지만 확인
+        for (int i = 0; i < 3; i++) {
+            saturate(limiter, RTT_NANOS * 4);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(before / 2);
+    }
+
+    @Test
+    public void throttling_이면_줄임() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(32, 1, 64);
+
+        limiter.acquire();
+        limiter.release(RTT_NANOS, true);
+
+        assertThat(limiter.getLimit()).isLessThan(32);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void 한도의_절반도_쓰지_않으면_늘리지_않음() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(20, 1, 64);
+
+        for (int i = 0; i < 500; i++) {
+            limiter.acquire();
+            limiter.release(RTT_NANOS, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    public void 최소와_최대가_같으면_고정_한도() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(20, 20, 20);
+
+        for (int i = 0; i < 100; i++) {
+            saturate(limiter, RTT_NANOS * (i % 2 == 0 ? 1 : 10));
+        }
+        limiter.acquire();
+        limiter.release(RTT_NANOS, true);
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    public void 한도만큼_보내는_중이면_응답까지_기다림() throws Exception {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 2, 2);
+        limiter.acquire();
+        limiter.acquire();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread sender = new Thread(() -> {
+            limiter.acquire();
+            acquired.countDown();
+        });
+        sender.start();
+
+        assertThat(acquired.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        limiter.release(RTT_NANOS, false);
+        assertThat(acquired.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        sender.join();
+    }
+
+    @Test
+    public void 보내지_못한_요청은_응답_시간_없이_반납() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(8, 1, 64);
+
+        limiter.acquire();
+        limiter.cancel();
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    /**
+     * 한도만큼 보내고 모두 같은 응답 시간으로 끝냄
+     */
+    private static void saturate(GradientConcurrencyLimiter limiter, long rttNanos) {
+        int limit = limiter.getLimit();
+        for (int i = 0; i < limit; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < limit; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+}
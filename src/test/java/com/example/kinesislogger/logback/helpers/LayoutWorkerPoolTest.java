@@ -0,0 +1,99 @@
+package com.example.kinesislogger.logback.helpers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * deferredLayout worker 풀 테스트
+ */
+public class LayoutWorkerPoolTest {
+
+    @Test
+    public void 같은_쓰레드의_이벤트는_순서대로_처리() {
+        List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+        LayoutWorkerPool<Integer> pool = pool(4, 1024, handled::add);
+        pool.start();
+
+        for (int i = 0; i < 1000; i++) {
+            while (!pool.offer(i)) {
+                Thread.yield();
+            }
+        }
+
+        assertThat(pool.shutdown(5000)).isTrue();
+        assertThat(handled).hasSize(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(handled.get(i)).isEqualTo(i);
+        }
+        assertThat(pool.size()).isZero();
+    }
+
+    @Test
+    public void queue_가_가득_차면_offer_실패() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LayoutWorkerPool<Integer> pool = pool(1, 2, event -> {
+            blocked.countDown();
+            await(release);
+        });
+        pool.start();
+
+        assertThat(pool.offer(0)).isTrue();
+        blocked.await(5, TimeUnit.SECONDS);
+        assertThat(pool.offer(1)).isTrue();
+        assertThat(pool.offer(2)).isTrue();
+        assertThat(pool.offer(3)).isFalse();
+        assertThat(pool.size()).isEqualTo(2);
+
+        assertThat(pool.evictOldest()).isTrue();
+        assertThat(pool.size()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(pool.shutdown(5000)).isTrue();
+        assertThat(pool.size()).isZero();
+    }
+
+    @Test
+    public void 처리_중_오류는_보고_후_계속() {
+        List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        LayoutWorkerPool<Integer> pool = new LayoutWorkerPool<>(1, 16, WaitStrategy.PARK, event -> {
+            if (event == 1) {
+                throw new IllegalStateException("layout failed");
+            }
+            handled.add(event);
+        }, (message, e) -> errors.add(message), new NamedThreadFactory("test-layout-"));
+        pool.start();
+
+        pool.offer(0);
+        pool.offer(1);
+        pool.offer(2);
+
+        assertThat(pool.shutdown(5000)).isTrue();
+        assertThat(handled).containsExactly(0, 2);
+        assertThat(errors).hasSize(1);
+    }
+
+    private static LayoutWorkerPool<Integer> pool(int workers, int capacity,
+                                                  Consumer<Integer> handler) {
+        return new LayoutWorkerPool<>(workers, capacity, WaitStrategy.PARK, handler,
+                (message, e) -> {
+                }, new NamedThreadFactory("test-layout-"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
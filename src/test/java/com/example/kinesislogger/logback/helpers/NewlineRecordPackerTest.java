@@ -0,0 +1,76 @@
+package com.example.kinesislogger.logback.helpers;
+
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Firehose 줄바꿈 packing 테스트
+ */
+public class NewlineRecordPackerTest {
+
+    private final ByteBufferPool pool = new ByteBufferPool(1024 * 1024);
+
+    @Test
+    public void 줄바꿈으로_구분해서_이어붙임() {
+        NewlineRecordPacker packer = packer(1024, Integer.MAX_VALUE);
+
+        assertThat(packer.add("", null, bytes("{\"a\":1}"), 0L)).isNull();
+        assertThat(packer.add("", null, bytes("{\"b\":2}\n"), 0L)).isNull();
+        assertThat(packer.add("", null, bytes("{\"c\":3}"), 0L)).isNull();
+
+        assertThat(string(packer.flush())).isEqualTo("{\"a\":1}\n{\"b\":2}\n{\"c\":3}\n");
+        assertThat(packer.flush()).isNull();
+    }
+
+    @Test
+    public void 크기_초과시_완성된_레코드_반환() {
+        NewlineRecordPacker packer = packer(10, Integer.MAX_VALUE);
+
+        assertThat(packer.add("", null, bytes("abcd"), 0L)).isNull();
+        assertThat(packer.add("", null, bytes("efgh"), 0L)).isNull();
+        PutRecordsRequestEntry completed = packer.add("", null, bytes("ijkl"), 0L);
+
+        assertThat(string(completed)).isEqualTo("abcd\nefgh\n");
+        assertThat(string(packer.flush())).isEqualTo("ijkl\n");
+    }
+
+    @Test
+    public void maxRecords_가_1_이면_줄바꿈만_붙임() {
+        NewlineRecordPacker packer = packer(1024, 1);
+
+        assertThat(string(packer.add("", null, bytes("first"), 0L))).isEqualTo("first\n");
+        assertThat(string(packer.add("", null, bytes("second"), 0L))).isEqualTo("second\n");
+        assertThat(packer.flush()).isNull();
+    }
+
+    @Test
+    public void 큰_레코드는_묶지_않음() {
+        NewlineRecordPacker packer = packer(8, Integer.MAX_VALUE);
+
+        PutRecordsRequestEntry completed = packer.add("", null, bytes("0123456789"), 0L);
+
+        assertThat(string(completed)).isEqualTo("0123456789");
+        assertThat(packer.flush()).isNull();
+    }
+
+    private NewlineRecordPacker packer(int maxBytes, int maxRecords) {
+        return new NewlineRecordPacker(maxBytes, maxRecords, pool,
+                (partitionKey, data) -> new PutRecordsRequestEntry().withPartitionKey(partitionKey).withData(data));
+    }
+
+    private static String string(PutRecordsRequestEntry entry) {
+        ByteBuffer data = entry.getData();
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer bytes(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
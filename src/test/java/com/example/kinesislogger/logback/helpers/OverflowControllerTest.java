@@ -0,0 +1,97 @@
+package com.example.kinesislogger.logback.helpers;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.Test;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 버퍼가 가득 찼을 때 처리 정책 테스트
+ */
+public class OverflowControllerTest {
+
+    @Test
+    public void 정책_이름_조회() {
+        assertThat(OverflowPolicy.of("block")).isEqualTo(OverflowPolicy.BLOCK);
+        assertThat(OverflowPolicy.of("dropNewest")).isEqualTo(OverflowPolicy.DROP_NEWEST);
+        assertThat(OverflowPolicy.of("drop_oldest")).isEqualTo(OverflowPolicy.DROP_OLDEST);
+        assertThat(OverflowPolicy.of("DROP-BELOW-LEVEL")).isEqualTo(OverflowPolicy.DROP_BELOW_LEVEL);
+        assertThat(OverflowPolicy.of(" sample ")).isEqualTo(OverflowPolicy.SAMPLE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 알수없는_정책() {
+        OverflowPolicy.of("discard");
+    }
+
+    @Test
+    public void 기다리지_않는_정책은_timeout_0() {
+        assertThat(controller(OverflowPolicy.BLOCK).getTimeoutNanos()).isEqualTo(100_000_000L);
+        assertThat(controller(OverflowPolicy.DROP_NEWEST).getTimeoutNanos()).isZero();
+        assertThat(controller(OverflowPolicy.SAMPLE).getTimeoutNanos()).isZero();
+    }
+
+    @Test
+    public void 가득_찬_경우_level_미만_이벤트만_버림() {
+        OverflowController controller = controller(OverflowPolicy.DROP_BELOW_LEVEL);
+
+        assertThat(controller.admit(event(Level.INFO), 99, 100)).isTrue();
+        assertThat(controller.admit(event(Level.INFO), 100, 100)).isFalse();
+        assertThat(controller.admit(event(Level.DEBUG), 100, 100)).isFalse();
+        assertThat(controller.admit(event(Level.WARN), 100, 100)).isTrue();
+        assertThat(controller.admit(event(Level.ERROR), 100, 100)).isTrue();
+        assertThat(controller.getDroppedCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void sample_은_사용률에_비례해_버림() {
+        OverflowController controller = controller(OverflowPolicy.SAMPLE);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(controller.admit(event(Level.INFO), 40, 100)).isTrue();
+        }
+        assertThat(controller.getDroppedCount()).isZero();
+
+        int admitted = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (controller.admit(event(Level.INFO), 75, 100)) {
+                admitted++;
+            }
+        }
+        // 50% 부터 버리기 시작 -> 75% 에서는 절반 정도
+        assertThat(admitted).isBetween(4000, 6000);
+        assertThat(controller.getDroppedCount()).isEqualTo(10_000L - admitted);
+
+        assertThat(controller.admit(event(Level.ERROR), 100, 100)).isFalse();
+    }
+
+    @Test
+    public void block_은_layout_전에_버리지_않음() {
+        OverflowController controller = controller(OverflowPolicy.BLOCK);
+
+        assertThat(controller.admit(event(Level.DEBUG), 100, 100)).isTrue();
+        controller.drop();
+        controller.drop(3);
+
+        assertThat(controller.getDroppedCount()).isEqualTo(4L);
+    }
+
+    @Test
+    public void 보고는_한번만() {
+        OverflowController controller = controller(OverflowPolicy.DROP_NEWEST);
+
+        assertThat(controller.shouldReport()).isTrue();
+        assertThat(controller.shouldReport()).isFalse();
+    }
+
+    private static OverflowController controller(OverflowPolicy policy) {
+        return new OverflowController(policy, 100, Level.WARN, 50);
+    }
+
+    private static LoggingEvent event(Level level) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        return event;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.kinesislogger.logback.helpers;
+
+import com.amazonaws.services.kinesis.model.PutRecordsRequestEntry;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * KPL aggregated record 포맷 테스트
+ */
+public class RecordAggregatorTest {
+
+    private final ByteBufferPool pool = new ByteBufferPool(1024 * 1024);
+
+    @Test
+    public void aggregated_record_포맷() throws Exception {
+        RecordAggregator aggregator = aggregator(1024);
+
+        assertThat(aggregator.add("pk-1", bytes("first"))).isNull();
+        assertThat(aggregator.add("pk-2", bytes("second"))).isNull();
+        assertThat(aggregator.add("pk-1", bytes("third"))).isNull();
+
+        PutRecordsRequestEntry entry = aggregator.flush();
+        assertThat(entry.getPartitionKey()).isEqualTo("pk-1");
+
+        byte[] record = toArray(entry.getData());
+        assertThat(Arrays.copyOfRange(record, 0, 4)).isEqualTo(RecordAggregator.KPL_MAGIC);
+
+        byte[] protobuf = Arrays.copyOfRange(record, 4, record.length - RecordAggregator.DIGEST_LENGTH);
+        byte[] digest = Arrays.copyOfRange(record, record.length - RecordAggregator.DIGEST_LENGTH, record.length);
+        assertThat(digest).isEqualTo(MessageDigest.getInstance("MD5").digest(protobuf));
+
+        List<String> keys = new ArrayList<>();
+        List<String> data = new ArrayList<>();
+        decode(protobuf, keys, new ArrayList<>(), data);
+        assertThat(keys).containsExactly("pk-1", "pk-2", "pk-1");
+        assertThat(data).containsExactly("first", "second", "third");
+
+        assertThat(aggregator.flush()).isNull();
+    }
+
+    @Test
+    public void 다른_shard_로_가는_partition_key_도_aggregated_record_의_hash_key_로_기록() throws Exception {
+        // 2 shard stream 에서 서로 다른 shard (hash key 범위의 앞 / 뒤 절반) 로 가는 partition key
+        String first = keyInHalf(false);
+        String second = keyInHalf(true);
+        RecordAggregator aggregator = aggregator(1024);
+        aggregator.add(first, bytes("first"));
+        aggregator.add(second, bytes("second"));
+
+        PutRecordsRequestEntry entry = aggregator.flush();
+        byte[] record = toArray(entry.getData());
+        byte[] protobuf = Arrays.copyOfRange(record, 4, record.length - RecordAggregator.DIGEST_LENGTH);
+        List<String> keys = new ArrayList<>();
+        List<String> hashKeys = new ArrayList<>();
+        decode(protobuf, keys, hashKeys, new ArrayList<>());
+
+        assertThat(entry.getPartitionKey()).isEqualTo(first);
+        assertThat(entry.getExplicitHashKey()).isEqualTo(hashKey(first).toString());
+        assertThat(keys).containsExactly(first, second);
+        // KCL 은 레코드의 hash key 로 shard 범위를 확인하므로 모든 레코드가 aggregated record 를 받은 shard 에 속해야 함
+        assertThat(hashKeys).containsExactly(entry.getExplicitHashKey(), entry.getExplicitHashKey());
+    }
+
+    @Test
+    public void explicit_hash_key_가_있으면_그_hash_key_로_기록() throws Exception {
+        RecordAggregator aggregator = aggregator(1024);
+        aggregator.add("pk-1", "12345", bytes("first"), System.nanoTime());
+        aggregator.add("pk-2", null, bytes("second"), System.nanoTime());
+
+        PutRecordsRequestEntry entry = aggregator.flush();
+        byte[] record = toArray(entry.getData());
+        List<String> hashKeys = new ArrayList<>();
+        decode(Arrays.copyOfRange(record, 4, record.length - RecordAggregator.DIGEST_LENGTH),
+                new ArrayList<>(), hashKeys, new ArrayList<>());
+
+        assertThat(entry.getExplicitHashKey()).isEqualTo("12345");
+        assertThat(hashKeys).containsExactly("12345", "12345");
+    }
+
+    @Test
+    public void 크기_초과시_완성된_레코드_반환() {
+        RecordAggregator aggregator = aggregator(150);
+
+        assertThat(aggregator.add("pk", ByteBuffer.allocate(60))).isNull();
+        PutRecordsRequestEntry completed = aggregator.add("pk", ByteBuffer.allocate(60));
+
+        assertThat(completed).isNotNull();
+        assertThat(completed.getData().remaining() + "pk".length()).isLessThanOrEqualTo(150);
+        assertThat(aggregator.flush()).isNotNull();
+    }
+
+    @Test
+    public void 큰_레코드는_aggregation_하지_않음() {
+        RecordAggregator aggregator = aggregator(100);
+
+        PutRecordsRequestEntry completed = aggregator.add("pk", ByteBuffer.allocate(200));
+
+        assertThat(completed.getData().remaining()).isEqualTo(200);
+        assertThat(aggregator.flush()).isNull();
+    }
+
+    private RecordAggregator aggregator(int maxBytes) {
+        return new RecordAggregator(maxBytes, pool,
+                (partitionKey, data) -> new PutRecordsRequestEntry().withPartitionKey(partitionKey).withData(data));
+    }
+
+    /**
+     * 2 shard stream 에서 hash key 가 앞 (false) / 뒤 (true) 절반에 속하는 partition key
+     */
+    private static String keyInHalf(boolean upper) throws Exception {
+        BigInteger half = BigInteger.ONE.shiftLeft(127);
+        for (int i = 0; ; i++) {
+            String key = "pk-" + i;
+            if ((hashKey(key).compareTo(half) >= 0) == upper) {
+                return key;
+            }
+        }
+    }
+
+    private static BigInteger hashKey(String partitionKey) throws Exception {
+        byte[] digest = MessageDigest.getInstance("MD5").digest(partitionKey.getBytes(StandardCharsets.UTF_8));
+        return new BigInteger(1, digest);
+    }
+
+    /**
+     * AggregatedRecord protobuf 를 레코드별 (partition key, explicit hash key, data) 로 디코딩
+     */
+    private static void decode(byte[] protobuf, List<String> keys, List<String> hashKeys, List<String> data) {
+        ByteBuffer buffer = ByteBuffer.wrap(protobuf);
+        List<String> keyTable = new ArrayList<>();
+        List<String> hashKeyTable = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int tag = readVarint(buffer);
+            byte[] value = new byte[readVarint(buffer)];
+            buffer.get(value);
+            if (tag >>> 3 == 1) {
+                keyTable.add(new String(value, StandardCharsets.UTF_8));
+            } else if (tag >>> 3 == 2) {
+                hashKeyTable.add(new String(value, StandardCharsets.UTF_8));
+            } else if (tag >>> 3 == 3) {
+                ByteBuffer record = ByteBuffer.wrap(value);
+                while (record.hasRemaining()) {
+                    int field = readVarint(record) >>> 3;
+                    if (field == 1) {
+                        keys.add(keyTable.get(readVarint(record)));
+                    } else if (field == 2) {
+                        hashKeys.add(hashKeyTable.get(readVarint(record)));
+                    } else {
+                        byte[] payload = new byte[readVarint(record)];
+                        record.get(payload);
+                        data.add(new String(payload, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer bytes(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.kinesislogger.logback.helpers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 배치 flush 조건 테스트
+ */
+public class RecordBatcherTest {
+
+    private final List<List<String>> flushed = new ArrayList<>();
+
+    @Test
+    public void 레코드_수_도달시_flush() {
+        RecordBatcher<String> batcher = new RecordBatcher<>(3, 1024, String::length, flushed::add);
+
+        batcher.add("a");
+        batcher.add("b");
+        assertThat(flushed).isEmpty();
+
+        batcher.add("c");
+        assertThat(flushed).hasSize(1);
+        assertThat(flushed.get(0)).containsExactly("a", "b", "c");
+        assertThat(batcher.size()).isZero();
+    }
+
+    @Test
+    public void 바이트_수_초과시_기존_배치를_먼저_flush() {
+        RecordBatcher<String> batcher = new RecordBatcher<>(500, 10, String::length, flushed::add);
+
+        batcher.add("12345");
+        batcher.add("1234");
+        batcher.add("123");
+
+        assertThat(flushed).hasSize(1);
+        assertThat(flushed.get(0)).containsExactly("12345", "1234");
+        assertThat(batcher.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void linger_시간이_지나면_flush() throws Exception {
+        RecordBatcher<String> batcher = new RecordBatcher<>(500, 1024, String::length, flushed::add);
+
+        batcher.add("a");
+        batcher.flushIfLingered(10_000);
+        assertThat(flushed).isEmpty();
+
+        Thread.sleep(20);
+        batcher.flushIfLingered(10);
+        assertThat(flushed).hasSize(1);
+    }
+}
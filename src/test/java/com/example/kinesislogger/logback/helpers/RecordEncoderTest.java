@@ -0,0 +1,61 @@
+package com.example.kinesislogger.logback.helpers;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 풀 버퍼 인코딩 테스트
+ */
+public class RecordEncoderTest {
+
+    private static final String MESSAGE = "{\"@timestamp\":\"2019-10-30 10:00:00.000\",\"message\":\"logging=userTest 한글\","
+            + "\"logger_name\":\"com.example.kinesislogger.MainController\",\"level\":\"INFO\",\"port\":\"8080\"}";
+
+    private final ByteBufferPool pool = new ByteBufferPool(1024 * 1024);
+    private final RecordEncoder encoder = new RecordEncoder("UTF-8", pool);
+
+    @Test
+    public void 인코딩_결과() throws Exception {
+        ByteBuffer buffer = encoder.encode(MESSAGE);
+
+        byte[] expected = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        byte[] actual = new byte[buffer.remaining()];
+        buffer.get(actual);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void 반납한_버퍼_재사용() throws Exception {
+        ByteBuffer first = encoder.encode(MESSAGE);
+        pool.release(first);
+
+        assertThat(encoder.encode(MESSAGE)).isSameAs(first);
+    }
+
+    @Test
+    public void 인코딩_후_반납시_이벤트당_할당_없음() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int iterations = 100_000;
+
+        // warm-up (JIT, ThreadLocal 상태, 풀 채우기)
+        encodeAndRelease(iterations);
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        encodeAndRelease(iterations);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(allocated / iterations).isLessThan(8L);
+    }
+
+    private void encodeAndRelease(int iterations) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            pool.release(encoder.encode(MESSAGE));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.kinesislogger.logback.helpers;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 생산자 쓰레드 경합 벤치마크
+ * - 기존 방식 : 이벤트마다 Runnable 을 LinkedBlockingDeque(bufferSize) 기반 ThreadPoolExecutor 에 제출
+ * - 새 방식   : RingBuffer 에 claim / publish, 단일 소비자가 drain
+ * <p>
+ * 실행 : 테스트 클래스패스에서 main 실행 (surefire 대상 아님)
+ * <pre>
+ *   java -cp target/classes:target/test-classes \
+ *       com.example.kinesislogger.logback.helpers.RingBufferContentionBenchmark [eventsPerProducer]
+ * </pre>
+ */
+public class RingBufferContentionBenchmark {
+
+    private static final int BUFFER_SIZE = 2048;
+    private static final int[] PRODUCERS = {1, 2, 4, 8, 16};
+
+    public static void main(String[] args) throws Exception {
+        int eventsPerProducer = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        // warm-up
+        runDeque(4, eventsPerProducer / 10);
+        runRingBuffer(4, eventsPerProducer / 10, WaitStrategy.PARK);
+
+        System.out.printf("%-10s %-28s %15s%n", "producers", "queue", "events/s");
+        for (int producers : PRODUCERS) {
+            print(producers, "LinkedBlockingDeque+TPE", producers * (long) eventsPerProducer,
+                    runDeque(producers, eventsPerProducer));
+            for (WaitStrategy strategy : WaitStrategy.values()) {
+                print(producers, "RingBuffer(" + strategy + ")", producers * (long) eventsPerProducer,
+                        runRingBuffer(producers, eventsPerProducer, strategy));
+            }
+        }
+    }
+
+    /**
+     * 기존 createConfigAndClient 와 같은 구성 (sender 쓰레드 1개로 소비 비용만 비교)
+     */
+    private static long runDeque(int producers, int eventsPerProducer) throws Exception {
+        BlockingQueue<Runnable> taskBuffer = new LinkedBlockingDeque<>(BUFFER_SIZE);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, taskBuffer,
+                new NamedThreadFactory("bench-deque-"), new BlockFastProducerPolicy());
+        LongAdder consumed = new LongAdder();
+        Runnable task = consumed::increment;
+
+        long elapsed = runProducers(producers, () -> {
+            for (int i = 0; i < eventsPerProducer; i++) {
+                executor.execute(task);
+            }
+        });
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return elapsed;
+    }
+
+    private static long runRingBuffer(int producers, int eventsPerProducer, WaitStrategy strategy)
+            throws Exception {
+        RingBuffer<RecordSlot> ring = new RingBuffer<>(BUFFER_SIZE, RecordSlot::new);
+        ByteBuffer data = ByteBuffer.allocate(0);
+        long total = producers * (long) eventsPerProducer;
+
+        Thread consumer = new Thread(() -> {
+            long next = 0;
+            int idle = 0;
+            while (next < total) {
+                long available = ring.highestPublished(next);
+                if (available >= next) {
+                    for (long sequence = next; sequence <= available; sequence++) {
+                        ring.get(sequence).clear();
+                    }
+                    ring.release(available);
+                    next = available + 1;
+                    idle = 0;
+                } else {
+                    idle = strategy.idle(idle);
+                }
+            }
+        });
+        consumer.start();
+
+        long elapsed = runProducers(producers, () -> {
+            for (int i = 0; i < eventsPerProducer; i++) {
+                long sequence;
+                int idle = 0;
+                while ((sequence = ring.tryNext()) < 0) {
+                    idle = strategy.idle(idle);
+                }
+                ring.get(sequence).set("key", data);
+                ring.publish(sequence);
+            }
+        });
+
+        consumer.join();
+        return elapsed;
+    }
+
+    /**
+     * 생산자 쓰레드를 동시에 시작하고 모두 끝날 때까지 걸린 시간(ns)
+     */
+    private static long runProducers(int producers, Runnable body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    body.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "bench-producer-" + p).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    private static void print(int producers, String name, long events, long elapsedNanos) {
+        System.out.printf("%-10d %-28s %,15.0f%n", producers, name, events * 1e9 / elapsedNanos);
+    }
+}
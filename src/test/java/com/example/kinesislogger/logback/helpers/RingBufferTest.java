@@ -0,0 +1,103 @@
+package com.example.kinesislogger.logback.helpers;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 링 버퍼 claim / publish / release 테스트
+ */
+public class RingBufferTest {
+
+    @Test
+    public void 크기는_2의_거듭제곱으로_올림() {
+        assertThat(new RingBuffer<>(1000, RecordSlot::new).getBufferSize()).isEqualTo(1024);
+        assertThat(new RingBuffer<>(1024, RecordSlot::new).getBufferSize()).isEqualTo(1024);
+    }
+
+    @Test
+    public void 가득_찬_경우_claim_실패() {
+        RingBuffer<RecordSlot> ring = new RingBuffer<>(2, RecordSlot::new);
+
+        assertThat(ring.tryNext()).isEqualTo(0L);
+        assertThat(ring.tryNext()).isEqualTo(1L);
+        assertThat(ring.tryNext()).isEqualTo(-1L);
+
+        ring.release(0);
+        assertThat(ring.tryNext()).isEqualTo(2L);
+    }
+
+    @Test
+    public void publish_되지_않은_slot_에서_멈춤() {
+        RingBuffer<RecordSlot> ring = new RingBuffer<>(8, RecordSlot::new);
+
+        long first = ring.tryNext();
+        long second = ring.tryNext();
+        ring.publish(second);
+        assertThat(ring.highestPublished(0)).isEqualTo(-1L);
+
+        ring.publish(first);
+        assertThat(ring.highestPublished(0)).isEqualTo(1L);
+    }
+
+    @Test
+    public void 여러_생산자_단일_소비자() throws Exception {
+        int producers = 4;
+        int perProducer = 100_000;
+        RingBuffer<RecordSlot> ring = new RingBuffer<>(256, RecordSlot::new);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int p = 0; p < producers; p++) {
+            String key = String.valueOf(p);
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long sequence;
+                    while ((sequence = ring.tryNext()) < 0) {
+                        Thread.yield();
+                    }
+                    ring.get(sequence).set(key, ByteBuffer.wrap(new byte[]{(byte) i}));
+                    ring.publish(sequence);
+                }
+            });
+            producer.setDaemon(true);
+            producer.start();
+        }
+        start.countDown();
+
+        long[] counts = new long[producers];
+        AtomicLong consumed = new AtomicLong();
+        long next = 0;
+        while (consumed.get() < (long) producers * perProducer) {
+            long available = ring.highestPublished(next);
+            for (long sequence = next; sequence <= available; sequence++) {
+                RecordSlot slot = ring.get(sequence);
+                int producer = Integer.parseInt(slot.getPartitionKey());
+                // 생산자별 순서 유지
+                assertThat(slot.getData().get(0)).isEqualTo((byte) counts[producer]);
+                counts[producer]++;
+                slot.clear();
+                consumed.incrementAndGet();
+            }
+            if (available >= next) {
+                ring.release(available);
+                next = available + 1;
+            } else {
+                Thread.yield();
+            }
+        }
+
+        for (long count : counts) {
+            assertThat(count).isEqualTo((long) perProducer);
+        }
+        assertThat(ring.size()).isZero();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.kinesislogger.logback.helpers;
+
+import org.junit.Test;
+
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 여러 appender 의 client 공유 테스트
+ */
+public class SharedClientRegistryTest {
+
+    private static final Object OWNER = new Object();
+
+    @Test
+    public void 같은_key_는_client_를_한번만_만들고_같이_사용() {
+        AtomicInteger created = new AtomicInteger();
+        Object client = new Object();
+
+        SharedClientRegistry.Shared<Object> first = SharedClientRegistry.acquire(OWNER, "same", 8, () -> {
+            created.incrementAndGet();
+            return new SharedClientRegistry.Shared<>(client, null);
+        });
+        SharedClientRegistry.Shared<Object> second = SharedClientRegistry.acquire(OWNER, "same", 8, () -> {
+            created.incrementAndGet();
+            return new SharedClientRegistry.Shared<>(new Object(), null);
+        });
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getClient()).isSameAs(client);
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(first.getReferences()).isEqualTo(2);
+        SharedClientRegistry.release(OWNER, "same", first, 8);
+        SharedClientRegistry.release(OWNER, "same", second, 8);
+    }
+
+    @Test
+    public void 마지막으로_반납할_때만_true() {
+        SharedClientRegistry.Shared<Object> shared = SharedClientRegistry.acquire(OWNER, "release", 8,
+                () -> new SharedClientRegistry.Shared<>(new Object(), null));
+        SharedClientRegistry.acquire(OWNER, "release", 8,
+                () -> new SharedClientRegistry.Shared<>(new Object(), null));
+
+        assertThat(SharedClientRegistry.release(OWNER, "release", shared, 8)).isFalse();
+        assertThat(SharedClientRegistry.release(OWNER, "release", shared, 8)).isTrue();
+        assertThat(SharedClientRegistry.release(OWNER, "release", shared, 8)).isFalse();
+    }
+
+    @Test
+    public void 모두_반납하면_다음에는_새로_만듦() {
+        SharedClientRegistry.Shared<Object> first = SharedClientRegistry.acquire(OWNER, "recreate", 8,
+                () -> new SharedClientRegistry.Shared<>(new Object(), null));
+        SharedClientRegistry.release(OWNER, "recreate", first, 8);
+
+        SharedClientRegistry.Shared<Object> second = SharedClientRegistry.acquire(OWNER, "recreate", 8,
+                () -> new SharedClientRegistry.Shared<>(new Object(), null));
+
+        assertThat(second).isNotSameAs(first);
+        SharedClientRegistry.release(OWNER, "recreate", second, 8);
+    }
+
+    @Test
+    public void key_가_다르면_따로_만듦() {
+        SharedClientRegistry.Shared<Object> seoul = SharedClientRegistry.acquire(OWNER, "key|ap-northeast-2", 8,
+                () -> new SharedClientRegistry.Shared<>(new Object(), null));
+        SharedClientRegistry.Shared<Object> virginia = SharedClientRegistry.acquire(OWNER, "key|us-east-1", 8,
+                () -> new SharedClientRegistry.Shared<>(new Object(), null));
+
+        assertThat(virginia).isNotSameAs(seoul);
+        assertThat(SharedClientRegistry.release(OWNER, "key|ap-northeast-2", seoul, 8)).isTrue();
+        assertThat(SharedClientRegistry.release(OWNER, "key|us-east-1", virginia, 8)).isTrue();
+    }
+
+    @Test
+    public void 쓰레드_풀_최대_크기는_동시_요청_한도의_합() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 16, 30, TimeUnit.SECONDS, new SynchronousQueue<>());
+
+        SharedClientRegistry.Shared<Object> shared = SharedClientRegistry.acquire(OWNER, "pool", 16,
+                () -> new SharedClientRegistry.Shared<>(new Object(), executor));
+        SharedClientRegistry.acquire(OWNER, "pool", 64,
+                () -> new SharedClientRegistry.Shared<>(new Object(), executor));
+
+        assertThat(executor.getMaximumPoolSize()).isEqualTo(80);
+        assertThat(executor.getCorePoolSize()).isEqualTo(2);
+
+        SharedClientRegistry.release(OWNER, "pool", shared, 64);
+        assertThat(executor.getMaximumPoolSize()).isEqualTo(16);
+        assertThat(executor.getCorePoolSize()).isEqualTo(2);
+
+        SharedClientRegistry.release(OWNER, "pool", shared, 16);
+        executor.shutdown();
+    }
+
+    @Test
+    public void owner_가_다르면_key_가_같아도_따로_만듦() {
+        Object other = new Object();
+        SharedClientRegistry.Shared<Object> first = SharedClientRegistry.acquire(OWNER, "owner", 8,
+                () -> new SharedClientRegistry.Shared<>(new Object(), null));
+        SharedClientRegistry.Shared<Object> second = SharedClientRegistry.acquire(other, "owner", 8,
+                () -> new SharedClientRegistry.Shared<>(new Object(), null));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(SharedClientRegistry.release(other, "owner", first, 8)).isFalse();
+        assertThat(SharedClientRegistry.release(OWNER, "owner", first, 8)).isTrue();
+        assertThat(SharedClientRegistry.release(other, "owner", second, 8)).isTrue();
+    }
+
+    @Test
+    public void 쓰레드_풀_최대_크기는_연결_수를_넘지_않음() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 16, 30, TimeUnit.SECONDS, new SynchronousQueue<>());
+
+        SharedClientRegistry.Shared<Object> shared = SharedClientRegistry.acquire(OWNER, "capped", 16,
+                () -> new SharedClientRegistry.Shared<>(new Object(), executor, 50));
+        SharedClientRegistry.acquire(OWNER, "capped", 64,
+                () -> new SharedClientRegistry.Shared<>(new Object(), executor, 50));
+
+        assertThat(shared.getMaxPoolSize()).isEqualTo(80);
+        assertThat(executor.getMaximumPoolSize()).isEqualTo(50);
+
+        SharedClientRegistry.release(OWNER, "capped", shared, 64);
+        assertThat(executor.getMaximumPoolSize()).isEqualTo(16);
+
+        SharedClientRegistry.release(OWNER, "capped", shared, 16);
+        executor.shutdown();
+    }
+}
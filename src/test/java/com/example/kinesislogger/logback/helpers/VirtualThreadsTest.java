@@ -0,0 +1,35 @@
+package com.example.kinesislogger.logback.helpers;
+
+import org.junit.Test;
+
+import java.util.concurrent.ThreadFactory;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * virtual thread 지원 테스트 (Java 21 미만에서는 factory 가 null)
+ */
+public class VirtualThreadsTest {
+
+    @Test
+    public void 지원하는_JVM_에서만_factory_를_만듦() {
+        ThreadFactory factory = VirtualThreads.factory("test-virtual-");
+
+        assertThat(factory != null).isEqualTo(VirtualThreads.isSupported());
+        assertThat(VirtualThreads.isSupported()).isEqualTo(Runtime.version().feature() >= 21);
+    }
+
+    @Test
+    public void virtual_thread_이름은_prefix_와_번호() throws Exception {
+        ThreadFactory factory = VirtualThreads.factory("test-virtual-");
+        if (factory == null) {
+            return;
+        }
+
+        Thread thread = factory.newThread(() -> {
+        });
+
+        assertThat(thread.getName()).isEqualTo("test-virtual-1");
+        assertThat(thread.isDaemon()).isTrue();
+    }
+}
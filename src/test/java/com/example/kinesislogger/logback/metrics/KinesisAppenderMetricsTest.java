@@ -0,0 +1,134 @@
+package com.example.kinesislogger.logback.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * appender 지표 테스트
+ */
+public class KinesisAppenderMetricsTest {
+
+    @Test
+    public void 여러_쓰레드에서_집계() throws Exception {
+        KinesisAppenderMetrics metrics = new KinesisAppenderMetrics();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.onRecordSent(100, 0, 0);
+                    metrics.onRecordRetried();
+                }
+                done.countDown();
+            });
+        }
+        done.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertThat(metrics.getRecordsSent()).isEqualTo(80_000L);
+        assertThat(metrics.getBytesSent()).isEqualTo(8_000_000L);
+        assertThat(metrics.getRetriedRecords()).isEqualTo(80_000L);
+    }
+
+    @Test
+    public void enqueue_부터_응답까지_지연() {
+        KinesisAppenderMetrics metrics = new KinesisAppenderMetrics();
+        long now = System.nanoTime();
+        for (int i = 1; i <= 100; i++) {
+            metrics.onRecordSent(10, now - TimeUnit.MILLISECONDS.toNanos(i), now);
+        }
+
+        assertThat(metrics.getLatencyP50Millis()).isBetween(49.0, 51.0);
+        assertThat(metrics.getLatencyP99Millis()).isBetween(98.0, 100.0);
+        assertThat(metrics.getLatencyMaxMillis()).isBetween(99.0, 101.0);
+    }
+
+    @Test
+    public void enqueue_시각을_모르면_지연은_기록하지_않음() {
+        KinesisAppenderMetrics metrics = new KinesisAppenderMetrics();
+
+        metrics.onRecordSent(10, 0, System.nanoTime());
+
+        assertThat(metrics.getRecordsSent()).isEqualTo(1L);
+        assertThat(metrics.getLatencyMaxMillis()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void 배치_크기() {
+        KinesisAppenderMetrics metrics = new KinesisAppenderMetrics();
+
+        metrics.onBatch(100);
+        metrics.onBatch(500);
+
+        // HdrHistogram 정밀도 (유효숫자 2자리) 만큼의 오차 허용
+        assertThat(metrics.getBatchSizeMean()).isBetween(297.0, 303.0);
+        assertThat(metrics.getBatchSizeMax()).isBetween(500L, 505L);
+    }
+
+    @Test
+    public void appender_상태는_연결된_값을_읽음() {
+        KinesisAppenderMetrics metrics = new KinesisAppenderMetrics();
+        assertThat(metrics.getQueueDepth()).isZero();
+
+        metrics.bind(() -> 7, () -> 3L, () -> 11L);
+
+        assertThat(metrics.getQueueDepth()).isEqualTo(7);
+        assertThat(metrics.getDroppedRecords()).isEqualTo(3L);
+        assertThat(metrics.getSpilledRecords()).isEqualTo(11L);
+
+        metrics.bindConcurrency(() -> 24, () -> 5);
+
+        assertThat(metrics.getConcurrencyLimit()).isEqualTo(24);
+        assertThat(metrics.getInFlightRequests()).isEqualTo(5);
+    }
+
+    @Test
+    public void 시작_후_첫_레코드까지_시간은_한번만_기록() {
+        KinesisAppenderMetrics metrics = new KinesisAppenderMetrics();
+        assertThat(metrics.getTimeToFirstRecordMillis()).isEqualTo(-1L);
+
+        long start = System.nanoTime();
+        metrics.onStarting(start);
+        metrics.onStarted(TimeUnit.MILLISECONDS.toNanos(2));
+        assertThat(metrics.getStartupMillis()).isEqualTo(2L);
+        assertThat(metrics.getWarmUpMillis()).isEqualTo(-1L);
+        assertThat(metrics.getTimeToFirstRecordMillis()).isEqualTo(-1L);
+
+        metrics.onRecordSent(10, start, start + TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.onRecordSent(10, start, start + TimeUnit.MILLISECONDS.toNanos(60));
+        metrics.onWarmedUp(TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertThat(metrics.getTimeToFirstRecordMillis()).isEqualTo(30L);
+        assertThat(metrics.getWarmUpMillis()).isEqualTo(200L);
+    }
+
+    @Test
+    public void micrometer_meter_등록() {
+        KinesisAppenderMetrics metrics = new KinesisAppenderMetrics();
+        metrics.bind(() -> 5, () -> 2L, () -> 0L);
+        metrics.onRequestSent();
+        metrics.onRecordSent(1024, 0, 0);
+        metrics.onRecordThrottled();
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new KinesisMetricsBinder(metrics, "kinesis", "log-stream").bindTo(registry);
+
+        assertThat(registry.get("kinesis.appender.records.sent").tag("appender", "kinesis")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("kinesis.appender.bytes.sent").tag("stream", "log-stream")
+                .functionCounter().count()).isEqualTo(1024.0);
+        assertThat(registry.get("kinesis.appender.records.throttled").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("kinesis.appender.records.dropped").functionCounter().count()).isEqualTo(2.0);
+        assertThat(registry.get("kinesis.appender.queue.depth").gauge().value()).isEqualTo(5.0);
+        assertThat(registry.get("kinesis.appender.latency").tag("quantile", "0.99").timeGauge()
+                .value(TimeUnit.MILLISECONDS)).isEqualTo(0.0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.kinesislogger.logback.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.example.kinesislogger.logback.fake.FakeKinesisAppender;
+import com.example.kinesislogger.logback.fake.FakeKinesisAsync;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.logstash.logback.layout.LogstashLayout;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * LoggerContext 의 appender 를 값을 읽을 때마다 다시 찾는지 테스트
+ */
+public class LoggerContextMetricsBinderTest {
+
+    private static final String STREAM_NAME = "metrics-stream";
+    private static final String RECORDS_SENT = "kinesis.appender.records.sent";
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+    private final List<FakeKinesisAppender> appenders = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (FakeKinesisAppender appender : appenders) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void 다시_만든_appender_는_같은_meter_로_읽음() throws Exception {
+        FakeKinesisAppender first = attach("kinesis");
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new LoggerContextMetricsBinder(context, 0).bindTo(registry);
+        send(first, 2);
+        assertThat(recordsSent(registry, "kinesis")).isEqualTo(2.0);
+
+        // 설정 재로딩 (scan) 처럼 같은 이름의 appender 를 새로 만듦
+        root.detachAndStopAllAppenders();
+        assertThat(recordsSent(registry, "kinesis")).isEqualTo(0.0);
+        FakeKinesisAppender second = attach("kinesis");
+        send(second, 1);
+
+        assertThat(recordsSent(registry, "kinesis")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void 등록_뒤에_추가된_appender_는_값을_읽을_때_meter_를_등록() throws Exception {
+        attach("kinesis");
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new LoggerContextMetricsBinder(context, 0).bindTo(registry);
+        FakeKinesisAppender late = attach("late");
+        send(late, 3);
+        assertThat(registry.find(RECORDS_SENT).tag("appender", "late").functionCounter()).isNull();
+
+        recordsSent(registry, "kinesis");
+
+        assertThat(recordsSent(registry, "late")).isEqualTo(3.0);
+    }
+
+    @Test
+    public void 종료된_appender_는_0() throws Exception {
+        FakeKinesisAppender appender = attach("kinesis");
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new LoggerContextMetricsBinder(context, 0).bindTo(registry);
+        send(appender, 2);
+
+        appender.stop();
+
+        assertThat(recordsSent(registry, "kinesis")).isEqualTo(0.0);
+    }
+
+    private static double recordsSent(MeterRegistry registry, String appenderName) {
+        return registry.get(RECORDS_SENT).tag("appender", appenderName).tag("stream", STREAM_NAME)
+                .functionCounter().count();
+    }
+
+    private static void send(FakeKinesisAppender appender, int count) throws InterruptedException {
+        KinesisAppenderMetrics metrics = appender.getMetrics();
+        long target = metrics.getRecordsSent() + count;
+        for (int i = 0; i < count; i++) {
+            appender.doAppend(event());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (metrics.getRecordsSent() < target && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(metrics.getRecordsSent()).isEqualTo(target);
+    }
+
+    private FakeKinesisAppender attach(String name) {
+        LogstashLayout layout = new LogstashLayout();
+        layout.setContext(context);
+        layout.start();
+
+        FakeKinesisAppender appender = new FakeKinesisAppender(new FakeKinesisAsync(STREAM_NAME, 1));
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setAccessKey(name);
+        appender.setSecretKey(name);
+        appender.setRegion("ap-northeast-2");
+        appender.setStreamName(STREAM_NAME);
+        appender.setLayout(layout);
+        appender.setLingerMillis(1);
+        appender.setJmxEnabled(false);
+        appender.setAsyncStartup(false);
+        appender.start();
+        root.addAppender(appender);
+        appenders.add(appender);
+        return appender;
+    }
+
+    private static LoggingEvent event() {
+        LoggingEvent event = new LoggingEvent();
+        event.setMessage("metrics");
+        event.setLoggerName("com.example.Metrics");
+        event.setThreadName("main");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+}
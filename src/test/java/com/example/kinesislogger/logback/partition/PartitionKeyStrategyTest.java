@@ -0,0 +1,154 @@
+package com.example.kinesislogger.logback.partition;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.amazonaws.services.kinesis.AbstractAmazonKinesis;
+import com.amazonaws.services.kinesis.model.HashKeyRange;
+import com.amazonaws.services.kinesis.model.ListShardsRequest;
+import com.amazonaws.services.kinesis.model.ListShardsResult;
+import com.amazonaws.services.kinesis.model.SequenceNumberRange;
+import com.amazonaws.services.kinesis.model.Shard;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * partition key 전략 / shard map 테스트
+ */
+public class PartitionKeyStrategyTest {
+
+    private static final BigInteger MAX_HASH_KEY = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+
+    @Test
+    public void shard_map_은_open_shard_의_중간값_사용() {
+        ShardMap map = ShardMap.of(Arrays.asList(
+                shard("shardId-000000000000", BigInteger.ZERO, MAX_HASH_KEY, "100"),
+                shard("shardId-000000000001", BigInteger.ZERO, MAX_HASH_KEY.shiftRight(1), null),
+                shard("shardId-000000000002", MAX_HASH_KEY.shiftRight(1).add(BigInteger.ONE), MAX_HASH_KEY, null)));
+
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.contains("shardId-000000000000")).isTrue();
+        assertThat(map.get(0).getPartitionKey()).isEqualTo("shardId-000000000001");
+        assertThat(map.get(0).getExplicitHashKey()).isEqualTo(MAX_HASH_KEY.shiftRight(2).toString());
+        assertThat(new BigInteger(map.get(1).getExplicitHashKey())).isGreaterThan(MAX_HASH_KEY.shiftRight(1));
+    }
+
+    @Test
+    public void roundRobin_은_shard_에_고르게_분산() {
+        ShardMapCache cache = new ShardMapCache(new FakeKinesis(splitShards(4), 2), "stream", 60_000L,
+                (message, e) -> {
+                    throw new AssertionError(message, e);
+                });
+        assertThat(cache.refresh().size()).isEqualTo(4);
+        RoundRobinPartitionKeyStrategy strategy = new RoundRobinPartitionKeyStrategy();
+        strategy.setShardMap(cache);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 400; i++) {
+            counts.merge(strategy.select(null).getExplicitHashKey(), 1, Integer::sum);
+        }
+        assertThat(counts).hasSize(4);
+        assertThat(new ArrayList<>(counts.values())).containsOnly(100);
+    }
+
+    @Test
+    public void shard_map_이_없으면_random_사용() {
+        RoundRobinPartitionKeyStrategy strategy = new RoundRobinPartitionKeyStrategy();
+
+        PartitionKey key = strategy.select(null);
+        assertThat(key.getExplicitHashKey()).isNull();
+        assertThat(key.getPartitionKey()).isNotEmpty();
+    }
+
+    @Test
+    public void random_은_key_를_새로_만들지_않음() {
+        RandomPartitionKeyStrategy strategy = new RandomPartitionKeyStrategy();
+        List<PartitionKey> keys = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            keys.add(strategy.select(null));
+        }
+        assertThat(keys.stream().map(PartitionKey::getPartitionKey).distinct().count()).isGreaterThan(900L);
+        assertThat(keys.stream().distinct().count()).isLessThanOrEqualTo(1024L);
+    }
+
+    @Test
+    public void mdc_값을_partition_key_로_사용() {
+        PartitionKeyStrategy strategy = PartitionKeyStrategies.of("mdc", "traceId");
+        LoggingEvent event = new LoggingEvent();
+        event.setMDCPropertyMap(Collections.singletonMap("traceId", "abc-123"));
+
+        assertThat(strategy.select(event).getPartitionKey()).isEqualTo("abc-123");
+        assertThat(strategy.select(new LoggingEvent()).getPartitionKey()).isNotEqualTo("abc-123");
+    }
+
+    @Test
+    public void mdc_값이_같으면_key_를_새로_만들지_않음() {
+        PartitionKeyStrategy strategy = PartitionKeyStrategies.of("mdc", "traceId");
+        char[] longValue = new char[PartitionKey.MAX_LENGTH + 10];
+        Arrays.fill(longValue, 'a');
+        for (String value : Arrays.asList("abc-123", new String(longValue))) {
+            LoggingEvent event = new LoggingEvent();
+            event.setMDCPropertyMap(Collections.singletonMap("traceId", value));
+
+            PartitionKey key = strategy.select(event);
+
+            assertThat(strategy.select(event)).isSameAs(key);
+            assertThat(key.getPartitionKey()).isEqualTo(value.substring(0, Math.min(value.length(),
+                    PartitionKey.MAX_LENGTH)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 알수없는_전략() {
+        PartitionKeyStrategies.of("com.example.NoSuchStrategy", null);
+    }
+
+    private static List<Shard> splitShards(int count) {
+        List<Shard> shards = new ArrayList<>();
+        BigInteger width = MAX_HASH_KEY.divide(BigInteger.valueOf(count));
+        for (int i = 0; i < count; i++) {
+            BigInteger start = width.multiply(BigInteger.valueOf(i));
+            BigInteger end = i == count - 1 ? MAX_HASH_KEY : start.add(width).subtract(BigInteger.ONE);
+            shards.add(shard(String.format("shardId-%012d", i), start, end, null));
+        }
+        return shards;
+    }
+
+    private static Shard shard(String shardId, BigInteger start, BigInteger end, String endingSequenceNumber) {
+        return new Shard().withShardId(shardId)
+                .withHashKeyRange(new HashKeyRange().withStartingHashKey(start.toString())
+                        .withEndingHashKey(end.toString()))
+                .withSequenceNumberRange(new SequenceNumberRange().withStartingSequenceNumber("0")
+                        .withEndingSequenceNumber(endingSequenceNumber));
+    }
+
+    /**
+     * pageSize 개씩 NextToken 으로 나눠서 응답하는 ListShards
+     */
+    private static class FakeKinesis extends AbstractAmazonKinesis {
+
+        private final List<Shard> shards;
+        private final int pageSize;
+
+        FakeKinesis(List<Shard> shards, int pageSize) {
+            this.shards = shards;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public ListShardsResult listShards(ListShardsRequest request) {
+            assertThat(request.getStreamName() == null).isEqualTo(request.getNextToken() != null);
+            int from = request.getNextToken() == null ? 0 : Integer.parseInt(request.getNextToken());
+            int to = Math.min(from + pageSize, shards.size());
+            return new ListShardsResult().withShards(shards.subList(from, to))
+                    .withNextToken(to < shards.size() ? Integer.toString(to) : null);
+        }
+    }
+}
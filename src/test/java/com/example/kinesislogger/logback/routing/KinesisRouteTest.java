@@ -0,0 +1,127 @@
+package com.example.kinesislogger.logback.routing;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * route 규칙 테스트
+ */
+public class KinesisRouteTest {
+
+    @Test
+    public void level_이상만_일치() {
+        KinesisRoute route = route();
+        route.setLevel("WARN");
+
+        assertThat(route.matches(event(Level.ERROR, "app"))).isTrue();
+        assertThat(route.matches(event(Level.WARN, "app"))).isTrue();
+        assertThat(route.matches(event(Level.INFO, "app"))).isFalse();
+    }
+
+    @Test
+    public void logger_와_하위_logger_일치() {
+        KinesisRoute route = route();
+        route.setLogger("com.example.audit, com.example.security");
+
+        assertThat(route.matches(event(Level.INFO, "com.example.audit"))).isTrue();
+        assertThat(route.matches(event(Level.INFO, "com.example.audit.OrderAudit"))).isTrue();
+        assertThat(route.matches(event(Level.INFO, "com.example.security.Login"))).isTrue();
+        assertThat(route.matches(event(Level.INFO, "com.example.auditor"))).isFalse();
+        assertThat(route.matches(event(Level.INFO, "com.example"))).isFalse();
+    }
+
+    @Test
+    public void marker_와_marker_를_참조하는_marker_일치() {
+        KinesisRoute route = route();
+        route.setMarker("AUDIT");
+
+        Marker audit = MarkerFactory.getMarker("AUDIT");
+        Marker payment = MarkerFactory.getMarker("PAYMENT");
+        payment.add(audit);
+
+        LoggingEvent event = event(Level.INFO, "app");
+        assertThat(route.matches(event)).isFalse();
+        event.setMarker(audit);
+        assertThat(route.matches(event)).isTrue();
+        event.setMarker(payment);
+        assertThat(route.matches(event)).isTrue();
+        event.setMarker(MarkerFactory.getMarker("OTHER"));
+        assertThat(route.matches(event)).isFalse();
+    }
+
+    @Test
+    public void mdc_key_와_value_일치() {
+        KinesisRoute route = route();
+        route.setMdcKey("tenant");
+
+        LoggingEvent event = event(Level.INFO, "app");
+        assertThat(route.matches(event)).isFalse();
+        event.setMDCPropertyMap(Collections.singletonMap("tenant", "a"));
+        assertThat(route.matches(event)).isTrue();
+
+        route.setMdcValue("b");
+        assertThat(route.matches(event)).isFalse();
+    }
+
+    @Test
+    public void 조건을_모두_만족해야_일치() {
+        KinesisRoute route = route();
+        route.setLevel("ERROR");
+        route.setLogger("com.example.payment");
+
+        assertThat(route.matches(event(Level.ERROR, "com.example.payment.Api"))).isTrue();
+        assertThat(route.matches(event(Level.INFO, "com.example.payment.Api"))).isFalse();
+        assertThat(route.matches(event(Level.ERROR, "com.example.order.Api"))).isFalse();
+    }
+
+    @Test
+    public void 조건이_없으면_모두_일치() {
+        assertThat(route().matches(event(Level.DEBUG, "app"))).isTrue();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 알수없는_level() {
+        route().setLevel("LOUD");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 알수없는_overflowPolicy() {
+        route().setOverflowPolicy("dropEverything");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 알수없는_partitionKeyStrategy() {
+        route().setPartitionKeyStrategy("com.example.NoSuchStrategy");
+    }
+
+    @Test
+    public void mdc_partitionKeyStrategy_는_partitionKeyField_전에_설정해도_됨() {
+        KinesisRoute route = route();
+        route.setPartitionKeyStrategy("mdc");
+        route.setPartitionKeyField("tenant");
+        route.setOverflowPolicy("drop-newest");
+
+        assertThat(route.getPartitionKeyStrategy()).isEqualTo("mdc");
+        assertThat(route.getOverflowPolicy()).isEqualTo("DROP_NEWEST");
+    }
+
+    private static KinesisRoute route() {
+        KinesisRoute route = new KinesisRoute();
+        route.setStreamName("routed-stream");
+        return route;
+    }
+
+    private static LoggingEvent event(Level level, String loggerName) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        event.setLoggerName(loggerName);
+        return event;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.kinesislogger.logback.spill;
+
+import com.example.kinesislogger.logback.helpers.ByteBufferPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * disk spill segment 기록 / 복구 테스트
+ */
+public class DiskSpillBufferTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    private final ByteBufferPool pool = new ByteBufferPool(1024 * 1024);
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("spill-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void segment_를_넘어가도_순서대로_읽음() throws Exception {
+        DiskSpillBuffer spill = open(SEGMENT_BYTES * 10);
+        for (int i = 0; i < 100; i++) {
+            assertThat(spill.append("pk-" + i, hashKey(i), data("record-" + i), i % 2 == 0)).isTrue();
+        }
+        assertThat(spill.getTotalBytes()).isGreaterThan(SEGMENT_BYTES);
+        assertThat(spill.getPendingRecords()).isEqualTo(100L);
+
+        SpillRecord record = new SpillRecord();
+        for (int i = 0; i < 100; i++) {
+            assertThat(spill.poll(record)).isTrue();
+            assertThat(record.getPartitionKey()).isEqualTo("pk-" + i);
+            assertThat(text(record.getData())).isEqualTo("record-" + i);
+            assertThat(record.getExplicitHashKey()).isEqualTo(hashKey(i));
+            assertThat(record.isPrepared()).isEqualTo(i % 2 == 0);
+        }
+        assertThat(spill.poll(record)).isFalse();
+        assertThat(spill.hasPending()).isFalse();
+        assertThat(spill.getTotalBytes()).isEqualTo((long) SEGMENT_BYTES);
+        spill.close();
+    }
+
+    @Test
+    public void 디스크_한도를_넘으면_false() throws Exception {
+        DiskSpillBuffer spill = open(SEGMENT_BYTES * 2);
+        int appended = 0;
+        while (spill.append("pk", null, data("0123456789012345678901234567890123456789"), false)) {
+            appended++;
+        }
+        assertThat(appended).isGreaterThan(0);
+        assertThat(spill.getTotalBytes()).isEqualTo(SEGMENT_BYTES * 2L);
+        spill.close();
+    }
+
+    @Test
+    public void 재시작시_읽지_않은_레코드부터_복구() throws Exception {
+        DiskSpillBuffer spill = open(SEGMENT_BYTES * 10);
+        for (int i = 0; i < 50; i++) {
+            spill.append("pk", null, data("record-" + i), false);
+        }
+        SpillRecord record = new SpillRecord();
+        for (int i = 0; i < 20; i++) {
+            spill.poll(record);
+        }
+        spill.close();
+
+        DiskSpillBuffer reopened = new DiskSpillBuffer(directory, SEGMENT_BYTES, SEGMENT_BYTES * 10, pool);
+        assertThat(reopened.open()).isEqualTo(30L);
+        for (int i = 20; i < 50; i++) {
+            assertThat(reopened.poll(record)).isTrue();
+            assertThat(text(record.getData())).isEqualTo("record-" + i);
+        }
+        assertThat(reopened.poll(record)).isFalse();
+        reopened.close();
+    }
+
+    @Test
+    public void 기록중_끊긴_레코드는_버림() throws Exception {
+        DiskSpillBuffer spill = open(SEGMENT_BYTES * 10);
+        spill.append("pk", null, data("first"), false);
+        spill.append("pk", null, data("second"), false);
+        spill.close();
+
+        // 두번째 레코드의 payload 일부가 기록되지 않은 상황 (crc 불일치)
+        Path segment;
+        try (Stream<Path> paths = Files.list(directory)) {
+            segment = paths.filter(path -> path.toString().endsWith(".spill")).findFirst().get();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long position = SpillSegment.HEADER_LENGTH + SpillSegment.RECORD_HEADER_LENGTH + 3 + 2 + 5
+                    + SpillSegment.RECORD_HEADER_LENGTH + 3 + 2;
+            file.seek(position);
+            file.write(new byte[]{'X', 'X'});
+        }
+
+        DiskSpillBuffer reopened = new DiskSpillBuffer(directory, SEGMENT_BYTES, SEGMENT_BYTES * 10, pool);
+        assertThat(reopened.open()).isEqualTo(1L);
+        SpillRecord record = new SpillRecord();
+        assertThat(reopened.poll(record)).isTrue();
+        assertThat(text(record.getData())).isEqualTo("first");
+        assertThat(reopened.poll(record)).isFalse();
+        reopened.close();
+    }
+
+    @Test
+    public void segment_보다_큰_레코드는_파일을_남기지_않고_false() throws Exception {
+        DiskSpillBuffer spill = open(SEGMENT_BYTES * 10);
+        spill.append("pk", null, data("first"), false);
+        long totalBytes = spill.getTotalBytes();
+
+        assertThat(spill.append("pk", null, ByteBuffer.allocate(SEGMENT_BYTES), false)).isFalse();
+        assertThat(spill.getTotalBytes()).isEqualTo(totalBytes);
+        assertThat(spill.getPendingRecords()).isEqualTo(1);
+        try (Stream<Path> paths = Files.list(directory)) {
+            assertThat(paths.filter(path -> path.toString().endsWith(".spill")).count()).isEqualTo(1);
+        }
+        spill.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void 같은_디렉토리는_하나만_사용() throws Exception {
+        open(SEGMENT_BYTES * 10);
+        open(SEGMENT_BYTES * 10);
+    }
+
+    private DiskSpillBuffer open(long maxBytes) throws IOException {
+        DiskSpillBuffer spill = new DiskSpillBuffer(directory, SEGMENT_BYTES, maxBytes, pool);
+        spill.open();
+        return spill;
+    }
+
+    private static String hashKey(int i) {
+        return i % 3 == 0 ? "17014118346046923173168730371588410572" + i : null;
+    }
+
+    private static ByteBuffer data(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.kinesislogger.logback.stacktrace;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * stack trace fingerprint 테스트
+ */
+public class StackTraceFingerprinterTest {
+
+    private static final long WINDOW = 1000;
+
+    @Test
+    public void 같은_trace_는_window_에서_처음만_전체를_보냄() {
+        StackTraceFingerprinter fingerprinter = new StackTraceFingerprinter(WINDOW, 16, false);
+        Throwable throwable = failure("timeout");
+
+        FingerprintedEvent first = fingerprinter.fingerprint(event(throwable, 0));
+        FingerprintedEvent second = fingerprinter.fingerprint(event(throwable, 10));
+        FingerprintedEvent afterWindow = fingerprinter.fingerprint(event(throwable, WINDOW + 10));
+
+        assertThat(first.isFullTrace()).isTrue();
+        assertThat(first.getThrowableProxy()).isNotNull();
+        assertThat(second.isFullTrace()).isFalse();
+        assertThat(second.getThrowableProxy()).isNull();
+        assertThat(second.getFingerprint()).isEqualTo(first.getFingerprint());
+        assertThat(second.getMDCPropertyMap()).containsEntry(FingerprintedEvent.MDC_TRACE_FINGERPRINT,
+                first.getFingerprint());
+        assertThat(second.getMDCPropertyMap()).containsEntry(FingerprintedEvent.MDC_TRACE_EXCEPTION,
+                "java.lang.IllegalStateException: timeout");
+        assertThat(afterWindow.isFullTrace()).isTrue();
+    }
+
+    @Test
+    public void fingerprint_는_메시지가_아니라_클래스와_frame_으로_계산() {
+        // 같은 줄에서 만들어야 frame 이 같음
+        Throwable[] failures = new Throwable[2];
+        String[] messages = {"timeout", "refused"};
+        for (int i = 0; i < failures.length; i++) {
+            failures[i] = failure(messages[i]);
+        }
+        Throwable timeout = failures[0];
+        Throwable refused = failures[1];
+        Throwable other = new IllegalArgumentException("timeout");
+
+        long fingerprint = StackTraceFingerprinter.fingerprintOf(new ThrowableProxy(timeout));
+
+        assertThat(StackTraceFingerprinter.fingerprintOf(new ThrowableProxy(refused))).isEqualTo(fingerprint);
+        assertThat(StackTraceFingerprinter.fingerprintOf(new ThrowableProxy(other))).isNotEqualTo(fingerprint);
+        assertThat(StackTraceFingerprinter.toHex(fingerprint).length()).isEqualTo(16);
+    }
+
+    @Test
+    public void cache_가_가득_차면_가장_오래_쓰지_않은_fingerprint_를_잊음() {
+        StackTraceFingerprinter fingerprinter = new StackTraceFingerprinter(WINDOW, 1, false);
+        Throwable a = failure("a");
+        Throwable b = new IllegalArgumentException("b");
+
+        assertThat(fingerprinter.fingerprint(event(a, 0)).isFullTrace()).isTrue();
+        assertThat(fingerprinter.fingerprint(event(b, 0)).isFullTrace()).isTrue();
+        assertThat(fingerprinter.fingerprint(event(a, 0)).isFullTrace()).isTrue();
+    }
+
+    @Test
+    public void dictionary_를_사용하면_trace_는_dictionary_레코드로만_보냄() {
+        StackTraceFingerprinter fingerprinter = new StackTraceFingerprinter(WINDOW, 16, true);
+        Throwable throwable = failure("say \"hi\"");
+
+        FingerprintedEvent first = fingerprinter.fingerprint(event(throwable, 0));
+        FingerprintedEvent second = fingerprinter.fingerprint(event(throwable, 10));
+
+        assertThat(first.getThrowableProxy()).isNull();
+        String record = fingerprinter.dictionaryRecord(first);
+        assertThat(record).startsWith("{\"type\":\"stackTraceDictionary\",\"traceFingerprint\":\""
+                + first.getFingerprint() + "\"");
+        assertThat(record).contains("\"exception\":\"java.lang.IllegalStateException\"", "say \\\"hi\\\"", "\\n");
+        assertThat(fingerprinter.dictionaryRecord(second)).isNull();
+    }
+
+    @Test
+    public void 예외가_없으면_그대로() {
+        StackTraceFingerprinter fingerprinter = new StackTraceFingerprinter(WINDOW, 16, false);
+
+        assertThat(fingerprinter.fingerprint(event(null, 0))).isNull();
+    }
+
+    private static Throwable failure(String message) {
+        return new IllegalStateException(message);
+    }
+
+    private static LoggingEvent event(Throwable throwable, long timestamp) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName("com.example.Client");
+        event.setLevel(Level.ERROR);
+        event.setMessage("call failed");
+        event.setTimeStamp(timestamp);
+        event.setMDCPropertyMap(Collections.emptyMap());
+        if (throwable != null) {
+            event.setThrowableProxy(new ThrowableProxy(throwable));
+        }
+        return event;
+    }
+}
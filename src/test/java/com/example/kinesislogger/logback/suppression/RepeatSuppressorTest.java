@@ -0,0 +1,105 @@
+package com.example.kinesislogger.logback.suppression;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * 반복 로그 억제 테스트
+ */
+public class RepeatSuppressorTest {
+
+    private static final long WINDOW = 1000;
+
+    private final List<ILoggingEvent> summaries = new ArrayList<>();
+
+    @Test
+    public void threshold_이후_이벤트는_억제하고_window_가_끝나면_요약() {
+        RepeatSuppressor suppressor = new RepeatSuppressor(3, WINDOW, 64, summaries::add);
+
+        int admitted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (suppressor.admit(event("com.example.Order", "order {} failed", null, 100 + i))) {
+                admitted++;
+            }
+        }
+        assertThat(admitted).isEqualTo(3);
+        assertThat(summaries).isEmpty();
+
+        suppressor.flushExpired(100 + WINDOW);
+
+        assertThat(summaries).hasSize(1);
+        ILoggingEvent summary = summaries.get(0);
+        assertThat(summary.getLoggerName()).isEqualTo("com.example.Order");
+        assertThat(summary.getLevel()).isEqualTo(Level.ERROR);
+        assertThat(summary.getFormattedMessage()).startsWith("Suppressed 7 repeated log events: order {} failed");
+        assertThat(summary.getMDCPropertyMap()).containsEntry(SuppressionSummaryEvent.MDC_SUPPRESSED_COUNT, "7");
+        assertThat(summary.getMDCPropertyMap()).containsEntry(SuppressionSummaryEvent.MDC_SUPPRESSED_FIRST,
+                "1970-01-01T00:00:00.103Z");
+        assertThat(summary.getMDCPropertyMap()).containsEntry(SuppressionSummaryEvent.MDC_SUPPRESSED_LAST,
+                "1970-01-01T00:00:00.109Z");
+        assertThat(summary.getTimeStamp()).isEqualTo(109L);
+    }
+
+    @Test
+    public void 예외_클래스가_다르면_다른_key() {
+        RepeatSuppressor suppressor = new RepeatSuppressor(1, WINDOW, 64, summaries::add);
+
+        assertThat(suppressor.admit(event("a.B", "call failed", new IllegalStateException(), 0))).isTrue();
+        assertThat(suppressor.admit(event("a.B", "call failed", new IllegalArgumentException(), 0))).isTrue();
+        assertThat(suppressor.admit(event("a.B", "call failed", new IllegalStateException(), 0))).isFalse();
+
+        suppressor.flushExpired(WINDOW);
+
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.get(0).getThrowableProxy().getClassName())
+                .isEqualTo(IllegalStateException.class.getName());
+    }
+
+    @Test
+    public void window_가_지나면_다시_보내고_이전_window_는_요약() {
+        RepeatSuppressor suppressor = new RepeatSuppressor(1, WINDOW, 64, summaries::add);
+
+        assertThat(suppressor.admit(event("a.B", "retry", null, 0))).isTrue();
+        assertThat(suppressor.admit(event("a.B", "retry", null, 10))).isFalse();
+        assertThat(suppressor.admit(event("a.B", "retry", null, WINDOW + 10))).isTrue();
+
+        assertThat(summaries).hasSize(1);
+        assertThat(((SuppressionSummaryEvent) summaries.get(0)).getSuppressedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void 억제한_이벤트가_없으면_요약하지_않음() {
+        RepeatSuppressor suppressor = new RepeatSuppressor(5, WINDOW, 1, summaries::add);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(suppressor.admit(event("a.B", "message " + i, null, 0))).isTrue();
+        }
+        assertThat(suppressor.admit("not a logging event")).isTrue();
+        suppressor.stop();
+
+        assertThat(summaries).isEmpty();
+    }
+
+    private static LoggingEvent event(String logger, String message, Throwable throwable, long timestamp) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(logger);
+        event.setLevel(Level.ERROR);
+        event.setMessage(message);
+        event.setTimeStamp(timestamp);
+        event.setThreadName("main");
+        event.setMDCPropertyMap(Collections.emptyMap());
+        if (throwable != null) {
+            event.setThrowableProxy(new ThrowableProxy(throwable));
+        }
+        return event;
+    }
+}